@@ -0,0 +1,30 @@
+plugins {
+    id("java")
+    id("application")
+}
+
+group = "com.build"
+version = "1.0-SNAPSHOT"
+java.sourceCompatibility = JavaVersion.VERSION_17
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    implementation("org.slf4j:slf4j-api:2.0.9")
+    implementation("org.yaml:snakeyaml:1.33")
+    runtimeOnly("ch.qos.logback:logback-classic:1.4.11")
+    
+    testImplementation(platform("org.junit:junit-bom:5.9.3"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+}
+
+application {
+    mainClass.set("com.build.cachenode.BuildCacheServer")
+    applicationName = "build-cache-server"
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
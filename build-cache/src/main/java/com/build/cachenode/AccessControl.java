@@ -0,0 +1,149 @@
+package com.build.cachenode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Resolves the {@code Authorization} header of a request to an {@link AccessLevel}.
+ * <p>
+ * Requests without credentials get the anonymous level; requests with unknown users,
+ * wrong passwords or anything but HTTP basic credentials get {@link AccessLevel#NONE}.
+ * Passwords are compared by digest, so the comparison takes the same time however
+ * much of the password matches. A password may be configured in plain text or, as in
+ * {@code config.yaml}, hashed with {@link #hash(String)} as
+ * {@code pbkdf2-sha256:iterations:base64(salt):base64(hash)}.
+ * <p>
+ * A hashed password costs a PBKDF2 run to check, and every request of a build carries
+ * the same header, so the digests of headers that were accepted are remembered.
+ * Rejected headers are never remembered and pay the full cost every time.
+ */
+final class AccessControl {
+    
+    private static final String BASIC = "Basic ";
+    private static final String PBKDF2 = "pbkdf2-sha256";
+    private static final Pattern HASHED = Pattern.compile(
+        Pattern.quote(PBKDF2) + ":(\\d{1,9}):([A-Za-z0-9+/]+={0,2}):([A-Za-z0-9+/]+={0,2})");
+    private static final int ITERATIONS = 600_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MAX_ACCEPTED = 1024;
+    
+    private final Map<String, Credentials> users = new HashMap<>();
+    private final AccessLevel anonymousLevel;
+    private final Map<String, AccessLevel> accepted = new ConcurrentHashMap<>();
+    
+    AccessControl(BuildCacheServerConfig config) {
+        config.getUsers().forEach((name, user) -> users.put(name, credentials(name, user)));
+        this.anonymousLevel = config.getAnonymousLevel();
+    }
+    
+    AccessLevel levelOf(String authorization) {
+        if (authorization == null) {
+            return anonymousLevel;
+        }
+        if (!authorization.regionMatches(true, 0, BASIC, 0, BASIC.length())) {
+            return AccessLevel.NONE;
+        }
+        
+        String header = Base64.getEncoder().encodeToString(sha256(authorization.getBytes(StandardCharsets.UTF_8)));
+        AccessLevel remembered = accepted.get(header);
+        if (remembered != null) {
+            return remembered;
+        }
+        
+        AccessLevel level = check(authorization);
+        if (level != AccessLevel.NONE) {
+            if (accepted.size() >= MAX_ACCEPTED) {
+                accepted.clear();
+            }
+            accepted.put(header, level);
+        }
+        return level;
+    }
+    
+    private AccessLevel check(String authorization) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getDecoder().decode(authorization.substring(BASIC.length()).trim()),
+                StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return AccessLevel.NONE;
+        }
+        int colon = decoded.indexOf(':');
+        if (colon < 0) {
+            return AccessLevel.NONE;
+        }
+        
+        Credentials credentials = users.get(decoded.substring(0, colon));
+        if (credentials == null || credentials.passwordDigest == null) {
+            return AccessLevel.NONE;
+        }
+        String password = decoded.substring(colon + 1);
+        byte[] digest = credentials.iterations > 0
+            ? pbkdf2(password, credentials.salt, credentials.iterations, credentials.passwordDigest.length * 8)
+            : sha256(password.getBytes(StandardCharsets.UTF_8));
+        return MessageDigest.isEqual(credentials.passwordDigest, digest) ? credentials.level : AccessLevel.NONE;
+    }
+    
+    private static Credentials credentials(String name, BuildCacheServerConfig.User user) {
+        String password = user.getPassword();
+        if (password == null) {
+            return new Credentials(user.getLevel(), null, null, 0);
+        }
+        if (password.startsWith(PBKDF2 + ":")) {
+            Matcher matcher = HASHED.matcher(password);
+            int iterations = matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+            if (iterations < 1) {
+                throw new IllegalArgumentException("Password hash of user '" + name + "' is malformed");
+            }
+            Base64.Decoder decoder = Base64.getDecoder();
+            return new Credentials(user.getLevel(), decoder.decode(matcher.group(3)), decoder.decode(matcher.group(2)),
+                                   iterations);
+        }
+        return new Credentials(user.getLevel(), sha256(password.getBytes(StandardCharsets.UTF_8)), null, 0);
+    }
+    
+    /**
+     * Hashes a password with a random salt for {@code config.yaml}
+     */
+    static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        new SecureRandom().nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PBKDF2 + ":" + ITERATIONS + ":" + encoder.encodeToString(salt) + ":"
+            + encoder.encodeToString(pbkdf2(password, salt, ITERATIONS, HASH_BITS));
+    }
+    
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+    
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private record Credentials(AccessLevel level, byte[] passwordDigest, byte[] salt, int iterations) {
+    }
+}
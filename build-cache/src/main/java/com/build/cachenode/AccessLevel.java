@@ -0,0 +1,15 @@
+package com.build.cachenode;
+
+/**
+ * What a user may do with the cache, named like the levels of the build cache node configuration
+ */
+public enum AccessLevel {
+    
+    NONE,
+    READ,
+    READWRITE;
+    
+    public boolean permits(AccessLevel required) {
+        return compareTo(required) >= 0;
+    }
+}
@@ -0,0 +1,270 @@
+package com.build.cachenode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The HTTP build cache protocol Gradle's {@code HttpBuildCache} speaks: {@code GET} on
+ * {@code /cache/{key}} loads an entry and answers 404 when there is none, {@code PUT}
+ * stores one. Loading needs the read level, storing the readwrite level.
+ * Loads are served from the {@link MemoryTier} when it holds the entry, from the disk
+ * otherwise, and read through from the peers of the {@link PeerReplicator} when neither
+ * has it; stores are replicated to the peers. {@code /cache/stats} reports the stored entries and the hit ratio of each
+ * tier as JSON to users with the read level.
+ */
+final class BuildCacheHandler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BuildCacheHandler.class);
+    
+    static final String CACHE_PATH = "/cache/";
+    static final String STATS_PATH = "/cache/stats";
+    // Bodies of refused requests up to this size are read and dropped to keep the connection
+    private static final long DISCARD_LIMIT = 1024 * 1024;
+    private static final String CONTENT_TYPE = "application/octet-stream";
+    private static final Map<String, String> CHALLENGE = Map.of("WWW-Authenticate", "Basic realm=\"build-cache\"");
+    
+    private final FileCacheStore store;
+    private final MemoryTier memory;
+    private final PeerReplicator peers;
+    private final AccessControl accessControl;
+    private final long maxArtifactSize;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    
+    BuildCacheHandler(FileCacheStore store, MemoryTier memory, PeerReplicator peers, AccessControl accessControl,
+                      long maxArtifactSize) {
+        this.store = store;
+        this.memory = memory;
+        this.peers = peers;
+        this.accessControl = accessControl;
+        this.maxArtifactSize = maxArtifactSize;
+    }
+    
+    void handle(HttpRequest request, HttpConnection connection) throws IOException {
+        String path = request.path();
+        if (path.equals("/status") || path.equals("/ping")) {
+            reject(request, connection, 200, "OK");
+            return;
+        }
+        if (path.equals(STATS_PATH)) {
+            switch (request.method()) {
+                case "GET", "HEAD" -> respondStats(request, connection);
+                default -> methodNotAllowed(connection, "GET, HEAD");
+            }
+            return;
+        }
+        if (!path.startsWith(CACHE_PATH)) {
+            reject(request, connection, 404, "Not found");
+            return;
+        }
+        
+        String key = path.substring(CACHE_PATH.length());
+        if (!FileCacheStore.isValidKey(key)) {
+            reject(request, connection, 400, "Invalid cache key");
+            return;
+        }
+        
+        switch (request.method()) {
+            case "GET", "HEAD" -> load(request, connection, key);
+            case "PUT" -> store(request, connection, key);
+            default -> methodNotAllowed(connection, "GET, HEAD, PUT");
+        }
+    }
+    
+    private static void methodNotAllowed(HttpConnection connection, String allow) throws IOException {
+        connection.closeAfterResponse();
+        connection.respond(405, Map.of("Allow", allow), "Method not allowed");
+    }
+    
+    private void respondStats(HttpRequest request, HttpConnection connection) throws IOException {
+        if (!authorize(request, connection, AccessLevel.READ)) {
+            return;
+        }
+        discardBody(request, connection);
+        byte[] body = (stats() + "\n").getBytes(StandardCharsets.UTF_8);
+        connection.respondBuffers(200, "application/json", new ByteBuffer[] {ByteBuffer.wrap(body)}, body.length,
+                                  request.method().equals("HEAD"));
+    }
+    
+    private void load(HttpRequest request, HttpConnection connection, String key) throws IOException {
+        if (!authorize(request, connection, AccessLevel.READ)) {
+            return;
+        }
+        boolean headOnly = request.method().equals("HEAD");
+        MemoryTier.Entry held = memory.get(key);
+        if (held != null) {
+            hits.increment();
+            memoryHits.increment();
+            // Keeps the entry from aging out of the disk while memory serves all its loads
+            store.touch(key);
+            respondFromMemory(connection, held, headOnly);
+            return;
+        }
+        
+        try (FileChannel entry = openOrFetch(request, key)) {
+            if (entry == null) {
+                misses.increment();
+                connection.respond(404, "Cache miss");
+                return;
+            }
+            hits.increment();
+            MemoryTier.Entry loaded = headOnly ? null : memory.load(key, entry);
+            if (loaded != null) {
+                respondFromMemory(connection, loaded, false);
+            } else {
+                connection.respondFile(200, CONTENT_TYPE, entry, headOnly);
+            }
+        }
+    }
+    
+    private FileChannel openOrFetch(HttpRequest request, String key) throws IOException {
+        FileChannel entry = store.open(key);
+        if (entry == null && peers.isEnabled() && request.method().equals("GET") && !fromPeer(request)
+                && peers.fetch(key)) {
+            entry = store.open(key);
+        }
+        return entry;
+    }
+    
+    private static boolean fromPeer(HttpRequest request) {
+        return request.header(PeerReplicator.PEER_HEADER.toLowerCase(Locale.ROOT)) != null;
+    }
+    
+    private void respondFromMemory(HttpConnection connection, MemoryTier.Entry entry, boolean headOnly)
+            throws IOException {
+        try {
+            connection.respondBuffers(200, CONTENT_TYPE, entry.buffers(), entry.size(), headOnly);
+        } finally {
+            memory.release(entry);
+        }
+    }
+    
+    private void store(HttpRequest request, HttpConnection connection, String key) throws IOException {
+        if (!authorize(request, connection, AccessLevel.READWRITE)) {
+            return;
+        }
+        long length = request.contentLength();
+        if (length < 0 || request.isChunked()) {
+            reject(request, connection, 411, "Content-Length required");
+            return;
+        }
+        if (length > maxArtifactSize) {
+            reject(request, connection, 413, "Entry exceeds " + maxArtifactSize + " bytes");
+            return;
+        }
+        
+        if (request.expectsContinue()) {
+            connection.sendContinue();
+        }
+        try (FileCacheStore.Upload upload = store.upload(key)) {
+            connection.receiveBody(upload.channel(), length);
+            upload.commit();
+        }
+        memory.invalidate(key);
+        if (peers.isEnabled() && !fromPeer(request)) {
+            peers.replicate(key);
+        }
+        stores.increment();
+        logger.debug("Stored {} ({} bytes)", key, length);
+        connection.respond(201, null);
+    }
+    
+    /**
+     * Requests without usable credentials are asked for them; known users lacking the
+     * level are refused
+     */
+    private boolean authorize(HttpRequest request, HttpConnection connection, AccessLevel required)
+            throws IOException {
+        String authorization = request.header("authorization");
+        AccessLevel level = accessControl.levelOf(authorization);
+        if (level.permits(required)) {
+            return true;
+        }
+        if (authorization != null && level != AccessLevel.NONE) {
+            reject(request, connection, 403, "Forbidden");
+        } else {
+            discardBody(request, connection);
+            connection.respond(401, CHALLENGE, "Authentication required");
+        }
+        return false;
+    }
+    
+    private static void reject(HttpRequest request, HttpConnection connection, int status, String message)
+            throws IOException {
+        discardBody(request, connection);
+        connection.respond(status, message);
+    }
+    
+    /**
+     * A body left unread would be taken for the next request. Small bodies are dropped;
+     * otherwise the connection ends after the response, which also covers clients
+     * waiting for {@code 100 Continue} that will not send their body at all.
+     */
+    private static void discardBody(HttpRequest request, HttpConnection connection) throws IOException {
+        long length = request.contentLength();
+        if (request.isChunked() || request.expectsContinue() && length > 0 || length > DISCARD_LIMIT) {
+            connection.closeAfterResponse();
+        } else if (length > 0) {
+            connection.discardBody(length);
+        }
+    }
+    
+    /**
+     * Hit ratios are of the loads that reached the tier: every load for memory, those
+     * memory missed for the disk
+     */
+    private String stats() {
+        long memoryHitCount = getMemoryHitCount();
+        long diskHitCount = getHitCount() - memoryHitCount;
+        long missCount = getMissCount();
+        return "{\"entries\":" + store.getEntryCount()
+            + ",\"bytes\":" + store.getTotalBytes()
+            + ",\"evictions\":" + store.getEvictionCount()
+            + ",\"evictedBytes\":" + store.getEvictedBytes()
+            + ",\"hits\":" + getHitCount()
+            + ",\"misses\":" + missCount
+            + ",\"stores\":" + getStoreCount()
+            + ",\"memory\":{\"entries\":" + memory.getEntryCount()
+            + ",\"bytes\":" + memory.getBytes()
+            + ",\"hits\":" + memoryHitCount
+            + ",\"hitRatio\":" + ratio(memoryHitCount, memoryHitCount + diskHitCount + missCount) + "}"
+            + ",\"disk\":{\"hits\":" + diskHitCount
+            + ",\"hitRatio\":" + ratio(diskHitCount, diskHitCount + missCount) + "}"
+            + ",\"peers\":{\"remoteHits\":" + peers.getRemoteHitCount()
+            + ",\"replicated\":" + peers.getReplicatedCount()
+            + ",\"queued\":" + peers.getQueueSize()
+            + ",\"dropped\":" + peers.getDroppedCount()
+            + ",\"failures\":" + peers.getFailureCount()
+            + ",\"skipped\":" + peers.getSkippedCount() + "}}";
+    }
+    
+    private static String ratio(long hits, long requests) {
+        return String.format(Locale.ROOT, "%.4f", requests == 0 ? 0.0 : (double) hits / requests);
+    }
+    
+    long getHitCount() {
+        return hits.sum();
+    }
+    
+    long getMemoryHitCount() {
+        return memoryHits.sum();
+    }
+    
+    long getMissCount() {
+        return misses.sum();
+    }
+    
+    long getStoreCount() {
+        return stores.sum();
+    }
+}
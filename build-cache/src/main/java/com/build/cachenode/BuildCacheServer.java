@@ -0,0 +1,196 @@
+package com.build.cachenode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HTTP build cache server for Gradle's remote {@code HttpBuildCache}.
+ * <p>
+ * Each connection is served by a worker thread of its own using blocking NIO channels,
+ * so entries stream between socket and disk without being held in memory. Connections
+ * beyond {@code maxConnections} are answered with 503 and closed; Gradle treats that
+ * as a cache miss and carries on. Connections that stay idle, stall inside a request
+ * or stop taking a response past their timeouts are closed, so they cannot hold a
+ * worker for good.
+ */
+public class BuildCacheServer implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BuildCacheServer.class);
+    
+    private static final byte[] BUSY = ("HTTP/1.1 503 Service Unavailable\r\nContent-Length: 0\r\n"
+        + "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    
+    private final BuildCacheServerConfig config;
+    private final FileCacheStore store;
+    private final PeerReplicator peers;
+    private final BuildCacheHandler handler;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledThreadPoolExecutor writeDeadlines;
+    private ServerSocketChannel server;
+    private Thread acceptor;
+    
+    public BuildCacheServer(BuildCacheServerConfig config) throws IOException {
+        this(config, Clock.systemUTC());
+    }
+    
+    BuildCacheServer(BuildCacheServerConfig config, Clock clock) throws IOException {
+        this.config = config;
+        this.store = new FileCacheStore(Path.of(config.getDirectory()), config.toEvictionPolicy(), config.getFsync(),
+                                        clock);
+        MemoryTier memory = new MemoryTier(config.getMemoryTierSize() * 1024 * 1024,
+                                           config.getMemoryTierMaxEntrySize() * 1024);
+        this.peers = new PeerReplicator(config, store);
+        this.handler = new BuildCacheHandler(store, memory, peers, new AccessControl(config),
+                                             config.getMaxArtifactSizeBytes());
+        
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(0, config.getMaxConnections(), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), task -> {
+                Thread thread = new Thread(task, "build-cache-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.writeDeadlines = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "build-cache-write-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Nearly every deadline is cancelled; keep them from piling up in the queue
+        writeDeadlines.setRemoveOnCancelPolicy(true);
+    }
+    
+    /**
+     * Starts the server, or with {@code hash <password>} prints the password hashed for {@code config.yaml}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("hash")) {
+            System.out.println(AccessControl.hash(args[1]));
+            return;
+        }
+        BuildCacheServer server = new BuildCacheServer(BuildCacheServerConfig.fromSystemProperties());
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "build-cache-shutdown"));
+        server.start();
+    }
+    
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(config.getPort()), 128);
+        acceptor = new Thread(this::acceptLoop, "build-cache-acceptor");
+        acceptor.start();
+        store.startMaintenance(Duration.ofSeconds(config.getEvictionInterval()));
+        logger.info("Build cache listening on port {}, storing entries in {}, peers {}",
+                    getPort(), Path.of(config.getDirectory()).toAbsolutePath(), config.getPeers());
+    }
+    
+    private void acceptLoop() {
+        while (server.isOpen()) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Accepting a connection failed: {}", e.toString());
+                continue;
+            }
+            
+            try {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                workers.execute(new HttpConnection(channel, handler, Duration.ofSeconds(config.getIdleTimeout()),
+                                                   Duration.ofSeconds(config.getReadTimeout()),
+                                                   Duration.ofSeconds(config.getWriteTimeout()), writeDeadlines));
+            } catch (RejectedExecutionException e) {
+                turnAway(channel);
+            } catch (IOException e) {
+                closeQuietly(channel);
+            }
+        }
+    }
+    
+    private static void turnAway(SocketChannel channel) {
+        try (channel) {
+            channel.write(ByteBuffer.wrap(BUSY));
+        } catch (IOException e) {
+            logger.debug("Turning away a connection failed: {}", e.toString());
+        }
+    }
+    
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to do with it
+        }
+    }
+    
+    public int getPort() {
+        return ((InetSocketAddress) server.socket().getLocalSocketAddress()).getPort();
+    }
+    
+    public long getHitCount() {
+        return handler.getHitCount();
+    }
+    
+    public long getMemoryHitCount() {
+        return handler.getMemoryHitCount();
+    }
+    
+    public long getMissCount() {
+        return handler.getMissCount();
+    }
+    
+    public long getStoreCount() {
+        return handler.getStoreCount();
+    }
+    
+    public long getRemoteHitCount() {
+        return peers.getRemoteHitCount();
+    }
+    
+    public long getReplicatedCount() {
+        return peers.getReplicatedCount();
+    }
+    
+    public long getEvictionCount() {
+        return store.getEvictionCount();
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.warn("Closing the server socket failed: {}", e.toString());
+        }
+        // Interrupting the workers closes the channels they block on
+        workers.shutdownNow();
+        writeDeadlines.shutdownNow();
+        peers.close();
+        store.close();
+        logger.info("Build cache stopped");
+    }
+}
@@ -0,0 +1,495 @@
+package com.build.cachenode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Settings of the build cache server.
+ * <p>
+ * {@link #fromSystemProperties()} uses the same property names and defaults as
+ * {@code settings.gradle.kts}, so a local build finds a server started without options.
+ * The {@code cache} section of a {@code config.yaml} next to the server, in the format of
+ * the Gradle build cache node, is read first; system properties that are set win over it.
+ */
+public class BuildCacheServerConfig {
+    
+    public static final String DEFAULT_USER = "build.cache.user";
+    
+    /**
+     * Port the server listens on
+     */
+    private int port = 5071;
+    
+    /**
+     * Directory the cache entries are stored in
+     */
+    private String directory = "cache";
+    
+    /**
+     * Largest entry accepted, in megabytes
+     */
+    private long maxArtifactSize = 200;
+    
+    /**
+     * How the entries are bounded in size: {@code fixed} to {@code targetSize} or
+     * {@code maxAvailable} to the disk space left over
+     */
+    private String targetSizeType = "fixed";
+    
+    /**
+     * Space the entries may take up with a fixed target size, in megabytes
+     */
+    private long targetSize = 10000;
+    
+    /**
+     * Entries not used for this many hours are evicted; 0 keeps them regardless of age
+     */
+    private long maxEntryAgeInHours = 168;
+    
+    /**
+     * Disk space kept free, in megabytes; entries are evicted to keep it free
+     */
+    private long freeSpaceBufferSize = 1024;
+    
+    /**
+     * Seconds between eviction passes, which catch entries that aged out; stores trigger passes of their own
+     */
+    private long evictionInterval = 60;
+    
+    /**
+     * Memory outside the heap for entries requested often, in megabytes; 0 serves every entry from disk
+     */
+    private long memoryTierSize = 128;
+    
+    /**
+     * Largest entry kept in memory, in kilobytes
+     */
+    private long memoryTierMaxEntrySize = 1024;
+    
+    /**
+     * How far stored entries are forced to disk before the store is acknowledged
+     */
+    private FsyncPolicy fsync = FsyncPolicy.DATA;
+    
+    /**
+     * Connections served at the same time; further connections are turned away with 503
+     */
+    private int maxConnections = 64;
+    
+    /**
+     * Seconds a kept-alive connection may wait for its next request before it is closed
+     */
+    private long idleTimeout = 60;
+    
+    /**
+     * Seconds a read inside a request may wait for the client before the connection is closed
+     */
+    private long readTimeout = 30;
+    
+    /**
+     * Seconds a write of a response may wait for the client to take the bytes before
+     * the connection is closed
+     */
+    private long writeTimeout = 30;
+    
+    /**
+     * Base URLs of the {@code /cache/} endpoints of other build cache servers, to read
+     * misses through from and to replicate stores to
+     */
+    private List<String> peers = new ArrayList<>();
+    
+    /**
+     * User this server authenticates as on its peers
+     */
+    private String peerUser = DEFAULT_USER;
+    
+    /**
+     * Password this server authenticates with on its peers
+     */
+    private String peerPassword = "123456!";
+    
+    /**
+     * Seconds a request to a peer may take
+     */
+    private long peerTimeout = 30;
+    
+    /**
+     * Seconds a read-through waits for a peer's response head; the build waits for it
+     */
+    private long peerHeadTimeout = 3;
+    
+    /**
+     * Seconds a peer is skipped after failing several requests in a row, doubled for
+     * every failed retry
+     */
+    private long peerBackoff = 10;
+    
+    /**
+     * Stored entries waiting to be replicated; stores wait for room when it is full
+     */
+    private int replicationQueueSize = 1000;
+    
+    /**
+     * Threads replicating stored entries to the peers
+     */
+    private int replicationThreads = 2;
+    
+    /**
+     * Level of requests without credentials
+     */
+    private AccessLevel anonymousLevel = AccessLevel.NONE;
+    
+    /**
+     * Users by name
+     */
+    private Map<String, User> users = new LinkedHashMap<>();
+    
+    public static BuildCacheServerConfig fromSystemProperties() throws IOException {
+        BuildCacheServerConfig config = new BuildCacheServerConfig();
+        Path file = Path.of(System.getProperty("build.cache.config", "config.yaml"));
+        if (Files.isRegularFile(file)) {
+            config.load(file);
+        }
+        
+        config.setPort(Integer.getInteger("build.cache.port", config.getPort()));
+        config.setDirectory(System.getProperty("build.cache.directory", config.getDirectory()));
+        config.setMaxArtifactSize(Long.getLong("build.cache.max-artifact-size", config.getMaxArtifactSize()));
+        config.setMaxConnections(Integer.getInteger("build.cache.max-connections", config.getMaxConnections()));
+        config.setIdleTimeout(Long.getLong("build.cache.idle-timeout", config.getIdleTimeout()));
+        config.setReadTimeout(Long.getLong("build.cache.read-timeout", config.getReadTimeout()));
+        config.setWriteTimeout(Long.getLong("build.cache.write-timeout", config.getWriteTimeout()));
+        config.setMemoryTierSize(Long.getLong("build.cache.memory-tier-size", config.getMemoryTierSize()));
+        config.setMemoryTierMaxEntrySize(
+            Long.getLong("build.cache.memory-tier-max-entry-size", config.getMemoryTierMaxEntrySize()));
+        String peers = System.getProperty("build.cache.peers", "");
+        for (String peer : peers.split(",")) {
+            if (!peer.isBlank()) {
+                config.getPeers().add(peer.trim());
+            }
+        }
+        config.setPeerUser(System.getProperty("build.cache.peer-user",
+                                              System.getProperty("cache.node.user", config.getPeerUser())));
+        config.setPeerPassword(System.getProperty("build.cache.peer-password",
+                                                  System.getProperty("cache.node.password", config.getPeerPassword())));
+        config.setPeerHeadTimeout(Long.getLong("build.cache.peer-head-timeout", config.getPeerHeadTimeout()));
+        config.setPeerBackoff(Long.getLong("build.cache.peer-backoff", config.getPeerBackoff()));
+        config.setFsync(FsyncPolicy.valueOf(
+            System.getProperty("build.cache.fsync", config.getFsync().name()).toUpperCase(Locale.ROOT)));
+        
+        // Users of config.yaml replace the default one unless a password is set explicitly
+        String password = System.getProperty("cache.node.password");
+        if (config.getUsers().isEmpty() || password != null) {
+            User user = new User();
+            user.setLevel(AccessLevel.READWRITE);
+            user.setPassword(password != null ? password : "123456!");
+            config.getUsers().put(System.getProperty("cache.node.user", DEFAULT_USER), user);
+        }
+        return config;
+    }
+    
+    /**
+     * Takes the settings present in the {@code cache} section of a build cache node {@code config.yaml}
+     */
+    @SuppressWarnings("unchecked")
+    public void load(Path file) throws IOException {
+        Map<String, Object> root;
+        try (Reader reader = Files.newBufferedReader(file)) {
+            root = new Yaml().load(reader);
+        }
+        Map<String, Object> cache = root == null ? null : (Map<String, Object>) root.get("cache");
+        if (cache == null) {
+            return;
+        }
+        
+        if (cache.get("maxArtifactSize") instanceof Number size) {
+            setMaxArtifactSize(size.longValue());
+        }
+        if (cache.get("maxEntryAgeInHours") instanceof Number age) {
+            setMaxEntryAgeInHours(age.longValue());
+        }
+        if (cache.get("freeSpaceBufferSize") instanceof Number buffer) {
+            setFreeSpaceBufferSize(buffer.longValue());
+        }
+        if (cache.get("targetSize") instanceof Map<?, ?> target) {
+            if (target.get("type") != null) {
+                setTargetSizeType(target.get("type").toString());
+            }
+            if (target.get("size") instanceof Number size) {
+                setTargetSize(size.longValue());
+            }
+        }
+        
+        if (cache.get("accessControl") instanceof Map<?, ?> accessControl) {
+            if (accessControl.get("anonymousLevel") != null) {
+                setAnonymousLevel(AccessLevel.valueOf(
+                    accessControl.get("anonymousLevel").toString().toUpperCase(Locale.ROOT)));
+            }
+            if (accessControl.get("users") instanceof Map<?, ?> declared) {
+                declared.forEach((name, value) -> {
+                    Map<String, Object> fields = (Map<String, Object>) value;
+                    User user = new User();
+                    if (fields.get("level") != null) {
+                        user.setLevel(AccessLevel.valueOf(fields.get("level").toString().toUpperCase(Locale.ROOT)));
+                    }
+                    user.setPassword((String) fields.get("password"));
+                    user.setNote((String) fields.get("note"));
+                    getUsers().put(name.toString(), user);
+                });
+            }
+        }
+    }
+    
+    public long getMaxArtifactSizeBytes() {
+        return maxArtifactSize * 1024 * 1024;
+    }
+    
+    EvictionPolicy toEvictionPolicy() {
+        EvictionPolicy.TargetSizeType type = switch (targetSizeType) {
+            case "fixed" -> EvictionPolicy.TargetSizeType.FIXED;
+            case "maxAvailable" -> EvictionPolicy.TargetSizeType.MAX_AVAILABLE;
+            default -> throw new IllegalArgumentException("Unknown target size type: " + targetSizeType);
+        };
+        return new EvictionPolicy(type, targetSize * 1024 * 1024, Duration.ofHours(maxEntryAgeInHours),
+                                  freeSpaceBufferSize * 1024 * 1024);
+    }
+    
+    public int getPort() {
+        return port;
+    }
+    
+    public void setPort(int port) {
+        this.port = port;
+    }
+    
+    public String getDirectory() {
+        return directory;
+    }
+    
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+    
+    public long getMaxArtifactSize() {
+        return maxArtifactSize;
+    }
+    
+    public void setMaxArtifactSize(long maxArtifactSize) {
+        this.maxArtifactSize = maxArtifactSize;
+    }
+    
+    public String getTargetSizeType() {
+        return targetSizeType;
+    }
+    
+    public void setTargetSizeType(String targetSizeType) {
+        this.targetSizeType = targetSizeType;
+    }
+    
+    public long getTargetSize() {
+        return targetSize;
+    }
+    
+    public void setTargetSize(long targetSize) {
+        this.targetSize = targetSize;
+    }
+    
+    public long getMaxEntryAgeInHours() {
+        return maxEntryAgeInHours;
+    }
+    
+    public void setMaxEntryAgeInHours(long maxEntryAgeInHours) {
+        this.maxEntryAgeInHours = maxEntryAgeInHours;
+    }
+    
+    public long getFreeSpaceBufferSize() {
+        return freeSpaceBufferSize;
+    }
+    
+    public void setFreeSpaceBufferSize(long freeSpaceBufferSize) {
+        this.freeSpaceBufferSize = freeSpaceBufferSize;
+    }
+    
+    public long getEvictionInterval() {
+        return evictionInterval;
+    }
+    
+    public void setEvictionInterval(long evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+    
+    public long getMemoryTierSize() {
+        return memoryTierSize;
+    }
+    
+    public void setMemoryTierSize(long memoryTierSize) {
+        this.memoryTierSize = memoryTierSize;
+    }
+    
+    public long getMemoryTierMaxEntrySize() {
+        return memoryTierMaxEntrySize;
+    }
+    
+    public void setMemoryTierMaxEntrySize(long memoryTierMaxEntrySize) {
+        this.memoryTierMaxEntrySize = memoryTierMaxEntrySize;
+    }
+    
+    public FsyncPolicy getFsync() {
+        return fsync;
+    }
+    
+    public void setFsync(FsyncPolicy fsync) {
+        this.fsync = fsync;
+    }
+    
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+    
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+    
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+    
+    public long getReadTimeout() {
+        return readTimeout;
+    }
+    
+    public void setReadTimeout(long readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+    
+    public long getWriteTimeout() {
+        return writeTimeout;
+    }
+    
+    public void setWriteTimeout(long writeTimeout) {
+        this.writeTimeout = writeTimeout;
+    }
+    
+    public List<String> getPeers() {
+        return peers;
+    }
+    
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+    
+    public String getPeerUser() {
+        return peerUser;
+    }
+    
+    public void setPeerUser(String peerUser) {
+        this.peerUser = peerUser;
+    }
+    
+    public String getPeerPassword() {
+        return peerPassword;
+    }
+    
+    public void setPeerPassword(String peerPassword) {
+        this.peerPassword = peerPassword;
+    }
+    
+    public long getPeerTimeout() {
+        return peerTimeout;
+    }
+    
+    public void setPeerTimeout(long peerTimeout) {
+        this.peerTimeout = peerTimeout;
+    }
+    
+    public long getPeerHeadTimeout() {
+        return peerHeadTimeout;
+    }
+    
+    public void setPeerHeadTimeout(long peerHeadTimeout) {
+        this.peerHeadTimeout = peerHeadTimeout;
+    }
+    
+    public long getPeerBackoff() {
+        return peerBackoff;
+    }
+    
+    public void setPeerBackoff(long peerBackoff) {
+        this.peerBackoff = peerBackoff;
+    }
+    
+    public int getReplicationQueueSize() {
+        return replicationQueueSize;
+    }
+    
+    public void setReplicationQueueSize(int replicationQueueSize) {
+        this.replicationQueueSize = replicationQueueSize;
+    }
+    
+    public int getReplicationThreads() {
+        return replicationThreads;
+    }
+    
+    public void setReplicationThreads(int replicationThreads) {
+        this.replicationThreads = replicationThreads;
+    }
+    
+    public AccessLevel getAnonymousLevel() {
+        return anonymousLevel;
+    }
+    
+    public void setAnonymousLevel(AccessLevel anonymousLevel) {
+        this.anonymousLevel = anonymousLevel;
+    }
+    
+    public Map<String, User> getUsers() {
+        return users;
+    }
+    
+    public void setUsers(Map<String, User> users) {
+        this.users = users;
+    }
+    
+    public static class User {
+        
+        private AccessLevel level = AccessLevel.READ;
+        private String password;
+        private String note;
+        
+        public AccessLevel getLevel() {
+            return level;
+        }
+        
+        public void setLevel(AccessLevel level) {
+            this.level = level;
+        }
+        
+        public String getPassword() {
+            return password;
+        }
+        
+        public void setPassword(String password) {
+            this.password = password;
+        }
+        
+        public String getNote() {
+            return note;
+        }
+        
+        public void setNote(String note) {
+            this.note = note;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.build.cachenode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The stored entries in least recently used order, with their total size.
+ * <p>
+ * Lookups, updates and taking the least recently used entry are all constant time,
+ * so eviction costs one step per evicted entry however many entries are stored.
+ * Not thread-safe; {@link FileCacheStore} guards it with its own lock.
+ */
+final class CacheIndex {
+    
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+    
+    /**
+     * Marks the entry as used now and returns it, or returns null when there is none
+     */
+    Entry touch(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.lastAccess = now;
+        }
+        return entry;
+    }
+    
+    /**
+     * Adds or replaces an entry as the most recently used one
+     */
+    void put(String key, long size, long lastAccess) {
+        Entry previous = entries.put(key, new Entry(size, lastAccess));
+        if (previous != null) {
+            totalBytes -= previous.size;
+        }
+        totalBytes += size;
+    }
+    
+    Entry remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.size;
+        }
+        return removed;
+    }
+    
+    /**
+     * Removes the entry only while it is still the one stored under the key
+     */
+    boolean remove(String key, Entry expected) {
+        if (!entries.remove(key, expected)) {
+            return false;
+        }
+        totalBytes -= expected.size;
+        return true;
+    }
+    
+    /**
+     * The least recently used entry, or null when the index is empty
+     */
+    Map.Entry<String, Entry> eldest() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+    
+    /**
+     * Copies the keys, sizes and last uses from least to most recently used, so they
+     * can be written out without holding the lock guarding the index
+     */
+    Snapshot snapshot() {
+        int size = entries.size();
+        Snapshot snapshot = new Snapshot(new String[size], new long[size], new long[size]);
+        int i = 0;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            snapshot.keys()[i] = entry.getKey();
+            snapshot.sizes()[i] = entry.getValue().size;
+            snapshot.lastAccesses()[i] = entry.getValue().lastAccess;
+            i++;
+        }
+        return snapshot;
+    }
+    
+    void clear() {
+        entries.clear();
+        totalBytes = 0;
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    record Snapshot(String[] keys, long[] sizes, long[] lastAccesses) {
+        
+        int size() {
+            return keys.length;
+        }
+    }
+    
+    static final class Entry {
+        
+        private final long size;
+        private long lastAccess;
+        // Access time last written to the file, so a restart can restore the order
+        private long persistedAccess;
+        
+        private Entry(long size, long lastAccess) {
+            this.size = size;
+            this.lastAccess = lastAccess;
+            this.persistedAccess = lastAccess;
+        }
+        
+        long size() {
+            return size;
+        }
+        
+        long lastAccess() {
+            return lastAccess;
+        }
+        
+        long persistedAccess() {
+            return persistedAccess;
+        }
+        
+        void persisted(long access) {
+            this.persistedAccess = access;
+        }
+    }
+}
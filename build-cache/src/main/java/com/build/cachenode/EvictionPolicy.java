@@ -0,0 +1,35 @@
+package com.build.cachenode;
+
+import java.time.Duration;
+
+/**
+ * When stored entries are evicted, in the terms of the {@code cache} section of {@code config.yaml}
+ *
+ * @param targetSizeType  whether {@code targetSize} is a fixed limit or the disk space left over
+ * @param targetSize      bytes the entries may take up in total with a fixed target size
+ * @param maxEntryAge     entries not used for this long are evicted; zero keeps them regardless of age
+ * @param freeSpaceBuffer bytes kept free on the disk; entries are evicted to keep them free
+ */
+record EvictionPolicy(TargetSizeType targetSizeType, long targetSize, Duration maxEntryAge, long freeSpaceBuffer) {
+    
+    enum TargetSizeType {
+        
+        /**
+         * Entries may take up {@code targetSize} bytes
+         */
+        FIXED,
+        
+        /**
+         * Entries may take up the disk, less the free space buffer
+         */
+        MAX_AVAILABLE
+    }
+    
+    /**
+     * Bytes the entries may take up, given what they take up now and what the disk has left
+     */
+    long limit(long storedBytes, long usableSpace) {
+        long available = storedBytes + usableSpace - freeSpaceBuffer;
+        return targetSizeType == TargetSizeType.FIXED ? Math.min(targetSize, Math.max(0, available)) : available;
+    }
+}
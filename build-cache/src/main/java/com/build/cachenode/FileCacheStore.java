@@ -0,0 +1,535 @@
+package com.build.cachenode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache entries as files named by their key, evicted by an {@link EvictionPolicy}.
+ * <p>
+ * Entries are spread over two levels of directories named by the first four hex digits
+ * of their key ({@code ab/cd/abcd...}), so no directory holds more than a few hundred
+ * entries even with tens of millions stored. Uploads are written to a temporary file
+ * and renamed into place once complete, forced to disk as the {@link FsyncPolicy} asks,
+ * so readers only ever open whole entries. An entry that is replaced or evicted while
+ * it is being read stays readable through the channel already open.
+ * <p>
+ * Which entries exist, their sizes and their last use are kept in a {@link CacheIndex}.
+ * It is saved to an {@link IndexFile} periodically and on close. At startup the snapshot
+ * is read back and only the entry directories modified since it was taken are listed,
+ * so a restart costs one stat per directory instead of one per entry. The index is kept
+ * current by loads and stores afterwards.
+ * <p>
+ * Eviction takes the least recently used entries from the index, so it never scans the
+ * directory and costs one step per evicted entry. It runs in the background, after
+ * stores and at a fixed interval for entries that aged out. The index lock is never
+ * held across file system calls: eviction takes an entry out of the index under it and
+ * deletes the file after releasing it, and a store claims its key under it and moves
+ * the file into place after releasing it. Only a store or an eviction of the very key
+ * being deleted or stored waits for that file operation to finish.
+ */
+final class FileCacheStore implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FileCacheStore.class);
+    
+    private static final Pattern KEY = Pattern.compile("[0-9a-fA-F]{1,128}");
+    private static final Pattern SHARD = Pattern.compile("[0-9a-f]{2}");
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String FLAT_SUFFIX = ".flat";
+    private static final String INDEX_FILE = "index.bin";
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofMinutes(10);
+    // Directories modified this close to a snapshot are listed anyway, for coarse file system clocks
+    private static final long MODIFIED_SLACK = 2000;
+    // Last use is written to the file at most this often, for the order after a restart
+    private static final long PERSIST_ACCESS_INTERVAL = Duration.ofHours(1).toMillis();
+    
+    private final Path directory;
+    private final Path uploads;
+    private final FileStore fileStore;
+    private final IndexFile indexFile;
+    private final EvictionPolicy policy;
+    private final FsyncPolicy fsync;
+    private final Clock clock;
+    private final CacheIndex index = new CacheIndex();
+    // Evicted keys whose files are still being deleted, guarded by the index lock
+    private final Set<String> deleting = new HashSet<>();
+    // Keys whose uploads are being moved into place, guarded by the index lock
+    private final Set<String> committing = new HashSet<>();
+    private final Object snapshotLock = new Object();
+    
+    private final AtomicBoolean evictionPending = new AtomicBoolean();
+    private ScheduledExecutorService evictor;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+    
+    FileCacheStore(Path directory, EvictionPolicy policy, FsyncPolicy fsync, Clock clock) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.uploads = Files.createDirectories(directory.resolve("uploads"));
+        this.fileStore = Files.getFileStore(directory);
+        this.indexFile = new IndexFile(directory.resolve(INDEX_FILE));
+        this.policy = policy;
+        this.fsync = fsync;
+        this.clock = clock;
+        
+        // Uploads cut short by a previous run
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(uploads, "*" + TEMP_SUFFIX)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        moveFlatEntries();
+        loadIndex();
+    }
+    
+    /**
+     * Moves entries stored directly in the directory, as earlier versions did, into their
+     * shard. They are renamed aside first, since a two digit key names a shard directory too.
+     */
+    private void moveFlatEntries() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (isValidKey(file.getFileName().toString()) && Files.isRegularFile(file)) {
+                    Files.move(file, file.resolveSibling(file.getFileName() + FLAT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+        
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FLAT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key = name.substring(0, name.length() - FLAT_SUFFIX.length());
+                if (isValidKey(key)) {
+                    Path target = file(key);
+                    Files.createDirectories(target.getParent());
+                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    moved++;
+                }
+            }
+        }
+        if (moved > 0) {
+            logger.info("Moved {} cache entries into shard directories", moved);
+        }
+    }
+    
+    private void loadIndex() throws IOException {
+        record Found(String key, long size, long lastAccess) {
+        }
+        
+        long takenAt = indexFile.takenAt();
+        BitSet unchanged = new BitSet(1 << 16);
+        List<Path> modified = new ArrayList<>();
+        forEachShard((shard, shardDirectory, lastModified) -> {
+            if (takenAt >= 0 && lastModified < takenAt - MODIFIED_SLACK) {
+                unchanged.set(shard);
+            } else {
+                modified.add(shardDirectory);
+            }
+        });
+        List<Found> found = new ArrayList<>();
+        if (takenAt >= 0) {
+            try {
+                indexFile.read((key, size, lastAccess) -> {
+                    if (unchanged.get(shardOf(key))) {
+                        found.add(new Found(key, size, lastAccess));
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Index snapshot is damaged, listing all entries: {}", e.toString());
+                found.clear();
+                modified.clear();
+                forEachShard((shard, shardDirectory, lastModified) -> modified.add(shardDirectory));
+            }
+        }
+        
+        // Entries of modified directories carry the last use recorded on their files and
+        // are merged with the snapshot by it, so neither source ends up ahead of the other
+        for (Path shardDirectory : modified) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(shardDirectory)) {
+                for (Path file : files) {
+                    String key = file.getFileName().toString();
+                    if (!isValidKey(key)) {
+                        continue;
+                    }
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        found.add(new Found(key, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong(Found::lastAccess));
+        for (Found entry : found) {
+            index.put(entry.key(), entry.size(), entry.lastAccess());
+        }
+        logger.info("Indexed {} cache entries, {} bytes; listed {} modified shard directories",
+                    index.size(), index.getTotalBytes(), modified.size());
+    }
+    
+    private interface ShardVisitor {
+        
+        void shard(int shard, Path shardDirectory, long lastModified);
+    }
+    
+    private void forEachShard(ShardVisitor visitor) throws IOException {
+        try (DirectoryStream<Path> outer = Files.newDirectoryStream(directory)) {
+            for (Path first : outer) {
+                String high = first.getFileName().toString();
+                if (!SHARD.matcher(high).matches() || !Files.isDirectory(first)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> inner = Files.newDirectoryStream(first)) {
+                    for (Path second : inner) {
+                        String low = second.getFileName().toString();
+                        if (!SHARD.matcher(low).matches()) {
+                            continue;
+                        }
+                        BasicFileAttributes attributes = Files.readAttributes(second, BasicFileAttributes.class);
+                        if (attributes.isDirectory()) {
+                            visitor.shard(Integer.parseInt(high + low, 16), second,
+                                          attributes.lastModifiedTime().toMillis());
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Number of the directory an entry is stored in, from the first four hex digits of its key
+     */
+    static int shardOf(String key) {
+        int shard = 0;
+        for (int i = 0; i < 4; i++) {
+            shard = shard << 4 | (i < key.length() ? Character.digit(key.charAt(i), 16) : 0);
+        }
+        return shard;
+    }
+    
+    Path file(String key) {
+        char[] shard = new char[4];
+        for (int i = 0; i < shard.length; i++) {
+            shard[i] = i < key.length() ? Character.toLowerCase(key.charAt(i)) : '0';
+        }
+        return directory.resolve(new String(shard, 0, 2)).resolve(new String(shard, 2, 2)).resolve(key);
+    }
+    
+    /**
+     * Build cache keys are hex digests; anything else could escape the directory
+     */
+    static boolean isValidKey(String key) {
+        return KEY.matcher(key).matches();
+    }
+    
+    /**
+     * Opens the entry for reading and marks it used, or returns null when there is none
+     */
+    FileChannel open(String key) throws IOException {
+        long now = clock.millis();
+        CacheIndex.Entry entry;
+        boolean persist;
+        synchronized (index) {
+            entry = index.touch(key, now);
+            if (entry == null) {
+                return null;
+            }
+            persist = now - entry.persistedAccess() >= PERSIST_ACCESS_INTERVAL;
+            if (persist) {
+                entry.persisted(now);
+            }
+        }
+        
+        Path file = file(key);
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // Deleted behind the server's back
+            synchronized (index) {
+                index.remove(key, entry);
+            }
+            return null;
+        }
+        if (persist) {
+            try {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            } catch (IOException e) {
+                logger.debug("Recording the last use of {} failed: {}", key, e.toString());
+            }
+        }
+        return channel;
+    }
+    
+    /**
+     * Marks the entry used without opening it, for loads served from another tier
+     */
+    void touch(String key) {
+        long now = clock.millis();
+        synchronized (index) {
+            index.touch(key, now);
+        }
+    }
+    
+    Upload upload(String key) throws IOException {
+        Path temp = Files.createTempFile(uploads, key + ".", TEMP_SUFFIX);
+        return new Upload(key, temp,
+            FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+    
+    /**
+     * Evicts entries at a fixed interval and after stores, and saves the index, on a thread of its own
+     */
+    synchronized void startMaintenance(Duration evictionInterval) {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "build-cache-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::requestEviction, 0, evictionInterval.toMillis(), TimeUnit.MILLISECONDS);
+        evictor.scheduleWithFixedDelay(this::saveIndexQuietly, SNAPSHOT_INTERVAL.toMillis(),
+                                       SNAPSHOT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Writes a snapshot of the index for the next start. Loads and stores only wait while
+     * the entries are copied, not while they are written out and forced to disk.
+     */
+    void saveIndex() throws IOException {
+        synchronized (snapshotLock) {
+            long takenAt = System.currentTimeMillis();
+            CacheIndex.Snapshot snapshot;
+            synchronized (index) {
+                snapshot = index.snapshot();
+            }
+            indexFile.write(takenAt, snapshot);
+            indexFile.commit();
+        }
+    }
+    
+    private void saveIndexQuietly() {
+        try {
+            saveIndex();
+        } catch (IOException e) {
+            logger.warn("Saving the index failed: {}", e.toString());
+        }
+    }
+    
+    private void requestEviction() {
+        ScheduledExecutorService executor = evictor;
+        if (executor != null && evictionPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                evictionPending.set(false);
+                try {
+                    evict();
+                } catch (RuntimeException e) {
+                    logger.warn("Eviction failed: {}", e.toString());
+                }
+            });
+        }
+    }
+    
+    /**
+     * Evicts least recently used entries while the entries exceed the size limit or the
+     * least recently used one is older than the maximum age
+     *
+     * @return the number of entries evicted
+     */
+    int evict() {
+        long usableSpace;
+        try {
+            usableSpace = fileStore.getUsableSpace();
+        } catch (IOException e) {
+            logger.warn("Reading the free disk space failed: {}", e.toString());
+            usableSpace = Long.MAX_VALUE / 2;
+        }
+        long limit;
+        synchronized (index) {
+            limit = policy.limit(index.getTotalBytes(), usableSpace);
+        }
+        long unusedSince = policy.maxEntryAge().isZero()
+            ? Long.MIN_VALUE
+            : clock.millis() - policy.maxEntryAge().toMillis();
+        
+        int evicted = 0;
+        while (true) {
+            String key;
+            long size;
+            synchronized (index) {
+                Map.Entry<String, CacheIndex.Entry> eldest = index.eldest();
+                if (eldest == null
+                        || index.getTotalBytes() <= limit && eldest.getValue().lastAccess() >= unusedSince) {
+                    break;
+                }
+                key = eldest.getKey();
+                if (committing.contains(key)) {
+                    // Its file is being replaced; deleting it now could delete the new one
+                    try {
+                        index.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    continue;
+                }
+                size = eldest.getValue().size();
+                index.remove(key);
+                deleting.add(key);
+            }
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (IOException e) {
+                logger.warn("Deleting evicted entry {} failed: {}", key, e.toString());
+            } finally {
+                synchronized (index) {
+                    deleting.remove(key);
+                    index.notifyAll();
+                }
+            }
+            evictedBytes.add(size);
+            evicted++;
+        }
+        
+        if (evicted > 0) {
+            evictions.add(evicted);
+            logger.debug("Evicted {} cache entries, {} entries left", evicted, getEntryCount());
+        }
+        return evicted;
+    }
+    
+    int getEntryCount() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+    
+    long getTotalBytes() {
+        synchronized (index) {
+            return index.getTotalBytes();
+        }
+    }
+    
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    long getEvictedBytes() {
+        return evictedBytes.sum();
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+        saveIndexQuietly();
+    }
+    
+    /**
+     * An entry being written; it replaces the stored entry on {@link #commit()} and is
+     * discarded when closed without committing
+     */
+    final class Upload implements Closeable {
+        
+        private final String key;
+        private final Path temp;
+        private final FileChannel channel;
+        private boolean committed;
+        
+        private Upload(String key, Path temp, FileChannel channel) {
+            this.key = key;
+            this.temp = temp;
+            this.channel = channel;
+        }
+        
+        FileChannel channel() {
+            return channel;
+        }
+        
+        void commit() throws IOException {
+            long size = channel.size();
+            if (fsync != FsyncPolicy.NONE) {
+                channel.force(false);
+            }
+            channel.close();
+            
+            Path target = file(key);
+            // Claimed under the index lock once an eviction of the key has deleted its file, so
+            // eviction cannot delete the new file for an older entry; moved after releasing it
+            synchronized (index) {
+                while (deleting.contains(key) || committing.contains(key)) {
+                    try {
+                        index.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting to store " + key);
+                    }
+                }
+                committing.add(key);
+            }
+            boolean moved = false;
+            try {
+                try {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException e) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                moved = true;
+            } finally {
+                synchronized (index) {
+                    committing.remove(key);
+                    if (moved) {
+                        index.put(key, size, clock.millis());
+                    }
+                    index.notifyAll();
+                }
+            }
+            committed = true;
+            if (fsync == FsyncPolicy.ALL) {
+                try (FileChannel shard = FileChannel.open(target.getParent(), StandardOpenOption.READ)) {
+                    shard.force(true);
+                }
+            }
+            requestEviction();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.build.cachenode;
+
+/**
+ * How far a stored entry is forced to disk before the store is acknowledged
+ */
+public enum FsyncPolicy {
+    
+    /**
+     * Left to the operating system; a crash may lose recent entries or leave them empty
+     */
+    NONE,
+    
+    /**
+     * The entry's data is forced before it is renamed into place, so a crash never leaves a partial entry
+     */
+    DATA,
+    
+    /**
+     * Also the directory the entry is renamed into, so a crash does not lose acknowledged entries
+     */
+    ALL
+}
@@ -0,0 +1,339 @@
+package com.build.cachenode;
+
+import com.build.cachenode.HttpRequest.BadRequestException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One client connection, serving HTTP/1.1 requests one after another until the
+ * client closes it or asks to.
+ * <p>
+ * Responses move from the cache files to the socket with {@link FileChannel#transferTo},
+ * which the operating system can carry out without copying the data into the JVM.
+ * Entries of the {@link MemoryTier} are written straight from their direct buffers.
+ * <p>
+ * Reads go through the socket's input stream, the only blocking read that honours
+ * {@link Socket#setSoTimeout}: a connection waiting longer than the idle timeout for
+ * its next request, or longer than the read timeout inside one, is closed. Request
+ * bodies therefore pass through a small heap buffer on their way into the file.
+ * <p>
+ * Writes have no such timeout, so every blocking write runs against a deadline on a
+ * shared scheduler that closes the channel under it. Files go out a megabyte at a
+ * time, so a large entry only needs to make steady progress, not to finish within
+ * the write timeout.
+ */
+final class HttpConnection implements Runnable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnection.class);
+    
+    static final int MAX_HEAD_SIZE = 16 * 1024;
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+    
+    private final SocketChannel channel;
+    private final ReadableByteChannel in;
+    private final BuildCacheHandler handler;
+    private final int idleTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long writeTimeoutMillis;
+    private final ScheduledExecutorService deadlines;
+    // In write mode; holds bytes read past the end of the current request head
+    private final ByteBuffer buffer = ByteBuffer.allocate(MAX_HEAD_SIZE);
+    private boolean keepAlive;
+    
+    HttpConnection(SocketChannel channel, BuildCacheHandler handler, Duration idleTimeout, Duration readTimeout,
+                   Duration writeTimeout, ScheduledExecutorService deadlines) throws IOException {
+        this.channel = channel;
+        this.in = Channels.newChannel(channel.socket().getInputStream());
+        this.handler = handler;
+        this.idleTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, idleTimeout.toMillis());
+        this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, readTimeout.toMillis());
+        this.writeTimeoutMillis = writeTimeout.toMillis();
+        this.deadlines = deadlines;
+    }
+    
+    @Override
+    public void run() {
+        try (channel) {
+            HttpRequest request;
+            while ((request = readRequest()) != null) {
+                keepAlive = request.keepAlive();
+                try {
+                    handler.handle(request, this);
+                } catch (BadRequestException e) {
+                    closeAfterResponse();
+                    respond(400, e.getMessage());
+                }
+                if (!keepAlive) {
+                    break;
+                }
+            }
+        } catch (BadRequestException e) {
+            logger.debug("Rejected malformed request: {}", e.getMessage());
+        } catch (IOException e) {
+            logger.debug("Connection ended: {}", e.toString());
+        }
+    }
+    
+    /**
+     * Reads the next request head, or returns null when the client closed the connection between requests
+     */
+    private HttpRequest readRequest() throws IOException {
+        int end;
+        while ((end = headEnd()) < 0) {
+            if (!buffer.hasRemaining()) {
+                closeAfterResponse();
+                respond(431, "Request head exceeds " + MAX_HEAD_SIZE + " bytes");
+                throw new BadRequestException("Request head too large");
+            }
+            // Nothing buffered yet means the connection sits idle between requests
+            channel.socket().setSoTimeout(buffer.position() == 0 ? idleTimeoutMillis : readTimeoutMillis);
+            if (in.read(buffer) < 0) {
+                if (buffer.position() == 0) {
+                    return null;
+                }
+                throw new EOFException("Connection closed inside a request head");
+            }
+        }
+        
+        String head = new String(buffer.array(), 0, end, StandardCharsets.ISO_8859_1);
+        buffer.flip();
+        buffer.position(end + 4);
+        buffer.compact();
+        try {
+            return parse(head);
+        } catch (BadRequestException e) {
+            closeAfterResponse();
+            respond(400, e.getMessage());
+            throw e;
+        }
+    }
+    
+    private int headEnd() {
+        byte[] bytes = buffer.array();
+        for (int i = 0; i + 3 < buffer.position(); i++) {
+            if (bytes[i] == '\r' && bytes[i + 1] == '\n' && bytes[i + 2] == '\r' && bytes[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static HttpRequest parse(String head) {
+        String[] lines = head.split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            throw new BadRequestException("Malformed request line");
+        }
+        
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon <= 0) {
+                throw new BadRequestException("Malformed header line");
+            }
+            String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = lines[i].substring(colon + 1).trim();
+            headers.merge(name, value, (first, second) -> first + ", " + second);
+        }
+        
+        String target = requestLine[1];
+        int query = target.indexOf('?');
+        String path = query < 0 ? target : target.substring(0, query);
+        return new HttpRequest(requestLine[0], path, requestLine[2], headers);
+    }
+    
+    /**
+     * Ends the connection after the next response, for responses that leave a request body unread
+     */
+    void closeAfterResponse() {
+        keepAlive = false;
+    }
+    
+    void sendContinue() throws IOException {
+        write(ByteBuffer.wrap(CONTINUE));
+    }
+    
+    void respond(int status, String message) throws IOException {
+        respond(status, Map.of(), message);
+    }
+    
+    void respond(int status, Map<String, String> headers, String message) throws IOException {
+        byte[] body = message == null ? new byte[0] : (message + "\n").getBytes(StandardCharsets.UTF_8);
+        Map<String, String> all = new LinkedHashMap<>(headers);
+        all.putIfAbsent("Content-Type", "text/plain; charset=utf-8");
+        writeHead(status, all, body.length);
+        write(ByteBuffer.wrap(body));
+    }
+    
+    /**
+     * Sends the whole file as the response body, or only the head for HEAD requests
+     */
+    void respondFile(int status, String contentType, FileChannel file, boolean headOnly) throws IOException {
+        long size = file.size();
+        writeHead(status, Map.of("Content-Type", contentType), size);
+        if (headOnly) {
+            return;
+        }
+        long position = 0;
+        while (position < size) {
+            long from = position;
+            long sent = writeBeforeDeadline(
+                () -> file.transferTo(from, Math.min(TRANSFER_CHUNK, size - from), channel));
+            if (sent <= 0) {
+                throw new EOFException("Client stopped reading after " + position + " of " + size + " bytes");
+            }
+            position += sent;
+        }
+    }
+    
+    /**
+     * Sends the buffers as the response body with gathering writes, or only the head for HEAD requests
+     */
+    void respondBuffers(int status, String contentType, ByteBuffer[] body, long size, boolean headOnly)
+            throws IOException {
+        writeHead(status, Map.of("Content-Type", contentType), size);
+        if (headOnly) {
+            return;
+        }
+        long sent = 0;
+        while (sent < size) {
+            sent += writeBeforeDeadline(() -> channel.write(body));
+        }
+    }
+    
+    /**
+     * Copies exactly {@code length} request body bytes into the file
+     */
+    void receiveBody(FileChannel file, long length) throws IOException {
+        long position = 0;
+        
+        // Body bytes that arrived together with the head
+        buffer.flip();
+        int buffered = (int) Math.min(buffer.remaining(), length);
+        ByteBuffer prefix = buffer.slice(buffer.position(), buffered);
+        while (prefix.hasRemaining()) {
+            position += file.write(prefix, position);
+        }
+        buffer.position(buffer.position() + buffered);
+        buffer.compact();
+        
+        channel.socket().setSoTimeout(readTimeoutMillis);
+        while (position < length) {
+            long received = file.transferFrom(in, position, length - position);
+            if (received <= 0) {
+                throw new EOFException("Client closed the connection after " + position + " of " + length + " body bytes");
+            }
+            position += received;
+        }
+    }
+    
+    /**
+     * Reads and drops {@code length} request body bytes
+     */
+    void discardBody(long length) throws IOException {
+        buffer.flip();
+        int buffered = (int) Math.min(buffer.remaining(), length);
+        buffer.position(buffer.position() + buffered);
+        buffer.compact();
+        
+        long remaining = length - buffered;
+        ByteBuffer scratch = ByteBuffer.allocate((int) Math.min(remaining, 8192));
+        channel.socket().setSoTimeout(readTimeoutMillis);
+        while (remaining > 0) {
+            scratch.clear().limit((int) Math.min(scratch.capacity(), remaining));
+            int read = in.read(scratch);
+            if (read < 0) {
+                throw new EOFException("Client closed the connection inside a request body");
+            }
+            remaining -= read;
+        }
+    }
+    
+    private void writeHead(int status, Map<String, String> headers, long contentLength) throws IOException {
+        StringBuilder head = new StringBuilder(128)
+            .append("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+        headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        head.append("Content-Length: ").append(contentLength).append("\r\n");
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+        }
+        head.append("\r\n");
+        write(ByteBuffer.wrap(head.toString().getBytes(StandardCharsets.ISO_8859_1)));
+    }
+    
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            writeBeforeDeadline(() -> channel.write(bytes));
+        }
+    }
+    
+    /**
+     * Runs one blocking write, closing the channel under it if the client does not
+     * take the bytes within the write timeout
+     */
+    private long writeBeforeDeadline(Write write) throws IOException {
+        ScheduledFuture<?> deadline;
+        try {
+            deadline = deadlines.schedule(this::abort, writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            throw new IOException("Server is shutting down", e);
+        }
+        try {
+            return write.run();
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+    
+    private void abort() {
+        logger.debug("Closing a connection whose client took no response bytes for {} ms", writeTimeoutMillis);
+        try {
+            // Closing alone does not wake a thread blocked in transferTo; a shutdown does
+            channel.shutdownOutput();
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("Closing a stalled connection failed: {}", e.toString());
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Write {
+        
+        long run() throws IOException;
+    }
+    
+    static String reason(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 201 -> "Created";
+            case 400 -> "Bad Request";
+            case 401 -> "Unauthorized";
+            case 403 -> "Forbidden";
+            case 404 -> "Not Found";
+            case 405 -> "Method Not Allowed";
+            case 411 -> "Length Required";
+            case 413 -> "Content Too Large";
+            case 431 -> "Request Header Fields Too Large";
+            case 503 -> "Service Unavailable";
+            default -> "Status " + status;
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.build.cachenode;
+
+import java.util.Map;
+
+/**
+ * Request line and headers of an HTTP/1.x request; header names are lower case
+ */
+record HttpRequest(String method, String path, String version, Map<String, String> headers) {
+    
+    String header(String name) {
+        return headers.get(name);
+    }
+    
+    /**
+     * Declared body length, -1 when there is no {@code Content-Length} header
+     */
+    long contentLength() {
+        String value = headers.get("content-length");
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid Content-Length: " + value);
+        }
+    }
+    
+    boolean isChunked() {
+        String encoding = headers.get("transfer-encoding");
+        return encoding != null && !encoding.trim().equalsIgnoreCase("identity");
+    }
+    
+    boolean expectsContinue() {
+        return "100-continue".equalsIgnoreCase(headers.get("expect"));
+    }
+    
+    boolean keepAlive() {
+        String connection = headers.getOrDefault("connection", "");
+        if (version.equals("HTTP/1.0")) {
+            return connection.equalsIgnoreCase("keep-alive");
+        }
+        return !connection.equalsIgnoreCase("close");
+    }
+    
+    static final class BadRequestException extends RuntimeException {
+        
+        BadRequestException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.build.cachenode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Snapshot of a {@link CacheIndex} on disk, so a restart does not have to list and stat
+ * every entry.
+ * <p>
+ * The file holds a header with the time the snapshot was taken, followed by one record
+ * per entry from least to most recently used: the key, packed to bytes when it is
+ * lowercase hex, its size and its last use. The records come back already in order,
+ * so merging them with entries found on disk by last use is close to linear. A new
+ * snapshot is written next to the file and renamed over it, so a crash leaves the
+ * previous snapshot in place.
+ */
+final class IndexFile {
+    
+    private static final int MAGIC = 0x42434958;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final byte PACKED_HEX = 0;
+    private static final byte TEXT = 1;
+    private static final HexFormat HEX = HexFormat.of();
+    
+    private final Path file;
+    private final Path temp;
+    
+    IndexFile(Path file) {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+    
+    interface Visitor {
+        
+        void entry(String key, long size, long lastAccess);
+    }
+    
+    /**
+     * When the snapshot was taken, in epoch milliseconds, or -1 when there is no readable snapshot
+     */
+    long takenAt() {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            return in.readInt() == MAGIC && in.readInt() == VERSION ? in.readLong() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Passes the entries to the visitor from least to most recently used
+     *
+     * @throws IOException when the snapshot is missing or damaged; entries passed until then are not to be trusted
+     */
+    void read(Visitor visitor) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an index snapshot: " + file);
+            }
+            in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte encoding = in.readByte();
+                byte[] key = new byte[in.readUnsignedByte()];
+                in.readFully(key);
+                visitor.entry(encoding == PACKED_HEX ? HEX.formatHex(key) : new String(key, StandardCharsets.US_ASCII),
+                              in.readLong(), in.readLong());
+            }
+        }
+    }
+    
+    /**
+     * Writes the snapshot next to the file; {@link #commit()} puts it in place afterwards
+     */
+    void write(long takenAt, CacheIndex.Snapshot snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(takenAt);
+            out.writeInt(snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                writeKey(out, snapshot.keys()[i]);
+                out.writeLong(snapshot.sizes()[i]);
+                out.writeLong(snapshot.lastAccesses()[i]);
+            }
+        }
+    }
+    
+    private static void writeKey(DataOutputStream out, String key) throws IOException {
+        boolean packed = key.length() % 2 == 0 && key.equals(key.toLowerCase(Locale.ROOT));
+        byte[] bytes = packed ? HEX.parseHex(key) : key.getBytes(StandardCharsets.US_ASCII);
+        out.writeByte(packed ? PACKED_HEX : TEXT);
+        out.writeByte(bytes.length);
+        out.write(bytes);
+    }
+    
+    /**
+     * Forces the written snapshot to disk and replaces the previous one with it
+     */
+    void commit() throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
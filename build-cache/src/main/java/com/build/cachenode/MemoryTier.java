@@ -0,0 +1,276 @@
+package com.build.cachenode;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hot tier in front of the {@link FileCacheStore}: small entries that are requested often
+ * are kept in memory outside the heap and served without touching the disk.
+ * <p>
+ * Memory is taken from the operating system in direct {@link ByteBuffer} slabs as it is
+ * needed, up to the budget, and handed out in pages; an entry occupies as many pages as
+ * its size needs and is sent with one gathering write. Entries are dropped least recently
+ * used first, but an entry loaded from disk only takes their place when a
+ * {@link FrequencySketch} says it is requested more often than each entry it would
+ * push out (TinyLFU admission), so a burst of one-off requests does not flush the
+ * entries every build asks for.
+ * <p>
+ * Readers retain the entry they serve; pages of an entry dropped meanwhile are reused
+ * only once the last reader released it. Making room therefore passes over entries
+ * being read, and drops nothing unless the pages it frees are enough.
+ * <p>
+ * Entries are copied from disk outside the tier lock. A key stored anew while its old
+ * file is being copied bumps the key's generation, and the copy is then served to the
+ * request that made it but not kept.
+ */
+final class MemoryTier {
+    
+    static final int PAGE_SIZE = 4096;
+    private static final int PAGES_PER_SLAB = 4096;
+    
+    private final int maxPages;
+    private final long maxEntrySize;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final int[] freePages;
+    private int freeCount;
+    // Pages carved out of the slabs so far; the rest of the budget is not allocated yet
+    private int carvedPages;
+    
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final FrequencySketch sketch;
+    // Keys being copied in from disk, so invalidations can reach copies not published yet
+    private final Map<String, Loading> loading = new HashMap<>();
+    private long bytes;
+    
+    MemoryTier(long budget, long maxEntrySize) {
+        this.maxPages = (int) Math.min(Integer.MAX_VALUE, budget / PAGE_SIZE);
+        this.maxEntrySize = maxEntrySize;
+        this.freePages = new int[maxPages];
+        this.sketch = new FrequencySketch(maxPages);
+    }
+    
+    /**
+     * Counts a request for the key and returns its entry retained for reading, or null
+     * when the key is not held; a returned entry is to be {@linkplain #release released}
+     */
+    synchronized Entry get(String key) {
+        if (maxPages == 0) {
+            return null;
+        }
+        sketch.increment(key);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.references++;
+        }
+        return entry;
+    }
+    
+    /**
+     * Copies an entry read from disk into memory when it is small enough and admitted,
+     * returning it retained for reading, or returns null when it stays on disk only
+     */
+    Entry load(String key, FileChannel file) throws IOException {
+        long size = file.size();
+        Entry entry = reserve(key, size);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            ByteBuffer[] pages = entry.buffers();
+            long position = 0;
+            while (position < size) {
+                long read = file.read(pages);
+                if (read < 0) {
+                    throw new EOFException("Entry " + key + " ended after " + position + " of " + size + " bytes");
+                }
+                position += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            publish(entry, false);
+            throw e;
+        }
+        publish(entry, true);
+        return entry;
+    }
+    
+    private synchronized Entry reserve(String key, long size) {
+        if (size > maxEntrySize) {
+            return null;
+        }
+        int needed = (int) ((size + PAGE_SIZE - 1) / PAGE_SIZE);
+        if (needed > maxPages) {
+            return null;
+        }
+        
+        int available = freeCount + maxPages - carvedPages;
+        if (available < needed) {
+            // Admitted only when requested more often than every entry it pushes out
+            int frequency = sketch.frequency(key);
+            List<Entry> victims = new ArrayList<>();
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (available < needed && eldest.hasNext()) {
+                Entry victim = eldest.next();
+                if (victim.references > 0) {
+                    continue;
+                }
+                if (sketch.frequency(victim.key) >= frequency) {
+                    return null;
+                }
+                victims.add(victim);
+                available += victim.pages.length;
+            }
+            if (available < needed) {
+                return null;
+            }
+            victims.forEach(this::drop);
+        }
+        
+        int[] pages = new int[needed];
+        for (int i = 0; i < needed; i++) {
+            pages[i] = takePage();
+        }
+        Loading load = loading.computeIfAbsent(key, ignored -> new Loading());
+        load.count++;
+        return new Entry(key, size, pages, load);
+    }
+    
+    private int takePage() {
+        if (freeCount > 0) {
+            return freePages[--freeCount];
+        }
+        if (carvedPages == slabs.size() * PAGES_PER_SLAB) {
+            int slabPages = Math.min(PAGES_PER_SLAB, maxPages - carvedPages);
+            slabs.add(ByteBuffer.allocateDirect(slabPages * PAGE_SIZE));
+        }
+        return carvedPages++;
+    }
+    
+    /**
+     * Ends the copy of the entry and keeps it unless it failed or the key was stored anew meanwhile
+     */
+    private synchronized void publish(Entry entry, boolean complete) {
+        Loading load = entry.loading;
+        if (--load.count == 0) {
+            loading.remove(entry.key);
+        }
+        if (!complete) {
+            release(entry);
+            return;
+        }
+        if (load.generation != entry.generation) {
+            // Served to the request that copied it only, and freed once that releases it
+            return;
+        }
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+            previous.held = false;
+            bytes -= previous.size;
+            freeIfUnused(previous);
+        }
+        entry.held = true;
+        bytes += entry.size;
+    }
+    
+    /**
+     * Drops the entry of a key that was stored anew
+     */
+    synchronized void invalidate(String key) {
+        Loading load = loading.get(key);
+        if (load != null) {
+            load.generation++;
+        }
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.held = false;
+            bytes -= entry.size;
+            freeIfUnused(entry);
+        }
+    }
+    
+    private void drop(Entry entry) {
+        entries.remove(entry.key);
+        entry.held = false;
+        bytes -= entry.size;
+        freeIfUnused(entry);
+    }
+    
+    synchronized void release(Entry entry) {
+        entry.references--;
+        freeIfUnused(entry);
+    }
+    
+    private void freeIfUnused(Entry entry) {
+        if (!entry.held && entry.references == 0) {
+            for (int page : entry.pages) {
+                freePages[freeCount++] = page;
+            }
+        }
+    }
+    
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+    
+    synchronized long getBytes() {
+        return bytes;
+    }
+    
+    /**
+     * An entry held in memory; its pages stay untouched while it is retained
+     */
+    final class Entry {
+        
+        private final String key;
+        private final long size;
+        private final int[] pages;
+        private final Loading loading;
+        private final int generation;
+        // Guarded by the tier lock
+        private int references = 1;
+        private boolean held;
+        
+        private Entry(String key, long size, int[] pages, Loading loading) {
+            this.key = key;
+            this.size = size;
+            this.pages = pages;
+            this.loading = loading;
+            this.generation = loading.generation;
+        }
+        
+        long size() {
+            return size;
+        }
+        
+        /**
+         * The content as one buffer per page, each with positions of its own
+         */
+        ByteBuffer[] buffers() {
+            ByteBuffer[] buffers = new ByteBuffer[pages.length];
+            synchronized (MemoryTier.this) {
+                for (int i = 0; i < pages.length; i++) {
+                    int length = (int) Math.min(PAGE_SIZE, size - (long) i * PAGE_SIZE);
+                    ByteBuffer slab = slabs.get(pages[i] / PAGES_PER_SLAB);
+                    buffers[i] = slab.slice((pages[i] % PAGES_PER_SLAB) * PAGE_SIZE, length);
+                }
+            }
+            return buffers;
+        }
+    }
+    
+    /**
+     * Copies of one key in progress, guarded by the tier lock
+     */
+    private static final class Loading {
+        
+        private int count;
+        private int generation;
+    }
+}
@@ -0,0 +1,340 @@
+package com.build.cachenode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares entries with the build cache servers of other racks.
+ * <p>
+ * A load this server misses is read through from the peers in the configured order,
+ * stored here and served, so an entry built in one rack is fetched across racks once.
+ * The build waits for it, so the response head only gets the short peer head timeout;
+ * the peer timeout then bounds the body, which is aborted if it is still arriving when
+ * that runs out.
+ * <p>
+ * A peer that fails {@value #FAILURES_TO_BACK_OFF} requests in a row, by timing out,
+ * refusing connections or answering 5xx, is backed off from: it is skipped for the
+ * peer backoff, after which a single request tries it again. Success clears its
+ * failures; another failure doubles the backoff, up to {@link #MAX_BACKOFF}. A peer
+ * that is down therefore costs a cold build a few timeouts instead of one per miss.
+ * Stores are copied to every peer in the background: keys wait in a bounded queue for
+ * the replication threads, and a store that finds the queue full waits for room up to
+ * the offer timeout before its key is dropped, so a slow peer slows down the builds
+ * storing entries instead of growing the queue without bound.
+ * <p>
+ * Requests between peers carry {@link #PEER_HEADER}; they are neither read through nor
+ * replicated again, so two servers that list each other do not bounce entries back and
+ * forth.
+ */
+final class PeerReplicator implements Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PeerReplicator.class);
+    
+    static final String PEER_HEADER = "X-Build-Cache-Peer";
+    private static final Duration OFFER_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+    private static final int FAILURES_TO_BACK_OFF = 3;
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    
+    private final List<Peer> peers = new ArrayList<>();
+    private final String authorization;
+    private final Duration timeout;
+    private final Duration headTimeout;
+    private final long maxArtifactSize;
+    private final FileCacheStore store;
+    private final HttpClient client;
+    private final BlockingQueue<String> queue;
+    private final ExecutorService replicators;
+    private final ScheduledExecutorService deadlines;
+    
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder replicated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    
+    PeerReplicator(BuildCacheServerConfig config, FileCacheStore store) {
+        Duration backoff = Duration.ofSeconds(Math.max(1, config.getPeerBackoff()));
+        for (String peer : config.getPeers()) {
+            peers.add(new Peer(URI.create(peer.endsWith("/") ? peer : peer + "/"), backoff));
+        }
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+            (config.getPeerUser() + ":" + config.getPeerPassword()).getBytes(StandardCharsets.UTF_8));
+        this.timeout = Duration.ofSeconds(config.getPeerTimeout());
+        this.headTimeout = Duration.ofSeconds(Math.min(config.getPeerHeadTimeout(), config.getPeerTimeout()));
+        this.maxArtifactSize = config.getMaxArtifactSizeBytes();
+        this.store = store;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getReplicationQueueSize()));
+        
+        AtomicInteger threads = new AtomicInteger();
+        this.replicators = Executors.newFixedThreadPool(Math.max(1, config.getReplicationThreads()), task -> {
+            Thread thread = new Thread(task, "build-cache-replication-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.deadlines = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "build-cache-peer-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (isEnabled()) {
+            for (int i = 0; i < Math.max(1, config.getReplicationThreads()); i++) {
+                replicators.execute(this::replicateLoop);
+            }
+        }
+    }
+    
+    boolean isEnabled() {
+        return !peers.isEmpty();
+    }
+    
+    /**
+     * Fetches a missing entry from the first peer holding it and stores it here,
+     * skipping peers that are backed off from
+     *
+     * @return whether a peer had the entry
+     */
+    boolean fetch(String key) {
+        for (Peer peer : peers) {
+            if (!peer.tryAcquire()) {
+                skipped.increment();
+                continue;
+            }
+            boolean healthy = false;
+            try {
+                boolean fetched = fetch(peer.uri(), key);
+                healthy = true;
+                if (fetched) {
+                    remoteHits.increment();
+                    logger.debug("Read {} through from {}", key, peer.uri());
+                    return true;
+                }
+            } catch (IOException e) {
+                logger.debug("Reading {} from {} failed: {}", key, peer.uri(), e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                peer.release(healthy);
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return whether the peer had the entry; a peer answering 5xx counts as failing
+     */
+    private boolean fetch(URI peer, String key) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = client.send(request(peer, key, headTimeout).GET().build(),
+                                                         HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() >= 500) {
+                throw new IOException("Peer answered " + response.statusCode());
+            }
+            long length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (response.statusCode() != 200 || length < 0 || length > maxArtifactSize) {
+                return false;
+            }
+            // Closing the body wakes a read blocked on a peer that stopped sending
+            ScheduledFuture<?> abort = deadlines.schedule(() -> closeQuietly(body), timeout.toMillis(),
+                                                          TimeUnit.MILLISECONDS);
+            try (FileCacheStore.Upload upload = store.upload(key)) {
+                OutputStream out = Channels.newOutputStream(upload.channel());
+                if (body.transferTo(out) != length) {
+                    throw new IOException("Entry ended early");
+                }
+                if (!abort.cancel(false)) {
+                    throw new IOException("Entry took longer than " + timeout.toSeconds() + " seconds");
+                }
+                upload.commit();
+            } finally {
+                abort.cancel(false);
+            }
+        }
+        return true;
+    }
+    
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // The read it was meant to end fails anyway
+        }
+    }
+    
+    /**
+     * Queues a stored entry for the peers, waiting for room while the queue is full
+     */
+    void replicate(String key) {
+        try {
+            if (!queue.offer(key, OFFER_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                dropped.increment();
+                logger.debug("Replication queue full, not replicating {}", key);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void replicateLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                String key = queue.take();
+                for (Peer peer : peers) {
+                    if (peer.tryAcquire()) {
+                        send(peer, key);
+                    } else {
+                        skipped.increment();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void send(Peer peer, String key) throws InterruptedException {
+        boolean healthy = false;
+        try (FileChannel entry = store.open(key)) {
+            if (entry == null) {
+                healthy = true;
+                return;
+            }
+            HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(() -> Channels.newInputStream(entry)), entry.size());
+            int status = client.send(request(peer.uri(), key, timeout).PUT(body).build(),
+                                     HttpResponse.BodyHandlers.discarding()).statusCode();
+            healthy = status < 500;
+            if (status / 100 == 2) {
+                replicated.increment();
+            } else {
+                failures.increment();
+                logger.debug("Replicating {} to {} answered {}", key, peer.uri(), status);
+            }
+        } catch (IOException e) {
+            failures.increment();
+            logger.debug("Replicating {} to {} failed: {}", key, peer.uri(), e.toString());
+        } finally {
+            peer.release(healthy);
+        }
+    }
+    
+    private HttpRequest.Builder request(URI peer, String key, Duration timeout) {
+        return HttpRequest.newBuilder(peer.resolve(key))
+            .timeout(timeout)
+            .header("Authorization", authorization)
+            .header(PEER_HEADER, "1");
+    }
+    
+    long getRemoteHitCount() {
+        return remoteHits.sum();
+    }
+    
+    long getReplicatedCount() {
+        return replicated.sum();
+    }
+    
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    long getFailureCount() {
+        return failures.sum();
+    }
+    
+    /**
+     * Counts requests not sent because their peer was backed off from
+     */
+    long getSkippedCount() {
+        return skipped.sum();
+    }
+    
+    int getQueueSize() {
+        return queue.size();
+    }
+    
+    @Override
+    public void close() {
+        replicators.shutdownNow();
+        deadlines.shutdownNow();
+    }
+    
+    /**
+     * A peer and its run of failed requests
+     */
+    private static final class Peer {
+        
+        private final URI uri;
+        private final long initialBackoffNanos;
+        private int failures;
+        private long backoffNanos;
+        private long retryAt;
+        private boolean trying;
+        
+        Peer(URI uri, Duration backoff) {
+            this.uri = uri;
+            this.initialBackoffNanos = backoff.toNanos();
+            this.backoffNanos = initialBackoffNanos;
+        }
+        
+        URI uri() {
+            return uri;
+        }
+        
+        /**
+         * @return whether a request may go to the peer; every granted request must be released
+         */
+        synchronized boolean tryAcquire() {
+            if (failures < FAILURES_TO_BACK_OFF) {
+                return true;
+            }
+            if (trying || System.nanoTime() - retryAt < 0) {
+                return false;
+            }
+            // The backoff is over: let this one request find out whether the peer is back
+            trying = true;
+            return true;
+        }
+        
+        synchronized void release(boolean healthy) {
+            if (healthy) {
+                failures = 0;
+                backoffNanos = initialBackoffNanos;
+            } else if (++failures >= FAILURES_TO_BACK_OFF) {
+                if (trying) {
+                    backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF.toNanos());
+                }
+                retryAt = System.nanoTime() + backoffNanos;
+            }
+            trying = false;
+        }
+    }
+}
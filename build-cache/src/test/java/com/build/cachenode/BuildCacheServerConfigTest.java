@@ -0,0 +1,84 @@
+package com.build.cachenode;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BuildCacheServerConfig Tests")
+class BuildCacheServerConfigTest {
+    
+    @Test
+    @DisplayName("Should take eviction limits and users from config.yaml")
+    void load_ShippedConfig_AppliesCacheSection() throws Exception {
+        // Given
+        BuildCacheServerConfig config = new BuildCacheServerConfig();
+        
+        // When
+        config.load(Path.of("config.yaml"));
+        EvictionPolicy policy = config.toEvictionPolicy();
+        
+        // Then
+        assertEquals(EvictionPolicy.TargetSizeType.FIXED, policy.targetSizeType());
+        assertEquals(10000L * 1024 * 1024, policy.targetSize());
+        assertEquals(Duration.ofHours(168), policy.maxEntryAge());
+        assertEquals(1024L * 1024 * 1024, policy.freeSpaceBuffer());
+        assertEquals(200L * 1024 * 1024, config.getMaxArtifactSizeBytes());
+        assertEquals(AccessLevel.READWRITE, config.getAnonymousLevel());
+        assertEquals(AccessLevel.READWRITE, config.getUsers().get("build.cache.user").getLevel());
+        assertEquals(AccessLevel.READWRITE, new AccessControl(config).levelOf(basic("build.cache.user", "123456!")));
+    }
+    
+    @Test
+    @DisplayName("Should accept hashed and plain text passwords")
+    void accessControl_HashedPassword_MatchesOnlyTheRightPassword() {
+        // Given
+        BuildCacheServerConfig config = new BuildCacheServerConfig();
+        BuildCacheServerConfig.User hashed = new BuildCacheServerConfig.User();
+        hashed.setLevel(AccessLevel.READWRITE);
+        hashed.setPassword(AccessControl.hash("123456!"));
+        BuildCacheServerConfig.User plain = new BuildCacheServerConfig.User();
+        plain.setPassword("reader");
+        config.getUsers().put("build.cache.user", hashed);
+        config.getUsers().put("reader", plain);
+        
+        // When
+        AccessControl accessControl = new AccessControl(config);
+        
+        // Then
+        assertEquals(AccessLevel.READWRITE, accessControl.levelOf(basic("build.cache.user", "123456!")));
+        assertEquals(AccessLevel.NONE, accessControl.levelOf(basic("build.cache.user", "123456")));
+        assertEquals(AccessLevel.READ, accessControl.levelOf(basic("reader", "reader")));
+    }
+    
+    @Test
+    @DisplayName("Should hash passwords with PBKDF2 and honour the iteration count of the hash")
+    void accessControl_PasswordHash_CarriesIterationCount() {
+        // Given
+        String hash = AccessControl.hash("123456!");
+        BuildCacheServerConfig config = new BuildCacheServerConfig();
+        BuildCacheServerConfig.User user = new BuildCacheServerConfig.User();
+        user.setLevel(AccessLevel.READWRITE);
+        // 1000 iterations of PBKDF2WithHmacSHA256 over "123456!" with the salt "salt"
+        user.setPassword("pbkdf2-sha256:1000:c2FsdA==:S8BmaW0mvM0IwF/avF5sxpWE29dg9uxZFk/RLvi89w8=");
+        config.getUsers().put("build.cache.user", user);
+        
+        // When
+        AccessControl accessControl = new AccessControl(config);
+        
+        // Then
+        assertTrue(hash.matches("pbkdf2-sha256:600000:[A-Za-z0-9+/=]+:[A-Za-z0-9+/=]+"), hash);
+        assertEquals(AccessLevel.READWRITE, accessControl.levelOf(basic("build.cache.user", "123456!")));
+        assertEquals(AccessLevel.READWRITE, accessControl.levelOf(basic("build.cache.user", "123456!")));
+        assertEquals(AccessLevel.NONE, accessControl.levelOf(basic("build.cache.user", "1234567")));
+    }
+    
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,313 @@
+package com.build.cachenode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BuildCacheServer Tests")
+class BuildCacheServerTest {
+    
+    private static final String KEY = "0123456789abcdef0123456789abcdef";
+    private static final String PASSWORD = "s3cret";
+    
+    @TempDir
+    Path directory;
+    
+    private BuildCacheServerConfig config;
+    private BuildCacheServer server;
+    private HttpClient client;
+    
+    @BeforeEach
+    void setUp() {
+        config = new BuildCacheServerConfig();
+        config.setPort(0);
+        config.setDirectory(directory.toString());
+        config.setMaxArtifactSize(4);
+        config.setFreeSpaceBufferSize(0);
+        config.getUsers().put("build.cache.user", user(AccessLevel.READWRITE));
+        config.getUsers().put("reader", user(AccessLevel.READ));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should load a stored entry byte for byte")
+    void put_ThenGet_ReturnsSameBytes() throws Exception {
+        // Given
+        start();
+        byte[] artifact = new byte[3 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(artifact);
+        
+        // When
+        HttpResponse<Void> stored = client.send(request(KEY, "build.cache.user")
+            .PUT(HttpRequest.BodyPublishers.ofByteArray(artifact)).build(), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<byte[]> loaded = client.send(request(KEY, "build.cache.user").GET().build(),
+                                                  HttpResponse.BodyHandlers.ofByteArray());
+        
+        // Then
+        assertEquals(201, stored.statusCode());
+        assertEquals(200, loaded.statusCode());
+        assertArrayEquals(artifact, loaded.body());
+        assertEquals(1, server.getStoreCount());
+        assertEquals(1, server.getHitCount());
+        assertTrue(client.send(request("stats", "reader").GET().build(), HttpResponse.BodyHandlers.ofString())
+            .body().contains("\"entries\":1,\"bytes\":" + artifact.length));
+        try (var files = Files.list(directory.resolve("uploads"))) {
+            assertEquals(0, files.count());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should serve repeated loads of small entries from memory")
+    void get_SmallEntryTwice_SecondIsMemoryHit() throws Exception {
+        // Given
+        start();
+        byte[] artifact = new byte[10_000];
+        new Random(3).nextBytes(artifact);
+        client.send(request(KEY, "build.cache.user").PUT(HttpRequest.BodyPublishers.ofByteArray(artifact)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        
+        // When
+        HttpResponse<byte[]> fromDisk = client.send(request(KEY, "reader").GET().build(),
+                                                    HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> fromMemory = client.send(request(KEY, "reader").GET().build(),
+                                                      HttpResponse.BodyHandlers.ofByteArray());
+        String stats = client.send(request("stats", "reader").GET().build(),
+                                   HttpResponse.BodyHandlers.ofString()).body();
+        
+        // Then
+        assertArrayEquals(artifact, fromDisk.body());
+        assertArrayEquals(artifact, fromMemory.body());
+        assertEquals(2, server.getHitCount());
+        assertEquals(1, server.getMemoryHitCount());
+        assertTrue(stats.contains("\"memory\":{\"entries\":1,\"bytes\":10000,\"hits\":1,\"hitRatio\":0.5000}"), stats);
+    }
+    
+    @Test
+    @DisplayName("Should keep entries served from memory from aging out of the disk")
+    void get_MemoryHits_KeepEntryFromAgeEviction() throws Exception {
+        // Given
+        config.setMaxEntryAgeInHours(1);
+        FileCacheStoreTest.MutableClock clock = new FileCacheStoreTest.MutableClock();
+        server = new BuildCacheServer(config, clock);
+        server.start();
+        String cold = "fedcba9876543210fedcba9876543210";
+        String fresh = "00112233445566778899aabbccddeeff";
+        byte[] artifact = new byte[10_000];
+        put(KEY, artifact);
+        put(cold, artifact);
+        client.send(request(KEY, "reader").GET().build(), HttpResponse.BodyHandlers.discarding());
+        clock.advance(Duration.ofMinutes(45));
+        client.send(request(KEY, "reader").GET().build(), HttpResponse.BodyHandlers.discarding());
+        clock.advance(Duration.ofMinutes(30));
+        
+        // When
+        put(fresh, artifact);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (server.getEvictionCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        
+        // Then
+        assertEquals(1, server.getMemoryHitCount());
+        assertEquals(1, server.getEvictionCount());
+        assertEquals(404, client.send(request(cold, "reader").GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+        assertEquals(200, client.send(request(KEY, "reader").GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+    
+    @Test
+    @DisplayName("Should answer 404 for missing entries and 400 for malformed keys")
+    void get_MissingOrInvalidKey_ReturnsClientErrors() throws Exception {
+        // Given
+        start();
+        
+        // When
+        int missing = client.send(request(KEY, "reader").GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        int invalid = client.send(request("not-a-key", "reader").GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        
+        // Then
+        assertEquals(404, missing);
+        assertEquals(400, invalid);
+        assertEquals(1, server.getMissCount());
+    }
+    
+    @Test
+    @DisplayName("Should ask for credentials and refuse writes below the readwrite level")
+    void put_WithoutWriteAccess_IsRefused() throws Exception {
+        // Given
+        start();
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.ofString("artifact");
+        
+        // When
+        HttpResponse<Void> anonymous = client.send(HttpRequest.newBuilder(uri(KEY)).PUT(body).build(),
+                                                   HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> reader = client.send(request(KEY, "reader").PUT(body).build(),
+                                                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> wrongPassword = client.send(HttpRequest.newBuilder(uri(KEY))
+            .header("Authorization", basic("build.cache.user", "guess")).GET().build(), HttpResponse.BodyHandlers.discarding());
+        
+        // Then
+        assertEquals(401, anonymous.statusCode());
+        assertTrue(anonymous.headers().firstValue("WWW-Authenticate").orElse("").startsWith("Basic"));
+        assertEquals(403, reader.statusCode());
+        assertEquals(401, wrongPassword.statusCode());
+        assertEquals(0, server.getStoreCount());
+    }
+    
+    @Test
+    @DisplayName("Should report stats only to readers and only for GET and HEAD")
+    void stats_WithoutReadAccessOrWrongMethod_IsRefused() throws Exception {
+        // Given
+        start();
+        
+        // When
+        HttpResponse<Void> anonymous = client.send(HttpRequest.newBuilder(uri("stats")).GET().build(),
+                                                   HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> head = client.send(request("stats", "reader").method("HEAD", HttpRequest.BodyPublishers.noBody())
+            .build(), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<Void> delete = client.send(request("stats", "build.cache.user").DELETE().build(),
+                                                HttpResponse.BodyHandlers.discarding());
+        
+        // Then
+        assertEquals(401, anonymous.statusCode());
+        assertEquals(200, head.statusCode());
+        assertEquals("application/json", head.headers().firstValue("Content-Type").orElse(""));
+        assertEquals(405, delete.statusCode());
+        assertEquals("GET, HEAD", delete.headers().firstValue("Allow").orElse(""));
+    }
+    
+    @Test
+    @DisplayName("Should refuse entries above the maximum artifact size before their body is sent")
+    void put_OversizedWithExpectContinue_Returns413() throws Exception {
+        // Given
+        start();
+        String head = "PUT /cache/" + KEY + " HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "Authorization: " + basic("build.cache.user", PASSWORD) + "\r\n"
+            + "Content-Length: " + 5 * 1024 * 1024 + "\r\n"
+            + "Expect: 100-continue\r\n\r\n";
+        
+        // When
+        String response;
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            channel.write(ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)));
+            response = new String(channel.socket().getInputStream().readAllBytes(), StandardCharsets.ISO_8859_1);
+        }
+        
+        // Then
+        assertTrue(response.startsWith("HTTP/1.1 413 "), response);
+        assertTrue(response.contains("Connection: close"));
+        assertEquals(404, client.send(request(KEY, "reader").GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+    
+    @Test
+    @DisplayName("Should close a kept-alive connection that stays idle past the idle timeout")
+    void connection_IdlePastTimeout_IsClosed() throws Exception {
+        // Given
+        config.setIdleTimeout(1);
+        start();
+        
+        // When
+        long started = System.nanoTime();
+        int read;
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            channel.socket().setSoTimeout(10_000);
+            read = channel.socket().getInputStream().read();
+        }
+        
+        // Then
+        assertEquals(-1, read);
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() >= 900);
+        assertEquals(404, client.send(request(KEY, "reader").GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+    
+    @Test
+    @DisplayName("Should close a connection whose client stops reading the response past the write timeout")
+    void get_ClientStopsReading_ConnectionClosedAfterWriteTimeout() throws Exception {
+        // Given
+        config.setMaxArtifactSize(32);
+        config.setMaxConnections(2);
+        config.setWriteTimeout(1);
+        start();
+        byte[] artifact = new byte[24 * 1024 * 1024];
+        new Random(11).nextBytes(artifact);
+        put(KEY, artifact);
+        
+        // When
+        int status;
+        try (SocketChannel stalled = SocketChannel.open()) {
+            stalled.socket().setReceiveBufferSize(4096);
+            stalled.connect(new InetSocketAddress("localhost", server.getPort()));
+            String get = "GET /cache/" + KEY + " HTTP/1.1\r\nHost: localhost\r\nAuthorization: "
+                + basic("reader", PASSWORD) + "\r\n\r\n";
+            stalled.write(ByteBuffer.wrap(get.getBytes(StandardCharsets.ISO_8859_1)));
+            
+            // The kept-alive PUT connection holds the other worker, so a new one only
+            // gets served once the stalled response gives its worker up
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            do {
+                Thread.sleep(200);
+                HttpClient fresh = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                status = fresh.send(request("fedcba9876543210fedcba9876543210", "reader").GET().build(),
+                                    HttpResponse.BodyHandlers.discarding()).statusCode();
+            } while (status == 503 && System.nanoTime() < deadline);
+        }
+        
+        // Then
+        assertEquals(404, status);
+    }
+    
+    private void start() throws IOException {
+        server = new BuildCacheServer(config);
+        server.start();
+    }
+    
+    private void put(String key, byte[] artifact) throws Exception {
+        assertEquals(201, client.send(request(key, "build.cache.user").PUT(HttpRequest.BodyPublishers.ofByteArray(artifact))
+            .build(), HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+    
+    private HttpRequest.Builder request(String key, String user) {
+        return HttpRequest.newBuilder(uri(key)).header("Authorization", basic(user, PASSWORD));
+    }
+    
+    private URI uri(String key) {
+        return URI.create("http://localhost:" + server.getPort() + "/cache/" + key);
+    }
+    
+    private static String basic(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static BuildCacheServerConfig.User user(AccessLevel level) {
+        BuildCacheServerConfig.User user = new BuildCacheServerConfig.User();
+        user.setLevel(level);
+        user.setPassword(PASSWORD);
+        return user;
+    }
+}
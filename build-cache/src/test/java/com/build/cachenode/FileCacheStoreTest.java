@@ -0,0 +1,194 @@
+package com.build.cachenode;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileCacheStore Tests")
+class FileCacheStoreTest {
+    
+    private static final long UNLIMITED_DISK = Long.MAX_VALUE / 4;
+    
+    @TempDir
+    Path directory;
+    
+    private final MutableClock clock = new MutableClock();
+    
+    @Test
+    @DisplayName("Should evict the least recently used entries beyond the target size")
+    void evict_OverTargetSize_RemovesLeastRecentlyUsed() throws Exception {
+        // Given
+        FileCacheStore store = new FileCacheStore(directory, policy(250, Duration.ZERO), FsyncPolicy.DATA, clock);
+        store("aa", store, 100);
+        store("bb", store, 100);
+        store("cc", store, 100);
+        open(store, "aa");
+        
+        // When
+        int evicted = store.evict();
+        
+        // Then
+        assertEquals(1, evicted);
+        assertNull(store.open("bb"));
+        assertFalse(Files.exists(store.file("bb")));
+        open(store, "aa");
+        open(store, "cc");
+        assertEquals(200, store.getTotalBytes());
+    }
+    
+    @Test
+    @DisplayName("Should evict entries unused for longer than the maximum age")
+    void evict_OldEntries_AreRemoved() throws Exception {
+        // Given
+        FileCacheStore store = new FileCacheStore(directory, policy(UNLIMITED_DISK, Duration.ofHours(168)),
+                                                  FsyncPolicy.DATA, clock);
+        store("aa", store, 10);
+        clock.advance(Duration.ofHours(100));
+        store("bb", store, 10);
+        clock.advance(Duration.ofHours(100));
+        
+        // When
+        int evicted = store.evict();
+        
+        // Then
+        assertEquals(1, evicted);
+        assertNull(store.open("aa"));
+        open(store, "bb");
+        assertEquals(1, store.getEntryCount());
+    }
+    
+    @Test
+    @DisplayName("Should move flat entries into shard directories and index them oldest first")
+    void constructor_FlatEntries_AreShardedAndIndexedOldestFirst() throws Exception {
+        // Given
+        Files.write(directory.resolve("aa"), new byte[100]);
+        Files.write(directory.resolve("bb"), new byte[100]);
+        Files.setLastModifiedTime(directory.resolve("aa"),
+            FileTime.from(Instant.parse("2024-01-02T00:00:00Z")));
+        Files.setLastModifiedTime(directory.resolve("bb"),
+            FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        Files.writeString(directory.resolve("not-a-key"), "ignored");
+        
+        // When
+        FileCacheStore store = new FileCacheStore(directory, policy(150, Duration.ZERO), FsyncPolicy.NONE, clock);
+        int evicted = store.evict();
+        
+        // Then
+        assertEquals(1, evicted);
+        assertNull(store.open("bb"));
+        open(store, "aa");
+        assertEquals(store.file("aa"), directory.resolve("aa").resolve("00").resolve("aa"));
+        assertTrue(Files.exists(store.file("aa")));
+        assertEquals(100, store.getTotalBytes());
+    }
+    
+    @Test
+    @DisplayName("Should restore the order from the index snapshot and list only modified shards")
+    void constructor_WithSnapshot_KeepsOrderAndReconcilesModifiedShards() throws Exception {
+        // Given
+        FileCacheStore first = new FileCacheStore(directory, policy(UNLIMITED_DISK, Duration.ZERO), FsyncPolicy.ALL, clock);
+        store("aa", first, 100);
+        store("bb", first, 100);
+        store("cc", first, 100);
+        clock.advance(Duration.ofSeconds(1));
+        open(first, "aa");
+        first.saveIndex();
+        
+        // Files say aa is the oldest, the snapshot says bb is
+        FileTime longAgo = FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+        Files.setLastModifiedTime(first.file("aa"), longAgo);
+        Files.setLastModifiedTime(first.file("aa").getParent(), longAgo);
+        Files.setLastModifiedTime(first.file("bb").getParent(), longAgo);
+        Files.delete(first.file("cc"));
+        
+        // When
+        FileCacheStore second = new FileCacheStore(directory, policy(150, Duration.ZERO), FsyncPolicy.NONE, clock);
+        int evicted = second.evict();
+        
+        // Then
+        assertEquals(1, evicted);
+        assertNull(second.open("bb"));
+        assertNull(second.open("cc"));
+        open(second, "aa");
+        assertEquals(1, second.getEntryCount());
+    }
+    
+    @Test
+    @DisplayName("Should order listed entries among snapshot entries by their last use")
+    void constructor_ListedEntryOlderThanSnapshotEntries_IsEvictedFirst() throws Exception {
+        // Given
+        FileCacheStore first = new FileCacheStore(directory, policy(UNLIMITED_DISK, Duration.ZERO), FsyncPolicy.NONE, clock);
+        store("aa", first, 100);
+        first.saveIndex();
+        Files.setLastModifiedTime(first.file("aa").getParent(), FileTime.from(Instant.parse("2020-01-01T00:00:00Z")));
+        
+        // Stored after the snapshot, but last used long before aa
+        Files.createDirectories(first.file("bb").getParent());
+        Files.write(first.file("bb"), new byte[100]);
+        Files.setLastModifiedTime(first.file("bb"), FileTime.from(Instant.parse("2024-01-01T00:00:00Z")));
+        
+        // When
+        FileCacheStore second = new FileCacheStore(directory, policy(150, Duration.ZERO), FsyncPolicy.NONE, clock);
+        int evicted = second.evict();
+        
+        // Then
+        assertEquals(1, evicted);
+        assertNull(second.open("bb"));
+        open(second, "aa");
+    }
+    
+    private static EvictionPolicy policy(long targetSize, Duration maxEntryAge) {
+        return new EvictionPolicy(EvictionPolicy.TargetSizeType.FIXED, targetSize, maxEntryAge, 0);
+    }
+    
+    private static void store(String key, FileCacheStore store, int size) throws IOException {
+        try (FileCacheStore.Upload upload = store.upload(key)) {
+            upload.channel().write(ByteBuffer.allocate(size));
+            upload.commit();
+        }
+    }
+    
+    private static void open(FileCacheStore store, String key) throws IOException {
+        try (FileChannel channel = store.open(key)) {
+            assertNotNull(channel, key);
+        }
+    }
+    
+    static final class MutableClock extends Clock {
+        
+        private volatile Instant now = Instant.parse("2024-06-01T00:00:00Z");
+        
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
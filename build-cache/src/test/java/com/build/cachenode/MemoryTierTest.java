@@ -0,0 +1,279 @@
+package com.build.cachenode;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MemoryTier Tests")
+class MemoryTierTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should serve a loaded entry from memory byte for byte")
+    void load_ThenGet_ReturnsSameBytes() throws Exception {
+        // Given
+        MemoryTier memory = new MemoryTier(64 * 1024, 64 * 1024);
+        byte[] content = new byte[3 * MemoryTier.PAGE_SIZE + 123];
+        new Random(7).nextBytes(content);
+        Path file = write("aa", content);
+        
+        // When
+        assertNull(memory.get("aa"));
+        MemoryTier.Entry loaded = load(memory, "aa", file);
+        memory.release(loaded);
+        MemoryTier.Entry held = memory.get("aa");
+        
+        // Then
+        assertNotNull(held);
+        assertArrayEquals(content, bytes(held));
+        memory.release(held);
+        assertEquals(1, memory.getEntryCount());
+        assertEquals(content.length, memory.getBytes());
+    }
+    
+    @Test
+    @DisplayName("Should keep frequently requested entries over a cold newcomer")
+    void load_ColdCandidateWhenFull_IsNotAdmitted() throws Exception {
+        // Given
+        MemoryTier memory = new MemoryTier(2 * MemoryTier.PAGE_SIZE, MemoryTier.PAGE_SIZE);
+        Path hot = write("aa", new byte[MemoryTier.PAGE_SIZE]);
+        Path warm = write("bb", new byte[MemoryTier.PAGE_SIZE]);
+        Path cold = write("cc", new byte[MemoryTier.PAGE_SIZE]);
+        for (int i = 0; i < 5; i++) {
+            release(memory, memory.get("aa"));
+            release(memory, memory.get("bb"));
+        }
+        release(memory, load(memory, "aa", hot));
+        release(memory, load(memory, "bb", warm));
+        
+        // When
+        assertNull(memory.get("cc"));
+        MemoryTier.Entry rejected = load(memory, "cc", cold);
+        
+        // Then
+        assertNull(rejected);
+        assertEquals(2, memory.getEntryCount());
+    }
+    
+    @Test
+    @DisplayName("Should replace the least recently used entry with a more frequent one")
+    void load_FrequentCandidateWhenFull_ReplacesLeastRecentlyUsed() throws Exception {
+        // Given
+        MemoryTier memory = new MemoryTier(2 * MemoryTier.PAGE_SIZE, MemoryTier.PAGE_SIZE);
+        release(memory, load(memory, "aa", write("aa", new byte[MemoryTier.PAGE_SIZE])));
+        release(memory, load(memory, "bb", write("bb", new byte[MemoryTier.PAGE_SIZE])));
+        Path frequent = write("cc", new byte[MemoryTier.PAGE_SIZE]);
+        for (int i = 0; i < 5; i++) {
+            assertNull(memory.get("cc"));
+        }
+        
+        // When
+        MemoryTier.Entry admitted = load(memory, "cc", frequent);
+        
+        // Then
+        assertNotNull(admitted);
+        memory.release(admitted);
+        assertNull(memory.get("aa"));
+        release(memory, memory.get("bb"));
+        assertEquals(2, memory.getEntryCount());
+    }
+    
+    @Test
+    @DisplayName("Should pass over entries being read when making room")
+    void load_EldestBeingRead_DropsNextEntryInstead() throws Exception {
+        // Given
+        MemoryTier memory = new MemoryTier(2 * MemoryTier.PAGE_SIZE, MemoryTier.PAGE_SIZE);
+        release(memory, load(memory, "aa", write("aa", new byte[MemoryTier.PAGE_SIZE])));
+        release(memory, load(memory, "bb", write("bb", new byte[MemoryTier.PAGE_SIZE])));
+        MemoryTier.Entry reading = memory.get("aa");
+        release(memory, memory.get("bb"));
+        Path frequent = write("cc", new byte[MemoryTier.PAGE_SIZE]);
+        for (int i = 0; i < 5; i++) {
+            assertNull(memory.get("cc"));
+        }
+        
+        // When
+        MemoryTier.Entry admitted = load(memory, "cc", frequent);
+        
+        // Then
+        assertNotNull(admitted);
+        memory.release(admitted);
+        memory.release(reading);
+        assertNull(memory.get("bb"));
+        release(memory, memory.get("aa"));
+        assertEquals(2, memory.getEntryCount());
+    }
+    
+    @Test
+    @DisplayName("Should not keep a copy of an entry stored anew while it was being copied")
+    void load_InvalidatedDuringCopy_IsServedButNotKept() throws Exception {
+        // Given
+        MemoryTier memory = new MemoryTier(64 * 1024, 64 * 1024);
+        byte[] old = new byte[2 * MemoryTier.PAGE_SIZE];
+        new Random(11).nextBytes(old);
+        Path file = write("aa", old);
+        
+        // When
+        MemoryTier.Entry loaded;
+        try (FileChannel channel = new InterceptedChannel(FileChannel.open(file), () -> memory.invalidate("aa"))) {
+            loaded = memory.load("aa", channel);
+        }
+        
+        // Then
+        assertNotNull(loaded);
+        assertArrayEquals(old, bytes(loaded));
+        memory.release(loaded);
+        assertNull(memory.get("aa"));
+        assertEquals(0, memory.getEntryCount());
+        assertEquals(0, memory.getBytes());
+        release(memory, load(memory, "aa", write("aa", new byte[10])));
+        MemoryTier.Entry reloaded = memory.get("aa");
+        assertNotNull(reloaded);
+        assertEquals(10, reloaded.size());
+        memory.release(reloaded);
+    }
+    
+    private Path write(String key, byte[] content) throws IOException {
+        return Files.write(directory.resolve(key), content);
+    }
+    
+    private static MemoryTier.Entry load(MemoryTier memory, String key, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return memory.load(key, channel);
+        }
+    }
+    
+    private static void release(MemoryTier memory, MemoryTier.Entry entry) {
+        if (entry != null) {
+            memory.release(entry);
+        }
+    }
+    
+    private static byte[] bytes(MemoryTier.Entry entry) {
+        ByteBuffer all = ByteBuffer.allocate((int) entry.size());
+        for (ByteBuffer page : entry.buffers()) {
+            all.put(page);
+        }
+        return all.array();
+    }
+    
+    /**
+     * Runs an action before the first scattering read, as a store of the same key would
+     */
+    private static final class InterceptedChannel extends FileChannel {
+        
+        private final FileChannel delegate;
+        private Runnable beforeRead;
+        
+        InterceptedChannel(FileChannel delegate, Runnable beforeRead) {
+            this.delegate = delegate;
+            this.beforeRead = beforeRead;
+        }
+        
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            if (beforeRead != null) {
+                beforeRead.run();
+                beforeRead = null;
+            }
+            return delegate.read(dsts, offset, length);
+        }
+        
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+        
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+        
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+        
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+        
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+        
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+        
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+        
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+        
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+        
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+        
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+        
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+        
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+        
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+        
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+        
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.build.cachenode;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PeerReplicator Tests")
+class PeerReplicatorTest {
+    
+    private static final String KEY = "fedcba9876543210fedcba9876543210";
+    private static final String PASSWORD = "s3cret";
+    
+    @TempDir
+    Path directory;
+    
+    private final List<BuildCacheServer> servers = new ArrayList<>();
+    private final List<AutoCloseable> stalled = new CopyOnWriteArrayList<>();
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        servers.forEach(BuildCacheServer::close);
+        for (AutoCloseable closeable : stalled) {
+            closeable.close();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should read a local miss through from the peer and keep it")
+    void get_MissPresentOnPeer_IsReadThroughAndStored() throws Exception {
+        // Given
+        BuildCacheServer peer = start("peer", 0);
+        BuildCacheServer local = start("local", 0, url(peer.getPort()));
+        byte[] artifact = artifact();
+        assertEquals(201, put(peer, artifact));
+        
+        // When
+        HttpResponse<byte[]> first = get(local);
+        HttpResponse<byte[]> second = get(local);
+        
+        // Then
+        assertEquals(200, first.statusCode());
+        assertArrayEquals(artifact, first.body());
+        assertArrayEquals(artifact, second.body());
+        assertEquals(1, local.getRemoteHitCount());
+        assertEquals(1, peer.getHitCount());
+    }
+    
+    @Test
+    @DisplayName("Should replicate stored entries to the peer in the background")
+    void put_WithPeer_IsReplicated() throws Exception {
+        // Given
+        BuildCacheServer peer = start("peer", 0);
+        BuildCacheServer local = start("local", 0, url(peer.getPort()));
+        byte[] artifact = artifact();
+        
+        // When
+        assertEquals(201, put(local, artifact));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (local.getReplicatedCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        
+        // Then
+        assertEquals(1, peer.getStoreCount());
+        assertEquals(1, local.getReplicatedCount());
+        assertArrayEquals(artifact, get(peer).body());
+        assertEquals(0, peer.getRemoteHitCount());
+    }
+    
+    @Test
+    @DisplayName("Should not bounce requests between servers listing each other")
+    void get_MissOnMutualPeers_EndsAfterOneHop() throws Exception {
+        // Given
+        int localPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            localPort = socket.getLocalPort();
+        }
+        BuildCacheServer peer = start("peer", 0, url(localPort));
+        BuildCacheServer local = start("local", localPort, url(peer.getPort()));
+        
+        // When
+        HttpResponse<byte[]> response = get(local);
+        
+        // Then
+        assertEquals(404, response.statusCode());
+        assertEquals(1, local.getMissCount());
+        assertEquals(1, peer.getMissCount());
+    }
+    
+    @Test
+    @DisplayName("Should give up on a peer that stops sending inside the body")
+    void get_PeerStallsInsideBody_EndsAsMiss() throws Exception {
+        // Given
+        int peerPort = stallingPeer("HTTP/1.1 200 OK\r\nContent-Length: 1000\r\n\r\nten bytes.");
+        BuildCacheServerConfig config = config("local", 0, url(peerPort));
+        config.setPeerTimeout(1);
+        BuildCacheServer local = start(config);
+        
+        // When
+        HttpResponse<byte[]> response = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> get(local));
+        
+        // Then
+        assertEquals(404, response.statusCode());
+        assertEquals(0, local.getRemoteHitCount());
+        assertEquals(1, local.getMissCount());
+    }
+    
+    @Test
+    @DisplayName("Should skip a peer that keeps timing out and retry it once its backoff ends")
+    void get_PeerKeepsTimingOut_IsBackedOffFrom() throws Exception {
+        // Given
+        BuildCacheServerConfig config = config("local", 0, url(stallingPeer(null)));
+        config.setPeerHeadTimeout(1);
+        config.setPeerBackoff(1);
+        BuildCacheServer local = start(config);
+        
+        // When
+        long[] elapsed = new long[6];
+        for (int i = 0; i < elapsed.length; i++) {
+            if (i == 4) {
+                Thread.sleep(1200);
+            }
+            long started = System.nanoTime();
+            assertEquals(404, get(local).statusCode());
+            elapsed[i] = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        }
+        String stats = client.send(HttpRequest.newBuilder(URI.create(url(local.getPort()) + "stats"))
+            .header("Authorization", authorization()).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+        
+        // Then
+        for (int i : new int[] {0, 1, 2, 4}) {
+            assertTrue(elapsed[i] >= 900, "miss " + i + " took " + elapsed[i] + " ms");
+        }
+        for (int i : new int[] {3, 5}) {
+            assertTrue(elapsed[i] < 500, "miss " + i + " took " + elapsed[i] + " ms");
+        }
+        assertTrue(stats.contains("\"skipped\":2}"), stats);
+    }
+    
+    @Test
+    @DisplayName("Should drop stores that find the replication queue full past the offer timeout")
+    void put_QueueFullBehindStalledPeer_DropsStore() throws Exception {
+        // Given
+        BuildCacheServerConfig config = config("local", 0, url(stallingPeer(null)));
+        config.setReplicationQueueSize(1);
+        config.setReplicationThreads(1);
+        BuildCacheServer local = start(config);
+        byte[] artifact = artifact();
+        
+        // When
+        long started = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(201, put(local, artifact));
+        }
+        long elapsed = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        String stats = client.send(HttpRequest.newBuilder(URI.create(url(local.getPort()) + "stats"))
+            .header("Authorization", authorization()).GET().build(), HttpResponse.BodyHandlers.ofString()).body();
+        
+        // Then
+        assertTrue(elapsed >= 900, "stores waited " + elapsed + " ms");
+        assertTrue(stats.contains("\"queued\":1,\"dropped\":1,"), stats);
+        assertEquals(0, local.getReplicatedCount());
+    }
+    
+    private BuildCacheServer start(String name, int port, String... peers) throws IOException {
+        return start(config(name, port, peers));
+    }
+    
+    private BuildCacheServer start(BuildCacheServerConfig config) throws IOException {
+        BuildCacheServer server = new BuildCacheServer(config);
+        servers.add(server);
+        server.start();
+        return server;
+    }
+    
+    private BuildCacheServerConfig config(String name, int port, String... peers) {
+        BuildCacheServerConfig config = new BuildCacheServerConfig();
+        config.setPort(port);
+        config.setDirectory(directory.resolve(name).toString());
+        config.setFreeSpaceBufferSize(0);
+        config.getPeers().addAll(List.of(peers));
+        config.setPeerPassword(PASSWORD);
+        BuildCacheServerConfig.User user = new BuildCacheServerConfig.User();
+        user.setLevel(AccessLevel.READWRITE);
+        user.setPassword(PASSWORD);
+        config.getUsers().put(BuildCacheServerConfig.DEFAULT_USER, user);
+        return config;
+    }
+    
+    /**
+     * A peer that answers each connection with the given bytes, if any, and then sends nothing more
+     */
+    private int stallingPeer(String response) throws IOException {
+        ServerSocket server = new ServerSocket(0);
+        stalled.add(server);
+        Thread acceptor = new Thread(() -> {
+            try {
+                while (true) {
+                    Socket socket = server.accept();
+                    stalled.add(socket);
+                    if (response != null) {
+                        socket.getOutputStream().write(response.getBytes(StandardCharsets.ISO_8859_1));
+                    }
+                }
+            } catch (IOException e) {
+                // Closed by the test
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server.getLocalPort();
+    }
+    
+    private static String url(int port) {
+        return "http://localhost:" + port + "/cache/";
+    }
+    
+    private int put(BuildCacheServer server, byte[] artifact) throws Exception {
+        return client.send(request(server).PUT(HttpRequest.BodyPublishers.ofByteArray(artifact)).build(),
+                           HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    
+    private HttpResponse<byte[]> get(BuildCacheServer server) throws Exception {
+        return client.send(request(server).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+    
+    private static HttpRequest.Builder request(BuildCacheServer server) {
+        return HttpRequest.newBuilder(URI.create(url(server.getPort()) + KEY)).header("Authorization", authorization());
+    }
+    
+    private static String authorization() {
+        String credentials = BuildCacheServerConfig.DEFAULT_USER + ":" + PASSWORD;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static byte[] artifact() {
+        byte[] artifact = new byte[256 * 1024];
+        new Random(11).nextBytes(artifact);
+        return artifact;
+    }
+}
@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.springframework.boot") version "3.1.4"
     id("io.spring.dependency-management") version "1.1.3"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.build"
@@ -12,9 +13,28 @@ repositories {
     mavenCentral()
 }
 
+// Recorded wttr.in responses replayed by the benchmarks and the load tests
+val payloads = "src/payloads"
+
+sourceSets.named("jmh") {
+    resources.srcDir(payloads)
+}
+
+// Offline load tests against a local wttr.in stand-in, see LoadTestRunner
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+    resources.srcDir(payloads)
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.apache.httpcomponents.client5:httpclient5")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.2.0")
     implementation("com.fasterxml.jackson.core:jackson-databind")
     
@@ -31,8 +51,32 @@ dependencies {
     // Lombok for tests
     testCompileOnly("org.projectlombok:lombok")
     testAnnotationProcessor("org.projectlombok:lombok")
+    
+    // Benchmarks
+    jmh("org.springframework:spring-test")
+    
+    // Load tests
+    "loadTestImplementation"("org.hdrhistogram:HdrHistogram:2.1.12")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Drives the service against a fake wttr.in; configure with -PloadTest.<option>=<value>"
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("com.build.loadtest.LoadTestRunner")
+    systemProperties(project.properties.filterKeys { it.startsWith("loadTest.") })
+}
+
+jmh {
+    benchmarkMode.set(listOf("thrpt"))
+    timeUnit.set("s")
+    profilers.set(listOf("gc"))
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    includes.set(listOfNotNull(findProperty("jmh.includes")?.toString()))
+}
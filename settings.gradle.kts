@@ -3,6 +3,9 @@ import java.util.Optional
 
 rootProject.name = "build-cache-node"
 
+// HTTP build cache server the remote cache below points at, see build-cache/README.md
+include("build-cache")
+
 val remoteCacheUrl = URI(System.getProperty("build.cache.node.url", "http://localhost:5071/cache/"))
 
 val isJenkins = Optional.ofNullable(System.getenv("WORKSPACE")).isPresent
@@ -17,6 +20,8 @@ buildCache {
         url = remoteCacheUrl
         isAllowUntrustedServer = true
         isAllowInsecureProtocol = true
+        // Lets the server refuse oversized entries before their body is sent
+        isUseExpectContinue = true
 
         if (cacheNodeUsername.isNotEmpty() && cacheNodePassword.isNotEmpty()) {
 
@@ -0,0 +1,38 @@
+package com.build.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Recorded wttr.in payloads and the object mapper the application binds them with
+ */
+public final class Payloads {
+    
+    /** {@code format=j1} response for Istanbul with three days of 3-hourly entries */
+    public static final String ISTANBUL_J1 = "wttr/istanbul-j1.json";
+    
+    private Payloads() {
+    }
+    
+    public static byte[] load(String name) {
+        try (InputStream in = Payloads.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Payload not found: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * @return a mapper configured like the one Spring Boot creates, most notably
+     *         ignoring the j1 properties the model does not declare
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.build.benchmark;
+
+import com.build.model.WeatherResponse;
+import com.build.model.compact.CompactWeather;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of binding a {@code format=j1} payload, as done for every upstream response
+ */
+@State(Scope.Benchmark)
+public class WeatherResponseBindingBenchmark {
+    
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Payloads.objectMapper();
+        payload = Payloads.load(Payloads.ISTANBUL_J1);
+    }
+    
+    @Benchmark
+    public WeatherResponse bindWeatherResponse() throws IOException {
+        return objectMapper.readValue(payload, WeatherResponse.class);
+    }
+    
+    /**
+     * Binding plus the conversion to the form the response cache holds
+     */
+    @Benchmark
+    public CompactWeather bindCompactWeather() throws IOException {
+        return CompactWeather.from(objectMapper.readValue(payload, WeatherResponse.class));
+    }
+}
@@ -0,0 +1,121 @@
+package com.build.controller;
+
+import com.build.benchmark.Payloads;
+import com.build.cache.CacheRefresher;
+import com.build.cache.HeavyHitters;
+import com.build.cache.RequestCoalescer;
+import com.build.cache.WeatherCache;
+import com.build.compression.ResponseCompressor;
+import com.build.config.WeatherBatchProperties;
+import com.build.config.WeatherCacheProperties;
+import com.build.config.WeatherCompressionProperties;
+import com.build.metrics.WeatherMetrics;
+import com.build.resilience.UpstreamGuard;
+import com.build.resilience.UpstreamHedger;
+import com.build.service.WeatherBatchService;
+import com.build.service.WeatherService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Full request cost without the servlet stack: controller, service, upstream
+ * response binding and the JSON body written by the message converter.
+ * <p>
+ * The upstream is replaced by a request factory that answers every call with the
+ * recorded payload. With {@code cacheEnabled=false} every dispatch binds the
+ * payload again; with {@code cacheEnabled=true} all but the first are cache hits.
+ */
+@State(Scope.Benchmark)
+public class WeatherControllerDispatchBenchmark {
+    
+    private static final String CITY = "Istanbul";
+    
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+    
+    private ObjectMapper objectMapper;
+    private CacheRefresher refresher;
+    private WeatherController controller;
+    
+    @Setup
+    public void setUp() {
+        byte[] payload = Payloads.load(Payloads.ISTANBUL_J1);
+        objectMapper = Payloads.objectMapper();
+        
+        RestTemplate restTemplate = new RestTemplate((uri, method) -> {
+            MockClientHttpResponse response = new MockClientHttpResponse(payload, HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri);
+            request.setResponse(response);
+            return request;
+        });
+        
+        WeatherCacheProperties cacheProperties = new WeatherCacheProperties();
+        cacheProperties.setEnabled(cacheEnabled);
+        refresher = new CacheRefresher("benchmark", Runnable::run);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        WeatherMetrics metrics = new WeatherMetrics(registry);
+        
+        WeatherService weatherService = new WeatherService(
+            restTemplate,
+            new WeatherCache<>("benchmark.responses", cacheProperties),
+            new RequestCoalescer<>("benchmark.responses"),
+            new WeatherCache<>("benchmark.summaries", cacheProperties),
+            new RequestCoalescer<>("benchmark.summaries"),
+            refresher,
+            cacheProperties,
+            Runnable::run,
+            metrics,
+            UpstreamGuard.disabled(),
+            UpstreamHedger.disabled(),
+            new HeavyHitters<>(64),
+            objectMapper);
+        
+        controller = new WeatherController(
+            weatherService, new WeatherBatchService(weatherService, new WeatherBatchProperties()), metrics,
+            new ResponseCompressor(new WeatherCompressionProperties(), registry));
+    }
+    
+    @TearDown
+    public void tearDown() {
+        refresher.close();
+    }
+    
+    @Benchmark
+    public byte[] currentWeather() throws IOException {
+        return writeBody(controller.getCurrentWeather(CITY, null).join());
+    }
+    
+    @Benchmark
+    public byte[] fullWeatherDetails() throws IOException {
+        return writeBody(controller.getFullWeatherDetails(CITY, null, null).join());
+    }
+    
+    @Benchmark
+    public byte[] fullWeatherDetailsGzip() throws IOException {
+        return writeBody(controller.getFullWeatherDetails(CITY, null, "gzip, deflate").join());
+    }
+    
+    private byte[] writeBody(ResponseEntity<?> response) throws IOException {
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new IllegalStateException("Dispatch failed with " + response.getStatusCode());
+        }
+        if (response.getBody() instanceof byte[] body) {
+            return body;
+        }
+        return objectMapper.writeValueAsBytes(response.getBody());
+    }
+}
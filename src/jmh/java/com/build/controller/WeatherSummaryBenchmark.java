@@ -0,0 +1,41 @@
+package com.build.controller;
+
+import com.build.benchmark.Payloads;
+import com.build.dto.WeatherSummaryDto;
+import com.build.model.WeatherResponse;
+import com.build.service.WeatherSummaryReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of reducing a payload to a {@link WeatherSummaryDto}, from a bound
+ * response and directly from the JSON stream
+ */
+@State(Scope.Benchmark)
+public class WeatherSummaryBenchmark {
+    
+    private final WeatherSummaryReader summaryReader = new WeatherSummaryReader();
+    
+    private byte[] payload;
+    private WeatherResponse response;
+    
+    @Setup
+    public void setUp() throws IOException {
+        payload = Payloads.load(Payloads.ISTANBUL_J1);
+        response = Payloads.objectMapper().readValue(payload, WeatherResponse.class);
+    }
+    
+    @Benchmark
+    public WeatherSummaryDto convertToSummary() {
+        return WeatherController.convertToSummary(response);
+    }
+    
+    @Benchmark
+    public WeatherSummaryDto readSummary() throws IOException {
+        return summaryReader.read(new ByteArrayInputStream(payload));
+    }
+}
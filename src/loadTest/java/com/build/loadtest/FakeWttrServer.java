@@ -0,0 +1,151 @@
+package com.build.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local stand-in for wttr.in answering {@code GET /{city}?format=j1} with a recorded
+ * payload, after an artificial delay and with injected failures.
+ * <p>
+ * Every request first waits for the configured latency, then fails with {@code 429}
+ * (and a {@code Retry-After} header) when throttled, with {@code 500} at the error
+ * rate, and otherwise returns the payload. Throttling happens either at random or
+ * when the request rate exceeds {@code maxRps}.
+ */
+public class FakeWttrServer implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FakeWttrServer.class);
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] payload;
+    private final LatencyModel latency;
+    private final double errorRate;
+    private final double throttleRate;
+    private final RateWindow rateWindow;
+    
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    
+    public FakeWttrServer(int port, byte[] payload, LatencyModel latency,
+                          double errorRate, double throttleRate, int maxRps) throws IOException {
+        this.payload = payload;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.rateWindow = maxRps > 0 ? new RateWindow(maxRps) : null;
+        
+        // Latency is simulated by sleeping, so every request needs its own thread
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+    
+    public static byte[] loadPayload(String resource) {
+        try (InputStream in = FakeWttrServer.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Payload not found: " + resource);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public void start() {
+        server.start();
+        logger.info("Fake wttr.in listening on {}", getBaseUrl());
+    }
+    
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    public long getRequestCount() {
+        return requests.get();
+    }
+    
+    public long getErrorCount() {
+        return errors.get();
+    }
+    
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            Random random = ThreadLocalRandom.current();
+            
+            long delay = latency.nextMillis(random);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            
+            if (random.nextDouble() < throttleRate || (rateWindow != null && !rateWindow.tryAcquire())) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+            
+            if (random.nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(payload);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Fixed one-second window, which is enough to model an upstream rate limit
+     */
+    private static final class RateWindow {
+        
+        private final int limit;
+        private long windowStart;
+        private int count;
+        
+        RateWindow(int limit) {
+            this.limit = limit;
+        }
+        
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            if (now - windowStart >= 1_000_000_000L) {
+                windowStart = now;
+                count = 0;
+            }
+            return ++count <= limit;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.build.loadtest;
+
+import java.util.Random;
+
+/**
+ * Distribution of the artificial latency {@link FakeWttrServer} adds to each response.
+ * <p>
+ * Parsed from a spec string, all values in milliseconds:
+ * <ul>
+ *   <li>{@code fixed:50}</li>
+ *   <li>{@code uniform:20-200}</li>
+ *   <li>{@code lognormal:80:0.6} - median and sigma, a long right tail like real upstreams</li>
+ *   <li>{@code bimodal:40:800:0.05} - fast and slow mode with the probability of the slow one</li>
+ * </ul>
+ */
+public interface LatencyModel {
+    
+    LatencyModel NONE = random -> 0;
+    
+    long nextMillis(Random random);
+    
+    static LatencyModel parse(String spec) {
+        if (spec == null || spec.isBlank() || spec.equals("none")) {
+            return NONE;
+        }
+        
+        String[] parts = spec.split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed" -> {
+                    long millis = Long.parseLong(parts[1]);
+                    return random -> millis;
+                }
+                case "uniform" -> {
+                    String[] range = parts[1].split("-");
+                    long min = Long.parseLong(range[0]);
+                    long max = Long.parseLong(range[1]);
+                    return random -> min + (long) (random.nextDouble() * (max - min));
+                }
+                case "lognormal" -> {
+                    double mu = Math.log(Double.parseDouble(parts[1]));
+                    double sigma = Double.parseDouble(parts[2]);
+                    return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+                }
+                case "bimodal" -> {
+                    long fast = Long.parseLong(parts[1]);
+                    long slow = Long.parseLong(parts[2]);
+                    double slowProbability = Double.parseDouble(parts[3]);
+                    return random -> random.nextDouble() < slowProbability ? slow : fast;
+                }
+                default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed latency model: " + spec, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.build.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Open-loop load generator: requests are issued on a fixed schedule derived from
+ * the target rate, independently of how fast earlier ones complete.
+ * <p>
+ * Latency is measured from the <em>scheduled</em> send time, not the actual one,
+ * so a stalled service shows up in the tail instead of silently lowering the
+ * offered load (coordinated omission). Requests that would exceed
+ * {@code maxInFlight} are not sent and counted as dropped.
+ */
+public class LoadDriver {
+    
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<String> paths;
+    private final List<String> cities;
+    private final Duration requestTimeout;
+    
+    public LoadDriver(String baseUrl, List<String> paths, List<String> cities, Duration requestTimeout) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+            .build();
+        this.baseUrl = baseUrl;
+        this.paths = paths;
+        this.cities = cities;
+        this.requestTimeout = requestTimeout;
+    }
+    
+    public LoadResult run(int rps, Duration warmup, Duration duration, int maxInFlight) throws InterruptedException {
+        Histogram histogram = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long start = System.nanoTime();
+        long measureStart = start + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+        
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            boolean measured = scheduled >= measureStart;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            
+            client.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    if (!measured) {
+                        return;
+                    }
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                    histogram.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+                    if (error != null) {
+                        failures.increment();
+                    } else {
+                        statusCounts.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                    }
+                });
+        }
+        
+        // Let outstanding requests finish so their latency is part of the result
+        if (inFlight.tryAcquire(maxInFlight, requestTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        
+        return new LoadResult(rps, duration, histogram, statusCounts, failures.sum(), dropped.sum());
+    }
+    
+    private HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = paths.get(random.nextInt(paths.size()));
+        String city = cities.get(random.nextInt(cities.size()));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path.replace("{city}", city)))
+            .timeout(requestTimeout)
+            .GET()
+            .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.build.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Outcome of a {@link LoadDriver} run, latencies in microseconds
+ */
+public record LoadResult(int targetRps, Duration duration, Histogram histogram,
+                         Map<Integer, LongAdder> statusCounts, long failures, long dropped) {
+    
+    public long completed() {
+        return histogram.getTotalCount();
+    }
+    
+    public double throughput() {
+        return completed() / (duration.toMillis() / 1000.0);
+    }
+    
+    /**
+     * @return share of scheduled requests that did not get a 2xx answer
+     */
+    public double errorRate() {
+        long scheduled = completed() + dropped;
+        if (scheduled == 0) {
+            return 0;
+        }
+        long successful = statusCounts.entrySet().stream()
+            .filter(e -> e.getKey() >= 200 && e.getKey() < 300)
+            .mapToLong(e -> e.getValue().sum())
+            .sum();
+        return 1.0 - (double) successful / scheduled;
+    }
+    
+    public double percentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    public void print(PrintStream out) {
+        out.printf("%nTarget rate     %d req/s for %ds%n", targetRps, duration.toSeconds());
+        out.printf("Throughput      %.1f req/s (%d completed, %d dropped, %d failed)%n",
+            throughput(), completed(), dropped, failures);
+        out.printf("Status codes    %s%n", new TreeMap<>(statusCounts));
+        out.printf("Error rate      %.3f%%%n", errorRate() * 100);
+        out.printf("Latency (ms)    p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+            percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(99.9),
+            histogram.getMaxValue() / 1000.0);
+    }
+    
+    /**
+     * @return the violated limits, empty if the run passed. A limit of {@code 0} or
+     *         less is not checked.
+     */
+    public List<String> check(double maxP99Millis, double maxErrorRate) {
+        List<String> violations = new ArrayList<>();
+        if (maxP99Millis > 0 && percentileMillis(99) > maxP99Millis) {
+            violations.add(String.format("p99 %.2fms exceeds %.2fms", percentileMillis(99), maxP99Millis));
+        }
+        if (maxErrorRate >= 0 && errorRate() > maxErrorRate) {
+            violations.add(String.format("error rate %.4f exceeds %.4f", errorRate(), maxErrorRate));
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,117 @@
+package com.build.loadtest;
+
+import com.build.WeatherApplication;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the service against {@link FakeWttrServer} and drives it with {@link LoadDriver}.
+ * <p>
+ * Everything is configured through {@code loadTest.*} system properties, which the
+ * {@code loadTest} Gradle task forwards from {@code -P} project properties, e.g.
+ * {@code ./gradlew loadTest -PloadTest.rps=500 -PloadTest.upstream.latency=lognormal:120:0.8}.
+ * When {@code loadTest.target} is set, an already running service is driven
+ * instead and no fake upstream or application is started.
+ * <p>
+ * The process exits with status 1 when {@code loadTest.maxP99Ms} or
+ * {@code loadTest.maxErrorRate} is exceeded.
+ */
+public final class LoadTestRunner {
+    
+    private static final String DEFAULT_PATHS =
+        "/api/weather/current/{city},/api/weather/forecast/{city}?days=3,/api/weather/full/{city}";
+    
+    private static final String DEFAULT_CITIES =
+        "Istanbul,Ankara,Izmir,Bursa,Antalya,Konya,Adana,Trabzon,London,Paris,"
+            + "Berlin,Madrid,Rome,Vienna,Prague,Warsaw,Athens,Lisbon,Dublin,Oslo";
+    
+    private LoadTestRunner() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.parseInt(property("rps", "100"));
+        Duration warmup = DurationStyle.detectAndParse(property("warmup", "5s"));
+        Duration duration = DurationStyle.detectAndParse(property("duration", "30s"));
+        int maxInFlight = Integer.parseInt(property("maxInFlight", "2000"));
+        Duration requestTimeout = DurationStyle.detectAndParse(property("requestTimeout", "30s"));
+        List<String> paths = split(property("paths", DEFAULT_PATHS));
+        List<String> cities = split(property("cities", DEFAULT_CITIES));
+        double maxP99Millis = Double.parseDouble(property("maxP99Ms", "0"));
+        double maxErrorRate = Double.parseDouble(property("maxErrorRate", "-1"));
+        
+        FakeWttrServer upstream = null;
+        ConfigurableApplicationContext application = null;
+        LoadResult result;
+        try {
+            String target = System.getProperty("loadTest.target");
+            if (target == null) {
+                upstream = new FakeWttrServer(
+                    Integer.parseInt(property("upstream.port", "0")),
+                    FakeWttrServer.loadPayload(property("upstream.payload", "wttr/istanbul-j1.json")),
+                    LatencyModel.parse(property("upstream.latency", "lognormal:80:0.5")),
+                    Double.parseDouble(property("upstream.errorRate", "0")),
+                    Double.parseDouble(property("upstream.throttleRate", "0")),
+                    Integer.parseInt(property("upstream.maxRps", "0")));
+                upstream.start();
+                
+                application = startApplication(upstream.getBaseUrl());
+                int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+                target = "http://127.0.0.1:" + port;
+            }
+            
+            LoadDriver driver = new LoadDriver(target, paths, cities, requestTimeout);
+            result = driver.run(rps, warmup, duration, maxInFlight);
+            result.print(System.out);
+            if (upstream != null) {
+                System.out.printf("Upstream        %d requests (%d errors, %d throttled)%n",
+                    upstream.getRequestCount(), upstream.getErrorCount(), upstream.getThrottledCount());
+            }
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+            if (upstream != null) {
+                upstream.close();
+            }
+        }
+        
+        List<String> violations = result.check(maxP99Millis, maxErrorRate);
+        violations.forEach(v -> System.out.println("FAILED: " + v));
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+    
+    private static ConfigurableApplicationContext startApplication(String upstreamBaseUrl) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--weather.http-client.base-url=" + upstreamBaseUrl);
+        args.add("--logging.level.com.build=WARN");
+        List<String> appArgs = split(property("appArgs", ""));
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--weather.cache.snapshot.enabled="))) {
+            // Fake payloads must not end up in the snapshots a real instance starts warm from
+            args.add("--weather.cache.snapshot.enabled=false");
+        }
+        if (appArgs.stream().noneMatch(arg -> arg.startsWith("--weather.resilience.rate-limit.enabled="))) {
+            // The fake upstream does not throttle; the wttr.in rate limit would only cap the offered load
+            args.add("--weather.resilience.rate-limit.enabled=false");
+        }
+        args.addAll(appArgs);
+        return new SpringApplicationBuilder(WeatherApplication.class).run(args.toArray(new String[0]));
+    }
+    
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadTest." + name, defaultValue);
+    }
+    
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .toList();
+    }
+}
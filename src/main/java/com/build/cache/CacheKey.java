@@ -0,0 +1,36 @@
+package com.build.cache;
+
+import java.util.Locale;
+
+/**
+ * Identifies a cached upstream response. City names are normalized so that
+ * "Istanbul", " istanbul " and "ISTANBUL" share one entry.
+ *
+ * @param view which representation of the city's weather is cached
+ * @param city normalized city name
+ * @param days forecast days, or 0 for current weather lookups
+ */
+public record CacheKey(View view, String city, int days) {
+    
+    public enum View {
+        CURRENT,
+        FORECAST,
+        SUMMARY
+    }
+    
+    public static CacheKey current(String city) {
+        return new CacheKey(View.CURRENT, normalize(city), 0);
+    }
+    
+    public static CacheKey forecast(String city, int days) {
+        return new CacheKey(View.FORECAST, normalize(city), days);
+    }
+    
+    public static CacheKey summary(String city) {
+        return new CacheKey(View.SUMMARY, normalize(city), 0);
+    }
+    
+    static String normalize(String city) {
+        return city.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,95 @@
+package com.build.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs background refreshes of stale cache entries, at most one per key at a time.
+ * <p>
+ * Refresh failures are logged and counted but never surface to callers; the
+ * stale entry stays in place until it ages out of its stale window.
+ */
+public class CacheRefresher implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheRefresher.class);
+    
+    private final String name;
+    private final Executor executor;
+    private final Set<CacheKey> pending = ConcurrentHashMap.newKeySet();
+    
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    
+    public CacheRefresher(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+    
+    /**
+     * Schedules the refresh unless one for the same key is already pending
+     *
+     * @return true if a refresh was scheduled by this call
+     */
+    public boolean refresh(CacheKey key, Runnable refresh) {
+        if (!pending.add(key)) {
+            return false;
+        }
+        
+        try {
+            executor.execute(() -> {
+                try {
+                    refresh.run();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                    logger.warn("Background refresh failed for {}: {}", key, e.getMessage());
+                } finally {
+                    pending.remove(key);
+                }
+            });
+            scheduled.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            rejected.increment();
+            logger.warn("Background refresh rejected for {}", key);
+            return false;
+        }
+    }
+    
+    /**
+     * Stops the underlying executor if the refresher was given one it can shut down
+     */
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public long getScheduledCount() {
+        return scheduled.sum();
+    }
+    
+    public long getFailedCount() {
+        return failed.sum();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
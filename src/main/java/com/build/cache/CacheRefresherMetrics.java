@@ -0,0 +1,44 @@
+package com.build.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes background refresh activity of a {@link CacheRefresher}.
+ */
+public class CacheRefresherMetrics implements MeterBinder {
+    
+    private final CacheRefresher refresher;
+    
+    public CacheRefresherMetrics(CacheRefresher refresher) {
+        this.refresher = refresher;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.refresh.calls", refresher, CacheRefresher::getScheduledCount)
+            .tag("name", refresher.getName())
+            .tag("result", "scheduled")
+            .description("Background refreshes handed to the refresh executor")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.refresh.calls", refresher, CacheRefresher::getFailedCount)
+            .tag("name", refresher.getName())
+            .tag("result", "failed")
+            .description("Background refreshes whose upstream call failed")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.refresh.calls", refresher, CacheRefresher::getRejectedCount)
+            .tag("name", refresher.getName())
+            .tag("result", "rejected")
+            .description("Background refreshes dropped because the refresh executor was saturated")
+            .register(registry);
+        
+        Gauge.builder("weather.refresh.pending", refresher, CacheRefresher::getPendingCount)
+            .tag("name", refresher.getName())
+            .description("Keys with a background refresh queued or running")
+            .register(registry);
+    }
+}
@@ -0,0 +1,63 @@
+package com.build.cache;
+
+/**
+ * Second level behind a {@link WeatherCache} that keeps entries across restarts.
+ * <p>
+ * The cache reports every change to the store and asks it for keys it does not
+ * hold in memory. Changes are reported with the cache monitor held, so writes are
+ * expected to be handed off rather than performed inline; {@link #load} is called
+ * without it and may read from disk.
+ */
+public interface CacheStore<V> extends AutoCloseable {
+    
+    /**
+     * @return a store that keeps nothing
+     */
+    @SuppressWarnings("unchecked")
+    static <V> CacheStore<V> none() {
+        return (CacheStore<V>) NoCacheStore.INSTANCE;
+    }
+    
+    void stored(CacheKey key, V value, long expiresAt);
+    
+    void removed(CacheKey key);
+    
+    void cleared();
+    
+    /**
+     * @return the persisted entry for the key, or {@code null} if there is none
+     */
+    Stored<V> load(CacheKey key);
+    
+    @Override
+    default void close() {
+    }
+    
+    record Stored<V>(V value, long expiresAt) {
+    }
+    
+    final class NoCacheStore implements CacheStore<Object> {
+        
+        private static final NoCacheStore INSTANCE = new NoCacheStore();
+        
+        private NoCacheStore() {
+        }
+        
+        @Override
+        public void stored(CacheKey key, Object value, long expiresAt) {
+        }
+        
+        @Override
+        public void removed(CacheKey key) {
+        }
+        
+        @Override
+        public void cleared() {
+        }
+        
+        @Override
+        public Stored<Object> load(CacheKey key) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.build.cache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * A value together with the validators of the cache entry it came from
+ *
+ * @param value     the value handed out
+ * @param etag      strong entity tag of the value, or {@code null} if the cache cannot tag values
+ * @param expiresAt when the entry expires in epoch millis, or 0 if the value is not cached
+ */
+public record CachedValue<V>(V value, String etag, long expiresAt) {
+    
+    /**
+     * Converts the value, keeping the validators of the entry
+     */
+    public <R> CachedValue<R> map(Function<? super V, ? extends R> mapper) {
+        return new CachedValue<>(mapper.apply(value), etag, expiresAt);
+    }
+    
+    /**
+     * How much longer the value is fresh, zero once it has expired
+     */
+    public Duration freshFor(long now) {
+        return Duration.ofMillis(Math.max(0, expiresAt - now));
+    }
+}
@@ -0,0 +1,25 @@
+package com.build.cache;
+
+import com.build.model.compact.CompactWeather;
+import com.build.model.compact.CompactWeatherBinary;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class CompactWeatherSnapshotCodec implements SnapshotCodec<CompactWeather> {
+    
+    @Override
+    public int version() {
+        return CompactWeatherBinary.FORMAT_VERSION;
+    }
+    
+    @Override
+    public void write(CompactWeather value, DataOutput out) throws IOException {
+        CompactWeatherBinary.write(value, out);
+    }
+    
+    @Override
+    public CompactWeather read(DataInput in) throws IOException {
+        return CompactWeatherBinary.read(in);
+    }
+}
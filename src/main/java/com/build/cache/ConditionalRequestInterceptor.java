@@ -0,0 +1,161 @@
+package com.build.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Revalidates upstream responses instead of downloading them again.
+ * <p>
+ * A GET response carrying an {@code ETag} or {@code Last-Modified} header is
+ * remembered per URI, body included. The next request for that URI sends
+ * {@code If-None-Match} / {@code If-Modified-Since}, and a 304 answer is replayed
+ * as the remembered response, so callers never see the 304. Responses without
+ * validators pass through untouched and are not remembered; that is what wttr.in
+ * answers today, in which case the interceptor costs one map lookup per call.
+ */
+public class ConditionalRequestInterceptor implements ClientHttpRequestInterceptor {
+    
+    private final int maxEntries;
+    private final Map<URI, Validated> validated = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+    
+    public ConditionalRequestInterceptor(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+        
+        URI uri = request.getURI();
+        Validated known = get(uri);
+        if (known != null) {
+            if (known.etag() != null) {
+                request.getHeaders().setIfNoneMatch(known.etag());
+            }
+            if (known.lastModified() != null) {
+                request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, known.lastModified());
+            }
+        }
+        
+        ClientHttpResponse response = execution.execute(request, body);
+        if (known != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            notModified.increment();
+            return known.replay();
+        }
+        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK)) {
+            return response;
+        }
+        
+        String etag = response.getHeaders().getETag();
+        String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            if (known != null) {
+                remove(uri);
+            }
+            return response;
+        }
+        
+        Validated fresh;
+        try (response) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            fresh = new Validated(response.getStatusCode(), response.getStatusText(), HttpHeaders.readOnlyHttpHeaders(headers),
+                StreamUtils.copyToByteArray(response.getBody()), etag, lastModified);
+        }
+        put(uri, fresh);
+        if (known != null) {
+            modified.increment();
+        }
+        return fresh.replay();
+    }
+    
+    private synchronized Validated get(URI uri) {
+        return validated.get(uri);
+    }
+    
+    private synchronized void remove(URI uri) {
+        validated.remove(uri);
+    }
+    
+    private synchronized void put(URI uri, Validated response) {
+        validated.put(uri, response);
+        Iterator<Validated> eldest = validated.values().iterator();
+        while (validated.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+    
+    public synchronized int size() {
+        return validated.size();
+    }
+    
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+    
+    public long getModifiedCount() {
+        return modified.sum();
+    }
+    
+    private record Validated(HttpStatusCode status, String statusText, HttpHeaders headers, byte[] body,
+                             String etag, String lastModified) {
+        
+        ClientHttpResponse replay() {
+            return new ClientHttpResponse() {
+                
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return status;
+                }
+                
+                @Override
+                @Deprecated
+                public int getRawStatusCode() {
+                    return status.value();
+                }
+                
+                @Override
+                public String getStatusText() {
+                    return statusText;
+                }
+                
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+                
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+                
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
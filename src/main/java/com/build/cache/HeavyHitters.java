@@ -0,0 +1,138 @@
+package com.build.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving sketch of the most requested keys.
+ * <p>
+ * At most {@code capacity} keys are counted. A key that is not counted yet
+ * replaces the one with the smallest count and inherits that count as its
+ * error, so counts are upper bounds and {@code count - error} is a guaranteed
+ * lower bound. Every key requested more often than {@code total / capacity}
+ * is always among the counted ones. {@link #decay()} halves all counts so the
+ * ranking follows the recent request rate rather than the all-time total.
+ */
+public class HeavyHitters<K> {
+    
+    private final int capacity;
+    private final Map<K, Counter<K>> counters = new HashMap<>();
+    private final TreeSet<Counter<K>> byCount = new TreeSet<>(
+        Comparator.<Counter<K>>comparingLong(counter -> counter.count).thenComparingLong(counter -> counter.sequence));
+    private long sequence;
+    private long total;
+    
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+    
+    public void offer(K key) {
+        offer(key, 1);
+    }
+    
+    /**
+     * Counts {@code weight} requests of the key at once, for callers that offer
+     * only a sample of them
+     */
+    public synchronized void offer(K key, long weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be positive");
+        }
+        Counter<K> counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter<>(key, 0, 0);
+            } else {
+                Counter<K> smallest = byCount.pollFirst();
+                counters.remove(smallest.key);
+                counter = new Counter<>(key, smallest.count, smallest.count);
+            }
+            counters.put(key, counter);
+        } else {
+            byCount.remove(counter);
+        }
+        counter.count += weight;
+        counter.sequence = sequence++;
+        byCount.add(counter);
+        total += weight;
+    }
+    
+    /**
+     * Returns up to {@code limit} keys with the highest counts, highest first
+     */
+    public synchronized List<Hitter<K>> top(int limit) {
+        List<Hitter<K>> top = new ArrayList<>(Math.min(limit, counters.size()));
+        Iterator<Counter<K>> descending = byCount.descendingIterator();
+        while (top.size() < limit && descending.hasNext()) {
+            Counter<K> counter = descending.next();
+            top.add(new Hitter<>(counter.key, counter.count, counter.error));
+        }
+        return top;
+    }
+    
+    /**
+     * Halves every count and forgets keys whose count drops to zero
+     */
+    public synchronized void decay() {
+        List<Counter<K>> decayed = new ArrayList<>(byCount);
+        byCount.clear();
+        for (Counter<K> counter : decayed) {
+            counter.count /= 2;
+            counter.error /= 2;
+            if (counter.count == 0) {
+                counters.remove(counter.key);
+            } else {
+                byCount.add(counter);
+            }
+        }
+        total /= 2;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public synchronized int size() {
+        return counters.size();
+    }
+    
+    /**
+     * Offers counted since creation, halved by every decay like the counts themselves
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+    
+    /**
+     * @param count upper bound on the offers of the key
+     * @param error how much of the count may belong to keys the key replaced
+     */
+    public record Hitter<K>(K key, long count, long error) {
+        
+        public long guaranteedCount() {
+            return count - error;
+        }
+    }
+    
+    private static final class Counter<K> {
+        
+        private final K key;
+        private long count;
+        private long error;
+        private long sequence;
+        
+        private Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.build.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into a single call.
+ * <p>
+ * The first caller for a key runs the loader; callers arriving while it is in
+ * flight block on the same result. Failures are handed to every waiter and are
+ * not remembered, so the next caller after a failure starts a fresh load.
+ */
+public class RequestCoalescer<K, V> {
+    
+    private final String name;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    
+    public RequestCoalescer(String name) {
+        this.name = name;
+    }
+    
+    /**
+     * Runs the loader for the key unless a load for it is already in flight,
+     * in which case the in-flight result (or failure) is returned instead
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        
+        leaders.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+    
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+    
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+    
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+}
@@ -0,0 +1,39 @@
+package com.build.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes how many upstream calls a {@link RequestCoalescer} started versus
+ * how many callers piggybacked on an in-flight call.
+ */
+public class RequestCoalescerMetrics implements MeterBinder {
+    
+    private final RequestCoalescer<?, ?> coalescer;
+    
+    public RequestCoalescerMetrics(RequestCoalescer<?, ?> coalescer) {
+        this.coalescer = coalescer;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.coalescer.calls", coalescer, RequestCoalescer::getLeaderCount)
+            .tag("name", coalescer.getName())
+            .tag("result", "executed")
+            .description("Loads that were executed because none was in flight")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.coalescer.calls", coalescer, RequestCoalescer::getCoalescedCount)
+            .tag("name", coalescer.getName())
+            .tag("result", "coalesced")
+            .description("Loads that joined an in-flight call instead of starting their own")
+            .register(registry);
+        
+        Gauge.builder("weather.coalescer.in.flight", coalescer, RequestCoalescer::getInFlightCount)
+            .tag("name", coalescer.getName())
+            .description("Keys with a load currently in flight")
+            .register(registry);
+    }
+}
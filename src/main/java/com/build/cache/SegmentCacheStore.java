@@ -0,0 +1,782 @@
+package com.build.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link CacheStore} backed by append-only segment files, so a restarted instance
+ * starts with the entries of the previous one instead of asking wttr.in for all of
+ * them at once.
+ * <p>
+ * Every change is appended to the active segment by a single writer thread; the
+ * caller only hands the value over. Segments left by earlier runs and compacted
+ * segments are memory-mapped, and a record is only decoded when the cache asks
+ * for its key. The segments are indexed by walking the record headers on the
+ * writer thread right after construction, so startup does not wait for it and a
+ * lookup only waits if it arrives before the index is built.
+ * <p>
+ * Compaction copies the latest record of every key that is still within its
+ * retention into a fresh segment and deletes all older segments. It runs once
+ * superseded, removed and expired records take up at least half as many bytes as
+ * the live ones, or once restarts have left more than {@value #MAX_SEGMENTS}
+ * segments behind.
+ * <p>
+ * A segment starts with {@code [int magic][int format version][int codec version]},
+ * followed by records of the form
+ * {@code [int length][int crc32][byte type][long expiresAt][byte view][short days][short cityLength][city][value]},
+ * where length and checksum cover everything after the checksum. A torn record at
+ * the end of a segment ends the scan of that segment; a record whose checksum does
+ * not match is dropped when it is read.
+ * <p>
+ * Only one store per name may use a directory at a time. It holds a lock on
+ * {@code <name>.lock} while open, and a store that finds the lock taken, e.g. by a
+ * second instance on the same host, runs without persisting anything rather than
+ * indexing and compacting away the other one's active segment.
+ */
+public class SegmentCacheStore<V> implements CacheStore<V> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SegmentCacheStore.class);
+    
+    private static final int MAGIC = 0x57534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int RECORD_PREFIX = 8;
+    private static final int MIN_BODY = 14;
+    private static final int MAX_BODY = 16 * 1024 * 1024;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final String SUFFIX = ".seg";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final double GARBAGE_RATIO = 0.5;
+    private static final int MAX_SEGMENTS = 4;
+    
+    private final String name;
+    private final Path directory;
+    private final SnapshotCodec<V> codec;
+    private final long retentionMillis;
+    private final int maxPendingWrites;
+    private final Clock clock;
+    private final Pattern segmentName;
+    private final ScheduledExecutorService writer;
+    
+    private final Map<CacheKey, Location> index = new ConcurrentHashMap<>();
+    private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+    private final List<Segment> segments = new ArrayList<>();
+    private volatile Segment active;
+    private volatile boolean indexed;
+    private FileChannel lockChannel;
+    
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder garbageBytes = new LongAdder();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder loaded = new LongAdder();
+    private final LongAdder corrupt = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    
+    /**
+     * @param retention          how long past its expiry a record is still handed out and kept
+     * @param compactionInterval time between compaction runs
+     * @param maxPendingWrites   changes waiting for the writer beyond which new ones are dropped
+     */
+    public SegmentCacheStore(String name, Path directory, SnapshotCodec<V> codec, Duration retention,
+                             Duration compactionInterval, int maxPendingWrites, Clock clock) {
+        this.name = name;
+        this.directory = directory;
+        this.codec = codec;
+        this.retentionMillis = retention.toMillis();
+        this.maxPendingWrites = maxPendingWrites;
+        this.clock = clock;
+        this.segmentName = Pattern.compile(Pattern.quote(name) + "\\.(\\d+)" + Pattern.quote(SUFFIX));
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-snapshot-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(this::ensureIndexed);
+        long interval = compactionInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::compactIfNeeded, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void stored(CacheKey key, V value, long expiresAt) {
+        submit(() -> append(key, PUT, value, expiresAt));
+    }
+    
+    @Override
+    public void removed(CacheKey key) {
+        Location removed = index.remove(key);
+        if (removed != null) {
+            garbageBytes.add(removed.length());
+        }
+        submit(() -> append(key, REMOVE, null, 0));
+    }
+    
+    @Override
+    public void cleared() {
+        garbageBytes.add(index.values().stream().mapToLong(Location::length).sum());
+        index.clear();
+        submit(this::compactQuietly);
+    }
+    
+    @Override
+    public Stored<V> load(CacheKey key) {
+        ensureIndexed();
+        segmentsLock.readLock().lock();
+        Location location = index.get(key);
+        try {
+            if (location == null || clock.millis() - location.expiresAt() >= retentionMillis) {
+                return null;
+            }
+            
+            byte[] record = location.segment().read(location.offset(), location.length());
+            DataInputStream in = verify(record);
+            byte type = in.readByte();
+            long expiresAt = in.readLong();
+            CacheKey storedKey = readKey(in);
+            if (type != PUT || !key.equals(storedKey)) {
+                throw new IOException("Record does not match its index entry");
+            }
+            V value = codec.read(in);
+            loaded.increment();
+            return new Stored<>(value, expiresAt);
+        } catch (IOException | RuntimeException e) {
+            corrupt.increment();
+            index.remove(key, location);
+            logger.warn("Dropping unreadable snapshot record for {} in {}: {}",
+                        key, location.segment().path().getFileName(), e.toString());
+            return null;
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Waits until all changes handed to the store so far are written
+     */
+    public void flush() {
+        await(writer.submit(() -> { }));
+    }
+    
+    /**
+     * Compacts the segments now and waits for it to finish
+     */
+    public void compact() {
+        await(writer.submit(this::compactQuietly));
+    }
+    
+    private void await(Future<?> future) {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Snapshot store '{}' did not finish in time: {}", name, e.toString());
+        }
+    }
+    
+    private void submit(Runnable task) {
+        if (pending.incrementAndGet() > maxPendingWrites) {
+            pending.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            dropped.increment();
+        }
+    }
+    
+    private void append(CacheKey key, byte type, V value, long expiresAt) {
+        ensureIndexed();
+        Segment segment = active;
+        if (segment == null) {
+            dropped.increment();
+            return;
+        }
+        
+        try {
+            byte[] record = encode(key, type, value, expiresAt);
+            long position = segment.size();
+            write(segment.channel(), ByteBuffer.wrap(record), position);
+            segment.grow(record.length);
+            appended.increment();
+            
+            Location previous;
+            if (type == PUT) {
+                previous = index.put(key, new Location(segment, position, record.length, expiresAt));
+            } else {
+                previous = index.remove(key);
+                garbageBytes.add(record.length);
+            }
+            if (previous != null) {
+                garbageBytes.add(previous.length());
+            }
+        } catch (IOException | RuntimeException e) {
+            dropped.increment();
+            logger.warn("Could not persist {} to snapshot store '{}': {}", key, name, e.toString());
+        }
+    }
+    
+    private byte[] encode(CacheKey key, byte type, V value, long expiresAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(type == PUT ? 2048 : 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(0);
+        out.writeByte(type);
+        out.writeLong(expiresAt);
+        out.writeByte(key.view().ordinal());
+        out.writeShort(key.days());
+        byte[] city = key.city().getBytes(StandardCharsets.UTF_8);
+        out.writeShort(city.length);
+        out.write(city);
+        if (type == PUT) {
+            codec.write(value, out);
+        }
+        out.flush();
+        
+        byte[] record = bytes.toByteArray();
+        int length = record.length - RECORD_PREFIX;
+        if (length > MAX_BODY) {
+            throw new IOException("Record of " + length + " bytes exceeds the maximum");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_PREFIX, length);
+        ByteBuffer.wrap(record).putInt(0, length).putInt(4, (int) crc.getValue());
+        return record;
+    }
+    
+    private static DataInputStream verify(byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int length = buffer.getInt(0);
+        if (length != record.length - RECORD_PREFIX) {
+            throw new IOException("Record length mismatch");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, RECORD_PREFIX, length);
+        if ((int) crc.getValue() != buffer.getInt(4)) {
+            throw new IOException("Record checksum mismatch");
+        }
+        return new DataInputStream(new ByteArrayInputStream(record, RECORD_PREFIX, length));
+    }
+    
+    private static CacheKey readKey(DataInput in) throws IOException {
+        int view = in.readUnsignedByte();
+        if (view >= CacheKey.View.values().length) {
+            throw new IOException("Unknown view " + view);
+        }
+        int days = in.readShort();
+        byte[] city = new byte[in.readUnsignedShort()];
+        in.readFully(city);
+        return new CacheKey(CacheKey.View.values()[view], new String(city, StandardCharsets.UTF_8), days);
+    }
+    
+    /**
+     * Maps and indexes the segments of earlier runs and opens a new active segment,
+     * once per store
+     */
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        segmentsLock.writeLock().lock();
+        try {
+            if (indexed) {
+                return;
+            }
+            indexed = true;
+            long started = System.nanoTime();
+            Files.createDirectories(directory);
+            if (!lockDirectory()) {
+                logger.warn("Snapshot store '{}' is in use by another process in {}, changes are not persisted",
+                            name, directory);
+                return;
+            }
+            
+            long lastSequence = 0;
+            for (Map.Entry<Long, Path> file : listSegments().entrySet()) {
+                lastSequence = Math.max(lastSequence, file.getKey());
+                Segment segment = openSealed(file.getValue(), file.getKey());
+                if (segment != null) {
+                    segments.add(segment);
+                }
+            }
+            
+            Segment segment = createSegment(lastSequence + 1);
+            segments.add(segment);
+            active = segment;
+            logger.info("Snapshot store '{}' indexed {} entries from {} segments in {} ms", name, index.size(),
+                        segments.size() - 1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (IOException e) {
+            logger.warn("Snapshot store '{}' is unavailable, changes are not persisted: {}", name, e.toString());
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Takes the lock on this store's lock file, held until the store is closed
+     *
+     * @return whether the lock was free
+     */
+    private boolean lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(name + LOCK_SUFFIX),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another store of the same name in this JVM
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            return false;
+        }
+        lockChannel = channel;
+        return true;
+    }
+    
+    private Map<Long, Path> listSegments() throws IOException {
+        Map<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                Matcher matcher = segmentName.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Long.parseLong(matcher.group(1)), path);
+                }
+            }
+        }
+        return files;
+    }
+    
+    /**
+     * Maps a segment read-only and indexes its records. Segments with another
+     * layout are kept in the list, unindexed, so the next compaction deletes them.
+     */
+    private Segment openSealed(Path path, long sequence) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                logger.warn("Ignoring snapshot segment {} of {} bytes", path.getFileName(), size);
+                return new Segment(path, sequence, null, null, size);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Segment segment = new Segment(path, sequence, null, mapped, size);
+            if (size < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getInt(4) != FORMAT_VERSION
+                || mapped.getInt(8) != codec.version()) {
+                logger.info("Ignoring snapshot segment {} written in another format", path.getFileName());
+                return segment;
+            }
+            scan(segment, mapped);
+            return segment;
+        } catch (IOException e) {
+            logger.warn("Could not read snapshot segment {}: {}", path.getFileName(), e.toString());
+            return null;
+        }
+    }
+    
+    private void scan(Segment segment, ByteBuffer buffer) {
+        int limit = buffer.limit();
+        int position = HEADER_SIZE;
+        while (position + RECORD_PREFIX + MIN_BODY <= limit) {
+            int length = buffer.getInt(position);
+            int body = position + RECORD_PREFIX;
+            if (length < MIN_BODY || length > MAX_BODY || length > limit - body) {
+                logger.info("Snapshot segment {} ends with a torn record at {}", segment.path().getFileName(), position);
+                break;
+            }
+            
+            byte type = buffer.get(body);
+            long expiresAt = buffer.getLong(body + 1);
+            int view = Byte.toUnsignedInt(buffer.get(body + 9));
+            int days = buffer.getShort(body + 10);
+            int cityLength = Short.toUnsignedInt(buffer.getShort(body + 12));
+            if (view >= CacheKey.View.values().length || MIN_BODY + cityLength > length) {
+                break;
+            }
+            byte[] city = new byte[cityLength];
+            buffer.get(body + MIN_BODY, city);
+            CacheKey key = new CacheKey(CacheKey.View.values()[view], new String(city, StandardCharsets.UTF_8), days);
+            
+            Location previous = type == PUT
+                ? index.put(key, new Location(segment, position, RECORD_PREFIX + length, expiresAt))
+                : index.remove(key);
+            if (type != PUT) {
+                garbageBytes.add(RECORD_PREFIX + length);
+            }
+            if (previous != null) {
+                garbageBytes.add(previous.length());
+            }
+            position = body + length;
+        }
+    }
+    
+    private Segment createSegment(long sequence) throws IOException {
+        Path path = directory.resolve(name + "." + sequence + SUFFIX);
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(path, sequence, channel, null, HEADER_SIZE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putInt(FORMAT_VERSION).putInt(codec.version());
+            write(channel, header.flip(), 0);
+        } catch (IOException | RuntimeException e) {
+            discard(segment);
+            throw e;
+        }
+        return segment;
+    }
+    
+    /**
+     * Closes and deletes a segment that never made it into the store, so its name is free again
+     */
+    private void discard(Segment segment) {
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+            logger.warn("Could not delete unused snapshot segment {}: {}", segment.path().getFileName(), e.toString());
+        }
+    }
+    
+    private void compactIfNeeded() {
+        if (needsCompaction()) {
+            compactQuietly();
+        }
+    }
+    
+    /**
+     * @return whether dead records or leftover segments are worth a compaction
+     */
+    boolean needsCompaction() {
+        if (!indexed) {
+            return false;
+        }
+        long now = clock.millis();
+        long liveBytes = 0;
+        long deadBytes = garbageBytes.sum();
+        for (Location location : index.values()) {
+            if (now - location.expiresAt() >= retentionMillis) {
+                deadBytes += location.length();
+            } else {
+                liveBytes += location.length();
+            }
+        }
+        return deadBytes > 0 && deadBytes >= liveBytes * GARBAGE_RATIO || getSegmentCount() > MAX_SEGMENTS;
+    }
+    
+    private void compactQuietly() {
+        try {
+            compactSegments();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Compaction of snapshot store '{}' failed: {}", name, e.toString());
+        }
+    }
+    
+    /**
+     * Runs on the writer thread, so no record is appended while live records are copied
+     */
+    private void compactSegments() throws IOException {
+        ensureIndexed();
+        Segment current = active;
+        if (current == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        long now = clock.millis();
+        
+        Segment compacted = createSegment(current.sequence() + 1);
+        Segment next;
+        Map<CacheKey, Location[]> moves = new HashMap<>();
+        List<Map.Entry<CacheKey, Location>> expired = new ArrayList<>();
+        try {
+            long position = HEADER_SIZE;
+            for (Map.Entry<CacheKey, Location> entry : index.entrySet()) {
+                Location location = entry.getValue();
+                if (now - location.expiresAt() >= retentionMillis) {
+                    expired.add(entry);
+                    continue;
+                }
+                byte[] record;
+                try {
+                    record = location.segment().read(location.offset(), location.length());
+                } catch (IOException e) {
+                    expired.add(entry);
+                    continue;
+                }
+                write(compacted.channel(), ByteBuffer.wrap(record), position);
+                moves.put(entry.getKey(), new Location[] {
+                    location, new Location(compacted, position, record.length, location.expiresAt())
+                });
+                position += record.length;
+            }
+            compacted.grow(position - HEADER_SIZE);
+            compacted.seal();
+            next = createSegment(current.sequence() + 2);
+        } catch (IOException | RuntimeException e) {
+            // Left behind, the file would make every later compaction fail to create it
+            discard(compacted);
+            throw e;
+        }
+        
+        List<Segment> obsolete;
+        segmentsLock.writeLock().lock();
+        try {
+            // Keys removed meanwhile keep their removal; conditional updates never bring them back
+            moves.forEach((key, move) -> index.replace(key, move[0], move[1]));
+            expired.forEach(entry -> index.remove(entry.getKey(), entry.getValue()));
+            obsolete = new ArrayList<>(segments);
+            segments.clear();
+            segments.add(compacted);
+            segments.add(next);
+            active = next;
+            garbageBytes.reset();
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+        
+        for (Segment segment : obsolete) {
+            segment.close();
+            Files.deleteIfExists(segment.path());
+        }
+        compactions.increment();
+        logger.debug("Compacted snapshot store '{}' to {} entries in {} ms", name, moves.size(),
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+    
+    private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+    
+    /**
+     * Stops the writer after the changes already handed over are written
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        segmentsLock.writeLock().lock();
+        try {
+            for (Segment segment : segments) {
+                if (segment == active) {
+                    segment.force();
+                }
+                segment.close();
+            }
+            segments.clear();
+            active = null;
+            if (lockChannel != null) {
+                // Closing the channel releases the lock; the file stays for the next instance
+                lockChannel.close();
+                lockChannel = null;
+            }
+        } catch (IOException e) {
+            logger.debug("Could not release the lock of snapshot store '{}': {}", name, e.toString());
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return the number of indexed keys, {@code 0} until the segments are indexed
+     */
+    public int getIndexedCount() {
+        return index.size();
+    }
+    
+    public int getSegmentCount() {
+        segmentsLock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+    
+    public long getSegmentBytes() {
+        segmentsLock.readLock().lock();
+        try {
+            return segments.stream().mapToLong(Segment::size).sum();
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+    
+    public long getAppendCount() {
+        return appended.sum();
+    }
+    
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+    
+    public long getLoadCount() {
+        return loaded.sum();
+    }
+    
+    public long getCorruptCount() {
+        return corrupt.sum();
+    }
+    
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+    
+    private record Location(Segment segment, long offset, int length, long expiresAt) {
+    }
+    
+    /**
+     * A segment file. The active segment is appended to through its channel; sealed
+     * segments are read through a read-only mapping.
+     */
+    private static final class Segment {
+        
+        private final Path path;
+        private final long sequence;
+        private FileChannel channel;
+        private MappedByteBuffer mapped;
+        private volatile long size;
+        
+        Segment(Path path, long sequence, FileChannel channel, MappedByteBuffer mapped, long size) {
+            this.path = path;
+            this.sequence = sequence;
+            this.channel = channel;
+            this.mapped = mapped;
+            this.size = size;
+        }
+        
+        Path path() {
+            return path;
+        }
+        
+        long sequence() {
+            return sequence;
+        }
+        
+        FileChannel channel() {
+            return channel;
+        }
+        
+        long size() {
+            return size;
+        }
+        
+        void grow(long bytes) {
+            size += bytes;
+        }
+        
+        byte[] read(long offset, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            if (mapped != null) {
+                mapped.get((int) offset, bytes);
+                return bytes;
+            }
+            if (channel == null) {
+                throw new IOException("Segment is not readable");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            return bytes;
+        }
+        
+        /**
+         * Switches a fully written segment to mapped reads
+         */
+        void seal() throws IOException {
+            channel.force(true);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            channel.close();
+            channel = null;
+        }
+        
+        void force() {
+            try {
+                if (channel != null) {
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not sync snapshot segment {}: {}", path.getFileName(), e.toString());
+            }
+        }
+        
+        void close() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                logger.debug("Could not close snapshot segment {}: {}", path.getFileName(), e.toString());
+            }
+            // Mappings cannot be released explicitly; the file is gone once the buffer is collected
+            mapped = null;
+        }
+    }
+}
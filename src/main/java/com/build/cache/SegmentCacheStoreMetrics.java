@@ -0,0 +1,63 @@
+package com.build.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the size and activity of a {@link SegmentCacheStore}, tagged with the
+ * cache name
+ */
+public class SegmentCacheStoreMetrics implements MeterBinder {
+    
+    private final SegmentCacheStore<?> store;
+    
+    public SegmentCacheStoreMetrics(SegmentCacheStore<?> store) {
+        this.store = store;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("weather.cache.snapshot.entries", store, SegmentCacheStore::getIndexedCount)
+            .tag("cache", store.getName())
+            .description("Keys with a persisted record")
+            .register(registry);
+        
+        Gauge.builder("weather.cache.snapshot.size", store, SegmentCacheStore::getSegmentBytes)
+            .tag("cache", store.getName())
+            .baseUnit(BaseUnits.BYTES)
+            .description("Size of the segment files")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.cache.snapshot.writes", store, SegmentCacheStore::getAppendCount)
+            .tag("cache", store.getName())
+            .tag("result", "written")
+            .description("Cache changes handed to the snapshot store")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.cache.snapshot.writes", store, SegmentCacheStore::getDroppedCount)
+            .tag("cache", store.getName())
+            .tag("result", "dropped")
+            .description("Cache changes handed to the snapshot store")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.cache.snapshot.loads", store, SegmentCacheStore::getLoadCount)
+            .tag("cache", store.getName())
+            .tag("result", "loaded")
+            .description("Entries read back from the snapshot")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.cache.snapshot.loads", store, SegmentCacheStore::getCorruptCount)
+            .tag("cache", store.getName())
+            .tag("result", "corrupt")
+            .description("Entries read back from the snapshot")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.cache.snapshot.compactions", store, SegmentCacheStore::getCompactionCount)
+            .tag("cache", store.getName())
+            .description("Compactions of the segment files")
+            .register(registry);
+    }
+}
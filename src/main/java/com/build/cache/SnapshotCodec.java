@@ -0,0 +1,47 @@
+package com.build.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Binary form of cached values in a {@link SegmentCacheStore}, also the input of
+ * their entity tags
+ */
+public interface SnapshotCodec<V> {
+    
+    /**
+     * @return the layout version; segments written with another version are ignored
+     */
+    int version();
+    
+    void write(V value, DataOutput out) throws IOException;
+    
+    V read(DataInput in) throws IOException;
+    
+    /**
+     * Returns a strong HTTP entity tag for the value: the quoted start of a SHA-256
+     * hash of its binary form, so equal content always gets the same tag
+     */
+    default String entityTag(V value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            DataOutputStream out = new DataOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            out.writeInt(version());
+            write(value, out);
+            out.flush();
+            return '"' + HexFormat.of().formatHex(digest.digest(), 0, 16) + '"';
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
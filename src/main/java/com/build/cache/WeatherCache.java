@@ -0,0 +1,377 @@
+package com.build.cache;
+
+import com.build.config.WeatherCacheProperties;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded in-memory cache for upstream weather responses.
+ * <p>
+ * Entries expire after the configured TTL and the least recently used entry is
+ * evicted once {@code maxEntries} is exceeded. Expired entries are retained for
+ * the longer of the stale-while-revalidate and stale-if-error windows so that
+ * {@link #getStale} can still hand them out. The working set is small (a few
+ * dozen popular cities), so a single access-ordered map guarded by the cache
+ * monitor is sufficient.
+ * <p>
+ * With a {@link CacheStore}, every put is also handed to the store, and a key that
+ * is not in memory is looked up there before counting as a miss. Entries come
+ * back with their original expiry, so a restarted instance serves what is still
+ * fresh and treats the rest as stale.
+ * <p>
+ * With a {@link SnapshotCodec}, every entry carries a strong entity tag computed
+ * once when it is stored, which {@link #describe} hands out for conditional requests.
+ * {@link #encode} keeps the encoded response body next to the entry as well, so
+ * hits are written out without serializing the value again.
+ */
+public class WeatherCache<V> {
+    
+    private final String name;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long staleRetentionMillis;
+    private final int maxEntries;
+    private final boolean keepEncoded;
+    private final Clock clock;
+    private final LinkedHashMap<CacheKey, Entry<V>> entries;
+    private final CacheStore<V> store;
+    private final SnapshotCodec<V> codec;
+    
+    private long removals;
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder storeLoads = new LongAdder();
+    private final LongAdder encodedHits = new LongAdder();
+    private final LongAdder encodedMisses = new LongAdder();
+    
+    public WeatherCache(String name, WeatherCacheProperties properties) {
+        this(name, properties, Clock.systemUTC());
+    }
+    
+    public WeatherCache(String name, WeatherCacheProperties properties, Clock clock) {
+        this(name, properties, clock, CacheStore.none());
+    }
+    
+    public WeatherCache(String name, WeatherCacheProperties properties, Clock clock, CacheStore<V> store) {
+        this(name, properties, clock, store, null);
+    }
+    
+    /**
+     * @param codec used to tag entries, or {@code null} to leave them untagged
+     */
+    public WeatherCache(String name, WeatherCacheProperties properties, Clock clock, CacheStore<V> store,
+                        SnapshotCodec<V> codec) {
+        if (properties.getMaxEntries() < 1) {
+            throw new IllegalArgumentException("weather.cache.max-entries must be positive");
+        }
+        this.name = name;
+        this.enabled = properties.isEnabled();
+        this.ttlMillis = properties.getTtl().toMillis();
+        this.staleRetentionMillis = Math.max(
+            properties.getStaleWhileRevalidate().toMillis(),
+            properties.getStaleIfError().toMillis());
+        this.maxEntries = properties.getMaxEntries();
+        this.keepEncoded = properties.isKeepEncodedBodies();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.store = store;
+        this.codec = codec;
+    }
+    
+    /**
+     * Returns the cached value for the key, or {@code null} if it is absent or expired
+     */
+    public V get(CacheKey key) {
+        if (!enabled) {
+            misses.increment();
+            return null;
+        }
+        
+        Entry<V> entry = lookup(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        
+        long now = clock.millis();
+        if (entry.expiresAt() <= now) {
+            removeIfPastRetention(key, entry, now);
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        return entry.value();
+    }
+    
+    /**
+     * Returns an expired value for the key as long as it expired no more than
+     * {@code maxStaleness} ago, or {@code null} otherwise. Fresh entries are not
+     * returned here; callers are expected to have tried {@link #get} first.
+     */
+    public V getStale(CacheKey key, Duration maxStaleness) {
+        if (!enabled) {
+            return null;
+        }
+        
+        Entry<V> entry = lookup(key);
+        if (entry == null) {
+            return null;
+        }
+        
+        long now = clock.millis();
+        if (entry.expiresAt() > now || removeIfPastRetention(key, entry, now)) {
+            return null;
+        }
+        
+        if (now - entry.expiresAt() >= maxStaleness.toMillis()) {
+            return null;
+        }
+        
+        staleHits.increment();
+        return entry.value();
+    }
+    
+    private boolean removeIfPastRetention(CacheKey key, Entry<V> entry, long now) {
+        if (now - entry.expiresAt() < staleRetentionMillis) {
+            return false;
+        }
+        synchronized (this) {
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+        return true;
+    }
+    
+    private Entry<V> lookup(CacheKey key) {
+        long removalsBefore;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                return entry;
+            }
+            removalsBefore = removals;
+        }
+        return loadFromStore(key, removalsBefore);
+    }
+    
+    /**
+     * Brings a persisted entry back into memory unless it is past its stale retention.
+     * The store may have to read from disk, so it is asked outside the monitor; an
+     * entry put meanwhile wins, and one invalidated meanwhile is not brought back.
+     */
+    private Entry<V> loadFromStore(CacheKey key, long removalsBefore) {
+        CacheStore.Stored<V> stored = store.load(key);
+        if (stored == null || clock.millis() - stored.expiresAt() >= staleRetentionMillis) {
+            return null;
+        }
+        Entry<V> loaded = new Entry<>(stored.value(), stored.expiresAt(), tag(stored.value()));
+        synchronized (this) {
+            Entry<V> current = entries.get(key);
+            if (current != null) {
+                return current;
+            }
+            if (removals != removalsBefore) {
+                return null;
+            }
+            entries.put(key, loaded);
+            storeLoads.increment();
+            evictOverflow();
+        }
+        return loaded;
+    }
+    
+    public void put(CacheKey key, V value) {
+        if (!enabled || value == null) {
+            return;
+        }
+        
+        // Hashing the value is the expensive part, so it happens outside the monitor
+        String etag = tag(value);
+        synchronized (this) {
+            long expiresAt = clock.millis() + ttlMillis;
+            entries.put(key, new Entry<>(value, expiresAt, etag));
+            puts.increment();
+            store.stored(key, value, expiresAt);
+            evictOverflow();
+        }
+    }
+    
+    /**
+     * Returns the value with the entity tag and expiry of the entry for the key, as
+     * long as that entry still holds this very value. A value that is no longer (or
+     * never was) cached is tagged on the spot and reported as not cached.
+     */
+    public CachedValue<V> describe(CacheKey key, V value) {
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.value() == value) {
+                return new CachedValue<>(value, entry.etag(), entry.expiresAt());
+            }
+        }
+        return new CachedValue<>(value, value != null ? tag(value) : null, 0);
+    }
+    
+    /**
+     * Returns the encoded form of a value handed out for the key. The encoding is
+     * kept with the entry holding this very value, so it is computed once per entry
+     * and dropped with it; any other value is encoded on every call. A cache keeps
+     * one kind of encoded body, so every caller must pass an encoder of the same type.
+     */
+    @SuppressWarnings("unchecked")
+    public <B> B encode(CacheKey key, V value, Function<? super V, ? extends B> encoder) {
+        Entry<V> entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (!keepEncoded || entry == null || entry.value() != value) {
+            return encoder.apply(value);
+        }
+        
+        // Two callers may race to encode the same entry; both produce the same body
+        B body = (B) entry.body;
+        if (body != null) {
+            encodedHits.increment();
+            return body;
+        }
+        body = encoder.apply(value);
+        entry.body = body;
+        encodedMisses.increment();
+        return body;
+    }
+    
+    private String tag(V value) {
+        return codec != null ? codec.entityTag(value) : null;
+    }
+    
+    private void evictOverflow() {
+        if (entries.size() > maxEntries) {
+            Iterator<Map.Entry<CacheKey, Entry<V>>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+    
+    public synchronized void invalidate(CacheKey key) {
+        entries.remove(key);
+        removals++;
+        store.removed(key);
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        removals++;
+        store.cleared();
+    }
+    
+    /**
+     * Returns when the in-memory entry for the key expires, in epoch millis, or 0 if
+     * there is none. Unlike {@link #get} this neither counts as a lookup nor reads
+     * the store.
+     */
+    public synchronized long getExpiresAt(CacheKey key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.expiresAt() : 0;
+    }
+    
+    /**
+     * Tells whether a lookup for the key can be answered from memory, because the
+     * entry is fresh or expired no more than {@code maxStaleness} ago. Like
+     * {@link #getExpiresAt} this neither counts as a lookup nor reads the store.
+     */
+    public synchronized boolean isServable(CacheKey key, Duration maxStaleness) {
+        Entry<V> entry = enabled ? entries.get(key) : null;
+        return entry != null && clock.millis() - entry.expiresAt() < maxStaleness.toMillis();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Duration getTtl() {
+        return Duration.ofMillis(ttlMillis);
+    }
+    
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    public long getPutCount() {
+        return puts.sum();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+    
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+    
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+    
+    public long getStoreLoadCount() {
+        return storeLoads.sum();
+    }
+    
+    /**
+     * Counts bodies handed out from an entry without encoding its value
+     */
+    public long getEncodedHitCount() {
+        return encodedHits.sum();
+    }
+    
+    public long getEncodedMissCount() {
+        return encodedMisses.sum();
+    }
+    
+    private static final class Entry<V> {
+        
+        private final V value;
+        private final long expiresAt;
+        private final String etag;
+        private volatile Object body;
+        
+        private Entry(V value, long expiresAt, String etag) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.etag = etag;
+        }
+        
+        V value() {
+            return value;
+        }
+        
+        long expiresAt() {
+            return expiresAt;
+        }
+        
+        String etag() {
+            return etag;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.build.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes {@link WeatherCache} statistics under the standard Micrometer
+ * {@code cache.*} meter names, tagged with the cache name.
+ */
+public class WeatherCacheMetrics extends CacheMeterBinder<WeatherCache<?>> {
+    
+    public WeatherCacheMetrics(WeatherCache<?> cache) {
+        super(cache, cache.getName(), Tags.empty());
+    }
+    
+    @Override
+    protected Long size() {
+        return (long) getCache().size();
+    }
+    
+    @Override
+    protected long hitCount() {
+        return getCache().getHitCount();
+    }
+    
+    @Override
+    protected Long missCount() {
+        return getCache().getMissCount();
+    }
+    
+    @Override
+    protected Long evictionCount() {
+        return getCache().getEvictionCount();
+    }
+    
+    @Override
+    protected long putCount() {
+        return getCache().getPutCount();
+    }
+    
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.expirations", getCache(), WeatherCache::getExpirationCount)
+            .tags(getTagsWithCacheName())
+            .description("The number of entries dropped because their TTL and stale window elapsed")
+            .register(registry);
+        
+        FunctionCounter.builder("cache.stale.gets", getCache(), WeatherCache::getStaleHitCount)
+            .tags(getTagsWithCacheName())
+            .description("The number of expired entries served while refreshing or after an upstream error")
+            .register(registry);
+        
+        FunctionCounter.builder("cache.encoded.gets", getCache(), WeatherCache::getEncodedHitCount)
+            .tags(getTagsWithCacheName())
+            .tag("result", "hit")
+            .description("The number of response bodies written from an entry's kept encoding")
+            .register(registry);
+        
+        FunctionCounter.builder("cache.encoded.gets", getCache(), WeatherCache::getEncodedMissCount)
+            .tags(getTagsWithCacheName())
+            .tag("result", "miss")
+            .description("The number of response bodies encoded and kept with their entry")
+            .register(registry);
+    }
+}
@@ -0,0 +1,60 @@
+package com.build.cache;
+
+import com.build.dto.WeatherSummaryDto;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes the summary fields in declaration order, each as a presence flag and
+ * its text
+ */
+public class WeatherSummarySnapshotCodec implements SnapshotCodec<WeatherSummaryDto> {
+    
+    @Override
+    public int version() {
+        return 1;
+    }
+    
+    @Override
+    public void write(WeatherSummaryDto value, DataOutput out) throws IOException {
+        writeString(out, value.getCity());
+        writeString(out, value.getCountry());
+        writeString(out, value.getTemperatureC());
+        writeString(out, value.getTemperatureF());
+        writeString(out, value.getDescription());
+        writeString(out, value.getHumidity());
+        writeString(out, value.getWindSpeed());
+        writeString(out, value.getWindDirection());
+        writeString(out, value.getFeelsLikeC());
+        writeString(out, value.getVisibility());
+        writeString(out, value.getPressure());
+    }
+    
+    @Override
+    public WeatherSummaryDto read(DataInput in) throws IOException {
+        return new WeatherSummaryDto(
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in),
+            readString(in));
+    }
+    
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.build.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content codings the service can produce, by their {@code Accept-Encoding} token.
+ * <p>
+ * Only codings the JDK implements are listed; {@code deflate} is the zlib format
+ * HTTP means by that token, not a raw deflate stream.
+ */
+public enum ContentCoding {
+    
+    GZIP("gzip") {
+        @Override
+        OutputStream wrap(OutputStream out, int level) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    },
+    DEFLATE("deflate") {
+        @Override
+        OutputStream wrap(OutputStream out, int level) {
+            return new DeflaterOutputStream(out, new Deflater(level), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    def.end();
+                }
+            };
+        }
+    };
+    
+    private static final int BUFFER_SIZE = 8192;
+    
+    private final String token;
+    
+    ContentCoding(String token) {
+        this.token = token;
+    }
+    
+    public String token() {
+        return token;
+    }
+    
+    /**
+     * Returns the coding with the given {@code Accept-Encoding} token, or null when it is not supported
+     */
+    public static ContentCoding fromToken(String token) {
+        for (ContentCoding coding : values()) {
+            if (coding.token.equalsIgnoreCase(token)) {
+                return coding;
+            }
+        }
+        return null;
+    }
+    
+    public byte[] compress(byte[] data, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream compressing = wrap(out, level)) {
+            compressing.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    abstract OutputStream wrap(OutputStream out, int level) throws IOException;
+}
@@ -0,0 +1,36 @@
+package com.build.compression;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An encoded response body together with the compressed variants computed from it.
+ * <p>
+ * The body is kept with its cache entry, so each variant is compressed once per
+ * entry and reused by every later response in the same coding.
+ */
+public final class EncodedBody {
+    
+    private final byte[] identity;
+    private final Map<ContentCoding, byte[]> variants = new ConcurrentHashMap<>(4);
+    
+    public EncodedBody(byte[] identity) {
+        this.identity = identity;
+    }
+    
+    public byte[] identity() {
+        return identity;
+    }
+    
+    /**
+     * Returns the variant in the given coding, compressing the body the first time it is asked for
+     */
+    public byte[] variant(ContentCoding coding, Function<byte[], byte[]> compressor) {
+        return variants.computeIfAbsent(coding, ignored -> compressor.apply(identity));
+    }
+    
+    public int getVariantCount() {
+        return variants.size();
+    }
+}
@@ -0,0 +1,166 @@
+package com.build.compression;
+
+import com.build.config.WeatherCompressionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Picks the content coding of a response from its {@code Accept-Encoding} header and
+ * hands out the matching variant of an {@link EncodedBody}.
+ * <p>
+ * The coding with the highest quality value wins; among equally weighted codings
+ * the configured order decides, and {@code *} stands for every coding the client
+ * does not name. Bodies below the size threshold, and clients that accept none of
+ * the configured codings, get the identity body. Compression time and the bytes it
+ * saves are recorded per coding, so the CPU spent can be weighed against the
+ * bytes not sent.
+ */
+public class ResponseCompressor {
+    
+    public static final String COMPRESSION = "weather.response.compression";
+    public static final String COMPRESSION_BYTES = "weather.response.compression.bytes";
+    public static final String RESPONSES = "weather.response.compression.responses";
+    public static final String SAVED_BYTES = "weather.response.compression.saved";
+    
+    private static final String IDENTITY = "identity";
+    
+    private final WeatherCompressionProperties properties;
+    private final Map<ContentCoding, Timer> compressionTimers = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, Counter> inputBytes = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, Counter> outputBytes = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, Counter> responses = new EnumMap<>(ContentCoding.class);
+    private final Map<ContentCoding, Counter> savedBytes = new EnumMap<>(ContentCoding.class);
+    private final Counter identityResponses;
+    
+    public ResponseCompressor(WeatherCompressionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        
+        for (ContentCoding coding : ContentCoding.values()) {
+            compressionTimers.put(coding, Timer.builder(COMPRESSION)
+                .description("Compressing a response body into a variant, once per cache entry and coding")
+                .tag("coding", coding.token())
+                .register(registry));
+            inputBytes.put(coding, Counter.builder(COMPRESSION_BYTES)
+                .description("Bytes going into and coming out of compression")
+                .tag("coding", coding.token())
+                .tag("stage", "input")
+                .baseUnit("bytes")
+                .register(registry));
+            outputBytes.put(coding, Counter.builder(COMPRESSION_BYTES)
+                .description("Bytes going into and coming out of compression")
+                .tag("coding", coding.token())
+                .tag("stage", "output")
+                .baseUnit("bytes")
+                .register(registry));
+            responses.put(coding, Counter.builder(RESPONSES)
+                .description("Pre-encoded responses by the content coding they were sent in")
+                .tag("coding", coding.token())
+                .register(registry));
+            savedBytes.put(coding, Counter.builder(SAVED_BYTES)
+                .description("Body bytes not sent because a compressed variant was sent instead")
+                .tag("coding", coding.token())
+                .baseUnit("bytes")
+                .register(registry));
+        }
+        this.identityResponses = Counter.builder(RESPONSES)
+            .description("Pre-encoded responses by the content coding they were sent in")
+            .tag("coding", IDENTITY)
+            .register(registry);
+    }
+    
+    /**
+     * Returns the variant of the body to send to a client with the given {@code Accept-Encoding}
+     */
+    public Variant select(EncodedBody body, String acceptEncoding) {
+        byte[] identity = body.identity();
+        ContentCoding coding = properties.isEnabled() && identity.length >= properties.getMinResponseSize()
+            ? negotiate(acceptEncoding)
+            : null;
+        if (coding == null) {
+            identityResponses.increment();
+            return new Variant(null, identity);
+        }
+        
+        byte[] compressed = body.variant(coding, data -> compress(coding, data));
+        responses.get(coding).increment();
+        savedBytes.get(coding).increment(Math.max(0, identity.length - compressed.length));
+        return new Variant(coding, compressed);
+    }
+    
+    /**
+     * Returns the configured coding the client prefers, or null when it accepts none of them
+     */
+    ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        
+        Map<ContentCoding, Double> accepted = new EnumMap<>(ContentCoding.class);
+        double wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String token = parameters[0].trim();
+            double quality = quality(parameters);
+            if (token.equals("*")) {
+                wildcard = quality;
+            } else {
+                ContentCoding coding = ContentCoding.fromToken(token);
+                if (coding != null) {
+                    accepted.put(coding, quality);
+                }
+            }
+        }
+        
+        ContentCoding best = null;
+        double bestQuality = 0;
+        for (ContentCoding coding : properties.getCodings()) {
+            double quality = accepted.getOrDefault(coding, wildcard);
+            if (quality > bestQuality) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+    
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+    
+    private byte[] compress(ContentCoding coding, byte[] data) {
+        byte[] compressed = compressionTimers.get(coding).record(() -> coding.compress(data, properties.getLevel()));
+        inputBytes.get(coding).increment(data.length);
+        outputBytes.get(coding).increment(compressed.length);
+        return compressed;
+    }
+    
+    /**
+     * @param coding the coding of the body, null for the identity body
+     */
+    public record Variant(ContentCoding coding, byte[] body) {
+        
+        /**
+         * Entity tag of this variant; compressed variants are distinct representations,
+         * so the coding is appended inside the quotes of the identity tag
+         */
+        public String etag(String identityTag) {
+            if (coding == null || identityTag == null || !identityTag.endsWith("\"")) {
+                return identityTag;
+            }
+            return identityTag.substring(0, identityTag.length() - 1) + "-" + coding.token() + "\"";
+        }
+    }
+}
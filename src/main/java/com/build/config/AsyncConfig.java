@@ -0,0 +1,78 @@
+package com.build.config;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableConfigurationProperties({WeatherAsyncProperties.class, WeatherBatchProperties.class, WeatherStreamProperties.class})
+public class AsyncConfig {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+    
+    /**
+     * Executor for asynchronous weather lookups. It replaces Spring Boot's default
+     * applicationTaskExecutor so that MVC async processing shares the same threads.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(WeatherAsyncProperties properties) {
+        Optional<ExecutorService> virtualExecutor = properties.isVirtualThreads()
+            ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+            : Optional.empty();
+        
+        if (virtualExecutor.isPresent()) {
+            logger.info("Weather lookups run on virtual threads");
+            return new TaskExecutorAdapter(virtualExecutor.get());
+        }
+        
+        if (properties.isVirtualThreads()) {
+            logger.info("Virtual threads are not available on Java {}, using a platform thread pool",
+                        Runtime.version().feature());
+        }
+        
+        // A thread pool only grows past its core size once the queue is full, so the
+        // core is the whole pool and idle threads time out instead
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxPoolSize());
+        executor.setMaxPoolSize(properties.getMaxPoolSize());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setKeepAliveSeconds((int) properties.getKeepAlive().toSeconds());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("weather-async-");
+        return executor;
+    }
+    
+    /**
+     * Hands Tomcat request processing to virtual threads as well, when available
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(WeatherAsyncProperties properties) {
+        return protocolHandler -> {
+            if (properties.isVirtualThreads()) {
+                VirtualThreads.newVirtualThreadPerTaskExecutor().ifPresent(protocolHandler::setExecutor);
+            }
+        };
+    }
+    
+    /**
+     * Scheduler driving periodic work such as the refresh rounds of weather watches
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(WeatherStreamProperties properties) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.getSchedulerPoolSize());
+        scheduler.setThreadNamePrefix("weather-scheduler-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -1,17 +1,132 @@
 package com.build.config;
 
-import java.util.Collections;
+import com.build.cache.ConditionalRequestInterceptor;
+import com.build.metrics.TimedJacksonHttpMessageConverter;
+import com.build.metrics.WeatherMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
 
 @Configuration
+@EnableConfigurationProperties(WeatherHttpClientProperties.class)
 public class RestTemplateConfig {
     
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    public ConnectionConfig weatherConnectionConfig(
+            WeatherHttpClientProperties properties,
+            @Value("${spring.web.client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${spring.web.client.read-timeout:10s}") Duration readTimeout) {
+        
+        return ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(connectTimeout))
+            .setSocketTimeout(Timeout.of(readTimeout))
+            .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+            .setTimeToLive(TimeValue.of(properties.getConnectionTimeToLive()))
+            .build();
+    }
+    
+    @Bean
+    public RequestConfig weatherRequestConfig(
+            WeatherHttpClientProperties properties,
+            @Value("${spring.web.client.read-timeout:10s}") Duration readTimeout) {
+        
+        return RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+            .setResponseTimeout(Timeout.of(readTimeout))
+            .setDefaultKeepAlive(properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+    }
+    
+    @Bean
+    public PoolingHttpClientConnectionManager weatherConnectionManager(
+            WeatherHttpClientProperties properties, ConnectionConfig weatherConnectionConfig) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(properties.getMaxConnectionsTotal())
+            .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+            .setDefaultConnectionConfig(weatherConnectionConfig)
+            .build();
+    }
+    
+    @Bean
+    public CloseableHttpClient weatherHttpClient(
+            PoolingHttpClientConnectionManager weatherConnectionManager,
+            WeatherHttpClientProperties properties,
+            RequestConfig weatherRequestConfig) {
+        return HttpClients.custom()
+            .setConnectionManager(weatherConnectionManager)
+            .setDefaultRequestConfig(weatherRequestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.of(properties.getIdleEvictionTimeout()))
+            .build();
+    }
+    
+    @Bean
+    public MeterBinder weatherConnectionPoolMetrics(PoolingHttpClientConnectionManager weatherConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(weatherConnectionManager, "wttr");
+    }
+    
+    @Bean
+    public ConditionalRequestInterceptor weatherConditionalRequests(WeatherHttpClientProperties properties) {
+        return new ConditionalRequestInterceptor(properties.getConditionalRequestEntries());
+    }
+    
+    @Bean
+    public MeterBinder weatherConditionalRequestMetrics(ConditionalRequestInterceptor weatherConditionalRequests) {
+        return registry -> {
+            FunctionCounter.builder("weather.upstream.revalidations", weatherConditionalRequests,
+                    ConditionalRequestInterceptor::getNotModifiedCount)
+                .tag("result", "not_modified")
+                .description("Conditional upstream requests answered with 304 and served from the remembered body")
+                .register(registry);
+            FunctionCounter.builder("weather.upstream.revalidations", weatherConditionalRequests,
+                    ConditionalRequestInterceptor::getModifiedCount)
+                .tag("result", "modified")
+                .description("Conditional upstream requests answered with a new body")
+                .register(registry);
+            Gauge.builder("weather.upstream.revalidation.entries", weatherConditionalRequests,
+                    ConditionalRequestInterceptor::size)
+                .description("Upstream responses remembered for revalidation")
+                .register(registry);
+        };
+    }
+    
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient weatherHttpClient, WeatherHttpClientProperties properties,
+                                     WeatherMetrics metrics, ConditionalRequestInterceptor weatherConditionalRequests) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(weatherHttpClient));
+        
+        // Same encoding RestTemplate uses by default, only with the configurable base URL
+        DefaultUriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory(properties.getBaseUrl());
+        uriBuilderFactory.setEncodingMode(DefaultUriBuilderFactory.EncodingMode.URI_COMPONENT);
+        restTemplate.setUriTemplateHandler(uriBuilderFactory);
+        
+        // Bind upstream responses through a converter that times deserialization
+        restTemplate.getMessageConverters().replaceAll(converter -> 
+            converter instanceof MappingJackson2HttpMessageConverter 
+                ? new TimedJacksonHttpMessageConverter(metrics) 
+                : converter);
         
         // Add custom headers for wttr.in API
         ClientHttpRequestInterceptor interceptor = (request, body, execution) -> {
@@ -20,7 +135,12 @@ public class RestTemplateConfig {
             return execution.execute(request, body);
         };
         
-        restTemplate.setInterceptors(Collections.singletonList(interceptor));
+        List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+        interceptors.add(interceptor);
+        if (properties.isConditionalRequests()) {
+            interceptors.add(weatherConditionalRequests);
+        }
+        restTemplate.setInterceptors(interceptors);
         return restTemplate;
     }
 }
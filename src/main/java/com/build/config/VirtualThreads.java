@@ -0,0 +1,29 @@
+package com.build.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Looks up virtual thread support at runtime. The application is compiled for
+ * Java 17, so the Java 21 factory method is resolved reflectively.
+ */
+final class VirtualThreads {
+    
+    private VirtualThreads() {
+    }
+    
+    /**
+     * Returns a thread-per-task executor backed by virtual threads, or empty if
+     * the running JVM does not provide them (or only as a disabled preview)
+     */
+    static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return Optional.of((ExecutorService) executor);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return Optional.empty();
+        }
+    }
+}
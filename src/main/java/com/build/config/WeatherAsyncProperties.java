@@ -0,0 +1,32 @@
+package com.build.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.async")
+public class WeatherAsyncProperties {
+    
+    /**
+     * Run upstream calls and Tomcat request handling on virtual threads when the
+     * JVM supports them (Java 21+); otherwise the platform thread pool below is used
+     */
+    private boolean virtualThreads = true;
+    
+    /**
+     * Size of the platform thread pool used when virtual threads are unavailable.
+     * Threads are started up to this size before anything is queued.
+     */
+    private int maxPoolSize = 200;
+    
+    /**
+     * How long an idle platform pool thread is kept before it is stopped
+     */
+    private Duration keepAlive = Duration.ofSeconds(60);
+    
+    /**
+     * Queue capacity of the platform thread pool used when virtual threads are unavailable
+     */
+    private int queueCapacity = 1000;
+}
@@ -0,0 +1,19 @@
+package com.build.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.batch")
+public class WeatherBatchProperties {
+    
+    /**
+     * Maximum number of cities accepted in a single batch request
+     */
+    private int maxCities = 50;
+    
+    /**
+     * Maximum number of lookups of one batch that may be in flight at the same time
+     */
+    private int maxConcurrency = 8;
+}
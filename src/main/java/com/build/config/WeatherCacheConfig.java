@@ -0,0 +1,136 @@
+package com.build.config;
+
+import com.build.cache.CacheKey;
+import com.build.cache.CacheStore;
+import com.build.cache.CompactWeatherSnapshotCodec;
+import com.build.cache.CacheRefresher;
+import com.build.cache.CacheRefresherMetrics;
+import com.build.cache.RequestCoalescer;
+import com.build.cache.RequestCoalescerMetrics;
+import com.build.cache.SegmentCacheStore;
+import com.build.cache.SegmentCacheStoreMetrics;
+import com.build.cache.SnapshotCodec;
+import com.build.cache.WeatherCache;
+import com.build.cache.WeatherCacheMetrics;
+import com.build.cache.WeatherSummarySnapshotCodec;
+import com.build.dto.WeatherSummaryDto;
+import com.build.model.compact.CompactWeather;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties(WeatherCacheProperties.class)
+public class WeatherCacheConfig {
+    
+    @Bean
+    public CacheStore<CompactWeather> weatherResponseStore(WeatherCacheProperties properties) {
+        return createStore("weather.responses", properties, new CompactWeatherSnapshotCodec());
+    }
+    
+    @Bean
+    public MeterBinder weatherResponseStoreMetrics(CacheStore<CompactWeather> weatherResponseStore) {
+        return storeMetrics(weatherResponseStore);
+    }
+    
+    @Bean
+    public WeatherCache<CompactWeather> weatherResponseCache(WeatherCacheProperties properties,
+                                                             CacheStore<CompactWeather> weatherResponseStore) {
+        return new WeatherCache<>("weather.responses", properties, Clock.systemUTC(), weatherResponseStore,
+            new CompactWeatherSnapshotCodec());
+    }
+    
+    @Bean
+    public MeterBinder weatherResponseCacheMetrics(WeatherCache<CompactWeather> weatherResponseCache) {
+        return new WeatherCacheMetrics(weatherResponseCache);
+    }
+    
+    @Bean
+    public RequestCoalescer<CacheKey, CompactWeather> weatherResponseCoalescer() {
+        return new RequestCoalescer<>("weather.responses");
+    }
+    
+    @Bean
+    public MeterBinder weatherResponseCoalescerMetrics(RequestCoalescer<CacheKey, CompactWeather> weatherResponseCoalescer) {
+        return new RequestCoalescerMetrics(weatherResponseCoalescer);
+    }
+    
+    @Bean
+    public CacheStore<WeatherSummaryDto> weatherSummaryStore(WeatherCacheProperties properties) {
+        return createStore("weather.summaries", properties, new WeatherSummarySnapshotCodec());
+    }
+    
+    @Bean
+    public MeterBinder weatherSummaryStoreMetrics(CacheStore<WeatherSummaryDto> weatherSummaryStore) {
+        return storeMetrics(weatherSummaryStore);
+    }
+    
+    @Bean
+    public WeatherCache<WeatherSummaryDto> weatherSummaryCache(WeatherCacheProperties properties,
+                                                               CacheStore<WeatherSummaryDto> weatherSummaryStore) {
+        return new WeatherCache<>("weather.summaries", properties, Clock.systemUTC(), weatherSummaryStore,
+            new WeatherSummarySnapshotCodec());
+    }
+    
+    @Bean
+    public MeterBinder weatherSummaryCacheMetrics(WeatherCache<WeatherSummaryDto> weatherSummaryCache) {
+        return new WeatherCacheMetrics(weatherSummaryCache);
+    }
+    
+    @Bean
+    public RequestCoalescer<CacheKey, WeatherSummaryDto> weatherSummaryCoalescer() {
+        return new RequestCoalescer<>("weather.summaries");
+    }
+    
+    @Bean
+    public MeterBinder weatherSummaryCoalescerMetrics(RequestCoalescer<CacheKey, WeatherSummaryDto> weatherSummaryCoalescer) {
+        return new RequestCoalescerMetrics(weatherSummaryCoalescer);
+    }
+    
+    /**
+     * The refresh pool is owned by the refresher rather than exposed as an
+     * Executor bean, which would displace Spring Boot's applicationTaskExecutor
+     */
+    @Bean
+    public CacheRefresher weatherResponseRefresher(WeatherCacheProperties properties) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            properties.getRefreshThreads(), properties.getRefreshThreads(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(properties.getMaxEntries()),
+            new CustomizableThreadFactory("weather-refresh-"));
+        executor.allowCoreThreadTimeOut(true);
+        return new CacheRefresher("weather.responses", executor);
+    }
+    
+    @Bean
+    public MeterBinder weatherResponseRefresherMetrics(CacheRefresher weatherResponseRefresher) {
+        return new CacheRefresherMetrics(weatherResponseRefresher);
+    }
+    
+    private static <V> CacheStore<V> createStore(String name, WeatherCacheProperties properties, SnapshotCodec<V> codec) {
+        WeatherCacheProperties.Snapshot snapshot = properties.getSnapshot();
+        if (!properties.isEnabled() || !snapshot.isEnabled()) {
+            return CacheStore.none();
+        }
+        Duration retention = properties.getStaleWhileRevalidate().compareTo(properties.getStaleIfError()) > 0
+            ? properties.getStaleWhileRevalidate()
+            : properties.getStaleIfError();
+        return new SegmentCacheStore<>(name, snapshot.getDirectory(), codec, retention,
+            snapshot.getCompactionInterval(), snapshot.getMaxPendingWrites(), Clock.systemUTC());
+    }
+    
+    private static MeterBinder storeMetrics(CacheStore<?> store) {
+        return registry -> {
+            if (store instanceof SegmentCacheStore<?> segmentStore) {
+                new SegmentCacheStoreMetrics(segmentStore).bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.build.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.cache")
+public class WeatherCacheProperties {
+    
+    /**
+     * Whether upstream responses are cached at all
+     */
+    private boolean enabled = true;
+    
+    /**
+     * How long a cached response is served before wttr.in is asked again
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+    
+    /**
+     * Upper bound on cached entries; least recently used entries are evicted beyond it
+     */
+    private int maxEntries = 500;
+    
+    /**
+     * How long past its TTL an entry may still be served while a single background
+     * refresh runs; zero disables stale-while-revalidate
+     */
+    private Duration staleWhileRevalidate = Duration.ZERO;
+    
+    /**
+     * How long past its TTL an entry may still be served when wttr.in answers with
+     * a server error; zero disables stale-if-error
+     */
+    private Duration staleIfError = Duration.ZERO;
+    
+    /**
+     * Threads available for background refreshes of stale entries
+     */
+    private int refreshThreads = 2;
+    
+    /**
+     * Keep the encoded JSON body of full responses next to their entry, so cache hits
+     * skip serialization at the cost of holding each body in memory as well
+     */
+    private boolean keepEncodedBodies = true;
+    
+    private Snapshot snapshot = new Snapshot();
+    
+    @Data
+    public static class Snapshot {
+        
+        /**
+         * Persist cached responses so a restarted instance starts warm
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Directory of the segment files; it must survive restarts, e.g. a mounted volume
+         */
+        private Path directory = Path.of("weather-cache");
+        
+        /**
+         * Time between compactions of the segment files
+         */
+        private Duration compactionInterval = Duration.ofMinutes(10);
+        
+        /**
+         * Cache changes waiting to be written beyond which new ones are not persisted
+         */
+        private int maxPendingWrites = 1000;
+    }
+}
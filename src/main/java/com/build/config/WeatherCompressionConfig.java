@@ -0,0 +1,17 @@
+package com.build.config;
+
+import com.build.compression.ResponseCompressor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(WeatherCompressionProperties.class)
+public class WeatherCompressionConfig {
+    
+    @Bean
+    public ResponseCompressor responseCompressor(WeatherCompressionProperties properties, MeterRegistry registry) {
+        return new ResponseCompressor(properties, registry);
+    }
+}
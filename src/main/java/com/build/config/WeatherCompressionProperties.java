@@ -0,0 +1,33 @@
+package com.build.config;
+
+import com.build.compression.ContentCoding;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.compression")
+public class WeatherCompressionProperties {
+    
+    /**
+     * Compress pre-encoded weather bodies for clients that accept it
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Codings offered, in order of preference when the client weighs them equally
+     */
+    private List<ContentCoding> codings = new ArrayList<>(List.of(ContentCoding.GZIP, ContentCoding.DEFLATE));
+    
+    /**
+     * Bodies smaller than this many bytes are sent uncompressed
+     */
+    private int minResponseSize = 1024;
+    
+    /**
+     * Deflate level from 1 (fastest) to 9 (smallest); variants are compressed once
+     * per cache entry, so a high level costs little
+     */
+    private int level = 6;
+}
@@ -0,0 +1,61 @@
+package com.build.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.http-client")
+public class WeatherHttpClientProperties {
+    
+    /**
+     * Base URL the relative wttr.in request paths are resolved against, e.g. a local stand-in for load tests
+     */
+    private String baseUrl = "https://wttr.in";
+    
+    /**
+     * Maximum number of pooled connections across all routes
+     */
+    private int maxConnectionsTotal = 100;
+    
+    /**
+     * Maximum number of pooled connections to a single host (wttr.in is the only route today)
+     */
+    private int maxConnectionsPerRoute = 50;
+    
+    /**
+     * How long a caller may wait for a free pooled connection before failing
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    
+    /**
+     * Keep-alive applied when the server does not send a Keep-Alive header
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+    
+    /**
+     * Idle connections older than this are closed by the background evictor
+     */
+    private Duration idleEvictionTimeout = Duration.ofSeconds(30);
+    
+    /**
+     * Pooled connections idle for longer than this are re-validated before reuse
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+    
+    /**
+     * Hard limit on the lifetime of a pooled connection, so DNS changes are eventually picked up
+     */
+    private Duration connectionTimeToLive = Duration.ofMinutes(5);
+    
+    /**
+     * Revalidate upstream responses that carry an ETag or Last-Modified header with
+     * conditional requests instead of downloading them again
+     */
+    private boolean conditionalRequests = true;
+    
+    /**
+     * Upstream responses remembered for revalidation; least recently used ones are dropped beyond it
+     */
+    private int conditionalRequestEntries = 200;
+}
@@ -0,0 +1,42 @@
+package com.build.config;
+
+import com.build.cache.CacheKey;
+import com.build.cache.HeavyHitters;
+import com.build.service.WeatherPrewarmer;
+import com.build.service.WeatherPrewarmerMetrics;
+import com.build.service.WeatherService;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Clock;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+@Configuration
+@EnableConfigurationProperties(WeatherPrewarmProperties.class)
+public class WeatherPrewarmConfig {
+    
+    /**
+     * Request counts per cache key, fed by every lookup of {@link WeatherService}
+     */
+    @Bean
+    public HeavyHitters<CacheKey> weatherHotKeys(WeatherPrewarmProperties properties) {
+        return new HeavyHitters<>(properties.getSketchCapacity());
+    }
+    
+    @Bean
+    public WeatherPrewarmer weatherPrewarmer(WeatherService weatherService, HeavyHitters<CacheKey> weatherHotKeys,
+                                             WeatherPrewarmProperties properties, TaskScheduler taskScheduler) {
+        WeatherPrewarmer prewarmer = new WeatherPrewarmer(
+            weatherService, weatherHotKeys, properties, taskScheduler, Clock.systemUTC());
+        if (properties.isEnabled()) {
+            prewarmer.start();
+        }
+        return prewarmer;
+    }
+    
+    @Bean
+    public MeterBinder weatherPrewarmerMetrics(WeatherPrewarmer weatherPrewarmer, HeavyHitters<CacheKey> weatherHotKeys) {
+        return new WeatherPrewarmerMetrics(weatherPrewarmer, weatherHotKeys);
+    }
+}
@@ -0,0 +1,73 @@
+package com.build.config;
+
+import com.build.cache.CacheKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.prewarm")
+public class WeatherPrewarmProperties {
+    
+    /**
+     * Refresh hot cities in the background before their cache entries expire
+     */
+    private boolean enabled = false;
+    
+    /**
+     * Cities that are always kept warm
+     */
+    private List<String> cities = new ArrayList<>();
+    
+    /**
+     * Which lookups of the configured cities are kept warm
+     */
+    private List<CacheKey.View> views = new ArrayList<>(List.of(CacheKey.View.CURRENT, CacheKey.View.SUMMARY));
+    
+    /**
+     * Forecast length kept warm for the configured cities when FORECAST is among the views
+     */
+    private int forecastDays = 3;
+    
+    /**
+     * Time between planning rounds; keep it below refresh-ahead minus jitter so
+     * every entry is planned before it expires
+     */
+    private Duration interval = Duration.ofSeconds(15);
+    
+    /**
+     * How long before expiry an entry becomes due for a refresh
+     */
+    private Duration refreshAhead = Duration.ofSeconds(60);
+    
+    /**
+     * Due refreshes are delayed by a random amount up to this, so entries cached
+     * together do not go upstream together
+     */
+    private Duration jitter = Duration.ofSeconds(30);
+    
+    /**
+     * How many of the most requested keys are kept warm besides the configured
+     * cities; zero only warms the configured cities
+     */
+    private int topKeys = 20;
+    
+    /**
+     * Requests a key needs, at least, to count as hot
+     */
+    private int minRequests = 5;
+    
+    /**
+     * Keys counted by the heavy-hitters sketch; keys requested more often than
+     * total requests divided by this are never missed
+     */
+    private int sketchCapacity = 256;
+    
+    /**
+     * Time after which request counts are halved, so the ranking follows the
+     * recent request rate
+     */
+    private Duration decayInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,114 @@
+package com.build.config;
+
+import com.build.resilience.AdaptiveConcurrencyLimiter;
+import com.build.resilience.CircuitBreaker;
+import com.build.resilience.UpstreamGuard;
+import com.build.resilience.UpstreamGuardMetrics;
+import com.build.resilience.UpstreamHedger;
+import com.build.resilience.UpstreamHedgerMetrics;
+import com.build.resilience.UpstreamRateLimiter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+@EnableConfigurationProperties(WeatherResilienceProperties.class)
+public class WeatherResilienceConfig {
+    
+    @Bean
+    public UpstreamGuard weatherUpstreamGuard(WeatherResilienceProperties properties) {
+        WeatherResilienceProperties.Limiter limiterProperties = properties.getLimiter();
+        AdaptiveConcurrencyLimiter limiter = null;
+        if (limiterProperties.isEnabled()) {
+            limiter = new AdaptiveConcurrencyLimiter(
+                "wttr",
+                limiterProperties.getInitialLimit(),
+                limiterProperties.getMinLimit(),
+                limiterProperties.getMaxLimit(),
+                limiterProperties.getLatencyThreshold(),
+                limiterProperties.getBackoffRatio(),
+                UpstreamGuard::isOverload);
+        }
+        
+        WeatherResilienceProperties.CircuitBreaker breakerProperties = properties.getCircuitBreaker();
+        CircuitBreaker circuitBreaker = null;
+        if (breakerProperties.isEnabled()) {
+            circuitBreaker = new CircuitBreaker(
+                "wttr",
+                breakerProperties.getSlidingWindowSize(),
+                breakerProperties.getMinimumCalls(),
+                breakerProperties.getFailureRateThreshold() / 100.0,
+                breakerProperties.getSlowCallThreshold(),
+                breakerProperties.getWaitInOpenState(),
+                breakerProperties.getHalfOpenCalls(),
+                UpstreamGuard::isUpstreamFailure,
+                Clock.systemUTC());
+        }
+        
+        WeatherResilienceProperties.RateLimit rateLimitProperties = properties.getRateLimit();
+        UpstreamRateLimiter rateLimiter = null;
+        if (rateLimitProperties.isEnabled()) {
+            rateLimiter = new UpstreamRateLimiter(
+                "wttr",
+                rateLimitProperties.getPermitsPerSecond(),
+                rateLimitProperties.getBurst(),
+                rateLimitProperties.getCityPermitsPerSecond(),
+                rateLimitProperties.getCityBurst(),
+                rateLimitProperties.getMaxCities(),
+                rateLimitProperties.getMaxQueueSize(),
+                rateLimitProperties.getDefaultRetryAfter(),
+                rateLimitProperties.getMaxRetryAfter(),
+                System::nanoTime);
+        }
+        
+        return new UpstreamGuard(rateLimiter, rateLimitProperties.getForegroundMaxWait(),
+            rateLimitProperties.getBackgroundMaxWait(), limiter, circuitBreaker);
+    }
+    
+    @Bean
+    public MeterBinder weatherUpstreamGuardMetrics(UpstreamGuard weatherUpstreamGuard) {
+        return new UpstreamGuardMetrics(weatherUpstreamGuard);
+    }
+    
+    /**
+     * Like the refresh pool, the hedging pool is owned by the hedger rather than
+     * exposed as an Executor bean, which would displace Spring Boot's applicationTaskExecutor
+     */
+    @Bean
+    public UpstreamHedger weatherUpstreamHedger(WeatherResilienceProperties properties) {
+        WeatherResilienceProperties.Hedging hedging = properties.getHedging();
+        if (!hedging.isEnabled()) {
+            return UpstreamHedger.disabled();
+        }
+        
+        Executor executor = VirtualThreads.newVirtualThreadPerTaskExecutor()
+            .map(Executor.class::cast)
+            .orElseGet(() -> new ThreadPoolExecutor(
+                0, hedging.getMaxThreads(),
+                60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new CustomizableThreadFactory("weather-hedge-")));
+        return new UpstreamHedger(
+            "wttr",
+            executor,
+            hedging.getPercentile(),
+            hedging.getMinDelay(),
+            hedging.getMaxDelay(),
+            hedging.getMinSamples(),
+            hedging.getWindowSize(),
+            hedging.getBudgetPercent() / 100.0,
+            hedging.getMaxBudget());
+    }
+    
+    @Bean
+    public MeterBinder weatherUpstreamHedgerMetrics(UpstreamHedger weatherUpstreamHedger) {
+        return new UpstreamHedgerMetrics(weatherUpstreamHedger);
+    }
+}
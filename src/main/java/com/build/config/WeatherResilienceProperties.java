@@ -0,0 +1,178 @@
+package com.build.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.resilience")
+public class WeatherResilienceProperties {
+    
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    
+    private Limiter limiter = new Limiter();
+    
+    private RateLimit rateLimit = new RateLimit();
+    
+    private Hedging hedging = new Hedging();
+    
+    @Data
+    public static class CircuitBreaker {
+        
+        private boolean enabled = true;
+        
+        /**
+         * Number of most recent calls the failure rate is computed over
+         */
+        private int slidingWindowSize = 20;
+        
+        /**
+         * Calls needed in the window before the failure rate is evaluated
+         */
+        private int minimumCalls = 10;
+        
+        /**
+         * Share of failed or slow calls, in percent, that opens the circuit
+         */
+        private int failureRateThreshold = 50;
+        
+        /**
+         * Successful calls taking at least this long count as failures
+         */
+        private Duration slowCallThreshold = Duration.ofSeconds(5);
+        
+        /**
+         * How long calls are rejected before trial calls are let through
+         */
+        private Duration waitInOpenState = Duration.ofSeconds(30);
+        
+        /**
+         * Trial calls in the half-open state; all must succeed to close the circuit
+         */
+        private int halfOpenCalls = 3;
+    }
+    
+    @Data
+    public static class Limiter {
+        
+        private boolean enabled = true;
+        
+        private int initialLimit = 20;
+        
+        private int minLimit = 2;
+        
+        /**
+         * Upper bound of the adaptive limit, no point in exceeding the connection pool per route
+         */
+        private int maxLimit = 50;
+        
+        /**
+         * Calls slower than this lower the limit like a failure would
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+        
+        /**
+         * Factor the limit is multiplied with on slow or overloaded calls
+         */
+        private double backoffRatio = 0.9;
+    }
+    
+    @Data
+    public static class RateLimit {
+        
+        private boolean enabled = true;
+        
+        /**
+         * Sustained rate of upstream calls across all cities
+         */
+        private double permitsPerSecond = 5;
+        
+        /**
+         * Calls that may be sent at once after an idle period
+         */
+        private int burst = 10;
+        
+        /**
+         * Sustained rate of upstream calls for a single city, 0 disables the per-city limit
+         */
+        private double cityPermitsPerSecond = 0;
+        
+        private int cityBurst = 2;
+        
+        /**
+         * Cities tracked by the per-city limit, the least recently used are dropped beyond that
+         */
+        private int maxCities = 1000;
+        
+        /**
+         * Calls waiting for a permit beyond which new calls are rejected
+         */
+        private int maxQueueSize = 200;
+        
+        /**
+         * Longest a call somebody is waiting for is queued before it is rejected
+         */
+        private Duration foregroundMaxWait = Duration.ofSeconds(2);
+        
+        /**
+         * Longest a background refresh is queued before it is dropped
+         */
+        private Duration backgroundMaxWait = Duration.ofSeconds(10);
+        
+        /**
+         * Pause after a 429 that carries no usable Retry-After header
+         */
+        private Duration defaultRetryAfter = Duration.ofSeconds(5);
+        
+        /**
+         * Upper bound of the pause after a 429, whatever Retry-After asks for
+         */
+        private Duration maxRetryAfter = Duration.ofMinutes(5);
+    }
+    
+    @Data
+    public static class Hedging {
+        
+        /**
+         * Send a second upstream call when the first one is slow; off by default as it adds load
+         */
+        private boolean enabled = false;
+        
+        /**
+         * Latency percentile of recent upstream calls after which the second call is sent
+         */
+        private double percentile = 95;
+        
+        private Duration minDelay = Duration.ofMillis(100);
+        
+        /**
+         * Delay used until enough latencies are recorded, and upper bound afterwards
+         */
+        private Duration maxDelay = Duration.ofSeconds(2);
+        
+        /**
+         * Latencies needed before the percentile is used
+         */
+        private int minSamples = 50;
+        
+        /**
+         * Number of most recent latencies the percentile is computed over
+         */
+        private int windowSize = 500;
+        
+        /**
+         * Hedged calls allowed, in percent of upstream calls
+         */
+        private double budgetPercent = 5;
+        
+        /**
+         * Hedges that may be saved up during quiet periods and sent in a row
+         */
+        private int maxBudget = 10;
+        
+        /**
+         * Threads running hedged calls when virtual threads are unavailable
+         */
+        private int maxThreads = 64;
+    }
+}
@@ -0,0 +1,30 @@
+package com.build.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "weather.stream")
+public class WeatherStreamProperties {
+    
+    /**
+     * How long a streamed batch response may stay open before it is aborted
+     */
+    private Duration batchTimeout = Duration.ofSeconds(60);
+    
+    /**
+     * How long a server-sent events watch stays open before the client has to reconnect
+     */
+    private Duration watchTimeout = Duration.ofMinutes(30);
+    
+    /**
+     * Shortest refresh interval a watch may ask for
+     */
+    private Duration minWatchInterval = Duration.ofSeconds(10);
+    
+    /**
+     * Threads of the scheduler that drives watch refresh rounds
+     */
+    private int schedulerPoolSize = 2;
+}
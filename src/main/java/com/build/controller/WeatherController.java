@@ -1,22 +1,40 @@
 package com.build.controller;
 
+import com.build.cache.CachedValue;
+import com.build.compression.EncodedBody;
+import com.build.compression.ResponseCompressor;
+import com.build.dto.BatchWeatherItemDto;
 import com.build.dto.WeatherSummaryDto;
+import com.build.metrics.WeatherMetrics;
 import com.build.model.CurrentCondition;
 import com.build.model.NearestArea;
 import com.build.model.WeatherResponse;
+import com.build.resilience.UpstreamUnavailableException;
+import com.build.service.WeatherBatchService;
 import com.build.service.WeatherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -30,10 +48,17 @@ public class WeatherController {
     private static final Logger logger = LoggerFactory.getLogger(WeatherController.class);
     
     private final WeatherService weatherService;
+    private final WeatherBatchService weatherBatchService;
+    private final WeatherMetrics metrics;
+    private final ResponseCompressor compressor;
     
     @Autowired
-    public WeatherController(WeatherService weatherService) {
+    public WeatherController(WeatherService weatherService, WeatherBatchService weatherBatchService,
+                             WeatherMetrics metrics, ResponseCompressor compressor) {
         this.weatherService = weatherService;
+        this.weatherBatchService = weatherBatchService;
+        this.metrics = metrics;
+        this.compressor = compressor;
     }
     
     @GetMapping("/current/{city}")
@@ -43,29 +68,69 @@ public class WeatherController {
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Başarılı işlem"),
+        @ApiResponse(responseCode = "304", description = "İçerik değişmedi"),
         @ApiResponse(responseCode = "400", description = "Geçersiz şehir adı"),
         @ApiResponse(responseCode = "404", description = "Şehir bulunamadı"),
-        @ApiResponse(responseCode = "500", description = "Sunucu hatası")
+        @ApiResponse(responseCode = "500", description = "Sunucu hatası"),
+        @ApiResponse(responseCode = "503", description = "Hava durumu sağlayıcısı geçici olarak kullanılamıyor")
     })
-    public ResponseEntity<WeatherSummaryDto> getCurrentWeather(
+    public CompletableFuture<ResponseEntity<WeatherSummaryDto>> getCurrentWeather(
             @Parameter(description = "Şehir adı (örn: Istanbul, Ankara, London)", example = "Istanbul")
-            @PathVariable String city) {
+            @PathVariable String city,
+            @Parameter(description = "Daha önce alınan ETag; içerik değişmediyse 304 döner")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        logger.info("Weather request received for city: {}", city);
+        
+        return weatherService.getCurrentWeatherSummaryCachedAsync(city)
+            .thenApply(cached -> conditional(cached, ifNoneMatch))
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                if (invalidInput(cause) != null) {
+                    logger.warn("Invalid city name provided: {}", city);
+                    return ResponseEntity.badRequest().build();
+                }
+                if (isUpstreamUnavailable(cause)) {
+                    logger.warn("Upstream unavailable, rejecting request for city: {}", city);
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                }
+                logger.error("Error fetching weather for city: {}", city, cause);
+                return ResponseEntity.internalServerError().build();
+            });
+    }
+    
+    @GetMapping("/current/batch")
+    @Operation(
+        summary = "Birden fazla şehrin güncel hava durumunu getirir",
+        description = "Belirtilen şehirler için güncel hava durumu bilgilerini paralel olarak alır. "
+            + "Her şehir kendi durum koduyla döner; hatalı bir şehir tüm isteği başarısız kılmaz"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Başarılı işlem (şehir bazında durumlar yanıtta)"),
+        @ApiResponse(responseCode = "400", description = "Boş veya çok uzun şehir listesi")
+    })
+    public CompletableFuture<ResponseEntity<List<BatchWeatherItemDto>>> getCurrentWeatherBatch(
+            @Parameter(description = "Virgülle ayrılmış şehir adları", example = "Istanbul,Ankara,London")
+            @RequestParam List<String> cities) {
+        
+        logger.info("Batch weather request received for {} cities", cities.size());
         
+        List<CompletableFuture<WeatherResponse>> lookups;
         try {
-            logger.info("Weather request received for city: {}", city);
-            
-            WeatherResponse weatherResponse = weatherService.getCurrentWeather(city);
-            WeatherSummaryDto summary = convertToSummary(weatherResponse);
-            
-            return ResponseEntity.ok(summary);
-            
+            lookups = weatherBatchService.getCurrentWeather(cities);
         } catch (IllegalArgumentException e) {
-            logger.warn("Invalid city name provided: {}", city);
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            logger.error("Error fetching weather for city: {}", city, e);
-            return ResponseEntity.internalServerError().build();
+            logger.warn("Invalid batch request: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        
+        List<CompletableFuture<BatchWeatherItemDto>> items = new ArrayList<>(lookups.size());
+        for (int i = 0; i < lookups.size(); i++) {
+            String city = cities.get(i);
+            items.add(lookups.get(i).handle((weatherResponse, e) -> toBatchItem(city, weatherResponse, e, metrics)));
         }
+        
+        return CompletableFuture.allOf(items.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> ResponseEntity.ok(items.stream().map(CompletableFuture::join).toList()));
     }
     
     @GetMapping("/forecast/{city}")
@@ -74,36 +139,47 @@ public class WeatherController {
         description = "Belirtilen şehir için belirtilen gün sayısında hava durumu tahminini getirir"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Başarılı işlem"),
+        @ApiResponse(responseCode = "200", description = "Başarılı işlem",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                               schema = @Schema(implementation = WeatherResponse.class))),
+        @ApiResponse(responseCode = "304", description = "İçerik değişmedi"),
         @ApiResponse(responseCode = "400", description = "Geçersiz parametreler"),
         @ApiResponse(responseCode = "404", description = "Şehir bulunamadı"),
-        @ApiResponse(responseCode = "500", description = "Sunucu hatası")
+        @ApiResponse(responseCode = "500", description = "Sunucu hatası"),
+        @ApiResponse(responseCode = "503", description = "Hava durumu sağlayıcısı geçici olarak kullanılamıyor")
     })
-    public ResponseEntity<WeatherResponse> getWeatherForecast(
+    public CompletableFuture<ResponseEntity<byte[]>> getWeatherForecast(
             @Parameter(description = "Şehir adı (örn: Istanbul, Ankara, London)", example = "Istanbul")
             @PathVariable String city,
             @Parameter(description = "Tahmin günü sayısı (1-7 arası)", example = "3")
-            @RequestParam(defaultValue = "3") int days) {
+            @RequestParam(defaultValue = "3") int days,
+            @Parameter(description = "Daha önce alınan ETag; içerik değişmediyse 304 döner")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(description = "Kabul edilen sıkıştırma biçimleri (örn: gzip, deflate)")
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
-        try {
-            logger.info("Weather forecast request received for city: {} for {} days", city, days);
-            
-            if (days < 1 || days > 7) {
-                logger.warn("Invalid days parameter: {}", days);
-                return ResponseEntity.badRequest().build();
-            }
-            
-            WeatherResponse weatherResponse = weatherService.getWeatherForecast(city, days);
-            
-            return ResponseEntity.ok(weatherResponse);
-            
-        } catch (IllegalArgumentException e) {
-            logger.warn("Invalid parameters - city: {}, days: {}", city, days);
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            logger.error("Error fetching weather forecast for city: {} with {} days", city, days, e);
-            return ResponseEntity.internalServerError().build();
+        logger.info("Weather forecast request received for city: {} for {} days", city, days);
+        
+        if (days < 1 || days > 7) {
+            logger.warn("Invalid days parameter: {}", days);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        
+        return weatherService.getWeatherForecastJsonAsync(city, days)
+            .thenApply(cached -> negotiated(cached, ifNoneMatch, acceptEncoding, compressor))
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                if (invalidInput(cause) != null) {
+                    logger.warn("Invalid parameters - city: {}, days: {}", city, days);
+                    return ResponseEntity.badRequest().build();
+                }
+                if (isUpstreamUnavailable(cause)) {
+                    logger.warn("Upstream unavailable, rejecting request for city: {}", city);
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                }
+                logger.error("Error fetching weather forecast for city: {} with {} days", city, days, cause);
+                return ResponseEntity.internalServerError().build();
+            });
     }
     
     @GetMapping("/full/{city}")
@@ -112,29 +188,40 @@ public class WeatherController {
         description = "Belirtilen şehir için wttr.in API'sinden tam detaylı hava durumu bilgilerini getirir"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Başarılı işlem"),
+        @ApiResponse(responseCode = "200", description = "Başarılı işlem",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                               schema = @Schema(implementation = WeatherResponse.class))),
+        @ApiResponse(responseCode = "304", description = "İçerik değişmedi"),
         @ApiResponse(responseCode = "400", description = "Geçersiz şehir adı"),
         @ApiResponse(responseCode = "404", description = "Şehir bulunamadı"),
-        @ApiResponse(responseCode = "500", description = "Sunucu hatası")
+        @ApiResponse(responseCode = "500", description = "Sunucu hatası"),
+        @ApiResponse(responseCode = "503", description = "Hava durumu sağlayıcısı geçici olarak kullanılamıyor")
     })
-    public ResponseEntity<WeatherResponse> getFullWeatherDetails(
+    public CompletableFuture<ResponseEntity<byte[]>> getFullWeatherDetails(
             @Parameter(description = "Şehir adı (örn: Istanbul, Ankara, London)", example = "Istanbul")
-            @PathVariable String city) {
+            @PathVariable String city,
+            @Parameter(description = "Daha önce alınan ETag; içerik değişmediyse 304 döner")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @Parameter(description = "Kabul edilen sıkıştırma biçimleri (örn: gzip, deflate)")
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
-        try {
-            logger.info("Full weather details request received for city: {}", city);
-            
-            WeatherResponse weatherResponse = weatherService.getCurrentWeather(city);
-            
-            return ResponseEntity.ok(weatherResponse);
-            
-        } catch (IllegalArgumentException e) {
-            logger.warn("Invalid city name provided: {}", city);
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            logger.error("Error fetching full weather details for city: {}", city, e);
-            return ResponseEntity.internalServerError().build();
-        }
+        logger.info("Full weather details request received for city: {}", city);
+        
+        return weatherService.getCurrentWeatherJsonAsync(city)
+            .thenApply(cached -> negotiated(cached, ifNoneMatch, acceptEncoding, compressor))
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                if (invalidInput(cause) != null) {
+                    logger.warn("Invalid city name provided: {}", city);
+                    return ResponseEntity.badRequest().build();
+                }
+                if (isUpstreamUnavailable(cause)) {
+                    logger.warn("Upstream unavailable, rejecting request for city: {}", city);
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+                }
+                logger.error("Error fetching full weather details for city: {}", city, cause);
+                return ResponseEntity.internalServerError().build();
+            });
     }
     
     @GetMapping("/health")
@@ -147,7 +234,7 @@ public class WeatherController {
         return ResponseEntity.ok("Weather Service is running!");
     }
     
-    private WeatherSummaryDto convertToSummary(WeatherResponse weatherResponse) {
+    static WeatherSummaryDto convertToSummary(WeatherResponse weatherResponse) {
         WeatherSummaryDto summary = new WeatherSummaryDto();
         
         try {
@@ -180,7 +267,7 @@ public class WeatherController {
                     summary.setCountry(area.getCountry().get(0).getValue());
                 }
             }
-            
+        
         } catch (Exception e) {
             logger.warn("Error converting weather response to summary", e);
             // Return partially filled summary even if some data extraction fails
@@ -188,4 +275,119 @@ public class WeatherController {
         
         return summary;
     }
+    
+    /**
+     * Answers with 304 and no body when the client already holds the tagged value,
+     * with the value otherwise. Both carry the entity tag and a max-age matching the
+     * remaining lifetime of the cache entry, so clients revalidate instead of refetching.
+     */
+    static <T> ResponseEntity<T> conditional(CachedValue<T> cached, String ifNoneMatch) {
+        CacheControl cacheControl = CacheControl.maxAge(cached.freshFor(System.currentTimeMillis()));
+        if (cached.etag() == null) {
+            return ResponseEntity.ok().cacheControl(cacheControl).body(cached.value());
+        }
+        if (matches(ifNoneMatch, cached.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(cached.etag()).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(cached.etag()).cacheControl(cacheControl).body(cached.value());
+    }
+    
+    /**
+     * Same as {@link #conditional(CachedValue, String)} for pre-encoded JSON bodies, which
+     * are written out as they are in the coding negotiated from {@code Accept-Encoding}.
+     * Each coding is its own representation with its own entity tag, and responses vary
+     * by that header so shared caches keep the variants apart.
+     */
+    static ResponseEntity<byte[]> negotiated(CachedValue<EncodedBody> cached, String ifNoneMatch,
+                                             String acceptEncoding, ResponseCompressor compressor) {
+        ResponseCompressor.Variant variant = compressor.select(cached.value(), acceptEncoding);
+        String etag = variant.etag(cached.etag());
+        CacheControl cacheControl = CacheControl.maxAge(cached.freshFor(System.currentTimeMillis()));
+        if (etag != null && matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .cacheControl(cacheControl)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        if (variant.coding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, variant.coding().token());
+        }
+        return response.body(variant.body());
+    }
+    
+    /**
+     * Weak comparison as If-None-Match requires: a weak prefix on the client's tag is ignored
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static BatchWeatherItemDto toBatchItem(String city, WeatherResponse weatherResponse, Throwable error,
+                                           WeatherMetrics metrics) {
+        if (error == null) {
+            WeatherSummaryDto summary = metrics.recordSummaryConversion(() -> convertToSummary(weatherResponse));
+            return new BatchWeatherItemDto(city, 200, null, summary);
+        }
+        
+        Throwable cause = unwrap(error);
+        IllegalArgumentException invalid = invalidInput(cause);
+        if (invalid != null) {
+            logger.warn("Invalid city name in batch: {}", city);
+            return new BatchWeatherItemDto(city, 400, invalid.getMessage(), null);
+        }
+        
+        if (isUpstreamUnavailable(cause)) {
+            logger.warn("Upstream unavailable for city: {} in batch", city);
+            return new BatchWeatherItemDto(city, 503, cause.getMessage(), null);
+        }
+        
+        logger.error("Error fetching weather for city: {} in batch", city, cause);
+        return new BatchWeatherItemDto(city, 500, cause.getMessage(), null);
+    }
+    
+    /**
+     * The service wraps validation failures, so the cause chain is searched for them
+     */
+    static IllegalArgumentException invalidInput(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof IllegalArgumentException invalid) {
+                return invalid;
+            }
+        }
+        return null;
+    }
+    
+    static boolean isUpstreamUnavailable(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof UpstreamUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
 }
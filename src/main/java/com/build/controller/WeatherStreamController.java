@@ -0,0 +1,243 @@
+package com.build.controller;
+
+import com.build.config.WeatherStreamProperties;
+import com.build.dto.BatchWeatherItemDto;
+import com.build.metrics.WeatherMetrics;
+import com.build.model.WeatherResponse;
+import com.build.service.WeatherBatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streaming variants of the batch endpoint. Each city is written to the client as
+ * soon as its lookup completes, so the first results arrive after the fastest fetch
+ * and the full batch is never assembled in memory.
+ */
+@RestController
+@RequestMapping("/api/weather")
+@Tag(name = "Weather API", description = "Hava durumu bilgilerini sağlayan REST API servisi")
+@CrossOrigin(origins = "*")
+public class WeatherStreamController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WeatherStreamController.class);
+    
+    private final WeatherBatchService weatherBatchService;
+    private final TaskScheduler taskScheduler;
+    private final WeatherStreamProperties properties;
+    private final WeatherMetrics metrics;
+    
+    @Autowired
+    public WeatherStreamController(WeatherBatchService weatherBatchService,
+                                   TaskScheduler taskScheduler,
+                                   WeatherStreamProperties properties,
+                                   WeatherMetrics metrics) {
+        this.weatherBatchService = weatherBatchService;
+        this.taskScheduler = taskScheduler;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+    
+    @GetMapping(value = "/current/batch/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Birden fazla şehrin güncel hava durumunu akış olarak getirir",
+        description = "Her şehir sonucu hazır olur olmaz bir NDJSON satırı olarak yazılır; "
+            + "satırlar tamamlanma sırasına göre gelir"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Başarılı işlem (şehir bazında durumlar satırlarda)"),
+        @ApiResponse(responseCode = "400", description = "Boş veya çok uzun şehir listesi")
+    })
+    public ResponseEntity<ResponseBodyEmitter> streamCurrentWeatherBatch(
+            @Parameter(description = "Virgülle ayrılmış şehir adları", example = "Istanbul,Ankara,London")
+            @RequestParam List<String> cities) {
+        
+        logger.info("Streaming batch weather request received for {} cities", cities.size());
+        
+        List<CompletableFuture<WeatherResponse>> lookups;
+        try {
+            lookups = weatherBatchService.getCurrentWeather(cities);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.getBatchTimeout().toMillis());
+        AtomicInteger remaining = new AtomicInteger(lookups.size());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        
+        for (int i = 0; i < lookups.size(); i++) {
+            String city = cities.get(i);
+            lookups.get(i)
+                .handle((weatherResponse, e) -> WeatherController.toBatchItem(city, weatherResponse, e, metrics))
+                .thenAccept(item -> {
+                    if (open.get() && !sendLine(emitter, item)) {
+                        open.set(false);
+                    }
+                    if (remaining.decrementAndGet() == 0 && open.get()) {
+                        emitter.complete();
+                    }
+                });
+        }
+        
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
+    }
+    
+    @GetMapping(value = "/current/watch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Şehir listesinin hava durumunu canlı olarak izler",
+        description = "Server-sent events akışı açar ve belirtilen aralıklarla her şehir için "
+            + "bir 'weather' olayı gönderir"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Akış açıldı"),
+        @ApiResponse(responseCode = "400", description = "Geçersiz şehir listesi veya aralık")
+    })
+    public ResponseEntity<SseEmitter> watchCurrentWeather(
+            @Parameter(description = "Virgülle ayrılmış şehir adları", example = "Istanbul,Ankara,London")
+            @RequestParam List<String> cities,
+            @Parameter(description = "Yenileme aralığı (saniye)", example = "60")
+            @RequestParam(defaultValue = "60") long intervalSeconds) {
+        
+        logger.info("Weather watch requested for {} cities every {}s", cities.size(), intervalSeconds);
+        
+        Duration interval = Duration.ofSeconds(intervalSeconds);
+        if (interval.compareTo(properties.getMinWatchInterval()) < 0) {
+            logger.warn("Invalid watch interval: {}s", intervalSeconds);
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Validate the city list up front so a bad request fails before the stream opens
+        List<CompletableFuture<WeatherResponse>> firstRound;
+        try {
+            firstRound = weatherBatchService.getCurrentWeather(cities);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid watch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        SseEmitter emitter = new SseEmitter(properties.getWatchTimeout().toMillis());
+        WeatherWatch watch = new WeatherWatch(emitter, cities);
+        watch.publish(firstRound);
+        
+        ScheduledFuture<?> rounds = taskScheduler.scheduleAtFixedRate(
+            watch::nextRound, Instant.now().plus(interval), interval);
+        watch.onClose(() -> rounds.cancel(false));
+        
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+    
+    private static boolean sendLine(ResponseBodyEmitter emitter, BatchWeatherItemDto item) {
+        Set<ResponseBodyEmitter.DataWithMediaType> line = new LinkedHashSet<>();
+        line.add(new ResponseBodyEmitter.DataWithMediaType(item, MediaType.APPLICATION_JSON));
+        line.add(new ResponseBodyEmitter.DataWithMediaType("\n", MediaType.TEXT_PLAIN));
+        try {
+            emitter.send(line);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Client went away while streaming batch results: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * State of a single SSE watch. A new refresh round is skipped while the previous
+     * one still has lookups outstanding, so a slow upstream never stacks up rounds.
+     */
+    private class WeatherWatch {
+        
+        private final SseEmitter emitter;
+        private final List<String> cities;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        private final AtomicReference<Runnable> closeAction = new AtomicReference<>();
+        
+        WeatherWatch(SseEmitter emitter, List<String> cities) {
+            this.emitter = emitter;
+            this.cities = cities;
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::close);
+            emitter.onError(e -> close());
+        }
+        
+        void onClose(Runnable action) {
+            closeAction.set(action);
+            if (!open.get()) {
+                action.run();
+            }
+        }
+        
+        void nextRound() {
+            if (!open.get() || outstanding.get() > 0) {
+                return;
+            }
+            try {
+                publish(weatherBatchService.getCurrentWeather(cities));
+            } catch (RuntimeException e) {
+                logger.warn("Weather watch round failed: {}", e.getMessage());
+            }
+        }
+        
+        void publish(List<CompletableFuture<WeatherResponse>> lookups) {
+            outstanding.addAndGet(lookups.size());
+            for (int i = 0; i < lookups.size(); i++) {
+                String city = cities.get(i);
+                lookups.get(i)
+                    .handle((weatherResponse, e) -> WeatherController.toBatchItem(city, weatherResponse, e, metrics))
+                    .thenAccept(item -> {
+                        send(city, item);
+                        outstanding.decrementAndGet();
+                    });
+            }
+        }
+        
+        private void send(String city, BatchWeatherItemDto item) {
+            if (!open.get()) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("weather").id(city).data(item, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Client went away while watching weather: {}", e.getMessage());
+                close();
+            }
+        }
+        
+        private void close() {
+            if (open.compareAndSet(true, false)) {
+                Runnable action = closeAction.get();
+                if (action != null) {
+                    action.run();
+                }
+            }
+        }
+    }
+}
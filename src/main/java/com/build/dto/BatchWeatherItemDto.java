@@ -0,0 +1,25 @@
+package com.build.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Weather summary of a single city within a batch response")
+public class BatchWeatherItemDto {
+    
+    @Schema(description = "City name as given in the request", example = "Istanbul")
+    private String requestedCity;
+    
+    @Schema(description = "HTTP status this city would have produced on its own", example = "200")
+    private int status;
+    
+    @Schema(description = "Error message when the lookup failed", example = "City name cannot be null or empty")
+    private String error;
+    
+    @Schema(description = "Weather summary, present when status is 200")
+    private WeatherSummaryDto weather;
+}
@@ -0,0 +1,26 @@
+package com.build.metrics;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * Jackson converter for the upstream RestTemplate that records how long binding a
+ * response body takes. The body is read from the socket while it is parsed, so
+ * the time includes transferring it.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    
+    private final WeatherMetrics metrics;
+    
+    public TimedJacksonHttpMessageConverter(WeatherMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return metrics.recordDeserialization(WeatherMetrics.Model.RESPONSE,
+            () -> super.read(type, contextClass, inputMessage));
+    }
+}
@@ -0,0 +1,229 @@
+package com.build.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Domain timers and counters of the weather service.
+ * <p>
+ * All tags come from the enums below (or from bean-defined cache names), so the
+ * number of series is fixed; city names are never used as tag values. Timers
+ * publish percentile histograms, which lets the backend aggregate percentiles
+ * across instances.
+ */
+@Component
+public class WeatherMetrics {
+    
+    public static final String REQUESTS = "weather.requests";
+    public static final String UPSTREAM_REQUESTS = "weather.upstream.requests";
+    public static final String UPSTREAM_DESERIALIZATION = "weather.upstream.deserialization";
+    public static final String SUMMARY_CONVERSION = "weather.summary.conversion";
+    public static final String RESPONSE_ENCODING = "weather.response.encoding";
+    public static final String CACHE_LOOKUPS = "weather.cache.lookups";
+    public static final String ERRORS = "weather.errors";
+    
+    /** Service operation, published as the {@code endpoint} tag */
+    public enum Endpoint {
+        CURRENT, FORECAST, SUMMARY;
+        
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    public enum Outcome {
+        SUCCESS, STALE, INVALID, CLIENT_ERROR, SERVER_ERROR, UNAVAILABLE, ERROR;
+        
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    /** Matches the error branches of the service */
+    public enum ErrorType {
+        CLIENT, SERVER, UNAVAILABLE, UNEXPECTED;
+        
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    public enum CacheResult {
+        HIT, STALE, MISS;
+        
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    /** What an upstream payload is read into */
+    public enum Model {
+        RESPONSE, SUMMARY;
+        
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface IoSupplier<T> {
+        T get() throws IOException;
+    }
+    
+    private static final Outcome[] UPSTREAM_OUTCOMES = {
+        Outcome.SUCCESS, Outcome.CLIENT_ERROR, Outcome.SERVER_ERROR, Outcome.ERROR
+    };
+    
+    private final MeterRegistry registry;
+    private final Map<Endpoint, Map<Outcome, Timer>> requestTimers = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<Outcome, Timer>> upstreamTimers = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<ErrorType, Counter>> errorCounters = new EnumMap<>(Endpoint.class);
+    private final Map<Model, Timer> deserializationTimers = new EnumMap<>(Model.class);
+    private final Map<String, Map<CacheResult, Timer>> cacheTimers = new ConcurrentHashMap<>();
+    private final Timer summaryConversionTimer;
+    private final Timer responseEncodingTimer;
+    
+    public WeatherMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        
+        for (Endpoint endpoint : Endpoint.values()) {
+            Map<Outcome, Timer> requests = new EnumMap<>(Outcome.class);
+            Map<Outcome, Timer> upstream = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                requests.put(outcome, Timer.builder(REQUESTS)
+                    .description("Service lookups including cache, coalescing and upstream time")
+                    .tag("endpoint", endpoint.tag())
+                    .tag("outcome", outcome.tag())
+                    .publishPercentileHistogram()
+                    .register(registry));
+            }
+            for (Outcome outcome : UPSTREAM_OUTCOMES) {
+                upstream.put(outcome, Timer.builder(UPSTREAM_REQUESTS)
+                    .description("Calls to wttr.in including reading and binding the response body")
+                    .tag("endpoint", endpoint.tag())
+                    .tag("outcome", outcome.tag())
+                    .publishPercentileHistogram()
+                    .register(registry));
+            }
+            requestTimers.put(endpoint, requests);
+            upstreamTimers.put(endpoint, upstream);
+            
+            Map<ErrorType, Counter> errors = new EnumMap<>(ErrorType.class);
+            for (ErrorType type : ErrorType.values()) {
+                errors.put(type, Counter.builder(ERRORS)
+                    .description("Failed lookups by error branch")
+                    .tag("endpoint", endpoint.tag())
+                    .tag("type", type.tag())
+                    .register(registry));
+            }
+            errorCounters.put(endpoint, errors);
+        }
+        
+        for (Model model : Model.values()) {
+            deserializationTimers.put(model, Timer.builder(UPSTREAM_DESERIALIZATION)
+                .description("Reading an upstream body into the model, part of the upstream request time")
+                .tag("model", model.tag())
+                .publishPercentileHistogram()
+                .register(registry));
+        }
+        
+        this.summaryConversionTimer = Timer.builder(SUMMARY_CONVERSION)
+            .description("Conversion of a full weather response into a summary")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100))
+            .maximumExpectedValue(Duration.ofMillis(10))
+            .register(registry);
+        
+        this.responseEncodingTimer = Timer.builder(RESPONSE_ENCODING)
+            .description("Encoding a full weather response into the JSON body kept with its cache entry")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100))
+            .maximumExpectedValue(Duration.ofMillis(10))
+            .register(registry);
+    }
+    
+    public Timer.Sample startRequest() {
+        return Timer.start(registry);
+    }
+    
+    public void recordRequest(Timer.Sample sample, Endpoint endpoint, Outcome outcome) {
+        sample.stop(requestTimers.get(endpoint).get(outcome));
+    }
+    
+    public void recordError(Endpoint endpoint, ErrorType type) {
+        errorCounters.get(endpoint).get(type).increment();
+    }
+    
+    /**
+     * Times an upstream call, tagging it by the exception it ends with
+     */
+    public <T> T recordUpstream(Endpoint endpoint, Supplier<T> call) {
+        long start = registry.config().clock().monotonicTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            T result = call.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (HttpClientErrorException e) {
+            outcome = Outcome.CLIENT_ERROR;
+            throw e;
+        } catch (HttpServerErrorException e) {
+            outcome = Outcome.SERVER_ERROR;
+            throw e;
+        } finally {
+            long elapsed = registry.config().clock().monotonicTime() - start;
+            upstreamTimers.get(endpoint).get(outcome).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public <T> T recordDeserialization(Model model, IoSupplier<T> reader) throws IOException {
+        long start = registry.config().clock().monotonicTime();
+        try {
+            return reader.get();
+        } finally {
+            long elapsed = registry.config().clock().monotonicTime() - start;
+            deserializationTimers.get(model).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public <T> T recordSummaryConversion(Supplier<T> conversion) {
+        return summaryConversionTimer.record(conversion);
+    }
+    
+    public <T> T recordEncoding(Supplier<T> encoding) {
+        return responseEncodingTimer.record(encoding);
+    }
+    
+    public void recordCacheLookup(String cache, CacheResult result, long elapsedNanos) {
+        cacheTimers.computeIfAbsent(cache, this::cacheLookupTimers)
+            .get(result)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Map<CacheResult, Timer> cacheLookupTimers(String cache) {
+        Map<CacheResult, Timer> timers = new EnumMap<>(CacheResult.class);
+        for (CacheResult result : CacheResult.values()) {
+            timers.put(result, Timer.builder(CACHE_LOOKUPS)
+                .description("Fresh and stale cache reads before any upstream call")
+                .tag("cache", cache)
+                .tag("result", result.tag())
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(10))
+                .register(registry));
+        }
+        return timers;
+    }
+}
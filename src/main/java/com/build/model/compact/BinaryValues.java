@@ -0,0 +1,77 @@
+package com.build.model.compact;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Nullable strings and string-valued lists in the binary form of {@link CompactWeatherBinary}
+ */
+final class BinaryValues {
+    
+    private static final int NULL_LIST = -1;
+    
+    private static final byte NULL_ELEMENT = 0;
+    private static final byte NULL_VALUE = 1;
+    private static final byte VALUE = 2;
+    
+    private BinaryValues() {
+    }
+    
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    /**
+     * Writes a list of single-string wrapper objects such as {@code AreaName},
+     * keeping {@code null} lists, {@code null} elements and {@code null} values apart
+     */
+    static <E> void writeList(DataOutput out, List<E> list, Function<E, String> value) throws IOException {
+        if (list == null) {
+            out.writeInt(NULL_LIST);
+            return;
+        }
+        out.writeInt(list.size());
+        for (E element : list) {
+            if (element == null) {
+                out.writeByte(NULL_ELEMENT);
+            } else if (value.apply(element) == null) {
+                out.writeByte(NULL_VALUE);
+            } else {
+                out.writeByte(VALUE);
+                out.writeUTF(value.apply(element));
+            }
+        }
+    }
+    
+    static <E> List<E> readList(DataInput in, Function<String, E> factory) throws IOException {
+        int size = in.readInt();
+        if (size == NULL_LIST) {
+            return null;
+        }
+        if (size < 0) {
+            throw new IOException("Invalid list size " + size);
+        }
+        List<E> list = new ArrayList<>(Math.min(size, 64));
+        for (int i = 0; i < size; i++) {
+            byte kind = in.readByte();
+            switch (kind) {
+                case NULL_ELEMENT -> list.add(null);
+                case NULL_VALUE -> list.add(factory.apply(null));
+                case VALUE -> list.add(factory.apply(in.readUTF()));
+                default -> throw new IOException("Invalid list element marker " + kind);
+            }
+        }
+        return list;
+    }
+}
@@ -0,0 +1,83 @@
+package com.build.model.compact;
+
+import com.build.model.HourlyWeather;
+import com.build.model.WeatherInfo;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact form of a {@link WeatherInfo} and its hourly entries
+ */
+public final class CompactDay {
+    
+    private static final DayField[] DAY_FIELDS = DayField.values();
+    private static final HourlyField[] HOURLY_FIELDS = HourlyField.values();
+    
+    private final CompactRecord day;
+    private final CompactRecord[] hourly;
+    
+    private CompactDay(CompactRecord day, CompactRecord[] hourly) {
+        this.day = day;
+        this.hourly = hourly;
+    }
+    
+    static CompactDay from(WeatherInfo info) {
+        CompactRecord[] hourly = null;
+        if (info.getHourly() != null) {
+            hourly = new CompactRecord[info.getHourly().size()];
+            for (int i = 0; i < hourly.length; i++) {
+                HourlyWeather hour = info.getHourly().get(i);
+                hourly[i] = hour != null ? CompactRecord.encode(hour, HOURLY_FIELDS) : null;
+            }
+        }
+        return new CompactDay(CompactRecord.encode(info, DAY_FIELDS), hourly);
+    }
+    
+    WeatherInfo toWeatherInfo() {
+        WeatherInfo info = day.decode(WeatherInfo::new, DAY_FIELDS);
+        if (hourly != null) {
+            List<HourlyWeather> hours = new ArrayList<>(hourly.length);
+            for (CompactRecord hour : hourly) {
+                hours.add(hour != null ? hour.decode(HourlyWeather::new, HOURLY_FIELDS) : null);
+            }
+            info.setHourly(hours);
+        }
+        return info;
+    }
+    
+    void writeTo(DataOutput out) throws IOException {
+        day.writeTo(out, DAY_FIELDS);
+        CompactWeatherBinary.writeRecords(out, hourly, HOURLY_FIELDS);
+    }
+    
+    static CompactDay readFrom(DataInput in) throws IOException {
+        CompactRecord day = CompactRecord.readFrom(in, DAY_FIELDS);
+        return new CompactDay(day, CompactWeatherBinary.readRecords(in, HOURLY_FIELDS));
+    }
+    
+    public CompactRecord getDay() {
+        return day;
+    }
+    
+    /**
+     * @return the number of hourly entries, {@code 0} if the day had none
+     */
+    public int getHourCount() {
+        return hourly != null ? hourly.length : 0;
+    }
+    
+    public CompactRecord getHour(int index) {
+        return hourly[index];
+    }
+    
+    boolean hasHourly() {
+        return hourly != null;
+    }
+    
+    CompactRecord[] hourly() {
+        return hourly;
+    }
+}
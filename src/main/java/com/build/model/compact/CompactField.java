@@ -0,0 +1,41 @@
+package com.build.model.compact;
+
+import com.build.model.WeatherDescription;
+import java.util.List;
+
+/**
+ * A string-typed property of a wttr.in model class that {@link CompactRecord}
+ * stores as a primitive. Implemented by enums whose declaration order is the
+ * serialization order of the model class.
+ * 
+ * @param <T> the model class
+ */
+public interface CompactField<T> {
+    
+    String jsonName();
+    
+    /**
+     * @return the codec of a {@code String} property, or {@code null} for the
+     *         {@code weatherDesc} list, which is stored through {@link WeatherDescriptions}
+     */
+    FieldCodec codec();
+    
+    default boolean isDescription() {
+        return codec() == null;
+    }
+    
+    int ordinal();
+    
+    /**
+     * @return the property value, a {@code String} or, for {@linkplain #isDescription()
+     *         description} fields, a list of {@link WeatherDescription}
+     */
+    Object get(T source);
+    
+    void set(T target, Object value);
+    
+    @SuppressWarnings("unchecked")
+    static List<WeatherDescription> descriptions(Object value) {
+        return (List<WeatherDescription>) value;
+    }
+}
@@ -0,0 +1,230 @@
+package com.build.model.compact;
+
+import com.build.model.WeatherDescription;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * One model object reduced to a {@code short} per field.
+ * <p>
+ * Values that cannot be reproduced exactly from their encoded form are kept
+ * verbatim in a raw slot array, which is only allocated when such a value occurs.
+ * Instances are immutable.
+ */
+public final class CompactRecord {
+    
+    private final short[] values;
+    private final Object[] raw;
+    
+    private CompactRecord(short[] values, Object[] raw) {
+        this.values = values;
+        this.raw = raw;
+    }
+    
+    static <T> CompactRecord encode(T source, CompactField<T>[] fields) {
+        short[] values = new short[fields.length];
+        Object[] raw = null;
+        short weatherCode = FieldCodec.NULL;
+        
+        for (CompactField<T> field : fields) {
+            if (field.codec() == FieldCodec.WEATHER_CODE) {
+                Object code = field.get(source);
+                weatherCode = code != null ? field.codec().encode((String) code) : FieldCodec.NULL;
+            }
+        }
+        
+        for (CompactField<T> field : fields) {
+            Object value = field.get(source);
+            short encoded;
+            if (value == null) {
+                encoded = FieldCodec.NULL;
+            } else if (field.isDescription()) {
+                encoded = WeatherDescriptions.encode(weatherCode, CompactField.descriptions(value));
+            } else {
+                encoded = field.codec().encode((String) value);
+            }
+            
+            if (encoded == FieldCodec.RAW) {
+                if (raw == null) {
+                    raw = new Object[fields.length];
+                }
+                raw[field.ordinal()] = value;
+            }
+            values[field.ordinal()] = encoded;
+        }
+        
+        return new CompactRecord(values, raw);
+    }
+    
+    <T> T decode(Supplier<T> factory, CompactField<T>[] fields) {
+        T target = factory.get();
+        for (CompactField<T> field : fields) {
+            field.set(target, value(field, fields));
+        }
+        return target;
+    }
+    
+    private Object value(CompactField<?> field, CompactField<?>[] fields) {
+        short value = values[field.ordinal()];
+        if (value == FieldCodec.NULL) {
+            return null;
+        }
+        if (value == FieldCodec.RAW) {
+            return raw[field.ordinal()];
+        }
+        if (field.isDescription()) {
+            return WeatherDescriptions.decode(weatherCode(fields));
+        }
+        return field.codec().decode(value);
+    }
+    
+    void write(CompactField<?>[] fields, JsonGenerator generator, SerializerProvider provider,
+               boolean includeNulls) throws IOException {
+        for (CompactField<?> field : fields) {
+            short value = values[field.ordinal()];
+            if (value == FieldCodec.NULL) {
+                if (includeNulls) {
+                    generator.writeNullField(field.jsonName());
+                }
+                continue;
+            }
+            generator.writeFieldName(field.jsonName());
+            if (value == FieldCodec.RAW) {
+                provider.defaultSerializeValue(raw[field.ordinal()], generator);
+            } else if (field.isDescription()) {
+                generator.writeStartArray();
+                for (String description : WeatherDescriptions.lookup(weatherCode(fields))) {
+                    generator.writeStartObject();
+                    generator.writeStringField("value", description);
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            } else {
+                generator.writeString(field.codec().decode(value));
+            }
+        }
+    }
+    
+    /**
+     * Writes the encoded values. Descriptions are written as text, since the
+     * description table they are shared through does not outlive the process.
+     */
+    void writeTo(DataOutput out, CompactField<?>[] fields) throws IOException {
+        out.writeShort(fields.length);
+        for (CompactField<?> field : fields) {
+            short value = values[field.ordinal()];
+            out.writeShort(value);
+            if (field.isDescription()) {
+                if (value == FieldCodec.RAW) {
+                    BinaryValues.writeList(out, CompactField.descriptions(raw[field.ordinal()]), WeatherDescription::getValue);
+                } else if (value != FieldCodec.NULL) {
+                    BinaryValues.writeList(out, List.of(WeatherDescriptions.lookup(weatherCode(fields))), text -> text);
+                }
+            } else if (value == FieldCodec.RAW) {
+                out.writeUTF((String) raw[field.ordinal()]);
+            }
+        }
+    }
+    
+    /**
+     * Reads a record written by {@link #writeTo}, interning its descriptions again
+     * 
+     * @throws IOException if the data is truncated or was written for other fields
+     */
+    static CompactRecord readFrom(DataInput in, CompactField<?>[] fields) throws IOException {
+        int count = in.readUnsignedShort();
+        if (count != fields.length) {
+            throw new IOException("Record has " + count + " fields, expected " + fields.length);
+        }
+        
+        short[] values = new short[fields.length];
+        Object[] raw = null;
+        List<?>[] descriptions = new List<?>[fields.length];
+        for (CompactField<?> field : fields) {
+            short value = in.readShort();
+            if (field.isDescription()) {
+                if (value != FieldCodec.NULL) {
+                    descriptions[field.ordinal()] = BinaryValues.readList(in, WeatherDescription::new);
+                }
+            } else if (value == FieldCodec.RAW) {
+                if (raw == null) {
+                    raw = new Object[fields.length];
+                }
+                raw[field.ordinal()] = in.readUTF();
+            }
+            values[field.ordinal()] = value;
+        }
+        
+        // Descriptions are resolved once the weather code is known, as in encode()
+        for (CompactField<?> field : fields) {
+            List<?> texts = descriptions[field.ordinal()];
+            if (texts == null) {
+                continue;
+            }
+            List<WeatherDescription> list = CompactField.descriptions(texts);
+            short encoded = WeatherDescriptions.encode(new CompactRecord(values, raw).weatherCode(fields), list);
+            if (encoded == FieldCodec.RAW) {
+                if (raw == null) {
+                    raw = new Object[fields.length];
+                }
+                raw[field.ordinal()] = list;
+            }
+            values[field.ordinal()] = encoded;
+        }
+        
+        return new CompactRecord(values, raw);
+    }
+    
+    private short weatherCode(CompactField<?>[] fields) {
+        for (CompactField<?> field : fields) {
+            if (field.codec() == FieldCodec.WEATHER_CODE) {
+                return values[field.ordinal()];
+            }
+        }
+        throw new IllegalStateException("Record has no weather code field");
+    }
+    
+    /**
+     * @return whether the field has a numeric value that {@link #getInt} can return
+     */
+    public boolean isNumeric(CompactField<?> field) {
+        FieldCodec codec = field.codec();
+        return values[field.ordinal()] >= FieldCodec.MIN
+            && (codec == FieldCodec.INTEGER || codec == FieldCodec.WEATHER_CODE || codec == FieldCodec.TENTHS);
+    }
+    
+    /**
+     * Returns the numeric value of an {@link FieldCodec#INTEGER} or {@link FieldCodec#WEATHER_CODE}
+     * field without parsing it.
+     * 
+     * @throws IllegalStateException if the field is null, not numeric or kept verbatim
+     */
+    public int getInt(CompactField<?> field) {
+        if (field.codec() == FieldCodec.TENTHS) {
+            throw new IllegalStateException(field.jsonName() + " has a decimal value");
+        }
+        return numeric(field);
+    }
+    
+    /**
+     * Returns the numeric value of any numeric field, including {@link FieldCodec#TENTHS}.
+     * 
+     * @throws IllegalStateException if the field is null, not numeric or kept verbatim
+     */
+    public float getFloat(CompactField<?> field) {
+        int value = numeric(field);
+        return field.codec() == FieldCodec.TENTHS ? value / 10f : value;
+    }
+    
+    private int numeric(CompactField<?> field) {
+        if (!isNumeric(field)) {
+            throw new IllegalStateException(field.jsonName() + " has no numeric value");
+        }
+        return values[field.ordinal()];
+    }
+}
@@ -0,0 +1,122 @@
+package com.build.model.compact;
+
+import com.build.model.CurrentCondition;
+import com.build.model.NearestArea;
+import com.build.model.WeatherInfo;
+import com.build.model.WeatherResponse;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Memory-compact, immutable form of a {@link WeatherResponse}.
+ * <p>
+ * Numeric values of the current condition, the days and their hourly entries are
+ * decoded once into primitives, and condition descriptions are shared through a
+ * table keyed by {@code weatherCode}. {@link #toResponse()} and
+ * {@link CompactWeatherSerializer} both reproduce the original values exactly.
+ * The {@code nearest_area} objects are kept as they are; there is one per
+ * response and they carry no forecast data.
+ */
+@JsonSerialize(using = CompactWeatherSerializer.class)
+public final class CompactWeather {
+    
+    private static final ConditionField[] CONDITION_FIELDS = ConditionField.values();
+    
+    private final CompactRecord[] currentCondition;
+    private final CompactDay[] weather;
+    private final List<NearestArea> nearestArea;
+    
+    private CompactWeather(CompactRecord[] currentCondition, CompactDay[] weather, List<NearestArea> nearestArea) {
+        this.currentCondition = currentCondition;
+        this.weather = weather;
+        this.nearestArea = nearestArea;
+    }
+    
+    /**
+     * @return the compact form, or {@code null} if the response is {@code null}
+     */
+    public static CompactWeather from(WeatherResponse response) {
+        if (response == null) {
+            return null;
+        }
+        
+        CompactRecord[] conditions = null;
+        if (response.getCurrentCondition() != null) {
+            conditions = new CompactRecord[response.getCurrentCondition().size()];
+            for (int i = 0; i < conditions.length; i++) {
+                CurrentCondition condition = response.getCurrentCondition().get(i);
+                conditions[i] = condition != null ? CompactRecord.encode(condition, CONDITION_FIELDS) : null;
+            }
+        }
+        
+        CompactDay[] days = null;
+        if (response.getWeather() != null) {
+            days = new CompactDay[response.getWeather().size()];
+            for (int i = 0; i < days.length; i++) {
+                WeatherInfo info = response.getWeather().get(i);
+                days[i] = info != null ? CompactDay.from(info) : null;
+            }
+        }
+        
+        return new CompactWeather(conditions, days, response.getNearestArea());
+    }
+    
+    /**
+     * Rebuilds a {@link WeatherResponse} equal to the one this instance was created
+     * from. Every call returns new model objects; only {@code nearest_area} is shared.
+     */
+    public WeatherResponse toResponse() {
+        WeatherResponse response = new WeatherResponse();
+        
+        if (currentCondition != null) {
+            List<CurrentCondition> conditions = new ArrayList<>(currentCondition.length);
+            for (CompactRecord condition : currentCondition) {
+                conditions.add(condition != null ? condition.decode(CurrentCondition::new, CONDITION_FIELDS) : null);
+            }
+            response.setCurrentCondition(conditions);
+        }
+        
+        if (weather != null) {
+            List<WeatherInfo> days = new ArrayList<>(weather.length);
+            for (CompactDay day : weather) {
+                days.add(day != null ? day.toWeatherInfo() : null);
+            }
+            response.setWeather(days);
+        }
+        
+        response.setNearestArea(nearestArea);
+        return response;
+    }
+    
+    /**
+     * @return the first current condition, or {@code null} if there is none
+     */
+    public CompactRecord getCurrentCondition() {
+        return currentCondition != null && currentCondition.length > 0 ? currentCondition[0] : null;
+    }
+    
+    public int getDayCount() {
+        return weather != null ? weather.length : 0;
+    }
+    
+    public CompactDay getDay(int index) {
+        return weather[index];
+    }
+    
+    public List<NearestArea> getNearestArea() {
+        return nearestArea;
+    }
+    
+    static CompactWeather of(CompactRecord[] currentCondition, CompactDay[] weather, List<NearestArea> nearestArea) {
+        return new CompactWeather(currentCondition, weather, nearestArea);
+    }
+    
+    CompactRecord[] currentConditions() {
+        return currentCondition;
+    }
+    
+    CompactDay[] days() {
+        return weather;
+    }
+}
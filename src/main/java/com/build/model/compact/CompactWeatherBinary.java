@@ -0,0 +1,139 @@
+package com.build.model.compact;
+
+import com.build.model.AreaName;
+import com.build.model.Country;
+import com.build.model.NearestArea;
+import com.build.model.Region;
+import com.build.model.WeatherUrl;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a {@link CompactWeather}, used to persist cached responses.
+ * <p>
+ * Records are written as their encoded {@code short} values plus the verbatim
+ * values, so reading one back does no number parsing. The layout follows the
+ * field enums; {@link #FORMAT_VERSION} must change whenever a field is added,
+ * removed or reordered, so data written by another version is ignored.
+ */
+public final class CompactWeatherBinary {
+    
+    public static final int FORMAT_VERSION = 1;
+    
+    private static final ConditionField[] CONDITION_FIELDS = ConditionField.values();
+    
+    private static final int NULL_ARRAY = -1;
+    
+    private CompactWeatherBinary() {
+    }
+    
+    public static void write(CompactWeather weather, DataOutput out) throws IOException {
+        writeRecords(out, weather.currentConditions(), CONDITION_FIELDS);
+        
+        CompactDay[] days = weather.days();
+        out.writeInt(days != null ? days.length : NULL_ARRAY);
+        if (days != null) {
+            for (CompactDay day : days) {
+                out.writeBoolean(day != null);
+                if (day != null) {
+                    day.writeTo(out);
+                }
+            }
+        }
+        
+        List<NearestArea> areas = weather.getNearestArea();
+        out.writeInt(areas != null ? areas.size() : NULL_ARRAY);
+        if (areas != null) {
+            for (NearestArea area : areas) {
+                out.writeBoolean(area != null);
+                if (area != null) {
+                    writeArea(out, area);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @throws IOException if the data is truncated or does not match {@link #FORMAT_VERSION}
+     */
+    public static CompactWeather read(DataInput in) throws IOException {
+        CompactRecord[] conditions = readRecords(in, CONDITION_FIELDS);
+        
+        int dayCount = readLength(in);
+        CompactDay[] days = null;
+        if (dayCount != NULL_ARRAY) {
+            days = new CompactDay[dayCount];
+            for (int i = 0; i < dayCount; i++) {
+                days[i] = in.readBoolean() ? CompactDay.readFrom(in) : null;
+            }
+        }
+        
+        int areaCount = readLength(in);
+        List<NearestArea> areas = null;
+        if (areaCount != NULL_ARRAY) {
+            areas = new ArrayList<>(areaCount);
+            for (int i = 0; i < areaCount; i++) {
+                areas.add(in.readBoolean() ? readArea(in) : null);
+            }
+        }
+        
+        return CompactWeather.of(conditions, days, areas);
+    }
+    
+    static void writeRecords(DataOutput out, CompactRecord[] records, CompactField<?>[] fields) throws IOException {
+        out.writeInt(records != null ? records.length : NULL_ARRAY);
+        if (records != null) {
+            for (CompactRecord record : records) {
+                out.writeBoolean(record != null);
+                if (record != null) {
+                    record.writeTo(out, fields);
+                }
+            }
+        }
+    }
+    
+    static CompactRecord[] readRecords(DataInput in, CompactField<?>[] fields) throws IOException {
+        int count = readLength(in);
+        if (count == NULL_ARRAY) {
+            return null;
+        }
+        CompactRecord[] records = new CompactRecord[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = in.readBoolean() ? CompactRecord.readFrom(in, fields) : null;
+        }
+        return records;
+    }
+    
+    private static void writeArea(DataOutput out, NearestArea area) throws IOException {
+        BinaryValues.writeList(out, area.getAreaName(), AreaName::getValue);
+        BinaryValues.writeList(out, area.getCountry(), Country::getValue);
+        BinaryValues.writeList(out, area.getRegion(), Region::getValue);
+        BinaryValues.writeString(out, area.getLatitude());
+        BinaryValues.writeString(out, area.getLongitude());
+        BinaryValues.writeString(out, area.getPopulation());
+        BinaryValues.writeList(out, area.getWeatherUrl(), WeatherUrl::getValue);
+    }
+    
+    private static NearestArea readArea(DataInput in) throws IOException {
+        NearestArea area = new NearestArea();
+        area.setAreaName(BinaryValues.readList(in, AreaName::new));
+        area.setCountry(BinaryValues.readList(in, Country::new));
+        area.setRegion(BinaryValues.readList(in, Region::new));
+        area.setLatitude(BinaryValues.readString(in));
+        area.setLongitude(BinaryValues.readString(in));
+        area.setPopulation(BinaryValues.readString(in));
+        area.setWeatherUrl(BinaryValues.readList(in, WeatherUrl::new));
+        return area;
+    }
+    
+    private static int readLength(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < NULL_ARRAY) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+}
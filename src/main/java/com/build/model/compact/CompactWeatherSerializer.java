@@ -0,0 +1,95 @@
+package com.build.model.compact;
+
+import com.build.model.WeatherResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Writes a {@link CompactWeather} as the same JSON Jackson produces for the
+ * {@link WeatherResponse} it was created from, without rebuilding the model objects
+ */
+public class CompactWeatherSerializer extends StdSerializer<CompactWeather> {
+    
+    private static final ConditionField[] CONDITION_FIELDS = ConditionField.values();
+    private static final DayField[] DAY_FIELDS = DayField.values();
+    private static final HourlyField[] HOURLY_FIELDS = HourlyField.values();
+    
+    public CompactWeatherSerializer() {
+        super(CompactWeather.class);
+    }
+    
+    @Override
+    public void serialize(CompactWeather value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        JsonInclude.Include inclusion = provider.getConfig()
+            .getDefaultPropertyInclusion(WeatherResponse.class)
+            .getValueInclusion();
+        boolean includeNulls = inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS;
+        
+        generator.writeStartObject();
+        
+        CompactRecord[] conditions = value.currentConditions();
+        if (conditions != null) {
+            generator.writeArrayFieldStart("current_condition");
+            for (CompactRecord condition : conditions) {
+                writeRecord(condition, CONDITION_FIELDS, generator, provider, includeNulls);
+            }
+            generator.writeEndArray();
+        } else if (includeNulls) {
+            generator.writeNullField("current_condition");
+        }
+        
+        CompactDay[] days = value.days();
+        if (days != null) {
+            generator.writeArrayFieldStart("weather");
+            for (CompactDay day : days) {
+                writeDay(day, generator, provider, includeNulls);
+            }
+            generator.writeEndArray();
+        } else if (includeNulls) {
+            generator.writeNullField("weather");
+        }
+        
+        if (value.getNearestArea() != null || includeNulls) {
+            generator.writeFieldName("nearest_area");
+            provider.defaultSerializeValue(value.getNearestArea(), generator);
+        }
+        
+        generator.writeEndObject();
+    }
+    
+    private void writeDay(CompactDay day, JsonGenerator generator, SerializerProvider provider,
+                          boolean includeNulls) throws IOException {
+        if (day == null) {
+            generator.writeNull();
+            return;
+        }
+        
+        generator.writeStartObject();
+        day.getDay().write(DAY_FIELDS, generator, provider, includeNulls);
+        if (day.hasHourly()) {
+            generator.writeArrayFieldStart("hourly");
+            for (CompactRecord hour : day.hourly()) {
+                writeRecord(hour, HOURLY_FIELDS, generator, provider, includeNulls);
+            }
+            generator.writeEndArray();
+        } else if (includeNulls) {
+            generator.writeNullField("hourly");
+        }
+        generator.writeEndObject();
+    }
+    
+    private void writeRecord(CompactRecord record, CompactField<?>[] fields, JsonGenerator generator,
+                             SerializerProvider provider, boolean includeNulls) throws IOException {
+        if (record == null) {
+            generator.writeNull();
+            return;
+        }
+        
+        generator.writeStartObject();
+        record.write(fields, generator, provider, includeNulls);
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,59 @@
+package com.build.model.compact;
+
+import com.build.model.CurrentCondition;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Fields of a {@link CurrentCondition}, in the order they are serialized.
+ */
+public enum ConditionField implements CompactField<CurrentCondition> {
+    
+    TEMP_C("temp_C", FieldCodec.INTEGER, CurrentCondition::getTempC, (c, v) -> c.setTempC((String) v)),
+    TEMP_F("temp_F", FieldCodec.INTEGER, CurrentCondition::getTempF, (c, v) -> c.setTempF((String) v)),
+    WEATHER_CODE("weatherCode", FieldCodec.WEATHER_CODE, CurrentCondition::getWeatherCode, (c, v) -> c.setWeatherCode((String) v)),
+    WEATHER_DESC("weatherDesc", null, CurrentCondition::getWeatherDesc, (c, v) -> c.setWeatherDesc(CompactField.descriptions(v))),
+    WINDSPEED_MILES("windspeedMiles", FieldCodec.INTEGER, CurrentCondition::getWindspeedMiles, (c, v) -> c.setWindspeedMiles((String) v)),
+    WINDSPEED_KMPH("windspeedKmph", FieldCodec.INTEGER, CurrentCondition::getWindspeedKmph, (c, v) -> c.setWindspeedKmph((String) v)),
+    WINDDIR_DEGREE("winddirDegree", FieldCodec.INTEGER, CurrentCondition::getWinddirDegree, (c, v) -> c.setWinddirDegree((String) v)),
+    WINDDIR_16_POINT("winddir16Point", FieldCodec.COMPASS, CurrentCondition::getWinddir16Point, (c, v) -> c.setWinddir16Point((String) v)),
+    PRECIP_MM("precipMM", FieldCodec.TENTHS, CurrentCondition::getPrecipMM, (c, v) -> c.setPrecipMM((String) v)),
+    HUMIDITY("humidity", FieldCodec.INTEGER, CurrentCondition::getHumidity, (c, v) -> c.setHumidity((String) v)),
+    VISIBILITY("visibility", FieldCodec.INTEGER, CurrentCondition::getVisibility, (c, v) -> c.setVisibility((String) v)),
+    PRESSURE("pressure", FieldCodec.INTEGER, CurrentCondition::getPressure, (c, v) -> c.setPressure((String) v)),
+    CLOUDCOVER("cloudcover", FieldCodec.INTEGER, CurrentCondition::getCloudcover, (c, v) -> c.setCloudcover((String) v)),
+    FEELS_LIKE_C("FeelsLikeC", FieldCodec.INTEGER, CurrentCondition::getFeelsLikeC, (c, v) -> c.setFeelsLikeC((String) v)),
+    FEELS_LIKE_F("FeelsLikeF", FieldCodec.INTEGER, CurrentCondition::getFeelsLikeF, (c, v) -> c.setFeelsLikeF((String) v));
+    
+    private final String jsonName;
+    private final FieldCodec codec;
+    private final Function<CurrentCondition, Object> getter;
+    private final BiConsumer<CurrentCondition, Object> setter;
+    
+    ConditionField(String jsonName, FieldCodec codec, Function<CurrentCondition, Object> getter, BiConsumer<CurrentCondition, Object> setter) {
+        this.jsonName = jsonName;
+        this.codec = codec;
+        this.getter = getter;
+        this.setter = setter;
+    }
+    
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+    
+    @Override
+    public FieldCodec codec() {
+        return codec;
+    }
+    
+    @Override
+    public Object get(CurrentCondition source) {
+        return getter.apply(source);
+    }
+    
+    @Override
+    public void set(CurrentCondition target, Object value) {
+        setter.accept(target, value);
+    }
+}
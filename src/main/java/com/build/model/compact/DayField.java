@@ -0,0 +1,55 @@
+package com.build.model.compact;
+
+import com.build.model.WeatherInfo;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Scalar fields of a {@link WeatherInfo}, in the order they are serialized. The
+ * {@code hourly} list is held by {@link CompactDay}.
+ */
+public enum DayField implements CompactField<WeatherInfo> {
+    
+    DATE("date", FieldCodec.DATE, WeatherInfo::getDate, (w, v) -> w.setDate((String) v)),
+    MAXTEMP_C("maxtempC", FieldCodec.INTEGER, WeatherInfo::getMaxtempC, (w, v) -> w.setMaxtempC((String) v)),
+    MAXTEMP_F("maxtempF", FieldCodec.INTEGER, WeatherInfo::getMaxtempF, (w, v) -> w.setMaxtempF((String) v)),
+    MINTEMP_C("mintempC", FieldCodec.INTEGER, WeatherInfo::getMintempC, (w, v) -> w.setMintempC((String) v)),
+    MINTEMP_F("mintempF", FieldCodec.INTEGER, WeatherInfo::getMintempF, (w, v) -> w.setMintempF((String) v)),
+    AVGTEMP_C("avgtempC", FieldCodec.INTEGER, WeatherInfo::getAvgtempC, (w, v) -> w.setAvgtempC((String) v)),
+    AVGTEMP_F("avgtemp F", FieldCodec.INTEGER, WeatherInfo::getAvgtempF, (w, v) -> w.setAvgtempF((String) v)),
+    TOTAL_SNOW_CM("totalSnow_cm", FieldCodec.TENTHS, WeatherInfo::getTotalSnowCm, (w, v) -> w.setTotalSnowCm((String) v)),
+    SUN_HOUR("sunHour", FieldCodec.TENTHS, WeatherInfo::getSunHour, (w, v) -> w.setSunHour((String) v)),
+    UV_INDEX("uvIndex", FieldCodec.INTEGER, WeatherInfo::getUvIndex, (w, v) -> w.setUvIndex((String) v));
+    
+    private final String jsonName;
+    private final FieldCodec codec;
+    private final Function<WeatherInfo, Object> getter;
+    private final BiConsumer<WeatherInfo, Object> setter;
+    
+    DayField(String jsonName, FieldCodec codec, Function<WeatherInfo, Object> getter, BiConsumer<WeatherInfo, Object> setter) {
+        this.jsonName = jsonName;
+        this.codec = codec;
+        this.getter = getter;
+        this.setter = setter;
+    }
+    
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+    
+    @Override
+    public FieldCodec codec() {
+        return codec;
+    }
+    
+    @Override
+    public Object get(WeatherInfo source) {
+        return getter.apply(source);
+    }
+    
+    @Override
+    public void set(WeatherInfo target, Object value) {
+        setter.accept(target, value);
+    }
+}
@@ -0,0 +1,132 @@
+package com.build.model.compact;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Encodes the string-typed wttr.in values into a {@code short}.
+ * <p>
+ * A value is only encoded when decoding it reproduces the exact input string;
+ * everything else is reported as {@link #RAW} and kept verbatim by the record, so
+ * a compact record always serializes back to the original JSON.
+ */
+public enum FieldCodec {
+    
+    /** Whole numbers such as temperatures, pressure or {@code time} */
+    INTEGER {
+        @Override
+        short encode(String value) {
+            try {
+                int parsed = Integer.parseInt(value);
+                return canonical(parsed, value);
+            } catch (NumberFormatException e) {
+                return RAW;
+            }
+        }
+        
+        @Override
+        String decode(short value) {
+            return Integer.toString(value);
+        }
+    },
+    
+    /** Numeric code of the condition, also the key of {@link WeatherDescriptions} */
+    WEATHER_CODE {
+        @Override
+        short encode(String value) {
+            return INTEGER.encode(value);
+        }
+        
+        @Override
+        String decode(short value) {
+            return INTEGER.decode(value);
+        }
+    },
+    
+    /** Values with one decimal digit such as {@code precipMM} or {@code sunHour}, stored as tenths */
+    TENTHS {
+        @Override
+        short encode(String value) {
+            int dot = value.indexOf('.');
+            if (dot < 0 || dot != value.length() - 2) {
+                return RAW;
+            }
+            try {
+                int parsed = Integer.parseInt(value.substring(0, dot) + value.charAt(dot + 1));
+                return canonical(parsed, value);
+            } catch (NumberFormatException e) {
+                return RAW;
+            }
+        }
+        
+        @Override
+        String decode(short value) {
+            int abs = Math.abs(value);
+            return (value < 0 ? "-" : "") + (abs / 10) + "." + (abs % 10);
+        }
+    },
+    
+    /** ISO dates, stored as days since the epoch */
+    DATE {
+        @Override
+        short encode(String value) {
+            try {
+                long epochDay = LocalDate.parse(value).toEpochDay();
+                return epochDay >= MIN && epochDay <= Short.MAX_VALUE ? canonical((int) epochDay, value) : RAW;
+            } catch (DateTimeParseException e) {
+                return RAW;
+            }
+        }
+        
+        @Override
+        String decode(short value) {
+            return LocalDate.ofEpochDay(value).toString();
+        }
+    },
+    
+    /** 16-point compass directions, stored as their index */
+    COMPASS {
+        @Override
+        short encode(String value) {
+            for (short i = 0; i < COMPASS_POINTS.length; i++) {
+                if (COMPASS_POINTS[i].equals(value)) {
+                    return i;
+                }
+            }
+            return RAW;
+        }
+        
+        @Override
+        String decode(short value) {
+            return COMPASS_POINTS[value];
+        }
+    };
+    
+    /** The field was {@code null} */
+    static final short NULL = Short.MIN_VALUE;
+    
+    /** The field is kept verbatim in the record's raw slots */
+    static final short RAW = Short.MIN_VALUE + 1;
+    
+    /** Smallest encodable value, everything below is reserved for markers */
+    static final short MIN = Short.MIN_VALUE + 2;
+    
+    private static final String[] COMPASS_POINTS = {
+        "N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE",
+        "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW"
+    };
+    
+    /**
+     * @return the encoded value, or {@link #RAW} if it cannot be reproduced exactly
+     */
+    abstract short encode(String value);
+    
+    abstract String decode(short value);
+    
+    short canonical(int value, String original) {
+        if (value < MIN || value > Short.MAX_VALUE) {
+            return RAW;
+        }
+        return decode((short) value).equals(original) ? (short) value : RAW;
+    }
+}
@@ -0,0 +1,69 @@
+package com.build.model.compact;
+
+import com.build.model.HourlyWeather;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Fields of a {@link HourlyWeather}, in the order they are serialized.
+ */
+public enum HourlyField implements CompactField<HourlyWeather> {
+    
+    TIME("time", FieldCodec.INTEGER, HourlyWeather::getTime, (h, v) -> h.setTime((String) v)),
+    TEMP_C("tempC", FieldCodec.INTEGER, HourlyWeather::getTempC, (h, v) -> h.setTempC((String) v)),
+    TEMP_F("tempF", FieldCodec.INTEGER, HourlyWeather::getTempF, (h, v) -> h.setTempF((String) v)),
+    WINDSPEED_MILES("windspeedMiles", FieldCodec.INTEGER, HourlyWeather::getWindspeedMiles, (h, v) -> h.setWindspeedMiles((String) v)),
+    WINDSPEED_KMPH("windspeedKmph", FieldCodec.INTEGER, HourlyWeather::getWindspeedKmph, (h, v) -> h.setWindspeedKmph((String) v)),
+    WINDDIR_DEGREE("winddirDegree", FieldCodec.INTEGER, HourlyWeather::getWinddirDegree, (h, v) -> h.setWinddirDegree((String) v)),
+    WINDDIR_16_POINT("winddir16Point", FieldCodec.COMPASS, HourlyWeather::getWinddir16Point, (h, v) -> h.setWinddir16Point((String) v)),
+    WEATHER_CODE("weatherCode", FieldCodec.WEATHER_CODE, HourlyWeather::getWeatherCode, (h, v) -> h.setWeatherCode((String) v)),
+    WEATHER_DESC("weatherDesc", null, HourlyWeather::getWeatherDesc, (h, v) -> h.setWeatherDesc(CompactField.descriptions(v))),
+    PRECIP_MM("precipMM", FieldCodec.TENTHS, HourlyWeather::getPrecipMM, (h, v) -> h.setPrecipMM((String) v)),
+    HUMIDITY("humidity", FieldCodec.INTEGER, HourlyWeather::getHumidity, (h, v) -> h.setHumidity((String) v)),
+    VISIBILITY("visibility", FieldCodec.INTEGER, HourlyWeather::getVisibility, (h, v) -> h.setVisibility((String) v)),
+    PRESSURE("pressure", FieldCodec.INTEGER, HourlyWeather::getPressure, (h, v) -> h.setPressure((String) v)),
+    CLOUDCOVER("cloudcover", FieldCodec.INTEGER, HourlyWeather::getCloudcover, (h, v) -> h.setCloudcover((String) v)),
+    HEAT_INDEX_C("HeatIndexC", FieldCodec.INTEGER, HourlyWeather::getHeatIndexC, (h, v) -> h.setHeatIndexC((String) v)),
+    HEAT_INDEX_F("HeatIndexF", FieldCodec.INTEGER, HourlyWeather::getHeatIndexF, (h, v) -> h.setHeatIndexF((String) v)),
+    DEW_POINT_C("DewPointC", FieldCodec.INTEGER, HourlyWeather::getDewPointC, (h, v) -> h.setDewPointC((String) v)),
+    DEW_POINT_F("DewPointF", FieldCodec.INTEGER, HourlyWeather::getDewPointF, (h, v) -> h.setDewPointF((String) v)),
+    WIND_CHILL_C("WindChillC", FieldCodec.INTEGER, HourlyWeather::getWindChillC, (h, v) -> h.setWindChillC((String) v)),
+    WIND_CHILL_F("WindChillF", FieldCodec.INTEGER, HourlyWeather::getWindChillF, (h, v) -> h.setWindChillF((String) v)),
+    WIND_GUST_MILES("WindGustMiles", FieldCodec.INTEGER, HourlyWeather::getWindGustMiles, (h, v) -> h.setWindGustMiles((String) v)),
+    WIND_GUST_KMPH("WindGustKmph", FieldCodec.INTEGER, HourlyWeather::getWindGustKmph, (h, v) -> h.setWindGustKmph((String) v)),
+    FEELS_LIKE_C("FeelsLikeC", FieldCodec.INTEGER, HourlyWeather::getFeelsLikeC, (h, v) -> h.setFeelsLikeC((String) v)),
+    FEELS_LIKE_F("FeelsLikeF", FieldCodec.INTEGER, HourlyWeather::getFeelsLikeF, (h, v) -> h.setFeelsLikeF((String) v)),
+    UV_INDEX("uvIndex", FieldCodec.INTEGER, HourlyWeather::getUvIndex, (h, v) -> h.setUvIndex((String) v));
+    
+    private final String jsonName;
+    private final FieldCodec codec;
+    private final Function<HourlyWeather, Object> getter;
+    private final BiConsumer<HourlyWeather, Object> setter;
+    
+    HourlyField(String jsonName, FieldCodec codec, Function<HourlyWeather, Object> getter, BiConsumer<HourlyWeather, Object> setter) {
+        this.jsonName = jsonName;
+        this.codec = codec;
+        this.getter = getter;
+        this.setter = setter;
+    }
+    
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+    
+    @Override
+    public FieldCodec codec() {
+        return codec;
+    }
+    
+    @Override
+    public Object get(HourlyWeather source) {
+        return getter.apply(source);
+    }
+    
+    @Override
+    public void set(HourlyWeather target, Object value) {
+        setter.accept(target, value);
+    }
+}
@@ -0,0 +1,86 @@
+package com.build.model.compact;
+
+import com.build.model.WeatherDescription;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide table of condition descriptions keyed by {@code weatherCode}.
+ * <p>
+ * wttr.in sends the same text for every occurrence of a code, so the first
+ * description seen for a code is interned here and every record carrying that
+ * pair stores nothing but the code. A record whose text differs from the interned
+ * one keeps its own copy. The table is bounded by {@link #MAX_CODES}, since codes
+ * come from upstream.
+ * <p>
+ * This is how {@link CompactRecord} stores {@linkplain CompactField#isDescription()
+ * description} fields: their value depends on the record's weather code, so they
+ * have no {@link FieldCodec}.
+ */
+final class WeatherDescriptions {
+    
+    static final int MAX_CODES = 1024;
+    
+    private static final Map<Short, String[]> BY_CODE = new ConcurrentHashMap<>();
+    
+    private WeatherDescriptions() {
+    }
+    
+    /**
+     * Descriptions are stored as {@code 0} when they match the interned text of
+     * the record's weather code
+     * 
+     * @return {@code 0}, or {@link FieldCodec#RAW} if the record has to keep its own copy
+     */
+    static short encode(short weatherCode, List<WeatherDescription> descriptions) {
+        if (weatherCode < FieldCodec.MIN) {
+            return FieldCodec.RAW;
+        }
+        List<String> values = new ArrayList<>(descriptions.size());
+        for (WeatherDescription description : descriptions) {
+            if (description == null || description.getValue() == null) {
+                return FieldCodec.RAW;
+            }
+            values.add(description.getValue());
+        }
+        return intern(weatherCode, values) ? 0 : FieldCodec.RAW;
+    }
+    
+    static List<WeatherDescription> decode(short weatherCode) {
+        List<WeatherDescription> descriptions = new ArrayList<>();
+        for (String description : lookup(weatherCode)) {
+            descriptions.add(new WeatherDescription(description));
+        }
+        return descriptions;
+    }
+    
+    /**
+     * Interns the values for the code if it is not known yet.
+     * 
+     * @return {@code true} if the interned values for the code equal the given ones
+     */
+    static boolean intern(short code, List<String> values) {
+        String[] interned = BY_CODE.get(code);
+        if (interned == null) {
+            if (BY_CODE.size() >= MAX_CODES) {
+                return false;
+            }
+            String[] candidate = values.toArray(new String[0]);
+            interned = BY_CODE.putIfAbsent(code, candidate);
+            if (interned == null) {
+                return true;
+            }
+        }
+        return List.of(interned).equals(values);
+    }
+    
+    static String[] lookup(short code) {
+        String[] values = BY_CODE.get(code);
+        if (values == null) {
+            throw new IllegalStateException("No description interned for weather code " + code);
+        }
+        return values;
+    }
+}
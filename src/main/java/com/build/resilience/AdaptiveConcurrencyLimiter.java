@@ -0,0 +1,110 @@
+package com.build.resilience;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent upstream calls with an additive-increase/multiplicative-decrease
+ * limit.
+ * <p>
+ * A call finishing within the latency threshold while the limit is being used
+ * raises the limit by {@code 1/limit}, roughly one per round of calls. A call that
+ * is slower, or fails with an overload signal, multiplies it by the backoff
+ * ratio. Calls beyond the limit are rejected at once with
+ * {@link UpstreamUnavailableException} instead of queueing, so a slow upstream
+ * costs a bounded number of threads.
+ */
+public class AdaptiveConcurrencyLimiter {
+    
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final Predicate<Throwable> overloadPredicate;
+    
+    private double limit;
+    private int inFlight;
+    private long rejected;
+    
+    /**
+     * @param overloadPredicate exceptions that signal an overloaded upstream and lower the limit
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration latencyThreshold, double backoffRatio,
+                                      Predicate<Throwable> overloadPredicate) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.overloadPredicate = overloadPredicate;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+    
+    public <T> T execute(Supplier<T> call) {
+        acquire();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            release(overloadPredicate.test(e) ? Sample.OVERLOAD : Sample.NONE);
+            throw e;
+        }
+        release(System.nanoTime() - start > latencyThresholdNanos ? Sample.OVERLOAD : Sample.SUCCESS);
+        return result;
+    }
+    
+    private enum Sample {
+        SUCCESS, OVERLOAD, NONE
+    }
+    
+    private synchronized void acquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            throw new UpstreamUnavailableException(UpstreamUnavailableException.Reason.CONCURRENCY_LIMIT,
+                "Concurrency limit of '" + name + "' reached (" + (int) limit + ")");
+        }
+        inFlight++;
+    }
+    
+    private synchronized void release(Sample sample) {
+        // Only grow while the limit is actually being used, otherwise it drifts to the maximum
+        boolean utilized = inFlight * 2 >= (int) limit;
+        inFlight--;
+        switch (sample) {
+            case SUCCESS -> {
+                if (utilized) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            }
+            case OVERLOAD -> limit = Math.max(minLimit, limit * backoffRatio);
+            case NONE -> {
+            }
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+    
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+    
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+}
@@ -0,0 +1,194 @@
+package com.build.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * While {@link State#CLOSED} the outcome of the last {@code windowSize} calls is
+ * kept; once at least {@code minimumCalls} are recorded and the share of failed
+ * or slow calls reaches the threshold, the circuit opens and every call is
+ * rejected with {@link UpstreamUnavailableException} for {@code waitInOpenState}.
+ * After that a limited number of trial calls is let through ({@link State#HALF_OPEN}):
+ * one failure opens the circuit again, enough successes close it. Each trial call
+ * belongs to the half-open round it was let through in, and only counts there; a
+ * call ending in an {@link Error} counts as a failure, so its trial slot is never lost.
+ */
+public class CircuitBreaker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long waitInOpenStateMillis;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> failurePredicate;
+    private final Clock clock;
+    
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    
+    private State state = State.CLOSED;
+    private long openedAt;
+    private long halfOpenRound;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+    
+    private long rejected;
+    private long transitionsToOpen;
+    
+    /**
+     * @param failureRateThreshold share of failed calls in {@code (0, 1]} that opens the circuit
+     * @param slowCallThreshold    successful calls taking at least this long count as failures
+     * @param failurePredicate     which exceptions count as failures; others count as successes
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration slowCallThreshold, Duration waitInOpenState, int halfOpenCalls,
+                          Predicate<Throwable> failurePredicate, Clock clock) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Window size and minimum calls must satisfy 1 <= minimumCalls <= windowSize");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.waitInOpenStateMillis = waitInOpenState.toMillis();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.failurePredicate = failurePredicate;
+        this.clock = clock;
+    }
+    
+    public <T> T execute(Supplier<T> call) {
+        Permit permit = acquirePermission();
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (Throwable e) {
+            onResult(permit, !(e instanceof RuntimeException) || failurePredicate.test(e));
+            throw e;
+        }
+        onResult(permit, System.nanoTime() - start >= slowCallNanos);
+        return result;
+    }
+    
+    private synchronized Permit acquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.millis() - openedAt < waitInOpenStateMillis) {
+                rejected++;
+                throw new UpstreamUnavailableException(UpstreamUnavailableException.Reason.CIRCUIT_OPEN,
+                    "Circuit breaker '" + name + "' is open");
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= halfOpenCalls) {
+                rejected++;
+                throw new UpstreamUnavailableException(UpstreamUnavailableException.Reason.CIRCUIT_OPEN,
+                    "Circuit breaker '" + name + "' is half-open and its trial calls are in flight");
+            }
+            halfOpenInFlight++;
+        }
+        return new Permit(state, halfOpenRound);
+    }
+    
+    private synchronized void onResult(Permit permit, boolean failure) {
+        if (permit.state() == State.HALF_OPEN) {
+            if (state != State.HALF_OPEN || permit.halfOpenRound() != halfOpenRound) {
+                // The trial round this call belonged to is already decided
+                return;
+            }
+            halfOpenInFlight--;
+            if (failure) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        
+        if (state != State.CLOSED) {
+            return;
+        }
+        
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+        
+        if (windowCount >= minimumCalls && (double) windowFailures / windowCount >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+    
+    private void transitionTo(State next) {
+        logger.warn("Circuit breaker '{}' changed from {} to {}", name, state, next);
+        state = next;
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+        if (next == State.HALF_OPEN) {
+            halfOpenRound++;
+        }
+        if (next == State.OPEN) {
+            openedAt = clock.millis();
+            transitionsToOpen++;
+        }
+        if (next == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+    
+    public synchronized long getOpenedCount() {
+        return transitionsToOpen;
+    }
+    
+    /**
+     * @return failure share of the current window, {@code 0} while fewer than the minimum calls are recorded
+     */
+    public synchronized double getFailureRate() {
+        return windowCount >= minimumCalls ? (double) windowFailures / windowCount : 0;
+    }
+    
+    /**
+     * The state a call was let through in and, for trial calls, the half-open round
+     */
+    private record Permit(State state, long halfOpenRound) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.build.resilience;
+
+/**
+ * Token bucket refilled continuously at a fixed rate. Not thread-safe; callers
+ * guard it with their own lock.
+ */
+class TokenBucket {
+    
+    private final double capacity;
+    private final double tokensPerNano;
+    
+    private double tokens;
+    private long lastRefill;
+    
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = permitsPerSecond / 1_000_000_000.0;
+        this.tokens = burst;
+        this.lastRefill = now;
+    }
+    
+    void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+        }
+    }
+    
+    boolean hasToken() {
+        return tokens >= 1;
+    }
+    
+    void take() {
+        tokens -= 1;
+    }
+    
+    /**
+     * @return nanoseconds until {@code count} tokens are available, assuming nobody else takes any
+     */
+    long nanosUntil(double count) {
+        double missing = count - tokens;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+    }
+    
+    /**
+     * @return nanoseconds one token takes to refill
+     */
+    long nanosPerToken() {
+        return (long) Math.ceil(1 / tokensPerNano);
+    }
+}
@@ -0,0 +1,142 @@
+package com.build.resilience;
+
+import com.build.resilience.UpstreamRateLimiter.Priority;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.Supplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Runs upstream calls through an {@link UpstreamRateLimiter}, an
+ * {@link AdaptiveConcurrencyLimiter} and a {@link CircuitBreaker}. Any of them may
+ * be absent when disabled.
+ * <p>
+ * The rate limiter is outermost so queued calls hold no concurrency permit while
+ * they wait. The concurrency limiter comes next so it measures the latency of calls
+ * that actually reach wttr.in; a call rejected by an open circuit only holds a
+ * permit for an instant.
+ * <p>
+ * A 429 from upstream pauses the rate limiter for its {@code Retry-After} and is
+ * rethrown as {@link UpstreamUnavailableException}, so callers treat it like the
+ * other ways upstream can be unavailable rather than as a bad request.
+ */
+public class UpstreamGuard {
+    
+    private final UpstreamRateLimiter rateLimiter;
+    private final Duration foregroundMaxWait;
+    private final Duration backgroundMaxWait;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    
+    public UpstreamGuard(AdaptiveConcurrencyLimiter limiter, CircuitBreaker circuitBreaker) {
+        this(null, Duration.ZERO, Duration.ZERO, limiter, circuitBreaker);
+    }
+    
+    /**
+     * @param foregroundMaxWait longest a call somebody waits for is queued for a rate limit permit
+     * @param backgroundMaxWait longest a background refresh is queued for a rate limit permit
+     */
+    public UpstreamGuard(UpstreamRateLimiter rateLimiter, Duration foregroundMaxWait, Duration backgroundMaxWait,
+                         AdaptiveConcurrencyLimiter limiter, CircuitBreaker circuitBreaker) {
+        this.rateLimiter = rateLimiter;
+        this.foregroundMaxWait = foregroundMaxWait;
+        this.backgroundMaxWait = backgroundMaxWait;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+    }
+    
+    /**
+     * @return a guard that passes every call straight through
+     */
+    public static UpstreamGuard disabled() {
+        return new UpstreamGuard(null, null);
+    }
+    
+    /**
+     * @param city     city the call is for, used by the per-city rate limit
+     * @param priority whether somebody is waiting for the call or it is a background refresh
+     */
+    public <T> T call(String city, Priority priority, Supplier<T> call) {
+        if (rateLimiter != null) {
+            rateLimiter.acquire(city, priority, priority == Priority.FOREGROUND ? foregroundMaxWait : backgroundMaxWait);
+        }
+        
+        Supplier<T> guarded = circuitBreaker != null ? () -> circuitBreaker.execute(call) : call;
+        try {
+            return limiter != null ? limiter.execute(guarded) : guarded.get();
+        } catch (HttpClientErrorException e) {
+            if (!isThrottled(e)) {
+                throw e;
+            }
+            Duration retryAfter = retryAfter(e.getResponseHeaders(), Clock.systemUTC());
+            if (rateLimiter != null) {
+                rateLimiter.pause(retryAfter);
+            }
+            throw new UpstreamUnavailableException(UpstreamUnavailableException.Reason.THROTTLED,
+                "Upstream throttled the call" + (retryAfter != null ? ", retry after " + retryAfter.toSeconds() + "s" : ""), e);
+        }
+    }
+    
+    public UpstreamRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+    
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+    
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+    
+    /**
+     * Upstream failures that say nothing about the request itself: I/O errors and
+     * timeouts, and 5xx answers. These count against the circuit breaker.
+     */
+    public static boolean isUpstreamFailure(Throwable e) {
+        return e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    }
+    
+    /**
+     * Failures that mean wttr.in is taking more than it can handle, including
+     * throttling. These lower the concurrency limit.
+     */
+    public static boolean isOverload(Throwable e) {
+        return isUpstreamFailure(e) || e instanceof HttpClientErrorException clientError && isThrottled(clientError);
+    }
+    
+    private static boolean isThrottled(HttpClientErrorException e) {
+        return e.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+    }
+    
+    /**
+     * Reads a {@code Retry-After} header given either in seconds or as an HTTP date
+     *
+     * @return the delay, or {@code null} if the header is missing or malformed
+     */
+    static Duration retryAfter(HttpHeaders headers, Clock clock) {
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        try {
+            return Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration delay = Duration.between(clock.instant(), date.toInstant());
+                return delay.isNegative() ? Duration.ZERO : delay;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
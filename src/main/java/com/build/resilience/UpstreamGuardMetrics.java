@@ -0,0 +1,94 @@
+package com.build.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the circuit breaker state, the adaptive concurrency limit and the rate
+ * limit queue of an {@link UpstreamGuard}
+ */
+public class UpstreamGuardMetrics implements MeterBinder {
+    
+    private final UpstreamGuard guard;
+    
+    public UpstreamGuardMetrics(UpstreamGuard guard) {
+        this.guard = guard;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CircuitBreaker circuitBreaker = guard.getCircuitBreaker();
+        if (circuitBreaker != null) {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("weather.upstream.circuit.state", circuitBreaker, cb -> cb.getState() == state ? 1 : 0)
+                    .tag("name", circuitBreaker.getName())
+                    .tag("state", state.name().toLowerCase())
+                    .description("1 for the current state of the circuit breaker, 0 otherwise")
+                    .register(registry);
+            }
+            
+            FunctionCounter.builder("weather.upstream.rejected", circuitBreaker, CircuitBreaker::getRejectedCount)
+                .tag("name", circuitBreaker.getName())
+                .tag("reason", "circuit_open")
+                .description("Upstream calls rejected without being attempted")
+                .register(registry);
+            
+            FunctionCounter.builder("weather.upstream.circuit.opened", circuitBreaker, CircuitBreaker::getOpenedCount)
+                .tag("name", circuitBreaker.getName())
+                .description("Transitions of the circuit breaker into the open state")
+                .register(registry);
+        }
+        
+        AdaptiveConcurrencyLimiter limiter = guard.getLimiter();
+        if (limiter != null) {
+            Gauge.builder("weather.upstream.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("name", limiter.getName())
+                .description("Current adaptive limit on concurrent upstream calls")
+                .register(registry);
+            
+            Gauge.builder("weather.upstream.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("name", limiter.getName())
+                .description("Upstream calls currently in flight")
+                .register(registry);
+            
+            FunctionCounter.builder("weather.upstream.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .tag("name", limiter.getName())
+                .tag("reason", "concurrency_limit")
+                .description("Upstream calls rejected without being attempted")
+                .register(registry);
+        }
+        
+        UpstreamRateLimiter rateLimiter = guard.getRateLimiter();
+        if (rateLimiter != null) {
+            for (UpstreamRateLimiter.Priority priority : UpstreamRateLimiter.Priority.values()) {
+                Gauge.builder("weather.upstream.rate.limit.queue", rateLimiter, rl -> rl.getQueueDepth(priority))
+                    .tag("name", rateLimiter.getName())
+                    .tag("priority", priority.tag())
+                    .description("Upstream calls waiting for a rate limit permit")
+                    .register(registry);
+                
+                FunctionTimer.builder("weather.upstream.rate.limit.wait", rateLimiter,
+                        rl -> rl.getAcquiredCount(priority), rl -> rl.getTotalWaitMillis(priority), TimeUnit.MILLISECONDS)
+                    .tag("name", rateLimiter.getName())
+                    .tag("priority", priority.tag())
+                    .description("Time upstream calls spent waiting for a rate limit permit")
+                    .register(registry);
+            }
+            
+            FunctionCounter.builder("weather.upstream.rejected", rateLimiter, UpstreamRateLimiter::getRejectedCount)
+                .tag("name", rateLimiter.getName())
+                .tag("reason", "rate_limited")
+                .description("Upstream calls rejected without being attempted")
+                .register(registry);
+            
+            FunctionCounter.builder("weather.upstream.rate.limit.pauses", rateLimiter, UpstreamRateLimiter::getPauseCount)
+                .tag("name", rateLimiter.getName())
+                .description("Pauses of the rate limiter after upstream answered 429")
+                .register(registry);
+        }
+    }
+}
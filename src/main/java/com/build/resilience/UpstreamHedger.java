@@ -0,0 +1,245 @@
+package com.build.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second, hedged upstream call when the first one has not answered within
+ * a delay derived from recent latencies, and returns whichever succeeds first.
+ * <p>
+ * The delay is the configured percentile of the last {@code windowSize} call
+ * latencies, clamped to {@code [minDelay, maxDelay]}; until {@code minSamples}
+ * are recorded it is {@code maxDelay}. Each call earns {@code budgetRatio} of a
+ * hedge and each hedge spends one, so hedges stay below that share of traffic
+ * even when upstream is slow across the board.
+ * <p>
+ * Both attempts run on the hedger's own executor while the caller waits. The
+ * losing attempt is cancelled with an interrupt; a blocking socket read may not
+ * notice it, in which case the call finishes in the background and its result is
+ * dropped.
+ */
+public class UpstreamHedger implements AutoCloseable {
+    
+    private final String name;
+    private final Executor executor;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final int minSamples;
+    private final double budgetRatio;
+    private final double maxBudget;
+    
+    private final long[] latencies;
+    private int latencyIndex;
+    private int latencyCount;
+    private long delayNanos;
+    private double budget;
+    
+    private long calls;
+    private long hedged;
+    private long hedgeWins;
+    private long budgetExhausted;
+    
+    /**
+     * @param percentile  latency percentile in {@code (0, 100)} the hedge delay follows
+     * @param budgetRatio hedges allowed per call, e.g. {@code 0.05} for at most 5% extra calls
+     * @param maxBudget   hedges that may be saved up during quiet periods and spent at once
+     */
+    public UpstreamHedger(String name, Executor executor, double percentile, Duration minDelay, Duration maxDelay,
+                          int minSamples, int windowSize, double budgetRatio, double maxBudget) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (minSamples < 1 || minSamples > windowSize) {
+            throw new IllegalArgumentException("Samples must satisfy 1 <= minSamples <= windowSize");
+        }
+        this.name = name;
+        this.executor = executor;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxDelayNanos = Math.max(minDelayNanos, maxDelay.toNanos());
+        this.minSamples = minSamples;
+        this.budgetRatio = budgetRatio;
+        this.maxBudget = Math.max(1, maxBudget);
+        this.latencies = new long[windowSize];
+        this.delayNanos = maxDelayNanos;
+    }
+    
+    /**
+     * @return a hedger that runs every call once, on the calling thread
+     */
+    public static UpstreamHedger disabled() {
+        return new UpstreamHedger("disabled", null, 50, Duration.ZERO, Duration.ZERO, 1, 1, 0, 1);
+    }
+    
+    public <T> T execute(Supplier<T> call) {
+        if (executor == null) {
+            return call.get();
+        }
+        long delay = startCall();
+        CompletableFuture<Result<T>> winner = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        
+        FutureTask<T> primary = attempt(call, winner, outstanding, failure, false);
+        if (!submit(primary)) {
+            return call.get();
+        }
+        FutureTask<T> hedge = null;
+        try {
+            try {
+                return winner.get(delay, TimeUnit.NANOSECONDS).value();
+            } catch (TimeoutException e) {
+                if (tryAcquireHedge()) {
+                    hedge = attempt(call, winner, outstanding, failure, true);
+                    if (!submit(hedge)) {
+                        hedge = null;
+                        // The primary may already have failed while counting on the hedge
+                        if (outstanding.decrementAndGet() == 0) {
+                            winner.completeExceptionally(failure.get());
+                        }
+                    }
+                }
+            }
+            Result<T> result = winner.get();
+            if (result.hedge()) {
+                recordHedgeWin();
+            }
+            return result.value();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for upstream");
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+    
+    /**
+     * The first successful attempt completes the call; a failure only does when
+     * no other attempt is left that could still succeed
+     */
+    private <T> FutureTask<T> attempt(Supplier<T> call, CompletableFuture<Result<T>> winner, AtomicInteger outstanding,
+                                      AtomicReference<Throwable> failure, boolean hedge) {
+        outstanding.incrementAndGet();
+        return new FutureTask<>(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                recordLatency(System.nanoTime() - start);
+                winner.complete(new Result<>(result, hedge));
+                return result;
+            } catch (RuntimeException | Error e) {
+                failure.set(e);
+                if (outstanding.decrementAndGet() == 0) {
+                    winner.completeExceptionally(e);
+                }
+                throw e;
+            }
+        });
+    }
+    
+    private boolean submit(FutureTask<?> task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    
+    private synchronized long startCall() {
+        calls++;
+        budget = Math.min(maxBudget, budget + budgetRatio);
+        return delayNanos;
+    }
+    
+    private synchronized boolean tryAcquireHedge() {
+        if (budget < 1) {
+            budgetExhausted++;
+            return false;
+        }
+        budget -= 1;
+        hedged++;
+        return true;
+    }
+    
+    private synchronized void recordHedgeWin() {
+        hedgeWins++;
+    }
+    
+    private synchronized void recordLatency(long nanos) {
+        latencies[latencyIndex] = nanos;
+        latencyIndex = (latencyIndex + 1) % latencies.length;
+        if (latencyCount < latencies.length) {
+            latencyCount++;
+        }
+        // Sorting the window on every sample is wasteful; a few samples of lag do not matter
+        if (latencyCount >= minSamples && (latencyIndex & 15) == 0) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            long value = sorted[Math.min(latencyCount - 1, (int) Math.ceil(percentile / 100 * latencyCount) - 1)];
+            delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return executor != null;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public synchronized Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+    
+    public synchronized long getCallCount() {
+        return calls;
+    }
+    
+    public synchronized long getHedgedCount() {
+        return hedged;
+    }
+    
+    public synchronized long getHedgeWinCount() {
+        return hedgeWins;
+    }
+    
+    public synchronized long getBudgetExhaustedCount() {
+        return budgetExhausted;
+    }
+    
+    private record Result<T>(T value, boolean hedge) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.build.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the hedge delay and how often hedges are sent, won and skipped for lack
+ * of budget
+ */
+public class UpstreamHedgerMetrics implements MeterBinder {
+    
+    private final UpstreamHedger hedger;
+    
+    public UpstreamHedgerMetrics(UpstreamHedger hedger) {
+        this.hedger = hedger;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!hedger.isEnabled()) {
+            return;
+        }
+        
+        TimeGauge.builder("weather.upstream.hedge.delay", hedger, TimeUnit.MILLISECONDS,
+                h -> h.getDelay().toNanos() / 1_000_000.0)
+            .tag("name", hedger.getName())
+            .description("Time after which a second upstream call is sent")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.upstream.hedge.calls", hedger, UpstreamHedger::getCallCount)
+            .tag("name", hedger.getName())
+            .description("Upstream calls eligible for hedging")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.upstream.hedges", hedger, UpstreamHedger::getHedgedCount)
+            .tag("name", hedger.getName())
+            .tag("result", "sent")
+            .description("Hedged upstream calls")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.upstream.hedges", hedger, UpstreamHedger::getHedgeWinCount)
+            .tag("name", hedger.getName())
+            .tag("result", "won")
+            .description("Hedged upstream calls")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.upstream.hedges", hedger, UpstreamHedger::getBudgetExhaustedCount)
+            .tag("name", hedger.getName())
+            .tag("result", "budget_exhausted")
+            .description("Hedged upstream calls")
+            .register(registry);
+    }
+}
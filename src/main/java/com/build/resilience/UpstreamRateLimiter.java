@@ -0,0 +1,275 @@
+package com.build.resilience;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side rate limit for upstream calls: a global token bucket and, optionally,
+ * one bucket per city.
+ * <p>
+ * A call without a free token is queued instead of being sent and risking a 429.
+ * Waiters are served by {@link Priority} and then in arrival order, skipping those
+ * whose city bucket is empty, so one hot city does not hold up the others. A call
+ * that cannot get a token before its deadline (or whose estimated wait already
+ * exceeds it) is rejected with {@link UpstreamUnavailableException}.
+ * <p>
+ * A {@code Retry-After} from upstream pauses the global bucket until it expires.
+ */
+public class UpstreamRateLimiter {
+    
+    /** Upstream calls a caller waits for come before background refreshes */
+    public enum Priority {
+        FOREGROUND, BACKGROUND;
+        
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    private final String name;
+    private final TokenBucket globalBucket;
+    private final double cityPermitsPerSecond;
+    private final int cityBurst;
+    private final Map<String, TokenBucket> cityBuckets;
+    private final int maxQueueSize;
+    private final Duration defaultRetryAfter;
+    private final Duration maxRetryAfter;
+    private final LongSupplier ticker;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final TreeSet<Waiter> waiters = new TreeSet<>();
+    private long sequence;
+    private long pausedUntil;
+    
+    private final Map<Priority, Stats> stats = new EnumMap<>(Priority.class);
+    private long rejected;
+    private long pauses;
+    
+    /**
+     * @param cityPermitsPerSecond rate of each city bucket, or {@code 0} to only use the global bucket
+     * @param maxCities            city buckets kept; the least recently used is dropped beyond that
+     * @param defaultRetryAfter    pause applied on a 429 without a usable {@code Retry-After}
+     * @param maxRetryAfter        upper bound of any pause, whatever upstream asks for
+     */
+    public UpstreamRateLimiter(String name, double permitsPerSecond, int burst,
+                               double cityPermitsPerSecond, int cityBurst, int maxCities,
+                               int maxQueueSize, Duration defaultRetryAfter, Duration maxRetryAfter,
+                               LongSupplier ticker) {
+        this.name = name;
+        this.ticker = ticker;
+        this.globalBucket = new TokenBucket(permitsPerSecond, burst, ticker.getAsLong());
+        this.cityPermitsPerSecond = cityPermitsPerSecond;
+        this.cityBurst = cityBurst;
+        this.cityBuckets = cityPermitsPerSecond > 0 ? new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                return size() > maxCities;
+            }
+        } : null;
+        this.maxQueueSize = maxQueueSize;
+        this.defaultRetryAfter = defaultRetryAfter;
+        this.maxRetryAfter = maxRetryAfter;
+        this.pausedUntil = ticker.getAsLong();
+        for (Priority priority : Priority.values()) {
+            stats.put(priority, new Stats());
+        }
+    }
+    
+    /**
+     * Blocks until the call may be sent
+     *
+     * @param city    city the call is for, used for the per-city bucket
+     * @param maxWait how long the caller is willing to wait for a token
+     * @throws UpstreamUnavailableException if no token is available in time or the queue is full
+     */
+    public void acquire(String city, Priority priority, Duration maxWait) {
+        long start = ticker.getAsLong();
+        long deadline = start + maxWait.toNanos();
+        String cityKey = city != null ? city.toLowerCase(Locale.ROOT) : "";
+        
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(priority, sequence++, cityKey);
+            waiters.add(waiter);
+            try {
+                long wait = nanosUntilEligible(waiter, start);
+                if (wait > 0) {
+                    if (waiters.size() > maxQueueSize) {
+                        throw reject("queue is full (" + maxQueueSize + ")");
+                    }
+                    if (estimatedWait(waiter, start) > deadline - start) {
+                        throw reject("expected wait exceeds " + maxWait.toMillis() + "ms");
+                    }
+                }
+                
+                long now = start;
+                while (wait > 0) {
+                    if (now >= deadline) {
+                        throw reject("no permit within " + maxWait.toMillis() + "ms");
+                    }
+                    changed.awaitNanos(Math.min(wait, deadline - now));
+                    now = ticker.getAsLong();
+                    wait = nanosUntilEligible(waiter, now);
+                }
+                
+                globalBucket.take();
+                if (cityBuckets != null) {
+                    cityBuckets.get(cityKey).take();
+                }
+                Stats priorityStats = stats.get(priority);
+                priorityStats.acquired++;
+                priorityStats.waitNanos += now - start;
+            } finally {
+                waiters.remove(waiter);
+                changed.signalAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("interrupted while waiting for a permit");
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Stops handing out permits until the given delay has passed
+     *
+     * @param retryAfter delay requested by upstream, or {@code null} to use the default
+     */
+    public void pause(Duration retryAfter) {
+        Duration delay = retryAfter != null && !retryAfter.isNegative() ? retryAfter : defaultRetryAfter;
+        if (delay.compareTo(maxRetryAfter) > 0) {
+            delay = maxRetryAfter;
+        }
+        lock.lock();
+        try {
+            long until = ticker.getAsLong() + delay.toNanos();
+            if (until - pausedUntil > 0) {
+                pausedUntil = until;
+            }
+            pauses++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return {@code 0} if the waiter may take a token now, otherwise a time worth
+     *         sleeping before checking again
+     */
+    private long nanosUntilEligible(Waiter waiter, long now) {
+        if (pausedUntil - now > 0) {
+            return pausedUntil - now;
+        }
+        globalBucket.refill(now);
+        if (!globalBucket.hasToken()) {
+            return globalBucket.nanosUntil(1);
+        }
+        for (Waiter candidate : waiters) {
+            TokenBucket cityBucket = cityBucket(candidate.city, now);
+            if (cityBucket == null || cityBucket.hasToken()) {
+                // The first eligible waiter gets the token, everybody else waits for the next one
+                return candidate == waiter ? 0 : globalBucket.nanosPerToken();
+            }
+            if (candidate == waiter) {
+                return cityBucket.nanosUntil(1);
+            }
+        }
+        throw new IllegalStateException("Waiter is not queued");
+    }
+    
+    private long estimatedWait(Waiter waiter, long now) {
+        int ahead = waiters.headSet(waiter).size();
+        long wait = Math.max(pausedUntil - now, 0) + globalBucket.nanosUntil(ahead + 1);
+        TokenBucket cityBucket = cityBucket(waiter.city, now);
+        return cityBucket != null ? Math.max(wait, cityBucket.nanosUntil(1)) : wait;
+    }
+    
+    private TokenBucket cityBucket(String city, long now) {
+        if (cityBuckets == null) {
+            return null;
+        }
+        TokenBucket bucket = cityBuckets.computeIfAbsent(city, c -> new TokenBucket(cityPermitsPerSecond, cityBurst, now));
+        bucket.refill(now);
+        return bucket;
+    }
+    
+    private UpstreamUnavailableException reject(String detail) {
+        rejected++;
+        return new UpstreamUnavailableException(UpstreamUnavailableException.Reason.RATE_LIMITED,
+            "Rate limiter '" + name + "': " + detail);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getQueueDepth(Priority priority) {
+        lock.lock();
+        try {
+            return (int) waiters.stream().filter(waiter -> waiter.priority == priority).count();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getAcquiredCount(Priority priority) {
+        lock.lock();
+        try {
+            return stats.get(priority).acquired;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public double getTotalWaitMillis(Priority priority) {
+        lock.lock();
+        try {
+            return stats.get(priority).waitNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getRejectedCount() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getPauseCount() {
+        lock.lock();
+        try {
+            return pauses;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static final class Stats {
+        private long acquired;
+        private long waitNanos;
+    }
+    
+    private record Waiter(Priority priority, long sequence, String city) implements Comparable<Waiter> {
+        
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
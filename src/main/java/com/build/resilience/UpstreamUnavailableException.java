@@ -0,0 +1,35 @@
+package com.build.resilience;
+
+/**
+ * Thrown instead of calling wttr.in when the upstream is known to be unhealthy,
+ * already saturated with calls from this instance or throttling them
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+    
+    public enum Reason {
+        /** The circuit breaker is open or its half-open trial calls are taken */
+        CIRCUIT_OPEN,
+        /** The adaptive concurrency limit is reached */
+        CONCURRENCY_LIMIT,
+        /** No rate limit permit could be obtained before the caller's deadline */
+        RATE_LIMITED,
+        /** Upstream answered 429 Too Many Requests */
+        THROTTLED
+    }
+    
+    private final Reason reason;
+    
+    public UpstreamUnavailableException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+    
+    public UpstreamUnavailableException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+    
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,85 @@
+package com.build.service;
+
+import com.build.config.WeatherBatchProperties;
+import com.build.model.WeatherResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class WeatherBatchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WeatherBatchService.class);
+    
+    private final WeatherService weatherService;
+    private final WeatherBatchProperties properties;
+    
+    @Autowired
+    public WeatherBatchService(WeatherService weatherService, WeatherBatchProperties properties) {
+        this.weatherService = weatherService;
+        this.properties = properties;
+    }
+    
+    /**
+     * Looks up current weather for several cities in parallel. At most
+     * {@code weather.batch.max-concurrency} lookups are in flight at once; the next
+     * city is started as soon as any running lookup completes, without blocking a
+     * thread while waiting for a free slot.
+     * 
+     * @param cities the city names, in the order results should be returned
+     * @return one future per city, in request order, each completing independently
+     * @throws IllegalArgumentException if the list is empty or exceeds the configured limit
+     */
+    public List<CompletableFuture<WeatherResponse>> getCurrentWeather(List<String> cities) {
+        if (cities == null || cities.isEmpty()) {
+            throw new IllegalArgumentException("At least one city is required");
+        }
+        
+        if (cities.size() > properties.getMaxCities()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxCities() + " cities are allowed per batch");
+        }
+        
+        logger.info("Fetching weather data for a batch of {} cities", cities.size());
+        
+        List<CompletableFuture<WeatherResponse>> results = new ArrayList<>(cities.size());
+        for (int i = 0; i < cities.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        
+        AtomicInteger next = new AtomicInteger();
+        int slots = Math.min(Math.max(1, properties.getMaxConcurrency()), cities.size());
+        for (int i = 0; i < slots; i++) {
+            startNext(cities, results, next);
+        }
+        
+        return results;
+    }
+    
+    private void startNext(List<String> cities, List<CompletableFuture<WeatherResponse>> results, AtomicInteger next) {
+        int index = next.getAndIncrement();
+        if (index >= cities.size()) {
+            return;
+        }
+        
+        CompletableFuture<WeatherResponse> lookup;
+        try {
+            lookup = weatherService.getCurrentWeatherAsync(cities.get(index));
+        } catch (RuntimeException e) {
+            lookup = CompletableFuture.failedFuture(e);
+        }
+        
+        lookup.whenComplete((response, error) -> {
+            if (error != null) {
+                results.get(index).completeExceptionally(error);
+            } else {
+                results.get(index).complete(response);
+            }
+            startNext(cities, results, next);
+        });
+    }
+}
@@ -0,0 +1,170 @@
+package com.build.service;
+
+import com.build.cache.CacheKey;
+import com.build.cache.HeavyHitters;
+import com.build.config.WeatherPrewarmProperties;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
+
+/**
+ * Keeps the most requested cache keys warm by refreshing them shortly before they expire.
+ * <p>
+ * The hot keys are the configured cities plus the keys the {@link HeavyHitters} sketch
+ * ranks highest. Each planning round picks the hot keys whose entry is missing or
+ * expires within the refresh-ahead window and schedules a background refresh for
+ * each after a random delay, so keys cached at the same time are refreshed spread
+ * out instead of in one burst. Refreshes run through
+ * {@link WeatherService#refreshInBackground(CacheKey)} and therefore yield to
+ * user-facing calls at the rate limiter.
+ */
+public class WeatherPrewarmer implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WeatherPrewarmer.class);
+    
+    private final WeatherService weatherService;
+    private final HeavyHitters<CacheKey> hotKeys;
+    private final WeatherPrewarmProperties properties;
+    private final TaskScheduler scheduler;
+    private final Clock clock;
+    private final Set<CacheKey> planned = ConcurrentHashMap.newKeySet();
+    private final List<ScheduledFuture<?>> rounds = new ArrayList<>();
+    private volatile boolean closed;
+    
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private volatile int lastHotKeyCount;
+    
+    public WeatherPrewarmer(WeatherService weatherService, HeavyHitters<CacheKey> hotKeys,
+                            WeatherPrewarmProperties properties, TaskScheduler scheduler, Clock clock) {
+        this.weatherService = weatherService;
+        this.hotKeys = hotKeys;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.clock = clock;
+    }
+    
+    /**
+     * Starts the planning rounds and, when learned keys are used, the decay of the sketch
+     */
+    public synchronized void start() {
+        if (!rounds.isEmpty()) {
+            return;
+        }
+        rounds.add(scheduler.scheduleWithFixedDelay(this::planQuietly, properties.getInterval()));
+        if (properties.getTopKeys() > 0) {
+            rounds.add(scheduler.scheduleAtFixedRate(hotKeys::decay,
+                clock.instant().plus(properties.getDecayInterval()), properties.getDecayInterval()));
+        }
+        logger.info("Pre-warming {} configured cities and the top {} requested keys every {}",
+                    properties.getCities().size(), properties.getTopKeys(), properties.getInterval());
+    }
+    
+    private void planQuietly() {
+        try {
+            plan();
+        } catch (RuntimeException e) {
+            logger.warn("Pre-warm planning round failed: {}", e.toString());
+        }
+    }
+    
+    /**
+     * Schedules a refresh for every hot key that is due and not planned yet
+     */
+    void plan() {
+        long now = clock.millis();
+        long refreshAhead = properties.getRefreshAhead().toMillis();
+        Set<CacheKey> keys = hotKeys();
+        lastHotKeyCount = keys.size();
+        
+        for (CacheKey key : keys) {
+            long cachedUntil = weatherService.getCachedUntil(key);
+            long remaining = cachedUntil - now;
+            if (cachedUntil != 0 && remaining > refreshAhead || !planned.add(key)) {
+                continue;
+            }
+            
+            // Entries close to expiry get at most half of what is left, so the refresh still lands in time
+            long window = properties.getJitter().toMillis();
+            if (cachedUntil != 0) {
+                window = Math.min(window, remaining / 2);
+            }
+            long delay = window > 0 ? ThreadLocalRandom.current().nextLong(window) : 0;
+            try {
+                scheduler.schedule(() -> refresh(key), Instant.ofEpochMilli(now + delay));
+            } catch (TaskRejectedException e) {
+                planned.remove(key);
+                skipped.increment();
+            }
+        }
+    }
+    
+    private void refresh(CacheKey key) {
+        planned.remove(key);
+        if (closed) {
+            return;
+        }
+        if (weatherService.refreshInBackground(key)) {
+            scheduled.increment();
+            logger.debug("Pre-warming cache entry for key: {}", key);
+        } else {
+            skipped.increment();
+        }
+    }
+    
+    /**
+     * The configured cities in every configured view, followed by the most requested keys
+     */
+    Set<CacheKey> hotKeys() {
+        Set<CacheKey> keys = new LinkedHashSet<>();
+        for (String city : properties.getCities()) {
+            for (CacheKey.View view : properties.getViews()) {
+                keys.add(switch (view) {
+                    case CURRENT -> CacheKey.current(city);
+                    case SUMMARY -> CacheKey.summary(city);
+                    case FORECAST -> CacheKey.forecast(city, properties.getForecastDays());
+                });
+            }
+        }
+        for (HeavyHitters.Hitter<CacheKey> hitter : hotKeys.top(properties.getTopKeys())) {
+            if (hitter.guaranteedCount() >= properties.getMinRequests()) {
+                keys.add(hitter.key());
+            }
+        }
+        return keys;
+    }
+    
+    @Override
+    public synchronized void close() {
+        rounds.forEach(round -> round.cancel(false));
+        rounds.clear();
+        closed = true;
+    }
+    
+    public int getHotKeyCount() {
+        return lastHotKeyCount;
+    }
+    
+    public int getPlannedCount() {
+        return planned.size();
+    }
+    
+    public long getScheduledCount() {
+        return scheduled.sum();
+    }
+    
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+}
@@ -0,0 +1,48 @@
+package com.build.service;
+
+import com.build.cache.CacheKey;
+import com.build.cache.HeavyHitters;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes pre-warming activity of a {@link WeatherPrewarmer} and the size of the
+ * request sketch it draws hot keys from.
+ */
+public class WeatherPrewarmerMetrics implements MeterBinder {
+    
+    private final WeatherPrewarmer prewarmer;
+    private final HeavyHitters<CacheKey> hotKeys;
+    
+    public WeatherPrewarmerMetrics(WeatherPrewarmer prewarmer, HeavyHitters<CacheKey> hotKeys) {
+        this.prewarmer = prewarmer;
+        this.hotKeys = hotKeys;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("weather.prewarm.refreshes", prewarmer, WeatherPrewarmer::getScheduledCount)
+            .tag("result", "scheduled")
+            .description("Pre-warm refreshes handed to the background refresher")
+            .register(registry);
+        
+        FunctionCounter.builder("weather.prewarm.refreshes", prewarmer, WeatherPrewarmer::getSkippedCount)
+            .tag("result", "skipped")
+            .description("Pre-warm refreshes dropped because a refresh was pending or the pool was saturated")
+            .register(registry);
+        
+        Gauge.builder("weather.prewarm.hot.keys", prewarmer, WeatherPrewarmer::getHotKeyCount)
+            .description("Keys kept warm in the last planning round")
+            .register(registry);
+        
+        Gauge.builder("weather.prewarm.planned", prewarmer, WeatherPrewarmer::getPlannedCount)
+            .description("Pre-warm refreshes waiting for their jittered start")
+            .register(registry);
+        
+        Gauge.builder("weather.prewarm.sketch.keys", hotKeys, HeavyHitters::size)
+            .description("Keys counted by the request heavy-hitters sketch")
+            .register(registry);
+    }
+}
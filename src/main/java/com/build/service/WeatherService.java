@@ -1,9 +1,43 @@
 package com.build.service;
 
+import com.build.cache.CacheKey;
+import com.build.cache.CacheRefresher;
+import com.build.cache.CachedValue;
+import com.build.cache.HeavyHitters;
+import com.build.cache.RequestCoalescer;
+import com.build.cache.WeatherCache;
+import com.build.compression.EncodedBody;
+import com.build.config.WeatherCacheProperties;
+import com.build.dto.WeatherSummaryDto;
+import com.build.metrics.WeatherMetrics;
+import com.build.metrics.WeatherMetrics.CacheResult;
+import com.build.metrics.WeatherMetrics.Endpoint;
+import com.build.metrics.WeatherMetrics.ErrorType;
+import com.build.metrics.WeatherMetrics.Model;
+import com.build.metrics.WeatherMetrics.Outcome;
 import com.build.model.WeatherResponse;
+import com.build.model.compact.CompactWeather;
+import com.build.resilience.UpstreamGuard;
+import com.build.resilience.UpstreamHedger;
+import com.build.resilience.UpstreamRateLimiter.Priority;
+import com.build.resilience.UpstreamUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Timer;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
@@ -14,14 +48,53 @@ public class WeatherService {
     
     private static final Logger logger = LoggerFactory.getLogger(WeatherService.class);
     
-    private static final String WTTR_API_URL = "https://wttr.in/{city}?format=j1";
+    private static final String WTTR_API_URL = "/{city}?format=j1";
     private static final String USER_AGENT = "Mozilla/5.0 (compatible; WeatherApp/1.0)";
+    private static final int HOT_KEY_HIT_SAMPLE = 8;
     
     private final RestTemplate restTemplate;
+    private final WeatherCache<CompactWeather> cache;
+    private final RequestCoalescer<CacheKey, CompactWeather> coalescer;
+    private final WeatherCache<WeatherSummaryDto> summaryCache;
+    private final RequestCoalescer<CacheKey, WeatherSummaryDto> summaryCoalescer;
+    private final CacheRefresher refresher;
+    private final WeatherCacheProperties cacheProperties;
+    private final Executor executor;
+    private final WeatherMetrics metrics;
+    private final UpstreamGuard upstreamGuard;
+    private final UpstreamHedger hedger;
+    private final HeavyHitters<CacheKey> hotKeys;
+    private final WeatherSummaryReader summaryReader = new WeatherSummaryReader();
+    private final ObjectWriter jsonWriter;
     
     @Autowired
-    public WeatherService(RestTemplate restTemplate) {
+    public WeatherService(RestTemplate restTemplate,
+                          WeatherCache<CompactWeather> cache,
+                          RequestCoalescer<CacheKey, CompactWeather> coalescer,
+                          WeatherCache<WeatherSummaryDto> summaryCache,
+                          RequestCoalescer<CacheKey, WeatherSummaryDto> summaryCoalescer,
+                          CacheRefresher refresher,
+                          WeatherCacheProperties cacheProperties,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                          WeatherMetrics metrics,
+                          UpstreamGuard upstreamGuard,
+                          UpstreamHedger hedger,
+                          HeavyHitters<CacheKey> hotKeys,
+                          ObjectMapper objectMapper) {
         this.restTemplate = restTemplate;
+        this.cache = cache;
+        this.coalescer = coalescer;
+        this.summaryCache = summaryCache;
+        this.summaryCoalescer = summaryCoalescer;
+        this.refresher = refresher;
+        this.cacheProperties = cacheProperties;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.upstreamGuard = upstreamGuard;
+        this.hedger = hedger;
+        this.hotKeys = hotKeys;
+        // Spring's mapper, so cached bodies honour spring.jackson.* like the ones the converters write
+        this.jsonWriter = objectMapper.writerFor(CompactWeather.class);
     }
     
     /**
@@ -32,39 +105,89 @@ public class WeatherService {
      * @throws RuntimeException if the API call fails
      */
     public WeatherResponse getCurrentWeather(String city) {
+        return getCurrentWeatherCached(city).value();
+    }
+    
+    /**
+     * Variant of {@link #getCurrentWeather(String)} that also returns the entity tag
+     * and expiry of the cache entry the response was built from
+     */
+    public CachedValue<WeatherResponse> getCurrentWeatherCached(String city) {
+        return currentWeather(city, this::describeResponse);
+    }
+    
+    /**
+     * Variant of {@link #getCurrentWeatherCached(String)} that returns the encoded JSON
+     * body instead of the response; the encoding and its compressed variants are
+     * kept with the cache entry, so cache hits are neither serialized nor compressed again
+     */
+    public CachedValue<EncodedBody> getCurrentWeatherJson(String city) {
+        return currentWeather(city, this::describeJson);
+    }
+    
+    private <R> CachedValue<R> currentWeather(String city, BiFunction<CacheKey, CompactWeather, CachedValue<R>> describe) {
+        CacheKey key = null;
+        Timer.Sample sample = metrics.startRequest();
+        Outcome outcome = Outcome.ERROR;
         try {
             logger.info("Fetching weather data for city: {}", city);
             
-            if (city == null || city.trim().isEmpty()) {
+            if (isBlank(city)) {
                 throw new IllegalArgumentException("City name cannot be null or empty");
             }
             
-            String sanitizedCity = city.trim().replaceAll("[^a-zA-Z0-9\\s,-]", "");
+            String sanitizedCity = sanitize(city);
+            key = CacheKey.current(sanitizedCity);
             
-            WeatherResponse response = restTemplate.getForObject(
-                WTTR_API_URL, 
-                WeatherResponse.class, 
-                sanitizedCity
-            );
+            CompactWeather weather = lookup(cache, coalescer, key, priority -> fetch(Endpoint.CURRENT, WTTR_API_URL, sanitizedCity, priority));
             
-            if (response == null) {
+            if (weather == null) {
                 throw new RuntimeException("No weather data received for city: " + city);
             }
             
             logger.info("Successfully fetched weather data for city: {}", city);
-            return response;
-            
+            outcome = Outcome.SUCCESS;
+            return describe.apply(key, weather);
+        
         } catch (HttpClientErrorException e) {
+            outcome = Outcome.CLIENT_ERROR;
+            metrics.recordError(Endpoint.CURRENT, ErrorType.CLIENT);
             logger.error("Client error when fetching weather for city: {} - Status: {} - Response: {}", 
                         city, e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Failed to fetch weather data: " + e.getMessage(), e);
         } catch (HttpServerErrorException e) {
+            outcome = Outcome.SERVER_ERROR;
+            metrics.recordError(Endpoint.CURRENT, ErrorType.SERVER);
             logger.error("Server error when fetching weather for city: {} - Status: {} - Response: {}", 
                         city, e.getStatusCode(), e.getResponseBodyAsString());
+            CompactWeather stale = staleIfError(cache, key);
+            if (stale != null) {
+                outcome = Outcome.STALE;
+                logger.warn("Serving stale weather data for city: {} after upstream server error", city);
+                return describe.apply(key, stale);
+            }
+            throw new RuntimeException("Weather service temporarily unavailable", e);
+        } catch (UpstreamUnavailableException e) {
+            outcome = Outcome.UNAVAILABLE;
+            metrics.recordError(Endpoint.CURRENT, ErrorType.UNAVAILABLE);
+            logger.warn("Upstream unavailable when fetching weather for city: {} - Reason: {}", city, e.getReason());
+            CompactWeather stale = staleIfError(cache, key);
+            if (stale != null) {
+                outcome = Outcome.STALE;
+                logger.warn("Serving stale weather data for city: {} while upstream is unavailable", city);
+                return describe.apply(key, stale);
+            }
             throw new RuntimeException("Weather service temporarily unavailable", e);
         } catch (Exception e) {
+            if (e instanceof IllegalArgumentException) {
+                outcome = Outcome.INVALID;
+            } else {
+                metrics.recordError(Endpoint.CURRENT, ErrorType.UNEXPECTED);
+            }
             logger.error("Unexpected error when fetching weather for city: {}", city, e);
             throw new RuntimeException("Failed to fetch weather data: " + e.getMessage(), e);
+        } finally {
+            metrics.recordRequest(sample, Endpoint.CURRENT, outcome);
         }
     }
     
@@ -77,10 +200,35 @@ public class WeatherService {
      * @throws RuntimeException if the API call fails
      */
     public WeatherResponse getWeatherForecast(String city, int days) {
+        return getWeatherForecastCached(city, days).value();
+    }
+    
+    /**
+     * Variant of {@link #getWeatherForecast(String, int)} that also returns the entity
+     * tag and expiry of the cache entry the response was built from
+     */
+    public CachedValue<WeatherResponse> getWeatherForecastCached(String city, int days) {
+        return weatherForecast(city, days, this::describeResponse);
+    }
+    
+    /**
+     * Variant of {@link #getWeatherForecastCached(String, int)} that returns the encoded
+     * JSON body instead of the response, kept with the cache entry like
+     * {@link #getCurrentWeatherJson(String)}
+     */
+    public CachedValue<EncodedBody> getWeatherForecastJson(String city, int days) {
+        return weatherForecast(city, days, this::describeJson);
+    }
+    
+    private <R> CachedValue<R> weatherForecast(String city, int days,
+                                               BiFunction<CacheKey, CompactWeather, CachedValue<R>> describe) {
+        CacheKey key = null;
+        Timer.Sample sample = metrics.startRequest();
+        Outcome outcome = Outcome.ERROR;
         try {
             logger.info("Fetching weather forecast for city: {} for {} days", city, days);
             
-            if (city == null || city.trim().isEmpty()) {
+            if (isBlank(city)) {
                 throw new IllegalArgumentException("City name cannot be null or empty");
             }
             
@@ -88,33 +236,377 @@ public class WeatherService {
                 throw new IllegalArgumentException("Number of days must be between 1 and 7");
             }
             
-            String sanitizedCity = city.trim().replaceAll("[^a-zA-Z0-9\\s,-]", "");
-            String forecastUrl = "https://wttr.in/{city}?format=j1&days=" + days;
+            String sanitizedCity = sanitize(city);
+            String forecastUrl = WTTR_API_URL + "&days=" + days;
+            key = CacheKey.forecast(sanitizedCity, days);
             
-            WeatherResponse response = restTemplate.getForObject(
-                forecastUrl, 
-                WeatherResponse.class, 
-                sanitizedCity
-            );
+            CompactWeather weather = lookup(cache, coalescer, key, priority -> fetch(Endpoint.FORECAST, forecastUrl, sanitizedCity, priority));
             
-            if (response == null) {
+            if (weather == null) {
                 throw new RuntimeException("No weather forecast data received for city: " + city);
             }
             
             logger.info("Successfully fetched weather forecast for city: {}", city);
-            return response;
-            
+            outcome = Outcome.SUCCESS;
+            return describe.apply(key, weather);
+        
         } catch (HttpClientErrorException e) {
+            outcome = Outcome.CLIENT_ERROR;
+            metrics.recordError(Endpoint.FORECAST, ErrorType.CLIENT);
             logger.error("Client error when fetching weather forecast for city: {} - Status: {} - Response: {}", 
                         city, e.getStatusCode(), e.getResponseBodyAsString());
             throw new RuntimeException("Failed to fetch weather forecast: " + e.getMessage(), e);
         } catch (HttpServerErrorException e) {
+            outcome = Outcome.SERVER_ERROR;
+            metrics.recordError(Endpoint.FORECAST, ErrorType.SERVER);
             logger.error("Server error when fetching weather forecast for city: {} - Status: {} - Response: {}", 
                         city, e.getStatusCode(), e.getResponseBodyAsString());
+            CompactWeather stale = staleIfError(cache, key);
+            if (stale != null) {
+                outcome = Outcome.STALE;
+                logger.warn("Serving stale weather forecast for city: {} after upstream server error", city);
+                return describe.apply(key, stale);
+            }
+            throw new RuntimeException("Weather forecast service temporarily unavailable", e);
+        } catch (UpstreamUnavailableException e) {
+            outcome = Outcome.UNAVAILABLE;
+            metrics.recordError(Endpoint.FORECAST, ErrorType.UNAVAILABLE);
+            logger.warn("Upstream unavailable when fetching weather forecast for city: {} - Reason: {}", city, e.getReason());
+            CompactWeather stale = staleIfError(cache, key);
+            if (stale != null) {
+                outcome = Outcome.STALE;
+                logger.warn("Serving stale weather forecast for city: {} while upstream is unavailable", city);
+                return describe.apply(key, stale);
+            }
             throw new RuntimeException("Weather forecast service temporarily unavailable", e);
         } catch (Exception e) {
+            if (e instanceof IllegalArgumentException) {
+                outcome = Outcome.INVALID;
+            } else {
+                metrics.recordError(Endpoint.FORECAST, ErrorType.UNEXPECTED);
+            }
             logger.error("Unexpected error when fetching weather forecast for city: {}", city, e);
             throw new RuntimeException("Failed to fetch weather forecast: " + e.getMessage(), e);
+        } finally {
+            metrics.recordRequest(sample, Endpoint.FORECAST, outcome);
+        }
+    }
+    
+    /**
+     * Gets the current weather summary for the specified city. Unlike
+     * {@link #getCurrentWeather(String)} the upstream payload is not bound to a
+     * {@link WeatherResponse}; only the fields of the summary are pulled out of the
+     * JSON stream, which keeps allocation per request small.
+     * 
+     * @param city the name of the city
+     * @return WeatherSummaryDto with the current condition and location
+     * @throws RuntimeException if the API call fails
+     */
+    public WeatherSummaryDto getCurrentWeatherSummary(String city) {
+        return getCurrentWeatherSummaryCached(city).value();
+    }
+    
+    /**
+     * Variant of {@link #getCurrentWeatherSummary(String)} that also returns the entity
+     * tag and expiry of the cache entry the summary came from
+     */
+    public CachedValue<WeatherSummaryDto> getCurrentWeatherSummaryCached(String city) {
+        CacheKey key = null;
+        Timer.Sample sample = metrics.startRequest();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            logger.info("Fetching weather summary for city: {}", city);
+            
+            if (isBlank(city)) {
+                throw new IllegalArgumentException("City name cannot be null or empty");
+            }
+            
+            String sanitizedCity = sanitize(city);
+            key = CacheKey.summary(sanitizedCity);
+            
+            WeatherSummaryDto summary = lookup(summaryCache, summaryCoalescer, key, priority -> fetchSummary(sanitizedCity, priority));
+            
+            if (summary == null) {
+                throw new RuntimeException("No weather data received for city: " + city);
+            }
+            
+            logger.info("Successfully fetched weather summary for city: {}", city);
+            outcome = Outcome.SUCCESS;
+            return summaryCache.describe(key, summary);
+        
+        } catch (HttpClientErrorException e) {
+            outcome = Outcome.CLIENT_ERROR;
+            metrics.recordError(Endpoint.SUMMARY, ErrorType.CLIENT);
+            logger.error("Client error when fetching weather summary for city: {} - Status: {} - Response: {}", 
+                        city, e.getStatusCode(), e.getResponseBodyAsString());
+            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage(), e);
+        } catch (HttpServerErrorException e) {
+            outcome = Outcome.SERVER_ERROR;
+            metrics.recordError(Endpoint.SUMMARY, ErrorType.SERVER);
+            logger.error("Server error when fetching weather summary for city: {} - Status: {} - Response: {}", 
+                        city, e.getStatusCode(), e.getResponseBodyAsString());
+            WeatherSummaryDto stale = staleIfError(summaryCache, key);
+            if (stale != null) {
+                outcome = Outcome.STALE;
+                logger.warn("Serving stale weather summary for city: {} after upstream server error", city);
+                return summaryCache.describe(key, stale);
+            }
+            throw new RuntimeException("Weather service temporarily unavailable", e);
+        } catch (UpstreamUnavailableException e) {
+            outcome = Outcome.UNAVAILABLE;
+            metrics.recordError(Endpoint.SUMMARY, ErrorType.UNAVAILABLE);
+            logger.warn("Upstream unavailable when fetching weather summary for city: {} - Reason: {}", city, e.getReason());
+            WeatherSummaryDto stale = staleIfError(summaryCache, key);
+            if (stale != null) {
+                outcome = Outcome.STALE;
+                logger.warn("Serving stale weather summary for city: {} while upstream is unavailable", city);
+                return summaryCache.describe(key, stale);
+            }
+            throw new RuntimeException("Weather service temporarily unavailable", e);
+        } catch (Exception e) {
+            if (e instanceof IllegalArgumentException) {
+                outcome = Outcome.INVALID;
+            } else {
+                metrics.recordError(Endpoint.SUMMARY, ErrorType.UNEXPECTED);
+            }
+            logger.error("Unexpected error when fetching weather summary for city: {}", city, e);
+            throw new RuntimeException("Failed to fetch weather data: " + e.getMessage(), e);
+        } finally {
+            metrics.recordRequest(sample, Endpoint.SUMMARY, outcome);
+        }
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getCurrentWeather(String)}. A lookup the cache
+     * can answer completes on the calling thread; any other runs on the application
+     * task executor (virtual threads where available), so the calling request thread
+     * is released while wttr.in is being queried.
+     * 
+     * @param city the name of the city
+     * @return future completed with the weather information, or exceptionally with the
+     *         same exceptions the synchronous variant throws
+     */
+    public CompletableFuture<WeatherResponse> getCurrentWeatherAsync(String city) {
+        return offloadMiss(cache, currentKey(city), () -> getCurrentWeather(city));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getCurrentWeatherSummary(String)}
+     * 
+     * @param city the name of the city
+     * @return future completed with the summary, or exceptionally with the same
+     *         exceptions the synchronous variant throws
+     */
+    public CompletableFuture<WeatherSummaryDto> getCurrentWeatherSummaryAsync(String city) {
+        return offloadMiss(summaryCache, summaryKey(city), () -> getCurrentWeatherSummary(city));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getWeatherForecast(String, int)}
+     * 
+     * @param city the name of the city
+     * @param days number of days to forecast (1-7)
+     * @return future completed with the weather information, or exceptionally with the
+     *         same exceptions the synchronous variant throws
+     */
+    public CompletableFuture<WeatherResponse> getWeatherForecastAsync(String city, int days) {
+        return offloadMiss(cache, forecastKey(city, days), () -> getWeatherForecast(city, days));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getCurrentWeatherCached(String)}
+     */
+    public CompletableFuture<CachedValue<WeatherResponse>> getCurrentWeatherCachedAsync(String city) {
+        return offloadMiss(cache, currentKey(city), () -> getCurrentWeatherCached(city));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getCurrentWeatherSummaryCached(String)}
+     */
+    public CompletableFuture<CachedValue<WeatherSummaryDto>> getCurrentWeatherSummaryCachedAsync(String city) {
+        return offloadMiss(summaryCache, summaryKey(city), () -> getCurrentWeatherSummaryCached(city));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getWeatherForecastCached(String, int)}
+     */
+    public CompletableFuture<CachedValue<WeatherResponse>> getWeatherForecastCachedAsync(String city, int days) {
+        return offloadMiss(cache, forecastKey(city, days), () -> getWeatherForecastCached(city, days));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getCurrentWeatherJson(String)}
+     */
+    public CompletableFuture<CachedValue<EncodedBody>> getCurrentWeatherJsonAsync(String city) {
+        return offloadMiss(cache, currentKey(city), () -> getCurrentWeatherJson(city));
+    }
+    
+    /**
+     * Asynchronous variant of {@link #getWeatherForecastJson(String, int)}
+     */
+    public CompletableFuture<CachedValue<EncodedBody>> getWeatherForecastJsonAsync(String city, int days) {
+        return offloadMiss(cache, forecastKey(city, days), () -> getWeatherForecastJson(city, days));
+    }
+    
+    /**
+     * Completes a lookup the cache can answer, fresh or within the
+     * stale-while-revalidate window, on the calling thread and hands only the rest
+     * to the executor, so hits never queue behind blocking upstream calls
+     */
+    private <R> CompletableFuture<R> offloadMiss(WeatherCache<?> cache, CacheKey key, Supplier<R> lookup) {
+        if (key == null || !cache.isServable(key, cacheProperties.getStaleWhileRevalidate())) {
+            return CompletableFuture.supplyAsync(lookup, executor);
+        }
+        try {
+            return CompletableFuture.completedFuture(lookup.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private static CacheKey currentKey(String city) {
+        return isBlank(city) ? null : CacheKey.current(sanitize(city));
+    }
+    
+    private static CacheKey forecastKey(String city, int days) {
+        return isBlank(city) ? null : CacheKey.forecast(sanitize(city), days);
+    }
+    
+    private static CacheKey summaryKey(String city) {
+        return isBlank(city) ? null : CacheKey.summary(sanitize(city));
+    }
+    
+    private static boolean isBlank(String city) {
+        return city == null || city.trim().isEmpty();
+    }
+    
+    private static String sanitize(String city) {
+        return city.trim().replaceAll("[^a-zA-Z0-9\\s,-]", "");
+    }
+    
+    /**
+     * Returns when the cached entry for the key expires, in epoch millis, or 0 if
+     * nothing is cached for it
+     */
+    public long getCachedUntil(CacheKey key) {
+        return key.view() == CacheKey.View.SUMMARY ? summaryCache.getExpiresAt(key) : cache.getExpiresAt(key);
+    }
+    
+    /**
+     * Reloads the entry for the key in the background, behind user-facing calls at
+     * the rate limiter. Used to refresh hot keys before they expire.
+     * 
+     * @return true if a refresh was scheduled, false if one is already pending or
+     *         the refresh pool is saturated
+     */
+    public boolean refreshInBackground(CacheKey key) {
+        String city = key.city();
+        return switch (key.view()) {
+            case CURRENT -> refresher.refresh(key, () -> coalescer.execute(key, () -> loadAndCache(cache, key,
+                priority -> fetch(Endpoint.CURRENT, WTTR_API_URL, city, priority), Priority.BACKGROUND)));
+            case FORECAST -> refresher.refresh(key, () -> coalescer.execute(key, () -> loadAndCache(cache, key,
+                priority -> fetch(Endpoint.FORECAST, WTTR_API_URL + "&days=" + key.days(), city, priority),
+                Priority.BACKGROUND)));
+            case SUMMARY -> refresher.refresh(key, () -> summaryCoalescer.execute(key, () -> loadAndCache(summaryCache,
+                key, priority -> fetchSummary(city, priority), Priority.BACKGROUND)));
+        };
+    }
+    
+    /**
+     * Resolves a value from the cache, falling back to a coalesced upstream call.
+     * Within the stale-while-revalidate window an expired entry is returned as is
+     * and a single background refresh is started for its key. The loader is told
+     * which of the two it runs for, so refreshes yield to misses at the rate limiter.
+     * <p>
+     * Misses and stale hits are offered to the hot-key sketch one by one, fresh hits
+     * only as a weighted sample so the common path rarely takes the sketch's lock.
+     */
+    private <V> V lookup(WeatherCache<V> cache, RequestCoalescer<CacheKey, V> coalescer,
+                         CacheKey key, Function<Priority, V> loader) {
+        long start = System.nanoTime();
+        V cached = cache.get(key);
+        if (cached != null) {
+            metrics.recordCacheLookup(cache.getName(), CacheResult.HIT, System.nanoTime() - start);
+            if (ThreadLocalRandom.current().nextInt(HOT_KEY_HIT_SAMPLE) == 0) {
+                hotKeys.offer(key, HOT_KEY_HIT_SAMPLE);
+            }
+            logger.debug("Serving cached weather data for key: {}", key);
+            return cached;
         }
+        
+        V stale = cache.getStale(key, cacheProperties.getStaleWhileRevalidate());
+        metrics.recordCacheLookup(cache.getName(), stale != null ? CacheResult.STALE : CacheResult.MISS,
+            System.nanoTime() - start);
+        hotKeys.offer(key);
+        if (stale != null) {
+            if (refresher.refresh(key, () -> coalescer.execute(key, () -> loadAndCache(cache, key, loader, Priority.BACKGROUND)))) {
+                logger.debug("Serving stale weather data for key: {} while refreshing", key);
+            }
+            return stale;
+        }
+        
+        return coalescer.execute(key, () -> loadAndCache(cache, key, loader, Priority.FOREGROUND));
+    }
+    
+    private <V> V staleIfError(WeatherCache<V> cache, CacheKey key) {
+        return key != null ? cache.getStale(key, cacheProperties.getStaleIfError()) : null;
+    }
+    
+    /**
+     * Runs the upstream call on behalf of every coalesced caller and caches a
+     * non-null result before the waiters are released
+     */
+    private static <V> V loadAndCache(WeatherCache<V> cache, CacheKey key, Function<Priority, V> loader,
+                                      Priority priority) {
+        V value = loader.apply(priority);
+        cache.put(key, value);
+        return value;
+    }
+    
+    /**
+     * Sends an upstream call through the guard. Calls somebody waits for are hedged,
+     * background refreshes are not.
+     */
+    private <T> T callUpstream(String sanitizedCity, Priority priority, Supplier<T> call) {
+        Supplier<T> guarded = () -> upstreamGuard.call(sanitizedCity, priority, call);
+        return priority == Priority.FOREGROUND ? hedger.execute(guarded) : guarded.get();
+    }
+    
+    private CompactWeather fetch(Endpoint endpoint, String url, String sanitizedCity, Priority priority) {
+        WeatherResponse response = callUpstream(sanitizedCity, priority, () -> metrics.recordUpstream(endpoint,
+            () -> restTemplate.getForObject(url, WeatherResponse.class, sanitizedCity)));
+        return CompactWeather.from(response);
+    }
+    
+    private CachedValue<WeatherResponse> describeResponse(CacheKey key, CompactWeather weather) {
+        return cache.describe(key, weather).map(CompactWeather::toResponse);
+    }
+    
+    private CachedValue<EncodedBody> describeJson(CacheKey key, CompactWeather weather) {
+        return cache.describe(key, weather).map(value -> cache.encode(key, value, this::encodeJson));
+    }
+    
+    /**
+     * Writes the compact form straight to JSON; it serializes exactly like the
+     * {@link WeatherResponse} it was built from
+     */
+    private EncodedBody encodeJson(CompactWeather weather) {
+        return metrics.recordEncoding(() -> {
+            try {
+                return new EncodedBody(jsonWriter.writeValueAsBytes(weather));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private WeatherSummaryDto fetchSummary(String sanitizedCity, Priority priority) {
+        return callUpstream(sanitizedCity, priority, () -> metrics.recordUpstream(Endpoint.SUMMARY, () -> restTemplate.execute(
+            WTTR_API_URL, 
+            HttpMethod.GET, 
+            null, 
+            response -> metrics.recordDeserialization(Model.SUMMARY, () -> summaryReader.read(response.getBody())), 
+            sanitizedCity
+        )));
     }
 }
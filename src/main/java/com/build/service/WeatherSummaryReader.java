@@ -0,0 +1,135 @@
+package com.build.service;
+
+import com.build.dto.WeatherSummaryDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Extracts a {@link WeatherSummaryDto} from a wttr.in {@code format=j1} payload
+ * with the Jackson streaming parser.
+ * <p>
+ * Only {@code current_condition[0]} and {@code nearest_area[0]} are visited; every
+ * other value is skipped at the token level, and parsing stops as soon as both
+ * objects have been read. The multi-day {@code weather} array with its hourly
+ * entries is therefore never materialized.
+ */
+public class WeatherSummaryReader {
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    /**
+     * @return the summary, or {@code null} if the payload is empty or not a JSON object
+     */
+    public WeatherSummaryDto read(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            
+            WeatherSummaryDto summary = new WeatherSummaryDto();
+            boolean currentConditionRead = false;
+            boolean nearestAreaRead = false;
+            
+            while (!(currentConditionRead && nearestAreaRead) && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                
+                switch (field) {
+                    case "current_condition" -> {
+                        readFirstElement(parser, p -> readCurrentCondition(p, summary));
+                        currentConditionRead = true;
+                    }
+                    case "nearest_area" -> {
+                        readFirstElement(parser, p -> readNearestArea(p, summary));
+                        nearestAreaRead = true;
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            
+            return summary;
+        }
+    }
+    
+    private void readCurrentCondition(JsonParser parser, WeatherSummaryDto summary) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            
+            switch (field) {
+                case "temp_C" -> summary.setTemperatureC(parser.getValueAsString());
+                case "temp_F" -> summary.setTemperatureF(parser.getValueAsString());
+                case "humidity" -> summary.setHumidity(parser.getValueAsString());
+                case "windspeedKmph" -> summary.setWindSpeed(parser.getValueAsString());
+                case "winddir16Point" -> summary.setWindDirection(parser.getValueAsString());
+                case "FeelsLikeC" -> summary.setFeelsLikeC(parser.getValueAsString());
+                case "visibility" -> summary.setVisibility(parser.getValueAsString());
+                case "pressure" -> summary.setPressure(parser.getValueAsString());
+                case "weatherDesc" -> summary.setDescription(readFirstValue(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+    
+    private void readNearestArea(JsonParser parser, WeatherSummaryDto summary) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            
+            switch (field) {
+                case "areaName" -> summary.setCity(readFirstValue(parser));
+                case "country" -> summary.setCountry(readFirstValue(parser));
+                default -> parser.skipChildren();
+            }
+        }
+    }
+    
+    /**
+     * Reads {@code [{"value": "..."}, ...]} and returns the first value
+     */
+    private String readFirstValue(JsonParser parser) throws IOException {
+        String[] value = new String[1];
+        readFirstElement(parser, p -> {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.getCurrentName();
+                p.nextToken();
+                if ("value".equals(field)) {
+                    value[0] = p.getValueAsString();
+                } else {
+                    p.skipChildren();
+                }
+            }
+        });
+        return value[0];
+    }
+    
+    /**
+     * With the parser positioned on an array, hands the first object element to the
+     * reader and skips the rest of the array. Anything other than an array is skipped.
+     */
+    private void readFirstElement(JsonParser parser, ObjectReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            reader.read(parser);
+            token = parser.nextToken();
+        }
+        
+        while (token != JsonToken.END_ARRAY && token != null) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ObjectReader {
+        void read(JsonParser parser) throws IOException;
+    }
+}
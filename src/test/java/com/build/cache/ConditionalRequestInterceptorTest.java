@@ -0,0 +1,94 @@
+package com.build.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConditionalRequestInterceptor Tests")
+class ConditionalRequestInterceptorTest {
+    
+    private final Deque<MockClientHttpResponse> responses = new ArrayDeque<>();
+    private final List<HttpHeaders> sentHeaders = new ArrayList<>();
+    private final ConditionalRequestInterceptor interceptor = new ConditionalRequestInterceptor(10);
+    
+    @Test
+    @DisplayName("Should revalidate with If-None-Match and replay the remembered body on 304")
+    void getForObject_NotModified_ReplaysBody() {
+        // Given
+        RestTemplate restTemplate = restTemplate();
+        responses.add(response("{\"temp\":22}", HttpStatus.OK, "\"v1\""));
+        responses.add(response("", HttpStatus.NOT_MODIFIED, "\"v1\""));
+        responses.add(response("{\"temp\":23}", HttpStatus.OK, "\"v2\""));
+        
+        // When
+        String first = restTemplate.getForObject("http://upstream/istanbul", String.class);
+        String second = restTemplate.getForObject("http://upstream/istanbul", String.class);
+        String third = restTemplate.getForObject("http://upstream/istanbul", String.class);
+        
+        // Then
+        assertEquals("{\"temp\":22}", first);
+        assertEquals("{\"temp\":22}", second);
+        assertEquals("{\"temp\":23}", third);
+        assertTrue(sentHeaders.get(0).getIfNoneMatch().isEmpty());
+        assertEquals(List.of("\"v1\""), sentHeaders.get(1).getIfNoneMatch());
+        assertEquals(List.of("\"v1\""), sentHeaders.get(2).getIfNoneMatch());
+        assertEquals(1, interceptor.getNotModifiedCount());
+        assertEquals(1, interceptor.getModifiedCount());
+    }
+    
+    @Test
+    @DisplayName("Should pass responses without validators through and not remember them")
+    void getForObject_NoValidators_NotRemembered() {
+        // Given
+        RestTemplate restTemplate = restTemplate();
+        responses.add(response("{\"temp\":22}", HttpStatus.OK, null));
+        responses.add(response("{\"temp\":22}", HttpStatus.OK, null));
+        
+        // When
+        restTemplate.getForObject("http://upstream/istanbul", String.class);
+        restTemplate.getForObject("http://upstream/istanbul", String.class);
+        
+        // Then
+        assertTrue(sentHeaders.get(1).getIfNoneMatch().isEmpty());
+        assertEquals(0, interceptor.size());
+    }
+    
+    private RestTemplate restTemplate() {
+        RestTemplate restTemplate = new RestTemplate((uri, method) -> {
+            MockClientHttpRequest request = new MockClientHttpRequest(method, uri) {
+                
+                @Override
+                protected ClientHttpResponse executeInternal() {
+                    sentHeaders.add(HttpHeaders.readOnlyHttpHeaders(getHeaders()));
+                    return responses.poll();
+                }
+            };
+            return request;
+        });
+        restTemplate.getInterceptors().add(interceptor);
+        return restTemplate;
+    }
+    
+    private static MockClientHttpResponse response(String body, HttpStatus status, String etag) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (etag != null) {
+            response.getHeaders().setETag(etag);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,95 @@
+package com.build.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HeavyHitters Tests")
+class HeavyHittersTest {
+    
+    @Test
+    @DisplayName("Should rank frequent keys first within capacity")
+    void top_FrequentKeys_RankedByCount() {
+        // Given
+        HeavyHitters<String> sketch = new HeavyHitters<>(4);
+        offer(sketch, "istanbul", 10);
+        offer(sketch, "ankara", 5);
+        offer(sketch, "izmir", 2);
+        
+        // When
+        List<HeavyHitters.Hitter<String>> top = sketch.top(2);
+        
+        // Then
+        assertEquals(2, top.size());
+        assertEquals(new HeavyHitters.Hitter<>("istanbul", 10, 0), top.get(0));
+        assertEquals(new HeavyHitters.Hitter<>("ankara", 5, 0), top.get(1));
+        assertEquals(17, sketch.getTotal());
+    }
+    
+    @Test
+    @DisplayName("Should keep heavy hitters when many rare keys pass through")
+    void offer_ManyRareKeys_KeepsHeavyHitters() {
+        // Given
+        HeavyHitters<String> sketch = new HeavyHitters<>(8);
+        
+        // When
+        for (int i = 0; i < 1000; i++) {
+            sketch.offer("istanbul");
+            if (i % 2 == 0) {
+                sketch.offer("ankara");
+            }
+            sketch.offer("rare-" + i);
+        }
+        
+        // Then
+        List<HeavyHitters.Hitter<String>> top = sketch.top(2);
+        assertEquals("istanbul", top.get(0).key());
+        assertEquals("ankara", top.get(1).key());
+        assertTrue(top.get(0).guaranteedCount() <= 1000);
+        assertTrue(top.get(0).count() >= 1000);
+        assertEquals(8, sketch.size());
+    }
+    
+    @Test
+    @DisplayName("Should halve counts and forget keys that drop to zero on decay")
+    void decay_HalvesCounts() {
+        // Given
+        HeavyHitters<String> sketch = new HeavyHitters<>(4);
+        offer(sketch, "istanbul", 8);
+        offer(sketch, "ankara", 1);
+        
+        // When
+        sketch.decay();
+        
+        // Then
+        assertEquals(List.of(new HeavyHitters.Hitter<>("istanbul", 4, 0)), sketch.top(10));
+        assertEquals(1, sketch.size());
+    }
+    
+    @Test
+    @DisplayName("Should count a weighted offer as that many requests")
+    void offer_Weighted_CountsWeight() {
+        // Given
+        HeavyHitters<String> sketch = new HeavyHitters<>(2);
+        sketch.offer("istanbul", 8);
+        sketch.offer("ankara");
+        
+        // When
+        sketch.offer("izmir", 4);
+        
+        // Then
+        assertEquals(List.of(new HeavyHitters.Hitter<>("istanbul", 8, 0), new HeavyHitters.Hitter<>("izmir", 5, 1)),
+            sketch.top(10));
+        assertEquals(13, sketch.getTotal());
+        assertThrows(IllegalArgumentException.class, () -> sketch.offer("izmir", 0));
+    }
+    
+    private static void offer(HeavyHitters<String> sketch, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.offer(key);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.build.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RequestCoalescer Tests")
+class RequestCoalescerTest {
+    
+    private static final int CALLERS = 8;
+    
+    @Test
+    @DisplayName("Should run a single load for concurrent callers of the same key")
+    void execute_ConcurrentCallers_ShareOneLoad() throws Exception {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> coalescer.execute("istanbul", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                awaitQuietly(release);
+                return "sunny";
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> coalescer.execute("istanbul", () -> {
+                    loads.incrementAndGet();
+                    return "unexpected";
+                })));
+            }
+            waitForWaiters(coalescer, CALLERS - 1);
+            release.countDown();
+            
+            for (Future<String> result : results) {
+                assertEquals("sunny", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, coalescer.getLeaderCount());
+            assertEquals(CALLERS - 1, coalescer.getCoalescedCount());
+            assertEquals(0, coalescer.getInFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should propagate failures to waiters without remembering them")
+    void execute_LoaderFails_FailureNotCached() throws Exception {
+        RequestCoalescer<String, String> coalescer = new RequestCoalescer<>("test");
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        
+        try {
+            Future<String> leader = executor.submit(() -> coalescer.execute("istanbul", () -> {
+                loaderStarted.countDown();
+                awaitQuietly(release);
+                throw new IllegalStateException("upstream down");
+            }));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            Future<String> waiter = executor.submit(() -> coalescer.execute("istanbul", () -> "unexpected"));
+            waitForWaiters(coalescer, 1);
+            release.countDown();
+            
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception waiterFailure = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+            assertInstanceOf(IllegalStateException.class, waiterFailure.getCause());
+            
+            assertEquals("recovered", coalescer.execute("istanbul", () -> "recovered"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static void waitForWaiters(RequestCoalescer<?, ?> coalescer, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, coalescer.getCoalescedCount());
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.build.cache;
+
+import com.build.config.WeatherCacheProperties;
+import com.build.dto.WeatherSummaryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SegmentCacheStore Tests")
+class SegmentCacheStoreTest {
+    
+    @TempDir
+    Path directory;
+    
+    private WeatherCacheTest.MutableClock clock;
+    private final List<SegmentCacheStore<WeatherSummaryDto>> stores = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        clock = new WeatherCacheTest.MutableClock();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        stores.forEach(SegmentCacheStore::close);
+    }
+    
+    @Test
+    @DisplayName("Should load stored values after reopening the directory")
+    void load_AfterReopen_ReturnsStoredValue() {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        long expiresAt = clock.millis() + 60_000;
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "22"), expiresAt);
+        store.stored(CacheKey.summary("Ankara"), summary("Ankara", "18"), expiresAt);
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "23"), expiresAt);
+        store.close();
+        
+        // When
+        SegmentCacheStore<WeatherSummaryDto> reopened = open();
+        CacheStore.Stored<WeatherSummaryDto> istanbul = reopened.load(CacheKey.summary("istanbul"));
+        
+        // Then
+        assertNotNull(istanbul);
+        assertEquals("23", istanbul.value().getTemperatureC());
+        assertEquals(expiresAt, istanbul.expiresAt());
+        assertEquals("Ankara", reopened.load(CacheKey.summary("Ankara")).value().getCity());
+        assertNull(reopened.load(CacheKey.summary("London")));
+        assertEquals(2, reopened.getIndexedCount());
+    }
+    
+    @Test
+    @DisplayName("Should not bring back removed entries after reopening")
+    void removed_AfterReopen_StaysRemoved() {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "22"), clock.millis() + 60_000);
+        store.removed(CacheKey.summary("Istanbul"));
+        store.close();
+        
+        // When
+        SegmentCacheStore<WeatherSummaryDto> reopened = open();
+        
+        // Then
+        assertNull(reopened.load(CacheKey.summary("Istanbul")));
+    }
+    
+    @Test
+    @DisplayName("Should drop records past retention and superseded records on compaction")
+    void compact_WithExpiredAndSuperseded_KeepsOnlyLiveRecords() throws IOException {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "22"), clock.millis() + 3_600_000);
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "23"), clock.millis() + 3_600_000);
+        store.stored(CacheKey.summary("Ankara"), summary("Ankara", "18"), clock.millis());
+        store.flush();
+        clock.advance(Duration.ofMinutes(30));
+        
+        // When
+        store.compact();
+        
+        // Then
+        assertEquals(1, store.getIndexedCount());
+        assertEquals(2, store.getSegmentCount());
+        assertEquals(1, store.getCompactionCount());
+        assertEquals("23", store.load(CacheKey.summary("Istanbul")).value().getTemperatureC());
+        assertNull(store.load(CacheKey.summary("Ankara")));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should remove the compacted segment when a compaction fails, so the next one succeeds")
+    void compact_FailsCreatingNextSegment_LeavesNoPartialSegment() throws IOException {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "22"), clock.millis() + 3_600_000);
+        store.flush();
+        Path active;
+        try (Stream<Path> files = Files.list(directory)) {
+            active = files.filter(file -> file.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+        String[] parts = active.getFileName().toString().split("\\.");
+        long sequence = Long.parseLong(parts[1]);
+        Path compacted = directory.resolve(parts[0] + "." + (sequence + 1) + ".seg");
+        Path blocker = Files.createFile(directory.resolve(parts[0] + "." + (sequence + 2) + ".seg"));
+        
+        // When
+        store.compact();
+        boolean partialLeft = Files.exists(compacted);
+        Files.delete(blocker);
+        store.compact();
+        
+        // Then
+        assertFalse(partialLeft);
+        assertEquals(1, store.getCompactionCount());
+        assertEquals("22", store.load(CacheKey.summary("Istanbul")).value().getTemperatureC());
+    }
+    
+    @Test
+    @DisplayName("Should wait with compaction until dead records reach half of the live bytes")
+    void needsCompaction_LittleGarbage_WaitsForRatio() {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        long expiresAt = clock.millis() + 3_600_000;
+        for (String city : List.of("Istanbul", "Ankara", "Izmir", "Bursa")) {
+            store.stored(CacheKey.summary(city), summary(city, "20"), expiresAt);
+        }
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "21"), expiresAt);
+        store.flush();
+        
+        // When
+        boolean afterOneUpdate = store.needsCompaction();
+        store.stored(CacheKey.summary("Ankara"), summary("Ankara", "19"), expiresAt);
+        store.removed(CacheKey.summary("Izmir"));
+        store.flush();
+        
+        // Then
+        assertFalse(afterOneUpdate);
+        assertTrue(store.needsCompaction());
+    }
+    
+    @Test
+    @DisplayName("Should ignore a torn record at the end of a segment")
+    void load_WithTornTail_KeepsEarlierRecords() throws IOException {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        store.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "22"), clock.millis() + 60_000);
+        store.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        Files.write(segment, new byte[] {0, 0, 1, 0, 7, 7, 7, 7, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14},
+                    StandardOpenOption.APPEND);
+        
+        // When
+        SegmentCacheStore<WeatherSummaryDto> reopened = open();
+        
+        // Then
+        assertEquals("22", reopened.load(CacheKey.summary("Istanbul")).value().getTemperatureC());
+        assertEquals(1, reopened.getIndexedCount());
+    }
+    
+    @Test
+    @DisplayName("Should leave a directory in use by another store alone until it is released")
+    void open_DirectoryInUse_PersistsNothing() throws IOException {
+        // Given
+        SegmentCacheStore<WeatherSummaryDto> first = open();
+        first.stored(CacheKey.summary("Istanbul"), summary("Istanbul", "22"), clock.millis() + 3_600_000);
+        first.flush();
+        
+        // When
+        SegmentCacheStore<WeatherSummaryDto> second = open();
+        second.stored(CacheKey.summary("Ankara"), summary("Ankara", "18"), clock.millis() + 3_600_000);
+        second.compact();
+        
+        // Then
+        assertNull(second.load(CacheKey.summary("Istanbul")));
+        assertEquals(0, second.getSegmentCount());
+        assertEquals(1, second.getDroppedCount());
+        assertEquals(0, second.getCompactionCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+        assertEquals("22", first.load(CacheKey.summary("Istanbul")).value().getTemperatureC());
+        
+        first.close();
+        assertEquals("22", open().load(CacheKey.summary("Istanbul")).value().getTemperatureC());
+    }
+    
+    @Test
+    @DisplayName("Should serve entries of a previous run from a fresh WeatherCache")
+    void weatherCache_AfterRestart_LoadsFromStore() {
+        // Given
+        WeatherCacheProperties properties = new WeatherCacheProperties();
+        properties.setTtl(Duration.ofMinutes(5));
+        properties.setStaleIfError(Duration.ofHours(1));
+        SegmentCacheStore<WeatherSummaryDto> store = open();
+        WeatherCache<WeatherSummaryDto> cache = new WeatherCache<>("summary", properties, clock, store);
+        cache.put(CacheKey.summary("Istanbul"), summary("Istanbul", "22"));
+        store.close();
+        
+        // When
+        SegmentCacheStore<WeatherSummaryDto> restartedStore = open();
+        WeatherCache<WeatherSummaryDto> restarted = new WeatherCache<>("summary", properties, clock, restartedStore);
+        
+        // Then
+        assertEquals("22", restarted.get(CacheKey.summary("Istanbul")).getTemperatureC());
+        assertEquals(1, restarted.getStoreLoadCount());
+        assertEquals(1, restarted.getHitCount());
+        
+        restartedStore.close();
+        clock.advance(Duration.ofMinutes(10));
+        WeatherCache<WeatherSummaryDto> later = new WeatherCache<>("summary", properties, clock, open());
+        assertNull(later.get(CacheKey.summary("Istanbul")));
+        assertEquals("22", later.getStale(CacheKey.summary("Istanbul"), Duration.ofHours(1)).getTemperatureC());
+    }
+    
+    private SegmentCacheStore<WeatherSummaryDto> open() {
+        SegmentCacheStore<WeatherSummaryDto> store = new SegmentCacheStore<>("summary", directory,
+            new WeatherSummarySnapshotCodec(), Duration.ofMinutes(10), Duration.ofHours(1), 100, clock);
+        stores.add(store);
+        return store;
+    }
+    
+    private static WeatherSummaryDto summary(String city, String temperature) {
+        WeatherSummaryDto dto = new WeatherSummaryDto();
+        dto.setCity(city);
+        dto.setCountry("Turkey");
+        dto.setTemperatureC(temperature);
+        dto.setDescription("Sunny");
+        return dto;
+    }
+}
@@ -0,0 +1,264 @@
+package com.build.cache;
+
+import com.build.config.WeatherCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WeatherCache Tests")
+class WeatherCacheTest {
+    
+    private MutableClock clock;
+    private WeatherCacheProperties properties;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        properties = new WeatherCacheProperties();
+        properties.setTtl(Duration.ofMinutes(5));
+        properties.setMaxEntries(2);
+    }
+    
+    @Test
+    @DisplayName("Should return cached value until TTL elapses")
+    void get_WithinTtl_ReturnsValue() {
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock);
+        cache.put(CacheKey.current("Istanbul"), "sunny");
+        
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals("sunny", cache.get(CacheKey.current("istanbul")));
+        
+        clock.advance(Duration.ofMinutes(1));
+        assertNull(cache.get(CacheKey.current("Istanbul")));
+        
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("Should evict least recently used entry when full")
+    void put_OverCapacity_EvictsLeastRecentlyUsed() {
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock);
+        cache.put(CacheKey.current("Istanbul"), "sunny");
+        cache.put(CacheKey.current("Ankara"), "cloudy");
+        cache.get(CacheKey.current("Istanbul"));
+        
+        cache.put(CacheKey.current("London"), "rain");
+        
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(CacheKey.current("Ankara")));
+        assertEquals("sunny", cache.get(CacheKey.current("Istanbul")));
+        assertEquals("rain", cache.get(CacheKey.current("London")));
+    }
+    
+    @Test
+    @DisplayName("Should keep forecasts for different days apart")
+    void forecastKeys_DifferentDays_AreDistinct() {
+        assertEquals(CacheKey.forecast("New  York", 3), CacheKey.forecast(" new york", 3));
+        assertNotEquals(CacheKey.forecast("New York", 3), CacheKey.forecast("New York", 5));
+        assertNotEquals(CacheKey.current("New York"), CacheKey.forecast("New York", 1));
+    }
+    
+    @Test
+    @DisplayName("Should hand out expired entries only within the requested staleness")
+    void getStale_WithinWindow_ReturnsExpiredValue() {
+        properties.setStaleWhileRevalidate(Duration.ofMinutes(2));
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock);
+        cache.put(CacheKey.current("Istanbul"), "sunny");
+        
+        assertNull(cache.getStale(CacheKey.current("Istanbul"), Duration.ofMinutes(2)));
+        
+        clock.advance(Duration.ofMinutes(6));
+        assertNull(cache.get(CacheKey.current("Istanbul")));
+        assertEquals("sunny", cache.getStale(CacheKey.current("Istanbul"), Duration.ofMinutes(2)));
+        assertNull(cache.getStale(CacheKey.current("Istanbul"), Duration.ofSeconds(30)));
+        
+        clock.advance(Duration.ofMinutes(1));
+        assertNull(cache.getStale(CacheKey.current("Istanbul"), Duration.ofMinutes(2)));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStaleHitCount());
+    }
+    
+    @Test
+    @DisplayName("Should report entries as servable while fresh or within the staleness")
+    void isServable_FreshOrWithinStaleness_WithoutCountingLookup() {
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock);
+        cache.put(CacheKey.current("Istanbul"), "sunny");
+        
+        assertTrue(cache.isServable(CacheKey.current("Istanbul"), Duration.ofMinutes(1)));
+        assertFalse(cache.isServable(CacheKey.current("Ankara"), Duration.ofMinutes(1)));
+        
+        clock.advance(Duration.ofMinutes(5).plusSeconds(30));
+        assertTrue(cache.isServable(CacheKey.current("Istanbul"), Duration.ofMinutes(1)));
+        assertFalse(cache.isServable(CacheKey.current("Istanbul"), Duration.ofSeconds(30)));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+    
+    @Test
+    @DisplayName("Should tag entries by content and report their expiry")
+    void describe_CachedValue_ReturnsEntryValidators() {
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock, CacheStore.none(), new StringCodec());
+        String sunny = new String("sunny");
+        cache.put(CacheKey.current("Istanbul"), sunny);
+        cache.put(CacheKey.current("Ankara"), "sunny");
+        
+        CachedValue<String> istanbul = cache.describe(CacheKey.current("Istanbul"), sunny);
+        assertEquals(clock.millis() + Duration.ofMinutes(5).toMillis(), istanbul.expiresAt());
+        assertEquals(istanbul.etag(), cache.describe(CacheKey.current("Ankara"), "sunny").etag());
+        assertTrue(istanbul.etag().matches("\"[0-9a-f]{32}\""));
+        
+        cache.put(CacheKey.current("Istanbul"), "cloudy");
+        CachedValue<String> replaced = cache.describe(CacheKey.current("Istanbul"), sunny);
+        assertEquals(0, replaced.expiresAt());
+        assertEquals(istanbul.etag(), replaced.etag());
+        assertNotEquals(istanbul.etag(), cache.describe(CacheKey.current("Istanbul"), "cloudy").etag());
+    }
+    
+    @Test
+    @DisplayName("Should encode each entry once and again after it is replaced")
+    void encode_CachedValue_KeepsBodyWithEntry() {
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock);
+        AtomicInteger encodings = new AtomicInteger();
+        Function<String, byte[]> encoder = value -> {
+            encodings.incrementAndGet();
+            return value.getBytes(StandardCharsets.UTF_8);
+        };
+        String sunny = new String("sunny");
+        cache.put(CacheKey.current("Istanbul"), sunny);
+        
+        byte[] first = cache.encode(CacheKey.current("Istanbul"), sunny, encoder);
+        assertSame(first, cache.encode(CacheKey.current("Istanbul"), sunny, encoder));
+        assertEquals(1, encodings.get());
+        assertEquals(1, cache.getEncodedHitCount());
+        
+        cache.put(CacheKey.current("Istanbul"), "cloudy");
+        assertArrayEquals(first, cache.encode(CacheKey.current("Istanbul"), sunny, encoder));
+        assertEquals("cloudy", new String(cache.encode(CacheKey.current("Istanbul"), cache.get(CacheKey.current("Istanbul")), encoder), StandardCharsets.UTF_8));
+        assertEquals(3, encodings.get());
+        assertEquals(2, cache.getEncodedMissCount());
+    }
+    
+    @Test
+    @DisplayName("Should bypass storage when disabled")
+    void put_Disabled_StoresNothing() {
+        properties.setEnabled(false);
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock);
+        cache.put(CacheKey.current("Istanbul"), "sunny");
+        
+        assertNull(cache.get(CacheKey.current("Istanbul")));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("Should keep serving other keys while the store is read")
+    void get_StoreLoadInProgress_DoesNotBlockCache() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CacheStore<String> slowStore = new CacheStore<>() {
+            @Override
+            public void stored(CacheKey key, String value, long expiresAt) {
+            }
+            
+            @Override
+            public void removed(CacheKey key) {
+            }
+            
+            @Override
+            public void cleared() {
+            }
+            
+            @Override
+            public Stored<String> load(CacheKey key) {
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Stored<>("rainy", clock.millis() + 60_000);
+            }
+        };
+        WeatherCache<String> cache = new WeatherCache<>("test", properties, clock, slowStore);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loaded = executor.submit(() -> cache.get(CacheKey.current("Ankara")));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            
+            cache.put(CacheKey.current("Istanbul"), "sunny");
+            assertEquals("sunny", cache.get(CacheKey.current("Istanbul")));
+            assertEquals(1, cache.size());
+            
+            release.countDown();
+            assertEquals("rainy", loaded.get(5, TimeUnit.SECONDS));
+            assertEquals(1, cache.getStoreLoadCount());
+            assertEquals(2, cache.size());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+    
+    static class StringCodec implements SnapshotCodec<String> {
+        
+        @Override
+        public int version() {
+            return 1;
+        }
+        
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+        
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    }
+    
+    static class MutableClock extends Clock {
+        
+        private Instant now = Instant.parse("2025-09-28T12:00:00Z");
+        
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+        
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
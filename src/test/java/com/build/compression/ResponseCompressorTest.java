@@ -0,0 +1,92 @@
+package com.build.compression;
+
+import com.build.config.WeatherCompressionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ResponseCompressor Tests")
+class ResponseCompressorTest {
+    
+    private WeatherCompressionProperties properties;
+    private SimpleMeterRegistry registry;
+    private ResponseCompressor compressor;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WeatherCompressionProperties();
+        properties.setMinResponseSize(64);
+        registry = new SimpleMeterRegistry();
+        compressor = new ResponseCompressor(properties, registry);
+    }
+    
+    @Test
+    @DisplayName("Should pick the accepted coding by quality, then by configured order")
+    void negotiate_AcceptEncoding_PicksPreferredCoding() {
+        assertEquals(ContentCoding.GZIP, compressor.negotiate("gzip, deflate, br"));
+        assertEquals(ContentCoding.GZIP, compressor.negotiate("deflate, gzip"));
+        assertEquals(ContentCoding.DEFLATE, compressor.negotiate("gzip;q=0.4, deflate;q=0.8"));
+        assertEquals(ContentCoding.DEFLATE, compressor.negotiate("gzip;q=0, *"));
+        assertEquals(ContentCoding.GZIP, compressor.negotiate("*;q=0.5"));
+        assertNull(compressor.negotiate("br, zstd"));
+        assertNull(compressor.negotiate("gzip;q=0"));
+        assertNull(compressor.negotiate(null));
+    }
+    
+    @Test
+    @DisplayName("Should compress each variant once and reuse it for later responses")
+    void select_SameBody_CompressesOncePerCoding() throws IOException {
+        // Given
+        byte[] json = "{\"weather\":[]}".repeat(20).getBytes(StandardCharsets.UTF_8);
+        EncodedBody body = new EncodedBody(json);
+        
+        // When
+        ResponseCompressor.Variant gzip = compressor.select(body, "gzip");
+        ResponseCompressor.Variant again = compressor.select(body, "gzip");
+        ResponseCompressor.Variant deflate = compressor.select(body, "deflate");
+        
+        // Then
+        assertSame(gzip.body(), again.body());
+        assertArrayEquals(json, new GZIPInputStream(new ByteArrayInputStream(gzip.body())).readAllBytes());
+        try (InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(deflate.body()))) {
+            assertArrayEquals(json, inflated.readAllBytes());
+        }
+        assertEquals(2, body.getVariantCount());
+        assertEquals(1, registry.get(ResponseCompressor.COMPRESSION).tag("coding", "gzip").timer().count());
+        assertEquals(2, registry.get(ResponseCompressor.RESPONSES).tag("coding", "gzip").counter().count());
+        assertEquals(2.0 * (json.length - gzip.body().length),
+                     registry.get(ResponseCompressor.SAVED_BYTES).tag("coding", "gzip").counter().count());
+        assertEquals("\"abc-gzip\"", gzip.etag("\"abc\""));
+    }
+    
+    @Test
+    @DisplayName("Should send small bodies and disabled compression as they are")
+    void select_BelowThresholdOrDisabled_ReturnsIdentity() {
+        // Given
+        EncodedBody small = new EncodedBody("{}".getBytes(StandardCharsets.UTF_8));
+        EncodedBody large = new EncodedBody(new byte[256]);
+        
+        // When
+        ResponseCompressor.Variant smallVariant = compressor.select(small, "gzip");
+        properties.setEnabled(false);
+        ResponseCompressor.Variant disabledVariant = compressor.select(large, "gzip");
+        
+        // Then
+        assertNull(smallVariant.coding());
+        assertSame(small.identity(), smallVariant.body());
+        assertNull(disabledVariant.coding());
+        assertEquals("\"abc\"", disabledVariant.etag("\"abc\""));
+        assertEquals(0, large.getVariantCount());
+        assertEquals(2, registry.get(ResponseCompressor.RESPONSES).tag("coding", "identity").counter().count());
+    }
+}
@@ -0,0 +1,105 @@
+package com.build.config;
+
+import com.build.metrics.WeatherMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RestTemplateConfig Tests")
+class RestTemplateConfigTest {
+    
+    // @Value durations need the same conversion service SpringApplication installs
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withInitializer(context -> context.getBeanFactory()
+            .setConversionService(ApplicationConversionService.getSharedInstance()))
+        .withBean(WeatherMetrics.class, () -> new WeatherMetrics(new SimpleMeterRegistry()))
+        .withUserConfiguration(RestTemplateConfig.class);
+    
+    @Test
+    @DisplayName("Should size the connection pool from weather.http-client properties")
+    void weatherConnectionManager_PropertiesSet_AppliesPoolLimits() {
+        contextRunner
+            // Given
+            .withPropertyValues(
+                "weather.http-client.max-connections-total=40",
+                "weather.http-client.max-connections-per-route=15")
+            // When
+            .run(context -> {
+                PoolingHttpClientConnectionManager manager = context.getBean(PoolingHttpClientConnectionManager.class);
+                
+                // Then
+                assertEquals(40, manager.getMaxTotal());
+                assertEquals(15, manager.getDefaultMaxPerRoute());
+            });
+    }
+    
+    @Test
+    @DisplayName("Should apply spring.web.client timeouts and pool settings to the connection config")
+    void weatherConnectionConfig_PropertiesSet_AppliesTimeouts() {
+        contextRunner
+            // Given
+            .withPropertyValues(
+                "spring.web.client.connect-timeout=3s",
+                "spring.web.client.read-timeout=7s",
+                "weather.http-client.validate-after-inactivity=4s",
+                "weather.http-client.connection-time-to-live=2m")
+            // When
+            .run(context -> {
+                ConnectionConfig connectionConfig = context.getBean(ConnectionConfig.class);
+                
+                // Then
+                assertEquals(3_000, connectionConfig.getConnectTimeout().toMilliseconds());
+                assertEquals(7_000, connectionConfig.getSocketTimeout().toMilliseconds());
+                assertEquals(4_000, connectionConfig.getValidateAfterInactivity().toMilliseconds());
+                assertEquals(TimeUnit.MINUTES.toMillis(2), connectionConfig.getTimeToLive().toMilliseconds());
+            });
+    }
+    
+    @Test
+    @DisplayName("Should apply the read timeout and weather.http-client settings to the request config")
+    void weatherRequestConfig_PropertiesSet_AppliesTimeouts() {
+        contextRunner
+            // Given
+            .withPropertyValues(
+                "spring.web.client.read-timeout=7s",
+                "weather.http-client.connection-request-timeout=1500ms",
+                "weather.http-client.keep-alive=45s")
+            // When
+            .run(context -> {
+                RequestConfig requestConfig = context.getBean(RequestConfig.class);
+                
+                // Then
+                assertEquals(7_000, requestConfig.getResponseTimeout().toMilliseconds());
+                assertEquals(1_500, requestConfig.getConnectionRequestTimeout().toMilliseconds());
+                assertEquals(45_000, requestConfig.getDefaultKeepAlive().toMilliseconds());
+            });
+    }
+    
+    @Test
+    @DisplayName("Should fall back to the documented defaults when nothing is configured")
+    void weatherBeans_NoProperties_UseDefaults() {
+        // When
+        contextRunner.run(context -> {
+            PoolingHttpClientConnectionManager manager = context.getBean(PoolingHttpClientConnectionManager.class);
+            ConnectionConfig connectionConfig = context.getBean(ConnectionConfig.class);
+            RequestConfig requestConfig = context.getBean(RequestConfig.class);
+            
+            // Then
+            assertEquals(100, manager.getMaxTotal());
+            assertEquals(50, manager.getDefaultMaxPerRoute());
+            assertEquals(5_000, connectionConfig.getConnectTimeout().toMilliseconds());
+            assertEquals(10_000, connectionConfig.getSocketTimeout().toMilliseconds());
+            assertEquals(10_000, requestConfig.getResponseTimeout().toMilliseconds());
+            assertEquals(2_000, requestConfig.getConnectionRequestTimeout().toMilliseconds());
+        });
+    }
+}
@@ -1,35 +1,59 @@
 package com.build.controller;
 
+import com.build.cache.CachedValue;
+import com.build.compression.EncodedBody;
+import com.build.config.WeatherCompressionConfig;
+import com.build.dto.WeatherSummaryDto;
+import com.build.metrics.WeatherMetrics;
 import com.build.model.*;
+import com.build.service.WeatherBatchService;
 import com.build.service.WeatherService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(WeatherController.class)
+@WebMvcTest(value = WeatherController.class, properties = "weather.compression.min-response-size=0")
+@Import({WeatherMetrics.class, SimpleMeterRegistry.class, WeatherCompressionConfig.class})
 @DisplayName("WeatherController Integration Tests")
 class WeatherControllerTest {
     
+    private static final String ETAG = "\"5d41402abc4b2a76b9719d911017c592\"";
+    
     @Autowired
     private MockMvc mockMvc;
     
     @MockBean
     private WeatherService weatherService;
     
+    @MockBean
+    private WeatherBatchService weatherBatchService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -45,10 +69,10 @@ class WeatherControllerTest {
     void getCurrentWeather_Success() throws Exception {
         // Given
         String city = "Istanbul";
-        when(weatherService.getCurrentWeather(city)).thenReturn(mockWeatherResponse);
+        when(weatherService.getCurrentWeatherSummaryCachedAsync(city)).thenReturn(CompletableFuture.completedFuture(cached(WeatherController.convertToSummary(mockWeatherResponse))));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/current/{city}", city))
+        performAsync(get("/api/weather/current/{city}", city))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.city", is("Istanbul")))
@@ -63,7 +87,43 @@ class WeatherControllerTest {
             .andExpect(jsonPath("$.visibility", is("10")))
             .andExpect(jsonPath("$.pressure", is("1013")));
         
-        verify(weatherService, times(1)).getCurrentWeather(city);
+        verify(weatherService, times(1)).getCurrentWeatherSummaryCachedAsync(city);
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/{city} - Should send entity tag and remaining lifetime")
+    void getCurrentWeather_Cached_SendsValidators() throws Exception {
+        // Given
+        String city = "Istanbul";
+        CachedValue<WeatherSummaryDto> cached = new CachedValue<>(WeatherController.convertToSummary(mockWeatherResponse),
+            ETAG, System.currentTimeMillis() + 120_000);
+        when(weatherService.getCurrentWeatherSummaryCachedAsync(city)).thenReturn(CompletableFuture.completedFuture(cached));
+        
+        // When & Then
+        performAsync(get("/api/weather/current/{city}", city))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", ETAG))
+            .andExpect(header().string("Cache-Control", matchesPattern("max-age=1[01]\\d")))
+            .andExpect(jsonPath("$.city", is("Istanbul")));
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/{city} - Should answer a matching If-None-Match with 304")
+    void getCurrentWeather_IfNoneMatch_Returns304() throws Exception {
+        // Given
+        String city = "Istanbul";
+        when(weatherService.getCurrentWeatherSummaryCachedAsync(city))
+            .thenReturn(CompletableFuture.completedFuture(cached(WeatherController.convertToSummary(mockWeatherResponse))));
+        
+        // When & Then
+        performAsync(get("/api/weather/current/{city}", city).header("If-None-Match", "\"other\", W/" + ETAG))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", ETAG))
+            .andExpect(content().string(""));
+        
+        performAsync(get("/api/weather/current/{city}", city).header("If-None-Match", "\"other\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.city", is("Istanbul")));
     }
     
     @Test
@@ -71,14 +131,14 @@ class WeatherControllerTest {
     void getCurrentWeather_ServiceException_Returns500() throws Exception {
         // Given
         String city = "NonExistentCity";
-        when(weatherService.getCurrentWeather(city))
-            .thenThrow(new RuntimeException("City not found"));
+        when(weatherService.getCurrentWeatherSummaryCachedAsync(city))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("City not found")));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/current/{city}", city))
+        performAsync(get("/api/weather/current/{city}", city))
             .andExpect(status().isInternalServerError());
         
-        verify(weatherService, times(1)).getCurrentWeather(city);
+        verify(weatherService, times(1)).getCurrentWeatherSummaryCachedAsync(city);
     }
     
     @Test
@@ -86,14 +146,54 @@ class WeatherControllerTest {
     void getCurrentWeather_IllegalArgumentException_Returns400() throws Exception {
         // Given
         String city = "InvalidCity";
-        when(weatherService.getCurrentWeather(city))
-            .thenThrow(new IllegalArgumentException("City name cannot be empty"));
+        when(weatherService.getCurrentWeatherSummaryCachedAsync(city))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Failed to fetch weather data",
+                new IllegalArgumentException("City name cannot be empty"))));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/current/{city}", city))
+        performAsync(get("/api/weather/current/{city}", city))
             .andExpect(status().isBadRequest());
         
-        verify(weatherService, times(1)).getCurrentWeather(city);
+        verify(weatherService, times(1)).getCurrentWeatherSummaryCachedAsync(city);
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/batch - Should return per-city results")
+    void getCurrentWeatherBatch_MixedResults_ReturnsPerItemStatus() throws Exception {
+        // Given
+        when(weatherBatchService.getCurrentWeather(anyList())).thenReturn(List.of(
+            CompletableFuture.completedFuture(mockWeatherResponse),
+            CompletableFuture.failedFuture(new RuntimeException("Weather service temporarily unavailable")),
+            CompletableFuture.failedFuture(new RuntimeException("Failed to fetch weather data",
+                new IllegalArgumentException("City name cannot be null or empty")))));
+        
+        // When & Then
+        performAsync(get("/api/weather/current/batch").param("cities", "Istanbul,Nowhere,-"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(3)))
+            .andExpect(jsonPath("$[0].requestedCity", is("Istanbul")))
+            .andExpect(jsonPath("$[0].status", is(200)))
+            .andExpect(jsonPath("$[0].weather.temperatureC", is("22")))
+            .andExpect(jsonPath("$[1].status", is(500)))
+            .andExpect(jsonPath("$[1].weather").doesNotExist())
+            .andExpect(jsonPath("$[2].status", is(400)))
+            .andExpect(jsonPath("$[2].error", is("City name cannot be null or empty")));
+        
+        verify(weatherBatchService, times(1)).getCurrentWeather(List.of("Istanbul", "Nowhere", "-"));
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/batch - Should reject an oversized batch")
+    void getCurrentWeatherBatch_TooManyCities_Returns400() throws Exception {
+        // Given
+        when(weatherBatchService.getCurrentWeather(anyList()))
+            .thenThrow(new IllegalArgumentException("At most 50 cities are allowed per batch"));
+        
+        // When & Then
+        performAsync(get("/api/weather/current/batch").param("cities", "Istanbul,Ankara"))
+            .andExpect(status().isBadRequest());
+        
+        verifyNoInteractions(weatherService);
     }
     
     @Test
@@ -102,10 +202,10 @@ class WeatherControllerTest {
         // Given
         String city = "Istanbul";
         int days = 3;
-        when(weatherService.getWeatherForecast(city, days)).thenReturn(mockWeatherResponse);
+        when(weatherService.getWeatherForecastJsonAsync(city, days)).thenReturn(CompletableFuture.completedFuture(cachedJson(mockWeatherResponse)));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/forecast/{city}", city)
+        performAsync(get("/api/weather/forecast/{city}", city)
                 .param("days", String.valueOf(days)))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -115,7 +215,7 @@ class WeatherControllerTest {
             .andExpect(jsonPath("$.nearest_area[0].areaName[0].value", is("Istanbul")))
             .andExpect(jsonPath("$.current_condition[0].temp_C", is("22")));
         
-        verify(weatherService, times(1)).getWeatherForecast(city, days);
+        verify(weatherService, times(1)).getWeatherForecastJsonAsync(city, days);
     }
     
     @Test
@@ -124,13 +224,13 @@ class WeatherControllerTest {
         // Given
         String city = "Istanbul";
         int defaultDays = 3;
-        when(weatherService.getWeatherForecast(city, defaultDays)).thenReturn(mockWeatherResponse);
+        when(weatherService.getWeatherForecastJsonAsync(city, defaultDays)).thenReturn(CompletableFuture.completedFuture(cachedJson(mockWeatherResponse)));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/forecast/{city}", city))
+        performAsync(get("/api/weather/forecast/{city}", city))
             .andExpect(status().isOk());
         
-        verify(weatherService, times(1)).getWeatherForecast(city, defaultDays);
+        verify(weatherService, times(1)).getWeatherForecastJsonAsync(city, defaultDays);
     }
     
     @Test
@@ -141,11 +241,11 @@ class WeatherControllerTest {
         int invalidDays = 10;
         
         // When & Then
-        mockMvc.perform(get("/api/weather/forecast/{city}", city)
+        performAsync(get("/api/weather/forecast/{city}", city)
                 .param("days", String.valueOf(invalidDays)))
             .andExpect(status().isBadRequest());
         
-        verify(weatherService, never()).getWeatherForecast(anyString(), anyInt());
+        verify(weatherService, never()).getWeatherForecastJsonAsync(anyString(), anyInt());
     }
     
     @Test
@@ -153,10 +253,10 @@ class WeatherControllerTest {
     void getFullWeatherDetails_Success() throws Exception {
         // Given
         String city = "Istanbul";
-        when(weatherService.getCurrentWeather(city)).thenReturn(mockWeatherResponse);
+        when(weatherService.getCurrentWeatherJsonAsync(city)).thenReturn(CompletableFuture.completedFuture(cachedJson(mockWeatherResponse)));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/full/{city}", city))
+        performAsync(get("/api/weather/full/{city}", city))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(jsonPath("$.nearest_area[0].areaName[0].value", is("Istanbul")))
@@ -166,7 +266,30 @@ class WeatherControllerTest {
             .andExpect(jsonPath("$.weather[0].date", is("2025-09-28")))
             .andExpect(jsonPath("$.weather[0].maxtempC", is("25")));
         
-        verify(weatherService, times(1)).getCurrentWeather(city);
+        verify(weatherService, times(1)).getCurrentWeatherJsonAsync(city);
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/full/{city} - Should send the gzip variant to clients that accept it")
+    void getFullWeatherDetails_AcceptGzip_SendsCompressedVariant() throws Exception {
+        // Given
+        String city = "Istanbul";
+        when(weatherService.getCurrentWeatherJsonAsync(city)).thenReturn(CompletableFuture.completedFuture(cachedJson(mockWeatherResponse)));
+        
+        // When
+        MvcResult result = performAsync(get("/api/weather/full/{city}", city)
+                .header(HttpHeaders.ACCEPT_ENCODING, "deflate;q=0.5, gzip, br"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"5d41402abc4b2a76b9719d911017c592-gzip\""))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+            .andReturn();
+        
+        // Then
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            WeatherResponse decoded = objectMapper.readValue(body, WeatherResponse.class);
+            assertEquals("Istanbul", decoded.getNearestArea().get(0).getAreaName().get(0).getValue());
+        }
     }
     
     @Test
@@ -185,14 +308,14 @@ class WeatherControllerTest {
     void getCurrentWeather_SpecialCharacters_Success() throws Exception {
         // Given
         String cityWithSpaces = "New York";
-        when(weatherService.getCurrentWeather(any())).thenReturn(mockWeatherResponse);
+        when(weatherService.getCurrentWeatherSummaryCachedAsync(any())).thenReturn(CompletableFuture.completedFuture(cached(WeatherController.convertToSummary(mockWeatherResponse))));
         
         // When & Then
-        mockMvc.perform(get("/api/weather/current/{city}", cityWithSpaces))
+        performAsync(get("/api/weather/current/{city}", cityWithSpaces))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.city", is("Istanbul"))); // Our mock returns Istanbul
         
-        verify(weatherService, times(1)).getCurrentWeather(cityWithSpaces);
+        verify(weatherService, times(1)).getCurrentWeatherSummaryCachedAsync(cityWithSpaces);
     }
     
     @Test
@@ -205,6 +328,21 @@ class WeatherControllerTest {
             .andExpect(status().isOk());
     }
     
+    private static <T> CachedValue<T> cached(T value) {
+        return new CachedValue<>(value, ETAG, System.currentTimeMillis() + 60_000);
+    }
+    
+    private CachedValue<EncodedBody> cachedJson(Object value) throws JsonProcessingException {
+        return cached(new EncodedBody(objectMapper.writeValueAsBytes(value)));
+    }
+    
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+    
     private WeatherResponse createMockWeatherResponse() {
         // Create mock current condition
         CurrentCondition currentCondition = new CurrentCondition();
@@ -0,0 +1,132 @@
+package com.build.controller;
+
+import com.build.config.WeatherStreamProperties;
+import com.build.metrics.WeatherMetrics;
+import com.build.model.*;
+import com.build.service.WeatherBatchService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(WeatherStreamController.class)
+@Import({WeatherStreamProperties.class, WeatherMetrics.class, SimpleMeterRegistry.class})
+@DisplayName("WeatherStreamController Integration Tests")
+class WeatherStreamControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @MockBean
+    private WeatherBatchService weatherBatchService;
+    
+    @MockBean
+    private TaskScheduler taskScheduler;
+    
+    @Test
+    @DisplayName("GET /api/weather/current/batch/stream - Should write one NDJSON line per city as it completes")
+    void streamCurrentWeatherBatch_WritesLinesInCompletionOrder() throws Exception {
+        // Given
+        CompletableFuture<WeatherResponse> slow = new CompletableFuture<>();
+        when(weatherBatchService.getCurrentWeather(anyList())).thenReturn(List.of(
+            slow,
+            CompletableFuture.failedFuture(new RuntimeException("Weather service temporarily unavailable"))));
+        
+        // When
+        MvcResult result = mockMvc.perform(get("/api/weather/current/batch/stream").param("cities", "Istanbul,Nowhere"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        
+        String firstLines = result.getResponse().getContentAsString();
+        slow.complete(createMockWeatherResponse("Istanbul"));
+        
+        // Then
+        assertTrue(firstLines.startsWith("{\"requestedCity\":\"Nowhere\",\"status\":500"), firstLines);
+        
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertThat(lines[1], containsString("\"requestedCity\":\"Istanbul\",\"status\":200"));
+        assertThat(lines[1], containsString("\"city\":\"Istanbul\""));
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/batch/stream - Should reject an invalid batch")
+    void streamCurrentWeatherBatch_InvalidBatch_Returns400() throws Exception {
+        // Given
+        when(weatherBatchService.getCurrentWeather(anyList()))
+            .thenThrow(new IllegalArgumentException("At most 50 cities are allowed per batch"));
+        
+        // When & Then
+        mockMvc.perform(get("/api/weather/current/batch/stream").param("cities", "Istanbul"))
+            .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/watch - Should send an event per city and schedule refresh rounds")
+    void watchCurrentWeather_SendsEventsAndSchedulesRounds() throws Exception {
+        // Given
+        when(weatherBatchService.getCurrentWeather(anyList())).thenReturn(List.of(
+            CompletableFuture.completedFuture(createMockWeatherResponse("Istanbul")),
+            CompletableFuture.completedFuture(createMockWeatherResponse("Ankara"))));
+        
+        // When
+        MvcResult result = mockMvc.perform(get("/api/weather/current/watch")
+                .param("cities", "Istanbul,Ankara")
+                .param("intervalSeconds", "30"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        
+        // Then
+        String events = result.getResponse().getContentAsString();
+        assertThat(events, containsString("event:weather\nid:Istanbul\ndata:"));
+        assertThat(events, containsString("event:weather\nid:Ankara\ndata:"));
+        verify(taskScheduler, times(1)).scheduleAtFixedRate(any(Runnable.class), any(Instant.class), eq(Duration.ofSeconds(30)));
+    }
+    
+    @Test
+    @DisplayName("GET /api/weather/current/watch - Should reject too short refresh intervals")
+    void watchCurrentWeather_IntervalTooShort_Returns400() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/weather/current/watch")
+                .param("cities", "Istanbul")
+                .param("intervalSeconds", "1"))
+            .andExpect(status().isBadRequest());
+        
+        verifyNoInteractions(weatherBatchService, taskScheduler);
+    }
+    
+    private WeatherResponse createMockWeatherResponse(String city) {
+        CurrentCondition currentCondition = new CurrentCondition();
+        currentCondition.setTempC("22");
+        currentCondition.setWeatherDesc(Arrays.asList(new WeatherDescription("Partly cloudy")));
+        
+        NearestArea nearestArea = new NearestArea();
+        nearestArea.setAreaName(Arrays.asList(new AreaName(city)));
+        nearestArea.setCountry(Arrays.asList(new Country("Turkey")));
+        
+        WeatherResponse weatherResponse = new WeatherResponse();
+        weatherResponse.setCurrentCondition(Arrays.asList(currentCondition));
+        weatherResponse.setNearestArea(Arrays.asList(nearestArea));
+        return weatherResponse;
+    }
+}
@@ -0,0 +1,135 @@
+package com.build.model.compact;
+
+import com.build.model.WeatherResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompactWeather Tests")
+class CompactWeatherTest {
+    
+    private static final String J1_PAYLOAD = """
+        {
+          "current_condition": [{
+            "FeelsLikeC": "24", "FeelsLikeF": "75", "cloudcover": "25", "humidity": "65",
+            "precipMM": "0.0", "pressure": "1013", "temp_C": "22", "temp_F": "72",
+            "visibility": "10", "weatherCode": "116", "weatherDesc": [{"value": "Partly cloudy"}],
+            "winddir16Point": "NW", "winddirDegree": "315", "windspeedKmph": "15", "windspeedMiles": "9"
+          }],
+          "nearest_area": [{
+            "areaName": [{"value": "Istanbul"}], "country": [{"value": "Turkey"}],
+            "latitude": "41.019", "longitude": "28.965", "population": "0"
+          }],
+          "weather": [{
+            "date": "2025-09-28", "maxtempC": "25", "maxtempF": "77", "mintempC": "18", "mintempF": "64",
+            "avgtempC": "22", "avgtemp F": "71", "totalSnow_cm": "0.0", "sunHour": "11.6", "uvIndex": "5",
+            "hourly": [{
+              "time": "0", "tempC": "19", "tempF": "66", "windspeedMiles": "8", "windspeedKmph": "13",
+              "winddirDegree": "20", "winddir16Point": "NNE", "weatherCode": "116",
+              "weatherDesc": [{"value": "Partly cloudy"}], "precipMM": "0.1", "humidity": "70",
+              "visibility": "10", "pressure": "1014", "cloudcover": "30", "HeatIndexC": "19",
+              "HeatIndexF": "66", "DewPointC": "13", "DewPointF": "56", "WindChillC": "-2",
+              "WindChillF": "28", "WindGustMiles": "12", "WindGustKmph": "19", "FeelsLikeC": "19",
+              "FeelsLikeF": "66", "uvIndex": "0"
+            }, {
+              "time": "300", "tempC": "18", "tempF": "64", "weatherCode": "116",
+              "weatherDesc": [{"value": "Partly cloudy"}], "precipMM": "0.10", "humidity": "",
+              "winddir16Point": "North", "pressure": "n/a"
+            }]
+          }]
+        }
+        """;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Test
+    @DisplayName("Should rebuild an equal response")
+    void toResponse_RoundTrip_EqualsOriginal() throws Exception {
+        // Given
+        WeatherResponse original = objectMapper.readValue(J1_PAYLOAD, WeatherResponse.class);
+        
+        // When
+        WeatherResponse rebuilt = CompactWeather.from(original).toResponse();
+        
+        // Then
+        assertEquals(original, rebuilt);
+    }
+    
+    @Test
+    @DisplayName("Should serialize to the same JSON as the original response")
+    void serialize_WireCompatible() throws Exception {
+        // Given
+        WeatherResponse original = objectMapper.readValue(J1_PAYLOAD, WeatherResponse.class);
+        
+        // When
+        String compactJson = objectMapper.writeValueAsString(CompactWeather.from(original));
+        
+        // Then
+        assertEquals(objectMapper.writeValueAsString(original), compactJson);
+    }
+    
+    @Test
+    @DisplayName("Should rebuild an equal response from the binary snapshot form")
+    void binary_RoundTrip_EqualsOriginal() throws Exception {
+        // Given
+        WeatherResponse original = objectMapper.readValue(J1_PAYLOAD, WeatherResponse.class);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompactWeatherBinary.write(CompactWeather.from(original), new DataOutputStream(bytes));
+        
+        // When
+        CompactWeather read = CompactWeatherBinary.read(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        
+        // Then
+        assertEquals(original, read.toResponse());
+    }
+    
+    @Test
+    @DisplayName("Should expose numeric values without parsing")
+    void numericAccessors_ReturnDecodedValues() throws Exception {
+        // Given
+        CompactWeather weather = CompactWeather.from(objectMapper.readValue(J1_PAYLOAD, WeatherResponse.class));
+        CompactDay day = weather.getDay(0);
+        
+        // When & Then
+        assertEquals(22, weather.getCurrentCondition().getInt(ConditionField.TEMP_C));
+        assertEquals(116, weather.getCurrentCondition().getInt(ConditionField.WEATHER_CODE));
+        assertEquals(11.6f, day.getDay().getFloat(DayField.SUN_HOUR), 0.001f);
+        assertEquals(-2, day.getHour(0).getInt(HourlyField.WIND_CHILL_C));
+        assertEquals(2, day.getHourCount());
+        assertFalse(day.getHour(1).isNumeric(HourlyField.HUMIDITY));
+        assertFalse(day.getHour(1).isNumeric(HourlyField.VISIBILITY));
+        assertThrows(IllegalStateException.class, () -> day.getHour(1).getInt(HourlyField.PRESSURE));
+        assertThrows(IllegalStateException.class, () -> day.getDay().getInt(DayField.SUN_HOUR));
+    }
+    
+    @Test
+    @DisplayName("Should keep descriptions that differ from the interned one")
+    void from_DescriptionMismatch_KeepsOwnText() throws Exception {
+        // Given
+        String payload = J1_PAYLOAD.replaceFirst("\"Partly cloudy\"", "\"Partly cloudy \"");
+        WeatherResponse first = objectMapper.readValue(J1_PAYLOAD, WeatherResponse.class);
+        WeatherResponse second = objectMapper.readValue(payload, WeatherResponse.class);
+        
+        // When
+        WeatherResponse rebuiltFirst = CompactWeather.from(first).toResponse();
+        WeatherResponse rebuiltSecond = CompactWeather.from(second).toResponse();
+        
+        // Then
+        assertEquals(first, rebuiltFirst);
+        assertEquals(second, rebuiltSecond);
+    }
+    
+    @Test
+    @DisplayName("Should return null for null response")
+    void from_Null_ReturnsNull() {
+        assertNull(CompactWeather.from(null));
+    }
+}
@@ -0,0 +1,88 @@
+package com.build.resilience;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+    
+    @Test
+    @DisplayName("Should reject calls beyond the limit without running them")
+    void execute_LimitReached_Rejects() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 4);
+        
+        // When
+        UpstreamUnavailableException rejected = limiter.execute(() -> assertThrows(UpstreamUnavailableException.class,
+            () -> limiter.execute(() -> "not called")));
+        
+        // Then
+        assertEquals(UpstreamUnavailableException.Reason.CONCURRENCY_LIMIT, rejected.getReason());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    @Test
+    @DisplayName("Should lower the limit on overload and not below the minimum")
+    void execute_Overload_BacksOff() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 20);
+        
+        // When
+        assertThrows(HttpServerErrorException.class, () -> limiter.execute(() -> {
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        }));
+        int afterOneFailure = limiter.getLimit();
+        for (int i = 0; i < 50; i++) {
+            assertThrows(HttpClientErrorException.class, () -> limiter.execute(() -> {
+                throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+            }));
+        }
+        
+        // Then
+        assertEquals(5, afterOneFailure);
+        assertEquals(2, limiter.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Should keep the limit on errors that do not signal overload")
+    void execute_NotFound_KeepsLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 20);
+        
+        // When
+        assertThrows(HttpClientErrorException.class, () -> limiter.execute(() -> {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+        
+        // Then
+        assertEquals(10, limiter.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Should raise the limit on fast calls while it is used")
+    void execute_FastCallsAtLimit_GrowsUpToMaximum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 3);
+        
+        // When
+        for (int i = 0; i < 100; i++) {
+            limiter.execute(() -> "ok");
+        }
+        
+        // Then
+        assertEquals(3, limiter.getLimit());
+    }
+    
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter("test", initialLimit, minLimit, maxLimit,
+            Duration.ofMinutes(1), 0.5, UpstreamGuard::isOverload);
+    }
+}
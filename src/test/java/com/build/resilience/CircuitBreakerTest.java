@@ -0,0 +1,195 @@
+package com.build.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+    
+    private static final Duration WAIT_IN_OPEN_STATE = Duration.ofSeconds(30);
+    
+    private MutableClock clock;
+    
+    private CircuitBreaker circuitBreaker;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        circuitBreaker = new CircuitBreaker("test", 4, 4, 0.5, Duration.ofMinutes(1),
+            WAIT_IN_OPEN_STATE, 2, UpstreamGuard::isUpstreamFailure, clock);
+    }
+    
+    @Test
+    @DisplayName("Should open once the failure rate reaches the threshold")
+    void execute_FailureRateReached_Opens() {
+        // Given
+        circuitBreaker.execute(() -> "ok");
+        circuitBreaker.execute(() -> "ok");
+        fail(circuitBreaker);
+        
+        // When
+        fail(circuitBreaker);
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        UpstreamUnavailableException e = assertThrows(UpstreamUnavailableException.class,
+            () -> circuitBreaker.execute(() -> "not called"));
+        assertEquals(UpstreamUnavailableException.Reason.CIRCUIT_OPEN, e.getReason());
+        assertEquals(1, circuitBreaker.getRejectedCount());
+    }
+    
+    @Test
+    @DisplayName("Should not count client errors as failures")
+    void execute_ClientErrors_StayClosed() {
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpClientErrorException.class, () -> circuitBreaker.execute(() -> {
+                throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+            }));
+        }
+        
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, circuitBreaker.getFailureRate());
+    }
+    
+    @Test
+    @DisplayName("Should close after the half-open trial calls succeed")
+    void execute_HalfOpenTrialsSucceed_Closes() {
+        // Given
+        openCircuit();
+        clock.advance(WAIT_IN_OPEN_STATE);
+        
+        // When
+        circuitBreaker.execute(() -> "ok");
+        CircuitBreaker.State afterFirstTrial = circuitBreaker.getState();
+        circuitBreaker.execute(() -> "ok");
+        
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, afterFirstTrial);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    @DisplayName("Should open again when a half-open trial call fails")
+    void execute_HalfOpenTrialFails_Reopens() {
+        // Given
+        openCircuit();
+        clock.advance(WAIT_IN_OPEN_STATE);
+        
+        // When
+        fail(circuitBreaker);
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getOpenedCount());
+        assertThrows(UpstreamUnavailableException.class, () -> circuitBreaker.execute(() -> "not called"));
+    }
+    
+    @Test
+    @DisplayName("Should open again and free the trial slot when a half-open trial call throws an Error")
+    void execute_HalfOpenTrialThrowsError_Reopens() {
+        // Given
+        openCircuit();
+        clock.advance(WAIT_IN_OPEN_STATE);
+        
+        // When
+        assertThrows(StackOverflowError.class, () -> circuitBreaker.execute(() -> {
+            throw new StackOverflowError();
+        }));
+        CircuitBreaker.State afterError = circuitBreaker.getState();
+        clock.advance(WAIT_IN_OPEN_STATE);
+        circuitBreaker.execute(() -> "ok");
+        circuitBreaker.execute(() -> "ok");
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, afterError);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    @DisplayName("Should not count a late trial call of an earlier half-open round towards the current one")
+    void execute_LateResultOfEarlierRound_IsIgnored() {
+        // Given
+        openCircuit();
+        clock.advance(WAIT_IN_OPEN_STATE);
+        
+        // When
+        circuitBreaker.execute(() -> {
+            // A second trial of the same round fails and reopens the circuit while this one runs
+            fail(circuitBreaker);
+            clock.advance(WAIT_IN_OPEN_STATE);
+            circuitBreaker.execute(() -> "ok");
+            return "late";
+        });
+        
+        // Then
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.execute(() -> "ok");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+    
+    @Test
+    @DisplayName("Should count slow successful calls as failures")
+    void execute_SlowCalls_Open() {
+        // Given
+        CircuitBreaker slowCallBreaker = new CircuitBreaker("slow", 2, 2, 1.0, Duration.ZERO,
+            WAIT_IN_OPEN_STATE, 1, UpstreamGuard::isUpstreamFailure, clock);
+        
+        // When
+        slowCallBreaker.execute(() -> "ok");
+        slowCallBreaker.execute(() -> "ok");
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, slowCallBreaker.getState());
+    }
+    
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            fail(circuitBreaker);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    private static void fail(CircuitBreaker circuitBreaker) {
+        assertThrows(HttpServerErrorException.class, () -> circuitBreaker.execute(() -> {
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        }));
+    }
+    
+    private static final class MutableClock extends Clock {
+        
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.build.resilience;
+
+import com.build.resilience.UpstreamRateLimiter.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UpstreamGuard Tests")
+class UpstreamGuardTest {
+    
+    @Test
+    @DisplayName("Should pause the rate limiter and report the call as throttled on 429")
+    void call_TooManyRequests_PausesAndThrowsThrottled() {
+        // Given
+        UpstreamRateLimiter rateLimiter = new UpstreamRateLimiter("test", 100, 10, 0, 1, 100, 10,
+            Duration.ofSeconds(5), Duration.ofMinutes(5), System::nanoTime);
+        UpstreamGuard guard = new UpstreamGuard(rateLimiter, Duration.ofMillis(200), Duration.ofMillis(200), null, null);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "60");
+        
+        // When
+        UpstreamUnavailableException e = assertThrows(UpstreamUnavailableException.class,
+            () -> guard.call("Istanbul", Priority.FOREGROUND, () -> {
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+            }));
+        
+        // Then
+        assertEquals(UpstreamUnavailableException.Reason.THROTTLED, e.getReason());
+        assertEquals(1, rateLimiter.getPauseCount());
+        UpstreamUnavailableException next = assertThrows(UpstreamUnavailableException.class,
+            () -> guard.call("Ankara", Priority.FOREGROUND, () -> "not called"));
+        assertEquals(UpstreamUnavailableException.Reason.RATE_LIMITED, next.getReason());
+    }
+    
+    @Test
+    @DisplayName("Should pass other client errors through unchanged")
+    void call_NotFound_Rethrows() {
+        // Given
+        UpstreamGuard guard = UpstreamGuard.disabled();
+        
+        // When / Then
+        assertThrows(HttpClientErrorException.class, () -> guard.call("Nowhere", Priority.FOREGROUND, () -> {
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+        }));
+    }
+    
+    @Test
+    @DisplayName("Should read Retry-After given in seconds or as an HTTP date")
+    void retryAfter_SecondsAndHttpDate() {
+        // Given
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T00:00:00Z"), ZoneOffset.UTC);
+        HttpHeaders seconds = new HttpHeaders();
+        seconds.set(HttpHeaders.RETRY_AFTER, "120");
+        HttpHeaders date = new HttpHeaders();
+        date.set(HttpHeaders.RETRY_AFTER, "Mon, 01 Jan 2024 00:00:30 GMT");
+        HttpHeaders malformed = new HttpHeaders();
+        malformed.set(HttpHeaders.RETRY_AFTER, "soon");
+        
+        // When / Then
+        assertEquals(Duration.ofSeconds(120), UpstreamGuard.retryAfter(seconds, clock));
+        assertEquals(Duration.ofSeconds(30), UpstreamGuard.retryAfter(date, clock));
+        assertNull(UpstreamGuard.retryAfter(malformed, clock));
+        assertNull(UpstreamGuard.retryAfter(new HttpHeaders(), clock));
+    }
+}
@@ -0,0 +1,170 @@
+package com.build.resilience;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UpstreamHedger Tests")
+class UpstreamHedgerTest {
+    
+    private ExecutorService executor;
+    
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    @DisplayName("Should not hedge a call that answers within the delay")
+    void execute_FastCall_NoHedge() {
+        // Given
+        UpstreamHedger hedger = hedger(Duration.ofSeconds(1), 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+        
+        // When
+        String result = hedger.execute(() -> {
+            attempts.incrementAndGet();
+            return "sunny";
+        });
+        
+        // Then
+        assertEquals("sunny", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, hedger.getHedgedCount());
+    }
+    
+    @Test
+    @DisplayName("Should return the hedged call's result when the first call is slow")
+    void execute_SlowFirstCall_HedgeWins() {
+        // Given
+        UpstreamHedger hedger = hedger(Duration.ofMillis(50), 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch firstInterrupted = new CountDownLatch(1);
+        
+        // When
+        String result = hedger.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    firstInterrupted.countDown();
+                }
+                return "late";
+            }
+            return "hedged";
+        });
+        
+        // Then
+        assertEquals("hedged", result);
+        assertEquals(1, hedger.getHedgedCount());
+        assertEquals(1, hedger.getHedgeWinCount());
+        assertDoesNotThrow(() -> assertTrue(firstInterrupted.await(5, TimeUnit.SECONDS)));
+    }
+    
+    @Test
+    @DisplayName("Should wait for the first call when the hedge budget is spent")
+    void execute_BudgetSpent_NoHedge() {
+        // Given
+        UpstreamHedger hedger = hedger(Duration.ofMillis(10), 0.0);
+        AtomicInteger attempts = new AtomicInteger();
+        
+        // When
+        String result = hedger.execute(() -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return "slow";
+        });
+        
+        // Then
+        assertEquals("slow", result);
+        assertEquals(1, attempts.get());
+        assertEquals(1, hedger.getBudgetExhaustedCount());
+    }
+    
+    @Test
+    @DisplayName("Should rethrow the failure when the only call fails")
+    void execute_CallFails_Rethrows() {
+        // Given
+        UpstreamHedger hedger = hedger(Duration.ofSeconds(1), 1.0);
+        
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> hedger.execute(() -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("boom", e.getMessage());
+    }
+    
+    @Test
+    @DisplayName("Should rethrow the first call's failure when the hedge is rejected")
+    void execute_HedgeRejectedAndCallFails_Rethrows() {
+        // Given
+        AtomicInteger submitted = new AtomicInteger();
+        Executor saturated = task -> {
+            if (submitted.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("saturated");
+            }
+            executor.execute(task);
+        };
+        UpstreamHedger hedger = new UpstreamHedger("test", saturated, 95, Duration.ofMillis(10), Duration.ofMillis(10),
+            100, 100, 1.0, 10);
+        
+        // When / Then
+        IllegalStateException e = assertTimeoutPreemptively(Duration.ofSeconds(5),
+            () -> assertThrows(IllegalStateException.class, () -> hedger.execute(() -> {
+                sleep(100);
+                throw new IllegalStateException("boom");
+            })));
+        assertEquals("boom", e.getMessage());
+        assertEquals(2, submitted.get());
+    }
+    
+    @Test
+    @DisplayName("Should derive the delay from the latency percentile once enough samples exist")
+    void execute_EnoughSamples_DelayFollowsPercentile() {
+        // Given
+        UpstreamHedger hedger = new UpstreamHedger("test", executor, 50, Duration.ofMillis(1), Duration.ofSeconds(5),
+            16, 16, 0, 1);
+        
+        // When
+        for (int i = 0; i < 16; i++) {
+            hedger.execute(() -> {
+                sleep(20);
+                return "ok";
+            });
+        }
+        
+        // Then
+        Duration delay = hedger.getDelay();
+        assertTrue(delay.toMillis() >= 20 && delay.toMillis() < 1000, "delay " + delay);
+    }
+    
+    private UpstreamHedger hedger(Duration delay, double budgetRatio) {
+        // With minSamples equal to the window, the delay stays at maxDelay for these few calls
+        return new UpstreamHedger("test", executor, 95, delay, delay, 100, 100, budgetRatio, 10);
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
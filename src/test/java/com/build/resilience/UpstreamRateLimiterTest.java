@@ -0,0 +1,121 @@
+package com.build.resilience;
+
+import com.build.resilience.UpstreamRateLimiter.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UpstreamRateLimiter Tests")
+class UpstreamRateLimiterTest {
+    
+    private static final Duration MAX_WAIT = Duration.ofSeconds(5);
+    
+    @Test
+    @DisplayName("Should serve the burst at once and queue the next call until a token refills")
+    void acquire_BurstUsed_WaitsForRefill() {
+        // Given
+        UpstreamRateLimiter rateLimiter = rateLimiter(20, 2, 0);
+        rateLimiter.acquire("Istanbul", Priority.FOREGROUND, MAX_WAIT);
+        rateLimiter.acquire("Istanbul", Priority.FOREGROUND, MAX_WAIT);
+        double burstWait = rateLimiter.getTotalWaitMillis(Priority.FOREGROUND);
+        
+        // When
+        rateLimiter.acquire("Istanbul", Priority.FOREGROUND, MAX_WAIT);
+        
+        // Then
+        assertTrue(burstWait < 20, "burst waited " + burstWait + "ms");
+        assertTrue(rateLimiter.getTotalWaitMillis(Priority.FOREGROUND) >= 30);
+        assertEquals(3, rateLimiter.getAcquiredCount(Priority.FOREGROUND));
+    }
+    
+    @Test
+    @DisplayName("Should reject at once when the expected wait exceeds the deadline")
+    void acquire_ExpectedWaitBeyondDeadline_Rejects() {
+        // Given
+        UpstreamRateLimiter rateLimiter = rateLimiter(1, 1, 0);
+        rateLimiter.acquire("Istanbul", Priority.FOREGROUND, MAX_WAIT);
+        
+        // When
+        UpstreamUnavailableException e = assertThrows(UpstreamUnavailableException.class,
+            () -> rateLimiter.acquire("Istanbul", Priority.FOREGROUND, Duration.ofMillis(100)));
+        
+        // Then
+        assertEquals(UpstreamUnavailableException.Reason.RATE_LIMITED, e.getReason());
+        assertEquals(1, rateLimiter.getRejectedCount());
+        assertEquals(0, rateLimiter.getQueueDepth(Priority.FOREGROUND));
+    }
+    
+    @Test
+    @DisplayName("Should hold back permits while paused by Retry-After")
+    void acquire_Paused_Rejects() {
+        // Given
+        UpstreamRateLimiter rateLimiter = rateLimiter(100, 10, 0);
+        
+        // When
+        rateLimiter.pause(Duration.ofSeconds(30));
+        
+        // Then
+        assertThrows(UpstreamUnavailableException.class,
+            () -> rateLimiter.acquire("Istanbul", Priority.FOREGROUND, Duration.ofSeconds(1)));
+        assertEquals(1, rateLimiter.getPauseCount());
+    }
+    
+    @Test
+    @DisplayName("Should limit each city separately when per-city buckets are enabled")
+    void acquire_PerCityLimit_OnlyDelaysSameCity() {
+        // Given
+        UpstreamRateLimiter rateLimiter = rateLimiter(100, 10, 1);
+        rateLimiter.acquire("Istanbul", Priority.FOREGROUND, MAX_WAIT);
+        
+        // When
+        rateLimiter.acquire("Ankara", Priority.FOREGROUND, Duration.ofMillis(100));
+        
+        // Then
+        assertThrows(UpstreamUnavailableException.class,
+            () -> rateLimiter.acquire("istanbul", Priority.FOREGROUND, Duration.ofMillis(100)));
+    }
+    
+    @Test
+    @DisplayName("Should hand the next permit to a foreground call before an earlier background refresh")
+    void acquire_ForegroundAndBackgroundQueued_ForegroundFirst() throws Exception {
+        // Given
+        UpstreamRateLimiter rateLimiter = rateLimiter(2, 1, 0);
+        rateLimiter.acquire("Istanbul", Priority.FOREGROUND, MAX_WAIT);
+        List<Priority> completed = new CopyOnWriteArrayList<>();
+        
+        // When
+        CompletableFuture<Void> background = CompletableFuture.runAsync(() -> {
+            rateLimiter.acquire("Ankara", Priority.BACKGROUND, MAX_WAIT);
+            completed.add(Priority.BACKGROUND);
+        });
+        awaitQueued(rateLimiter, Priority.BACKGROUND);
+        CompletableFuture<Void> foreground = CompletableFuture.runAsync(() -> {
+            rateLimiter.acquire("London", Priority.FOREGROUND, MAX_WAIT);
+            completed.add(Priority.FOREGROUND);
+        });
+        CompletableFuture.allOf(background, foreground).get(10, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(List.of(Priority.FOREGROUND, Priority.BACKGROUND), completed);
+    }
+    
+    private static void awaitQueued(UpstreamRateLimiter rateLimiter, Priority priority) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rateLimiter.getQueueDepth(priority) == 0) {
+            assertTrue(System.nanoTime() < deadline, "nothing queued");
+            Thread.sleep(1);
+        }
+    }
+    
+    private static UpstreamRateLimiter rateLimiter(double permitsPerSecond, int burst, double cityPermitsPerSecond) {
+        return new UpstreamRateLimiter("test", permitsPerSecond, burst, cityPermitsPerSecond, 1, 100, 10,
+            Duration.ofSeconds(5), Duration.ofMinutes(5), System::nanoTime);
+    }
+}
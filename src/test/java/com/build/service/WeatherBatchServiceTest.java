@@ -0,0 +1,83 @@
+package com.build.service;
+
+import com.build.config.WeatherBatchProperties;
+import com.build.model.WeatherResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WeatherBatchService Tests")
+class WeatherBatchServiceTest {
+    
+    @Mock
+    private WeatherService weatherService;
+    
+    private WeatherBatchProperties properties;
+    
+    private WeatherBatchService weatherBatchService;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new WeatherBatchProperties();
+        properties.setMaxCities(5);
+        properties.setMaxConcurrency(2);
+        weatherBatchService = new WeatherBatchService(weatherService, properties);
+    }
+    
+    @Test
+    @DisplayName("Should never run more lookups at once than the concurrency limit")
+    void getCurrentWeather_RespectsConcurrencyLimit() {
+        // Given
+        Map<String, CompletableFuture<WeatherResponse>> pending = new ConcurrentHashMap<>();
+        when(weatherService.getCurrentWeatherAsync(anyString())).thenAnswer(invocation -> {
+            CompletableFuture<WeatherResponse> lookup = new CompletableFuture<>();
+            pending.put(invocation.getArgument(0), lookup);
+            return lookup;
+        });
+        
+        // When
+        List<CompletableFuture<WeatherResponse>> results =
+            weatherBatchService.getCurrentWeather(List.of("Istanbul", "Ankara", "Izmir", "London"));
+        
+        // Then
+        assertEquals(2, pending.size());
+        
+        pending.get("Ankara").completeExceptionally(new RuntimeException("upstream down"));
+        assertEquals(3, pending.size());
+        assertTrue(pending.containsKey("Izmir"));
+        
+        WeatherResponse istanbul = new WeatherResponse();
+        pending.get("Istanbul").complete(istanbul);
+        pending.get("Izmir").complete(new WeatherResponse());
+        pending.get("London").complete(new WeatherResponse());
+        
+        assertSame(istanbul, results.get(0).join());
+        assertTrue(results.get(1).isCompletedExceptionally());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone));
+        verify(weatherService, times(4)).getCurrentWeatherAsync(anyString());
+    }
+    
+    @Test
+    @DisplayName("Should reject empty and oversized batches")
+    void getCurrentWeather_InvalidSize_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+            () -> weatherBatchService.getCurrentWeather(Collections.emptyList()));
+        assertThrows(IllegalArgumentException.class,
+            () -> weatherBatchService.getCurrentWeather(List.of("a", "b", "c", "d", "e", "f")));
+        verifyNoInteractions(weatherService);
+    }
+}
@@ -0,0 +1,113 @@
+package com.build.service;
+
+import com.build.cache.CacheKey;
+import com.build.cache.HeavyHitters;
+import com.build.config.WeatherPrewarmProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WeatherPrewarmer Tests")
+class WeatherPrewarmerTest {
+    
+    private static final Instant NOW = Instant.parse("2025-09-28T12:00:00Z");
+    
+    @Mock
+    private WeatherService weatherService;
+    
+    @Mock
+    private TaskScheduler scheduler;
+    
+    private HeavyHitters<CacheKey> hotKeys;
+    private WeatherPrewarmProperties properties;
+    private WeatherPrewarmer prewarmer;
+    
+    @BeforeEach
+    void setUp() {
+        hotKeys = new HeavyHitters<>(16);
+        properties = new WeatherPrewarmProperties();
+        properties.setCities(List.of("Istanbul"));
+        properties.setMinRequests(3);
+        prewarmer = new WeatherPrewarmer(weatherService, hotKeys, properties, scheduler, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+    
+    @Test
+    @DisplayName("Should combine configured cities with frequently requested keys")
+    void hotKeys_ConfiguredAndLearned() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            hotKeys.offer(CacheKey.forecast("Ankara", 3));
+        }
+        hotKeys.offer(CacheKey.current("Izmir"));
+        
+        // When
+        Set<CacheKey> keys = prewarmer.hotKeys();
+        
+        // Then
+        assertEquals(Set.of(CacheKey.current("Istanbul"), CacheKey.summary("Istanbul"), CacheKey.forecast("Ankara", 3)),
+                     keys);
+    }
+    
+    @Test
+    @DisplayName("Should schedule jittered refreshes only for entries that are missing or about to expire")
+    void plan_DueEntries_ScheduledWithinJitter() {
+        // Given
+        when(weatherService.getCachedUntil(CacheKey.current("Istanbul")))
+            .thenReturn(NOW.plus(Duration.ofMinutes(4)).toEpochMilli());
+        when(weatherService.getCachedUntil(CacheKey.summary("Istanbul")))
+            .thenReturn(NOW.plus(Duration.ofSeconds(20)).toEpochMilli());
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Instant> startAt = ArgumentCaptor.forClass(Instant.class);
+        
+        // When
+        prewarmer.plan();
+        prewarmer.plan();
+        
+        // Then
+        verify(scheduler, times(1)).schedule(refresh.capture(), startAt.capture());
+        assertFalse(startAt.getValue().isBefore(NOW));
+        assertTrue(startAt.getValue().isBefore(NOW.plus(Duration.ofSeconds(10))));
+        assertEquals(1, prewarmer.getPlannedCount());
+        
+        when(weatherService.refreshInBackground(CacheKey.summary("Istanbul"))).thenReturn(true);
+        refresh.getValue().run();
+        assertEquals(1, prewarmer.getScheduledCount());
+        assertEquals(0, prewarmer.getPlannedCount());
+        verify(weatherService, never()).refreshInBackground(CacheKey.current("Istanbul"));
+    }
+    
+    @Test
+    @DisplayName("Should not refresh after being closed")
+    void refresh_AfterClose_DoesNothing() {
+        // Given
+        when(weatherService.getCachedUntil(any())).thenReturn(0L);
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        prewarmer.plan();
+        verify(scheduler, times(2)).schedule(refresh.capture(), any(Instant.class));
+        
+        // When
+        prewarmer.close();
+        refresh.getAllValues().forEach(Runnable::run);
+        
+        // Then
+        verify(weatherService, never()).refreshInBackground(any());
+        assertEquals(0, prewarmer.getPlannedCount());
+    }
+}
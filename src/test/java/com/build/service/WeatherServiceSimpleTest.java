@@ -1,15 +1,39 @@
 package com.build.service;
 
+import com.build.cache.CacheKey;
+import com.build.cache.CacheRefresher;
+import com.build.cache.HeavyHitters;
+import com.build.cache.RequestCoalescer;
+import com.build.cache.WeatherCache;
+import com.build.compression.EncodedBody;
+import com.build.config.WeatherCacheProperties;
+import com.build.dto.WeatherSummaryDto;
+import com.build.metrics.WeatherMetrics;
 import com.build.model.*;
+import com.build.resilience.CircuitBreaker;
+import com.build.resilience.UpstreamGuard;
+import com.build.resilience.UpstreamHedger;
+import com.build.resilience.UpstreamUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,16 +47,45 @@ class WeatherServiceSimpleTest {
     @Mock
     private RestTemplate restTemplate;
     
-    @InjectMocks
     private WeatherService weatherService;
     
+    private SimpleMeterRegistry meterRegistry;
+    
     private WeatherResponse mockWeatherResponse;
     
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        weatherService = createService(new WeatherCacheProperties());
         mockWeatherResponse = createMockWeatherResponse();
     }
     
+    private WeatherService createService(WeatherCacheProperties cacheProperties) {
+        return createService(cacheProperties, UpstreamGuard.disabled());
+    }
+    
+    private WeatherService createService(WeatherCacheProperties cacheProperties, UpstreamGuard upstreamGuard) {
+        return createService(cacheProperties, upstreamGuard, Runnable::run);
+    }
+    
+    private WeatherService createService(WeatherCacheProperties cacheProperties, UpstreamGuard upstreamGuard,
+                                         Executor executor) {
+        return new WeatherService(
+            restTemplate,
+            new WeatherCache<>("test", cacheProperties),
+            new RequestCoalescer<>("test"),
+            new WeatherCache<>("test.summaries", cacheProperties),
+            new RequestCoalescer<>("test.summaries"),
+            new CacheRefresher("test", Runnable::run),
+            cacheProperties,
+            executor,
+            new WeatherMetrics(meterRegistry),
+            upstreamGuard,
+            UpstreamHedger.disabled(),
+            new HeavyHitters<>(64),
+            new ObjectMapper());
+    }
+    
     @Test
     @DisplayName("Should get current weather successfully")
     void getCurrentWeather_Success() {
@@ -51,7 +104,7 @@ class WeatherServiceSimpleTest {
         assertEquals("22", result.getCurrentCondition().get(0).getTempC());
         
         verify(restTemplate, times(1)).getForObject(
-            eq("https://wttr.in/{city}?format=j1"), 
+            eq("/{city}?format=j1"), 
             eq(WeatherResponse.class), 
             eq(city)
         );
@@ -74,12 +127,32 @@ class WeatherServiceSimpleTest {
         assertEquals("Istanbul", result.getNearestArea().get(0).getAreaName().get(0).getValue());
         
         verify(restTemplate, times(1)).getForObject(
-            eq("https://wttr.in/{city}?format=j1&days=3"), 
+            eq("/{city}?format=j1&days=3"), 
             eq(WeatherResponse.class), 
             eq(city)
         );
     }
     
+    @Test
+    @DisplayName("Should serve the same JSON as the response and encode it once per cache entry")
+    void getCurrentWeatherJson_CacheHit_ReusesEncodedBody() throws Exception {
+        // Given
+        String city = "Istanbul";
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), eq(city)))
+            .thenReturn(mockWeatherResponse);
+        ObjectMapper objectMapper = new ObjectMapper();
+        
+        // When
+        EncodedBody first = weatherService.getCurrentWeatherJson(city).value();
+        EncodedBody second = weatherService.getCurrentWeatherJson(city).value();
+        
+        // Then
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(mockWeatherResponse)), objectMapper.readTree(first.identity()));
+        assertSame(first, second);
+        assertEquals(1, meterRegistry.get("weather.response.encoding").timer().count());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(WeatherResponse.class), eq(city));
+    }
+    
     @Test
     @DisplayName("Should validate null city parameter")
     void getCurrentWeather_NullCity_ThrowsException() {
@@ -173,6 +246,278 @@ class WeatherServiceSimpleTest {
         );
     }
     
+    @Test
+    @DisplayName("Should serve repeated lookups from cache")
+    void getCurrentWeather_RepeatedCall_UsesCache() {
+        // Given
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenReturn(mockWeatherResponse);
+        
+        // When
+        WeatherResponse first = weatherService.getCurrentWeather("Istanbul");
+        WeatherResponse second = weatherService.getCurrentWeather(" istanbul ");
+        
+        // Then
+        assertEquals(first, second);
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(WeatherResponse.class), anyString());
+    }
+    
+    @Test
+    @DisplayName("Should cache forecasts separately per number of days")
+    void getWeatherForecast_DifferentDays_FetchesEach() {
+        // Given
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), eq("Istanbul")))
+            .thenReturn(mockWeatherResponse);
+        
+        // When
+        weatherService.getWeatherForecast("Istanbul", 3);
+        weatherService.getWeatherForecast("Istanbul", 3);
+        weatherService.getWeatherForecast("Istanbul", 5);
+        
+        // Then
+        verify(restTemplate, times(1)).getForObject(
+            eq("/{city}?format=j1&days=3"), eq(WeatherResponse.class), eq("Istanbul"));
+        verify(restTemplate, times(1)).getForObject(
+            eq("/{city}?format=j1&days=5"), eq(WeatherResponse.class), eq("Istanbul"));
+    }
+    
+    @Test
+    @DisplayName("Should not cache failed lookups")
+    void getCurrentWeather_Failure_NotCached() {
+        // Given
+        String city = "Istanbul";
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), eq(city)))
+            .thenReturn(null)
+            .thenReturn(mockWeatherResponse);
+        
+        // When & Then
+        assertThrows(RuntimeException.class, () -> weatherService.getCurrentWeather(city));
+        assertNotNull(weatherService.getCurrentWeather(city));
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(WeatherResponse.class), eq(city));
+    }
+    
+    @Test
+    @DisplayName("Should serve stale entry and refresh it in the background")
+    void getCurrentWeather_StaleWhileRevalidate_ServesStaleAndRefreshes() {
+        // Given
+        WeatherCacheProperties cacheProperties = new WeatherCacheProperties();
+        cacheProperties.setTtl(Duration.ZERO);
+        cacheProperties.setStaleWhileRevalidate(Duration.ofMinutes(1));
+        weatherService = createService(cacheProperties);
+        WeatherResponse refreshed = createMockWeatherResponse();
+        refreshed.getCurrentCondition().get(0).setTempC("23");
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenReturn(mockWeatherResponse)
+            .thenReturn(refreshed);
+        
+        // When
+        WeatherResponse first = weatherService.getCurrentWeather("Istanbul");
+        WeatherResponse second = weatherService.getCurrentWeather("Istanbul");
+        WeatherResponse third = weatherService.getCurrentWeather("Istanbul");
+        
+        // Then
+        assertEquals(mockWeatherResponse, first);
+        assertEquals(mockWeatherResponse, second);
+        assertEquals(refreshed, third);
+        verify(restTemplate, atLeast(2)).getForObject(anyString(), eq(WeatherResponse.class), anyString());
+    }
+    
+    @Test
+    @DisplayName("Should reload a cached entry in the background on request")
+    void refreshInBackground_CachedKey_ReplacesEntry() {
+        // Given
+        WeatherResponse refreshed = createMockWeatherResponse();
+        refreshed.getCurrentCondition().get(0).setTempC("23");
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenReturn(mockWeatherResponse)
+            .thenReturn(refreshed);
+        weatherService.getCurrentWeather("Istanbul");
+        CacheKey key = CacheKey.current("Istanbul");
+        
+        // When
+        boolean scheduled = weatherService.refreshInBackground(key);
+        
+        // Then
+        assertTrue(scheduled);
+        assertTrue(weatherService.getCachedUntil(key) > 0);
+        assertEquals(0, weatherService.getCachedUntil(CacheKey.summary("Istanbul")));
+        assertEquals(refreshed, weatherService.getCurrentWeather("Istanbul"));
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(WeatherResponse.class), eq("istanbul"));
+    }
+    
+    @Test
+    @DisplayName("Should serve stale entry when upstream returns a server error")
+    void getCurrentWeather_ServerErrorWithinGrace_ServesStale() {
+        // Given
+        WeatherCacheProperties cacheProperties = new WeatherCacheProperties();
+        cacheProperties.setTtl(Duration.ZERO);
+        cacheProperties.setStaleIfError(Duration.ofMinutes(30));
+        weatherService = createService(cacheProperties);
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenReturn(mockWeatherResponse)
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        
+        // When
+        weatherService.getCurrentWeather("Istanbul");
+        WeatherResponse result = weatherService.getCurrentWeather("Istanbul");
+        
+        // Then
+        assertEquals(mockWeatherResponse, result);
+        assertThrows(RuntimeException.class, () -> weatherService.getWeatherForecast("Istanbul", 3));
+    }
+    
+    @Test
+    @DisplayName("Should serve stale entry without calling upstream while the circuit is open")
+    void getCurrentWeather_CircuitOpen_ServesStaleWithoutUpstreamCall() {
+        // Given
+        WeatherCacheProperties cacheProperties = new WeatherCacheProperties();
+        cacheProperties.setTtl(Duration.ZERO);
+        cacheProperties.setStaleIfError(Duration.ofMinutes(30));
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 2, 2, 0.5, Duration.ofMinutes(1),
+            Duration.ofMinutes(1), 1, UpstreamGuard::isUpstreamFailure, Clock.systemUTC());
+        weatherService = createService(cacheProperties, new UpstreamGuard(null, circuitBreaker));
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenReturn(mockWeatherResponse)
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        
+        // When
+        weatherService.getCurrentWeather("Istanbul");
+        weatherService.getCurrentWeather("Istanbul");
+        WeatherResponse result = weatherService.getCurrentWeather("Istanbul");
+        RuntimeException forecastError = assertThrows(RuntimeException.class,
+            () -> weatherService.getWeatherForecast("Istanbul", 3));
+        
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(mockWeatherResponse, result);
+        assertInstanceOf(UpstreamUnavailableException.class, forecastError.getCause());
+        verify(restTemplate, times(2)).getForObject(anyString(), eq(WeatherResponse.class), anyString());
+    }
+    
+    @Test
+    @DisplayName("Should complete async lookup with the fetched response")
+    void getCurrentWeatherAsync_Success() {
+        // Given
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), eq("Istanbul")))
+            .thenReturn(mockWeatherResponse);
+        
+        // When
+        CompletableFuture<WeatherResponse> result = weatherService.getCurrentWeatherAsync("Istanbul");
+        
+        // Then
+        assertEquals(mockWeatherResponse, result.join());
+    }
+    
+    @Test
+    @DisplayName("Should complete async cache hits inline and offload only misses")
+    void getCurrentWeatherAsync_CacheHit_CompletesWithoutExecutor() {
+        // Given
+        AtomicInteger offloaded = new AtomicInteger();
+        weatherService = createService(new WeatherCacheProperties(), UpstreamGuard.disabled(), task -> {
+            offloaded.incrementAndGet();
+            task.run();
+        });
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), eq("Istanbul")))
+            .thenReturn(mockWeatherResponse);
+        
+        // When
+        WeatherResponse miss = weatherService.getCurrentWeatherAsync("Istanbul").join();
+        CompletableFuture<WeatherResponse> hit = weatherService.getCurrentWeatherAsync("Istanbul");
+        
+        // Then
+        assertTrue(hit.isDone());
+        assertEquals(miss, hit.join());
+        assertEquals(1, offloaded.get());
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(WeatherResponse.class), eq("Istanbul"));
+    }
+    
+    @Test
+    @DisplayName("Should complete async forecast exceptionally on invalid days")
+    void getWeatherForecastAsync_InvalidDays_CompletesExceptionally() {
+        // When
+        CompletableFuture<WeatherResponse> result = weatherService.getWeatherForecastAsync("Istanbul", 0);
+        
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(RuntimeException.class, exception.getCause());
+        verifyNoInteractions(restTemplate);
+    }
+    
+    @Test
+    @DisplayName("Should cache weather summary between calls")
+    void getCurrentWeatherSummary_SecondCall_ServedFromCache() {
+        // Given
+        WeatherSummaryDto summary = new WeatherSummaryDto();
+        summary.setCity("Istanbul");
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(), any(), eq("Istanbul")))
+            .thenReturn(summary);
+        
+        // When
+        WeatherSummaryDto first = weatherService.getCurrentWeatherSummary("Istanbul");
+        WeatherSummaryDto second = weatherService.getCurrentWeatherSummary("Istanbul");
+        
+        // Then
+        assertSame(summary, first);
+        assertSame(summary, second);
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.GET), isNull(), any(), eq("Istanbul"));
+        verify(restTemplate, never()).getForObject(anyString(), eq(WeatherResponse.class), anyString());
+    }
+    
+    @Test
+    @DisplayName("Should throw exception for empty city name in summary")
+    void getCurrentWeatherSummary_EmptyCity_ThrowsException() {
+        // When & Then
+        assertThrows(RuntimeException.class, () -> weatherService.getCurrentWeatherSummary("  "));
+        verifyNoInteractions(restTemplate);
+    }
+    
+    @Test
+    @DisplayName("Should record request, upstream and cache metrics without city tags")
+    void getCurrentWeather_Success_RecordsMetrics() {
+        // Given
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenReturn(mockWeatherResponse);
+        
+        // When
+        weatherService.getCurrentWeather("Istanbul");
+        weatherService.getCurrentWeather("Istanbul");
+        
+        // Then
+        assertEquals(2, meterRegistry.get(WeatherMetrics.REQUESTS)
+            .tags("endpoint", "current", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(WeatherMetrics.UPSTREAM_REQUESTS)
+            .tags("endpoint", "current", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get(WeatherMetrics.CACHE_LOOKUPS)
+            .tags("cache", "test", "result", "hit").timer().count());
+        assertEquals(1, meterRegistry.get(WeatherMetrics.CACHE_LOOKUPS)
+            .tags("cache", "test", "result", "miss").timer().count());
+        assertTrue(meterRegistry.getMeters().stream()
+            .flatMap(meter -> meter.getId().getTags().stream())
+            .noneMatch(tag -> tag.getValue().contains("Istanbul")));
+    }
+    
+    @Test
+    @DisplayName("Should count errors by branch type")
+    void getCurrentWeather_ServerError_CountsServerError() {
+        // Given
+        when(restTemplate.getForObject(anyString(), eq(WeatherResponse.class), anyString()))
+            .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+        
+        // When
+        assertThrows(RuntimeException.class, () -> weatherService.getCurrentWeather("Istanbul"));
+        assertThrows(RuntimeException.class, () -> weatherService.getCurrentWeather(""));
+        
+        // Then
+        assertEquals(1, meterRegistry.get(WeatherMetrics.ERRORS)
+            .tags("endpoint", "current", "type", "server").counter().count());
+        assertEquals(0, meterRegistry.get(WeatherMetrics.ERRORS)
+            .tags("endpoint", "current", "type", "unexpected").counter().count());
+        assertEquals(1, meterRegistry.get(WeatherMetrics.UPSTREAM_REQUESTS)
+            .tags("endpoint", "current", "outcome", "server_error").timer().count());
+        assertEquals(1, meterRegistry.get(WeatherMetrics.REQUESTS)
+            .tags("endpoint", "current", "outcome", "invalid").timer().count());
+    }
+    
     private WeatherResponse createMockWeatherResponse() {
         // Create mock current condition
         CurrentCondition currentCondition = new CurrentCondition();
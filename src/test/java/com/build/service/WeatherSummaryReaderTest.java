@@ -0,0 +1,82 @@
+package com.build.service;
+
+import com.build.dto.WeatherSummaryDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WeatherSummaryReader Tests")
+class WeatherSummaryReaderTest {
+    
+    private static final String J1_PAYLOAD = """
+        {
+          "current_condition": [{
+            "FeelsLikeC": "24", "humidity": "65", "pressure": "1013",
+            "temp_C": "22", "temp_F": "72", "visibility": "10",
+            "weatherDesc": [{"value": "Partly cloudy"}],
+            "winddir16Point": "NW", "windspeedKmph": "15",
+            "weatherIconUrl": [{"value": ""}]
+          }],
+          "nearest_area": [{
+            "areaName": [{"value": "Istanbul"}],
+            "country": [{"value": "Turkey"}],
+            "latitude": "41.019", "longitude": "28.965"
+          }],
+          "request": [{"query": "Istanbul", "type": "City"}],
+          "weather": [{"date": "2025-09-28", "hourly": [{"tempC": "20"}, {"tempC": "21"}]}]
+        }
+        """;
+    
+    private final WeatherSummaryReader reader = new WeatherSummaryReader();
+    
+    @Test
+    @DisplayName("Should extract summary fields from j1 payload")
+    void read_J1Payload_ReturnsSummary() throws IOException {
+        // When
+        WeatherSummaryDto summary = reader.read(stream(J1_PAYLOAD));
+        
+        // Then
+        assertEquals("Istanbul", summary.getCity());
+        assertEquals("Turkey", summary.getCountry());
+        assertEquals("22", summary.getTemperatureC());
+        assertEquals("72", summary.getTemperatureF());
+        assertEquals("Partly cloudy", summary.getDescription());
+        assertEquals("65", summary.getHumidity());
+        assertEquals("15", summary.getWindSpeed());
+        assertEquals("NW", summary.getWindDirection());
+        assertEquals("24", summary.getFeelsLikeC());
+        assertEquals("10", summary.getVisibility());
+        assertEquals("1013", summary.getPressure());
+    }
+    
+    @Test
+    @DisplayName("Should stop reading once both objects are parsed")
+    void read_TruncatedAfterNeededObjects_ReturnsSummary() throws IOException {
+        // Given
+        String truncated = J1_PAYLOAD.substring(0, J1_PAYLOAD.indexOf("\"request\"")) + "\"weather\": [{\"date\":";
+        
+        // When
+        WeatherSummaryDto summary = reader.read(stream(truncated));
+        
+        // Then
+        assertEquals("Istanbul", summary.getCity());
+        assertEquals("22", summary.getTemperatureC());
+    }
+    
+    @Test
+    @DisplayName("Should return null for non-object payload")
+    void read_NonObject_ReturnsNull() throws IOException {
+        // When & Then
+        assertNull(reader.read(stream("[]")));
+        assertNull(reader.read(stream("")));
+    }
+    
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}